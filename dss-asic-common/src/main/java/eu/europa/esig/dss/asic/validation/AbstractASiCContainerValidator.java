@@ -31,6 +31,7 @@ import eu.europa.esig.dss.ASiCContainerType;
 import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestDocument;
 import eu.europa.esig.dss.asic.ASiCExtractResult;
 import eu.europa.esig.dss.asic.ASiCUtils;
 import eu.europa.esig.dss.asic.AbstractASiCContainerExtractor;
@@ -113,6 +114,7 @@ public abstract class AbstractASiCContainerValidator extends SignedDocumentValid
 			containerInfo.setMimeTypeFilePresent(false);
 		}
 
+		// only the entries of the container (not the completing detached contents)
 		List<DSSDocument> signedDocuments = extractResult.getSignedDocuments();
 		if (Utils.isCollectionNotEmpty(signedDocuments)) {
 			List<String> signedDocumentFilenames = new ArrayList<String>();
@@ -146,8 +148,34 @@ public abstract class AbstractASiCContainerValidator extends SignedDocumentValid
 		return extractResult.getSignatureDocuments();
 	}
 
+	/**
+	 * Returns the signed documents of the container. The detached {@code DigestDocument}s complete the container : a
+	 * client can send the container without the (large) signed files and their digests only. The other detached
+	 * contents are ignored, a signed file is never added to the container content.
+	 * 
+	 * @return the signed documents
+	 */
 	protected List<DSSDocument> getSignedDocuments() {
-		return extractResult.getSignedDocuments();
+		List<DSSDocument> containerDocuments = extractResult.getSignedDocuments();
+		if (Utils.isCollectionEmpty(detachedContents)) {
+			return containerDocuments;
+		}
+		List<DSSDocument> result = new ArrayList<DSSDocument>(containerDocuments);
+		for (DSSDocument detachedContent : detachedContents) {
+			if (detachedContent instanceof DigestDocument && !containsDocument(containerDocuments, detachedContent.getName())) {
+				result.add(detachedContent);
+			}
+		}
+		return result;
+	}
+
+	private boolean containsDocument(List<DSSDocument> documents, String name) {
+		for (DSSDocument document : documents) {
+			if (Utils.areStringsEqual(name, document.getName())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	protected List<DSSDocument> getManifestDocuments() {
@@ -0,0 +1,127 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DigestDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.RemoteDocument;
+import eu.europa.esig.dss.RemoteDocumentDigester;
+import eu.europa.esig.dss.RemoteDocumentDigester.DigestedContainer;
+import eu.europa.esig.dss.jaxb.diagnostic.XmlDigestMatcher;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.validation.reports.wrapper.DiagnosticData;
+import eu.europa.esig.dss.validation.reports.wrapper.SignatureWrapper;
+
+public class DigestOnlyASiCValidationTest {
+
+	@Test
+	public void asice() {
+		checkDigestOnlyValidation(new File("src/test/resources/validation/multifiles-ok.asice"));
+	}
+
+	@Test
+	public void asics() {
+		checkDigestOnlyValidation(new File("src/test/resources/validation/onefile-ok.asics"));
+	}
+
+	private void checkDigestOnlyValidation(File file) {
+		DiagnosticData fullValidation = validate(new FileDocument(file), null);
+
+		DigestedContainer digestedContainer = new RemoteDocumentDigester().digestContainer(file);
+		RemoteDocument reducedContainer = digestedContainer.getContainer();
+		assertTrue(reducedContainer.getBytes().length < file.length());
+		assertFalse(digestedContainer.getDigests().isEmpty());
+
+		DiagnosticData digestValidation = validate(new InMemoryDocument(reducedContainer.getBytes(), reducedContainer.getName()),
+				toDigestDocuments(digestedContainer.getDigests()));
+
+		// the container info only lists the entries of the container
+		assertTrue(Utils.isCollectionEmpty(digestValidation.getContainerInfo().getContentFiles()));
+		List<SignatureWrapper> signatures = digestValidation.getSignatures();
+		assertEquals(fullValidation.getSignatures().size(), signatures.size());
+		for (SignatureWrapper signature : signatures) {
+			assertTrue(signature.isSignatureIntact());
+			for (XmlDigestMatcher digestMatcher : signature.getDigestMatchers()) {
+				assertTrue(digestMatcher.isDataFound());
+				assertTrue(digestMatcher.isDataIntact());
+			}
+		}
+	}
+
+	@Test
+	public void otherDetachedContentIgnored() {
+		File file = new File("src/test/resources/validation/multifiles-ok.asice");
+		DiagnosticData fullValidation = validate(new FileDocument(file), null);
+
+		List<DSSDocument> detachedContents = new ArrayList<DSSDocument>();
+		detachedContents.add(new InMemoryDocument("Hello".getBytes(), "extra.txt"));
+		DiagnosticData detachedValidation = validate(new FileDocument(file), detachedContents);
+
+		assertEquals(fullValidation.getContainerInfo().getContentFiles(), detachedValidation.getContainerInfo().getContentFiles());
+		assertFalse(detachedValidation.getContainerInfo().getContentFiles().contains("extra.txt"));
+		assertEquals(fullValidation.getSignatures().size(), detachedValidation.getSignatures().size());
+	}
+
+	private DiagnosticData validate(DSSDocument document, List<DSSDocument> detachedContents) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(document);
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		if (detachedContents != null) {
+			validator.setDetachedContents(detachedContents);
+		}
+		Reports reports = validator.validateDocument();
+		return reports.getDiagnosticData();
+	}
+
+	/**
+	 * Same conversion as the remote services (the digests of a file are merged)
+	 */
+	private List<DSSDocument> toDigestDocuments(List<RemoteDocument> digests) {
+		Map<String, DigestDocument> documents = new LinkedHashMap<String, DigestDocument>();
+		for (RemoteDocument digest : digests) {
+			DigestDocument document = documents.get(digest.getName());
+			if (document == null) {
+				document = new DigestDocument();
+				document.setName(digest.getName());
+				documents.put(digest.getName(), document);
+			}
+			document.addDigest(digest.getDigestAlgorithm(), Utils.toBase64(digest.getBytes()));
+		}
+		return new ArrayList<DSSDocument>(documents.values());
+	}
+
+}
@@ -0,0 +1,439 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.KeyStore.PasswordProtection;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.client.crl.OnlineCRLSource;
+import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.client.http.commons.OCSPDataLoader;
+import eu.europa.esig.dss.client.http.commons.TimestampDataLoader;
+import eu.europa.esig.dss.client.ocsp.OnlineOCSPSource;
+import eu.europa.esig.dss.client.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.pki.PKISimulator;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.KeyStoreSignatureTokenConnection;
+import eu.europa.esig.dss.token.SignatureTokenConnection;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.x509.KeyStoreCertificateSource;
+
+/**
+ * The files used by the benchmarks. They are generated once with the {@code PKISimulator} (signed documents for each
+ * format and level, CRLs of various sizes, a LOTL and a trusted list) and stored in a directory which is reused by
+ * the next runs, so the results of two runs (or of two versions of DSS) are measured with the same inputs and without
+ * any network access.
+ * 
+ * The directory is given by the system property {@value #DIRECTORY_PROPERTY} ({@value #DEFAULT_DIRECTORY} by
+ * default). The {@link #main(String[])} method (re)generates the fixtures in a given directory.
+ */
+public final class BenchmarkFixtures {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BenchmarkFixtures.class);
+
+	public static final String DIRECTORY_PROPERTY = "dss.benchmarks.fixtures";
+
+	public static final String DEFAULT_DIRECTORY = "target/fixtures";
+
+	/**
+	 * The number of entries of the generated CRLs (the CRL benchmark parameters must be a subset)
+	 */
+	public static final int[] CRL_SIZES = { 10, 1000, 100000 };
+
+	static final String SIGNER = "signer";
+
+	private static final String DESCRIPTOR = "fixtures.properties";
+	private static final String PASSWORD_PROPERTY = "keystore.password";
+	private static final String TERRITORY_PROPERTY = "trusted-list.territory";
+	private static final String LOTL_TERRITORY_PROPERTY = "lotl.territory";
+	private static final String CREATION_PROPERTY = "creation.time";
+
+	private static final String ROOT_CA = "root-ca";
+	private static final String INTERMEDIATE_CA = "intermediate-ca";
+	private static final String CRL_CA = "crl-ca";
+	private static final String TSA = "tsa";
+
+	/**
+	 * Number of elements in the signed XML document (about 100 kB)
+	 */
+	private static final int XML_ELEMENTS = 2000;
+
+	private static BenchmarkFixtures instance;
+
+	private final File directory;
+
+	private final String keystorePassword;
+
+	private final String trustedListTerritory;
+
+	private final String lotlTerritory;
+
+	private BenchmarkFixtures(File directory, Properties descriptor) {
+		this.directory = directory;
+		this.keystorePassword = descriptor.getProperty(PASSWORD_PROPERTY);
+		this.trustedListTerritory = descriptor.getProperty(TERRITORY_PROPERTY);
+		this.lotlTerritory = descriptor.getProperty(LOTL_TERRITORY_PROPERTY);
+	}
+
+	/**
+	 * Returns the fixtures of the configured directory, generated on the first use
+	 * 
+	 * @return the fixtures
+	 */
+	public static synchronized BenchmarkFixtures getInstance() {
+		if (instance == null) {
+			File directory = new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY));
+			if (!new File(directory, DESCRIPTOR).exists()) {
+				generate(directory);
+			}
+			instance = load(directory);
+		}
+		return instance;
+	}
+
+	/**
+	 * Generates the fixtures
+	 * 
+	 * @param args
+	 *            the target directory (optional, {@value #DEFAULT_DIRECTORY} by default)
+	 */
+	public static void main(String[] args) {
+		generate(new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY));
+	}
+
+	private static BenchmarkFixtures load(File directory) {
+		Properties descriptor = new Properties();
+		try (InputStream is = new FileInputStream(new File(directory, DESCRIPTOR))) {
+			descriptor.load(is);
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the fixtures descriptor in '" + directory + "'", e);
+		}
+		LOG.info("Benchmark fixtures of {} loaded from '{}'", descriptor.getProperty(CREATION_PROPERTY), directory.getAbsolutePath());
+		return new BenchmarkFixtures(directory, descriptor);
+	}
+
+	/**
+	 * Generates all the fixtures in the given directory
+	 * 
+	 * @param directory
+	 *            the target directory
+	 */
+	static void generate(File directory) {
+		LOG.info("Generating the benchmark fixtures in '{}'", directory.getAbsolutePath());
+		try (PKISimulator pki = new PKISimulator()) {
+			pki.start();
+			pki.createRootCA(ROOT_CA);
+			pki.createCA(INTERMEDIATE_CA, ROOT_CA);
+			pki.createUser(SIGNER, INTERMEDIATE_CA);
+			pki.createTSA(TSA, ROOT_CA);
+			pki.createCA(CRL_CA, ROOT_CA);
+
+			DSSUtils.saveToFile(pki.getKeystore(SIGNER), new File(directory, SIGNER + ".p12"));
+			DSSUtils.saveToFile(pki.getTrustAnchorsKeystore(), new File(directory, PKISimulator.TRUST_ANCHORS + ".jks"));
+
+			generateSignatures(pki, directory);
+
+			DSSUtils.saveToFile(pki.getEntity(CRL_CA).getCertificate().getEncoded(), new File(directory, "crl/" + CRL_CA + ".crt"));
+			for (int size : CRL_SIZES) {
+				pki.setCrlSize(CRL_CA, size);
+				DSSUtils.saveToFile(pki.getCRL(CRL_CA), new File(directory, "crl/crl-" + size + ".crl"));
+			}
+
+			DSSUtils.saveToFile(pki.getLOTL(), new File(directory, "tl/" + PKISimulator.LOTL_FILENAME));
+			DSSUtils.saveToFile(pki.getTrustedList(), new File(directory, "tl/tl.xml"));
+			DSSUtils.saveToFile(pki.getLOTLSigningCertificate().getEncoded(), new File(directory, "tl/lotl-signer.crt"));
+			DSSUtils.saveToFile(pki.getTrustedListSigningCertificate().getEncoded(), new File(directory, "tl/tl-signer.crt"));
+
+			Properties descriptor = new Properties();
+			descriptor.setProperty(PASSWORD_PROPERTY, PKISimulator.DEFAULT_KEYSTORE_PASSWORD);
+			descriptor.setProperty(TERRITORY_PROPERTY, pki.getTrustedListTerritory());
+			descriptor.setProperty(LOTL_TERRITORY_PROPERTY, pki.getLOTLTerritory());
+			descriptor.setProperty(CREATION_PROPERTY, String.valueOf(new Date()));
+			try (OutputStream os = new FileOutputStream(new File(directory, DESCRIPTOR))) {
+				descriptor.store(os, "DSS benchmark fixtures");
+			}
+		} catch (IOException e) {
+			throw new DSSException("Unable to generate the benchmark fixtures", e);
+		}
+	}
+
+	private static void generateSignatures(PKISimulator pki, File directory) throws IOException {
+		CertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setDataLoader(new CommonsDataLoader());
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(new OCSPDataLoader());
+		certificateVerifier.setOcspSource(ocspSource);
+		certificateVerifier.setCrlSource(new OnlineCRLSource(new CommonsDataLoader()));
+		certificateVerifier.setTrustedCertSource(pki.getTrustedCertificateSource());
+
+		OnlineTSPSource tspSource = new OnlineTSPSource(pki.getTsaUrl(TSA));
+		tspSource.setDataLoader(new TimestampDataLoader());
+
+		DSSUtils.saveToFile(createXml(), new File(directory, "to-sign.xml"));
+		DSSUtils.saveToFile(createPdf(), new File(directory, "to-sign.pdf"));
+
+		try (KeyStoreSignatureTokenConnection token = pki.getToken(SIGNER)) {
+			DSSPrivateKeyEntry key = token.getKey(SIGNER);
+			for (SignatureFormat format : SignatureFormat.values()) {
+				DSSDocument toSign = new InMemoryDocument(DSSUtils.toByteArray(new File(directory, "to-sign." + format.getDocumentExtension())),
+						"to-sign." + format.getDocumentExtension());
+				for (String level : SignatureFormat.LEVELS) {
+					AbstractSignatureParameters parameters = createParameters(format, level, key);
+					DocumentSignatureService service = format.createService(certificateVerifier);
+					service.setTspSource(tspSource);
+					DSSDocument signed = sign(service, toSign, parameters, token, key);
+					DSSUtils.saveToFile(DSSUtils.toByteArray(signed), getSignedDocumentFile(directory, format, level));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the signature parameters of a format and a level for the given key
+	 */
+	static AbstractSignatureParameters createParameters(SignatureFormat format, String level, DSSPrivateKeyEntry key) {
+		AbstractSignatureParameters parameters = format.createParameters();
+		parameters.setSignatureLevel(format.getSignatureLevel(level));
+		parameters.setSigningCertificate(key.getCertificate());
+		parameters.setCertificateChain(key.getCertificateChain());
+		return parameters;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static DSSDocument sign(DocumentSignatureService service, DSSDocument toSign, AbstractSignatureParameters parameters,
+			SignatureTokenConnection token, DSSPrivateKeyEntry key) {
+		ToBeSigned dataToSign = service.getDataToSign(toSign, parameters);
+		SignatureValue signatureValue = token.sign(dataToSign, parameters.getDigestAlgorithm(), key);
+		return (DSSDocument) service.signDocument(toSign, parameters, signatureValue);
+	}
+
+	private static byte[] createXml() {
+		StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<invoices>\n");
+		for (int i = 0; i < XML_ELEMENTS; i++) {
+			sb.append("\t<invoice id=\"").append(i).append("\"><amount currency=\"EUR\">").append(i * 10).append(".00</amount></invoice>\n");
+		}
+		sb.append("</invoices>\n");
+		return sb.toString().getBytes();
+	}
+
+	private static byte[] createPdf() throws IOException {
+		try (PDDocument document = new PDDocument(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			for (int i = 0; i < 10; i++) {
+				PDPage page = new PDPage();
+				document.addPage(page);
+				try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+					content.beginText();
+					content.setFont(PDType1Font.HELVETICA, 12);
+					content.newLineAtOffset(72, 720);
+					content.showText("DSS benchmark document, page " + (i + 1));
+					content.endText();
+				}
+			}
+			document.save(baos);
+			return baos.toByteArray();
+		}
+	}
+
+	private static File getSignedDocumentFile(File directory, SignatureFormat format, String level) {
+		return new File(directory, "signed/" + format.name() + "-" + level + "." + format.getSignatureExtension());
+	}
+
+	/**
+	 * Returns the directory of the fixtures
+	 * 
+	 * @return the directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	private DSSDocument getDocument(File file) {
+		return new InMemoryDocument(DSSUtils.toByteArray(file), file.getName());
+	}
+
+	/**
+	 * Returns the document to be signed with the given format (loaded in memory)
+	 * 
+	 * @param format
+	 *            the signature format
+	 * @return the document to sign
+	 */
+	public DSSDocument getDocumentToSign(SignatureFormat format) {
+		return getDocument(new File(directory, "to-sign." + format.getDocumentExtension()));
+	}
+
+	/**
+	 * Returns a signed document (loaded in memory)
+	 * 
+	 * @param format
+	 *            the signature format
+	 * @param level
+	 *            the baseline level (B, T, LT or LTA)
+	 * @return the signed document
+	 */
+	public DSSDocument getSignedDocument(SignatureFormat format, String level) {
+		return getDocument(getSignedDocumentFile(directory, format, level));
+	}
+
+	/**
+	 * Returns the token with the private key of the signer (alias {@value #SIGNER})
+	 * 
+	 * @return the signature token
+	 */
+	public KeyStoreSignatureTokenConnection getSigningToken() {
+		return new KeyStoreSignatureTokenConnection(DSSUtils.toByteArray(new File(directory, SIGNER + ".p12")), "PKCS12",
+				new PasswordProtection(keystorePassword.toCharArray()));
+	}
+
+	/**
+	 * Returns the root CAs of the generated PKI
+	 * 
+	 * @return the trusted certificate source
+	 */
+	public CommonTrustedCertificateSource getTrustedCertificateSource() {
+		try {
+			CommonTrustedCertificateSource trustedCertificateSource = new CommonTrustedCertificateSource();
+			trustedCertificateSource.importAsTrusted(
+					new KeyStoreCertificateSource(new File(directory, PKISimulator.TRUST_ANCHORS + ".jks"), "JKS", keystorePassword));
+			return trustedCertificateSource;
+		} catch (IOException e) {
+			throw new DSSException("Unable to load the trust anchors", e);
+		}
+	}
+
+	/**
+	 * Returns a certificate verifier which trusts the generated PKI without any online source : the validation only
+	 * uses the revocation data embedded in the signatures, so the measures do not depend on the network
+	 * 
+	 * @return the certificate verifier
+	 */
+	public CertificateVerifier createOfflineCertificateVerifier() {
+		CertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setTrustedCertSource(getTrustedCertificateSource());
+		return certificateVerifier;
+	}
+
+	/**
+	 * Returns a CRL with the given number of entries
+	 * 
+	 * @param size
+	 *            one of {@link #CRL_SIZES}
+	 * @return the DER encoded CRL
+	 */
+	public byte[] getCRL(int size) {
+		File file = new File(directory, "crl/crl-" + size + ".crl");
+		if (!file.exists()) {
+			throw new DSSException("No CRL with " + size + " entries in the fixtures (available sizes : " + Arrays.toString(CRL_SIZES) + ")");
+		}
+		return DSSUtils.toByteArray(file);
+	}
+
+	/**
+	 * Returns the issuer of the CRLs
+	 * 
+	 * @return the CRL issuer
+	 */
+	public CertificateToken getCRLIssuer() {
+		return DSSUtils.loadCertificate(new File(directory, "crl/" + CRL_CA + ".crt"));
+	}
+
+	/**
+	 * Returns the signed LOTL
+	 * 
+	 * @return the LOTL
+	 */
+	public DSSDocument getLOTL() {
+		return getDocument(new File(directory, "tl/" + PKISimulator.LOTL_FILENAME));
+	}
+
+	/**
+	 * Returns the signer of the LOTL
+	 * 
+	 * @return the LOTL signing certificate
+	 */
+	public CertificateToken getLOTLSigner() {
+		return DSSUtils.loadCertificate(new File(directory, "tl/lotl-signer.crt"));
+	}
+
+	/**
+	 * Returns the territory of the LOTL
+	 * 
+	 * @return the territory code
+	 */
+	public String getLOTLTerritory() {
+		return lotlTerritory;
+	}
+
+	/**
+	 * Returns the signed trusted list
+	 * 
+	 * @return the trusted list
+	 */
+	public DSSDocument getTrustedList() {
+		return getDocument(new File(directory, "tl/tl.xml"));
+	}
+
+	/**
+	 * Returns the signer of the trusted list
+	 * 
+	 * @return the trusted list signing certificate
+	 */
+	public CertificateToken getTrustedListSigner() {
+		return DSSUtils.loadCertificate(new File(directory, "tl/tl-signer.crt"));
+	}
+
+	/**
+	 * Returns the territory of the trusted list
+	 * 
+	 * @return the two letters territory
+	 */
+	public String getTrustedListTerritory() {
+		return trustedListTerritory;
+	}
+
+}
@@ -0,0 +1,93 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.cert.X509CRLEntry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.europa.esig.dss.crl.CRLUtilsStreamImpl;
+import eu.europa.esig.dss.crl.CRLUtilsX509CRLImpl;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.crl.ICRLUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * CRL verification with the two available parsers (the streaming one and the one based on the JDK
+ * {@code X509CRL}), without and with the lookup of a serial number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CRLBenchmark {
+
+	@Param({ "stream", "x509crl" })
+	public String parser;
+
+	/**
+	 * Must be one of {@link BenchmarkFixtures#CRL_SIZES}
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	private ICRLUtils crlUtils;
+
+	private byte[] crl;
+
+	private CertificateToken issuer;
+
+	@Setup
+	public void setUp() {
+		crlUtils = "stream".equals(parser) ? new CRLUtilsStreamImpl() : new CRLUtilsX509CRLImpl();
+		BenchmarkFixtures fixtures = BenchmarkFixtures.getInstance();
+		crl = fixtures.getCRL(size);
+		issuer = fixtures.getCRLIssuer();
+	}
+
+	@Benchmark
+	public CRLValidity isValidCRL() throws IOException {
+		return crlUtils.isValidCRL(new ByteArrayInputStream(crl), issuer);
+	}
+
+	@Benchmark
+	public X509CRLEntry getRevocationInfo() throws IOException {
+		CRLValidity crlValidity = crlUtils.isValidCRL(new ByteArrayInputStream(crl), issuer);
+		// the issuer is not revoked : the whole list is scanned
+		return crlUtils.getRevocationInfo(crlValidity, issuer.getSerialNumber());
+	}
+
+}
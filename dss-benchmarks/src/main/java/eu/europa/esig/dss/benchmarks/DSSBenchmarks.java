@@ -0,0 +1,59 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. It accepts the usual JMH command line options (eg : a regular expression to
+ * select the benchmarks, "-rf json" to keep the results) and always enables the GC profiler, so each result comes
+ * with its allocation rate (gc.alloc.rate.norm : bytes allocated per operation).
+ * 
+ * <pre>
+ * mvn install -P benchmarks -Dmaven.test.skip=true
+ * java -jar dss-benchmarks/target/benchmarks.jar [ValidationBenchmark] [-rf json]
+ * </pre>
+ * 
+ * The fixtures are generated in the first run (see {@link BenchmarkFixtures}) and passed to the forked JVMs.
+ */
+public final class DSSBenchmarks {
+
+	private DSSBenchmarks() {
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		String fixturesDirectory = BenchmarkFixtures.getInstance().getDirectory().getAbsolutePath();
+
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend("-D" + BenchmarkFixtures.DIRECTORY_PROPERTY + "=" + fixturesDirectory)
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * XML marshalling of the reports of an LTA signature. The XML strings are cached by the reports, so a new
+ * {@code Reports} is created around the same JAXB objects for each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportsBenchmark {
+
+	@Param({ "XADES", "PADES" })
+	public SignatureFormat format;
+
+	@Param({ "false", "true" })
+	public boolean validateXml;
+
+	private Reports reports;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = BenchmarkFixtures.getInstance();
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(fixtures.getSignedDocument(format, "LTA"));
+		validator.setCertificateVerifier(fixtures.createOfflineCertificateVerifier());
+		reports = validator.validateDocument();
+	}
+
+	private Reports newReports() {
+		Reports newReports = new Reports(reports.getDiagnosticDataJaxb(), reports.getDetailedReportJaxb(), reports.getSimpleReportJaxb());
+		newReports.setValidateXml(validateXml);
+		return newReports;
+	}
+
+	@Benchmark
+	public String getXmlDiagnosticData() {
+		return newReports().getXmlDiagnosticData();
+	}
+
+	@Benchmark
+	public String getXmlDetailedReport() {
+		return newReports().getXmlDetailedReport();
+	}
+
+	@Benchmark
+	public String getXmlSimpleReport() {
+		return newReports().getXmlSimpleReport();
+	}
+
+}
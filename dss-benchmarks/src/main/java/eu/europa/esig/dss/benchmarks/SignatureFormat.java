@@ -0,0 +1,177 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import eu.europa.esig.dss.ASiCContainerType;
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignaturePackaging;
+import eu.europa.esig.dss.asic.ASiCWithCAdESSignatureParameters;
+import eu.europa.esig.dss.asic.ASiCWithXAdESSignatureParameters;
+import eu.europa.esig.dss.asic.signature.ASiCWithCAdESService;
+import eu.europa.esig.dss.asic.signature.ASiCWithXAdESService;
+import eu.europa.esig.dss.cades.CAdESSignatureParameters;
+import eu.europa.esig.dss.cades.signature.CAdESService;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+
+/**
+ * The signature formats covered by the benchmarks, with the parameters and the service used to create the fixtures
+ * and to measure the signature creation
+ */
+@SuppressWarnings("rawtypes")
+public enum SignatureFormat {
+
+	XADES("XAdES", "xml", "xml") {
+
+		@Override
+		AbstractSignatureParameters createParameters() {
+			XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+			parameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+			return parameters;
+		}
+
+		@Override
+		DocumentSignatureService createService(CertificateVerifier certificateVerifier) {
+			return new XAdESService(certificateVerifier);
+		}
+
+	},
+
+	CADES("CAdES", "xml", "p7m") {
+
+		@Override
+		AbstractSignatureParameters createParameters() {
+			CAdESSignatureParameters parameters = new CAdESSignatureParameters();
+			parameters.setSignaturePackaging(SignaturePackaging.ENVELOPING);
+			return parameters;
+		}
+
+		@Override
+		DocumentSignatureService createService(CertificateVerifier certificateVerifier) {
+			return new CAdESService(certificateVerifier);
+		}
+
+	},
+
+	PADES("PAdES", "pdf", "pdf") {
+
+		@Override
+		AbstractSignatureParameters createParameters() {
+			PAdESSignatureParameters parameters = new PAdESSignatureParameters();
+			parameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+			return parameters;
+		}
+
+		@Override
+		DocumentSignatureService createService(CertificateVerifier certificateVerifier) {
+			return new PAdESService(certificateVerifier);
+		}
+
+	},
+
+	ASIC_E_XADES("XAdES", "xml", "asice") {
+
+		@Override
+		AbstractSignatureParameters createParameters() {
+			ASiCWithXAdESSignatureParameters parameters = new ASiCWithXAdESSignatureParameters();
+			parameters.aSiC().setContainerType(ASiCContainerType.ASiC_E);
+			return parameters;
+		}
+
+		@Override
+		DocumentSignatureService createService(CertificateVerifier certificateVerifier) {
+			return new ASiCWithXAdESService(certificateVerifier);
+		}
+
+	},
+
+	ASIC_E_CADES("CAdES", "xml", "asice") {
+
+		@Override
+		AbstractSignatureParameters createParameters() {
+			ASiCWithCAdESSignatureParameters parameters = new ASiCWithCAdESSignatureParameters();
+			parameters.aSiC().setContainerType(ASiCContainerType.ASiC_E);
+			return parameters;
+		}
+
+		@Override
+		DocumentSignatureService createService(CertificateVerifier certificateVerifier) {
+			return new ASiCWithCAdESService(certificateVerifier);
+		}
+
+	};
+
+	/**
+	 * The baseline levels covered by the benchmarks
+	 */
+	static final String[] LEVELS = { "B", "T", "LT", "LTA" };
+
+	private final String signatureForm;
+
+	private final String documentExtension;
+
+	private final String signatureExtension;
+
+	SignatureFormat(String signatureForm, String documentExtension, String signatureExtension) {
+		this.signatureForm = signatureForm;
+		this.documentExtension = documentExtension;
+		this.signatureExtension = signatureExtension;
+	}
+
+	/**
+	 * Returns the extension of the document to be signed ("xml" or "pdf")
+	 * 
+	 * @return the extension
+	 */
+	public String getDocumentExtension() {
+		return documentExtension;
+	}
+
+	/**
+	 * Returns the extension of the signed document
+	 * 
+	 * @return the extension
+	 */
+	public String getSignatureExtension() {
+		return signatureExtension;
+	}
+
+	/**
+	 * Returns the baseline signature level of this format
+	 * 
+	 * @param level
+	 *            one of {@link #LEVELS}
+	 * @return the signature level
+	 */
+	public SignatureLevel getSignatureLevel(String level) {
+		return SignatureLevel.valueOf(signatureForm + "_BASELINE_" + level);
+	}
+
+	abstract AbstractSignatureParameters createParameters();
+
+	abstract DocumentSignatureService createService(CertificateVerifier certificateVerifier);
+
+}
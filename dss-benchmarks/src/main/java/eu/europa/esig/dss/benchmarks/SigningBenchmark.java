@@ -0,0 +1,104 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.KeyStoreSignatureTokenConnection;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+
+/**
+ * The two server-side steps of a baseline B signature : the computation of the data to be signed and the
+ * incorporation of the signature value. The signing date is fixed for the trial, so the signature value computed at
+ * set-up stays valid for each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class SigningBenchmark {
+
+	@Param({ "XADES", "CADES", "PADES", "ASIC_E_XADES", "ASIC_E_CADES" })
+	public SignatureFormat format;
+
+	private KeyStoreSignatureTokenConnection token;
+
+	private DocumentSignatureService service;
+
+	private AbstractSignatureParameters parameters;
+
+	private DSSDocument toSign;
+
+	private SignatureValue signatureValue;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = BenchmarkFixtures.getInstance();
+		token = fixtures.getSigningToken();
+		DSSPrivateKeyEntry key = token.getKey(BenchmarkFixtures.SIGNER);
+		toSign = fixtures.getDocumentToSign(format);
+		parameters = BenchmarkFixtures.createParameters(format, "B", key);
+		parameters.bLevel().setSigningDate(new Date());
+		service = format.createService(new CommonCertificateVerifier());
+
+		ToBeSigned dataToSign = service.getDataToSign(toSign, parameters);
+		signatureValue = token.sign(dataToSign, parameters.getDigestAlgorithm(), key);
+	}
+
+	@TearDown
+	public void tearDown() {
+		token.close();
+	}
+
+	@Benchmark
+	public ToBeSigned getDataToSign() {
+		return service.getDataToSign(toSign, parameters);
+	}
+
+	@Benchmark
+	public DSSDocument signDocument() {
+		return (DSSDocument) service.signDocument(toSign, parameters, signatureValue);
+	}
+
+}
@@ -0,0 +1,124 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
+import eu.europa.esig.dss.tsl.service.TSLParser;
+import eu.europa.esig.dss.tsl.service.TSLStreamingParser;
+import eu.europa.esig.dss.tsl.service.TSLValidator;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * Parsing and signature validation of the LOTL and of a trusted list, as done for each list by the
+ * {@code TSLValidationJob}, with the JAXB parser followed by a separate validation or with the streaming parser
+ * fed by the validation pass. The heap cost of each variant is given by the {@code gc.alloc.rate.norm} metric.
+ * 
+ * A real trusted list can be measured with {@code -p file=/path/to/tl.xml} (its signature is then validated
+ * without any potential signer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrustedListBenchmark {
+
+	@Param({ "LOTL", "TL" })
+	public String list;
+
+	@Param({ "" })
+	public String file;
+
+	private DSSDocument document;
+
+	private String territory;
+
+	private List<CertificateToken> potentialSigners;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkFixtures fixtures = BenchmarkFixtures.getInstance();
+		if (!file.isEmpty()) {
+			document = new FileDocument(file);
+			territory = new TSLParser(document).call().getTerritory();
+			potentialSigners = Collections.emptyList();
+		} else if ("LOTL".equals(list)) {
+			document = fixtures.getLOTL();
+			territory = fixtures.getLOTLTerritory();
+			potentialSigners = Collections.singletonList(fixtures.getLOTLSigner());
+		} else {
+			document = fixtures.getTrustedList();
+			territory = fixtures.getTrustedListTerritory();
+			potentialSigners = Collections.singletonList(fixtures.getTrustedListSigner());
+		}
+	}
+
+	@Benchmark
+	public TSLParserResult parse() throws Exception {
+		return new TSLParser(document).call();
+	}
+
+	@Benchmark
+	public TSLValidationResult validate() throws Exception {
+		return new TSLValidator(document, territory, potentialSigners).call();
+	}
+
+	@Benchmark
+	public TSLParserResult parseStreaming() throws Exception {
+		return new TSLStreamingParser(document).call();
+	}
+
+	@Benchmark
+	public TSLParserResult parseAndValidate() throws Exception {
+		new TSLValidator(document, territory, potentialSigners).call();
+		return new TSLParser(document).call();
+	}
+
+	@Benchmark
+	public TSLParserResult parseAndValidateStreaming() throws Exception {
+		TSLStreamingParser parser = new TSLStreamingParser(document);
+		TSLValidator validator = new TSLValidator(document, territory, potentialSigners);
+		validator.setDocumentListener(parser);
+		validator.call();
+		return parser.getResult();
+	}
+
+}
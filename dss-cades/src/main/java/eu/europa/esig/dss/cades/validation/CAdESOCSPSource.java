@@ -57,6 +57,8 @@ public class CAdESOCSPSource extends OfflineOCSPSource {
 	private CMSSignedData cmsSignedData;
 	private SignerInformation signerInformation;
 
+	private List<BasicOCSPResp> containedOCSPResponses;
+
 	/**
 	 * The default constructor for CAdESOCSPSource.
 	 *
@@ -72,6 +74,13 @@ public class CAdESOCSPSource extends OfflineOCSPSource {
 
 	@Override
 	public List<BasicOCSPResp> getContainedOCSPResponses() {
+		if (containedOCSPResponses == null) {
+			containedOCSPResponses = extractOCSPResponses();
+		}
+		return containedOCSPResponses;
+	}
+
+	private List<BasicOCSPResp> extractOCSPResponses() {
 
 		final List<BasicOCSPResp> basicOCSPResps = new ArrayList<BasicOCSPResp>();
 		// Add OCSPs from SignedData
@@ -40,6 +40,7 @@ import static org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers.id_aa_signingCert
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.security.PublicKey;
 import java.util.ArrayList;
@@ -129,6 +130,7 @@ import eu.europa.esig.dss.DigestDocument;
 import eu.europa.esig.dss.EncryptionAlgorithm;
 import eu.europa.esig.dss.InMemoryDocument;
 import eu.europa.esig.dss.MaskGenerationFunction;
+import eu.europa.esig.dss.MessageDigestOutputStream;
 import eu.europa.esig.dss.OID;
 import eu.europa.esig.dss.SignatureAlgorithm;
 import eu.europa.esig.dss.SignatureForm;
@@ -781,6 +783,15 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		return DSSUtils.toByteArray(getOriginalDocument());
 	}
 
+	@Override
+	protected void matchContentTimestampData(final TimestampToken timestampToken) {
+		try (InputStream is = getOriginalDocument().openStream()) {
+			timestampToken.matchDataStream(is);
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the original document", e);
+		}
+	}
+
 	@Override
 	public List<TimestampToken> getContentTimestamps() {
 
@@ -1506,6 +1517,23 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		return archiveTimestampData;
 	}
 
+	@Override
+	protected void matchArchiveTimestampData(final TimestampToken timestampToken) {
+		if (ArchiveTimestampType.CAdES_V2 != timestampToken.getArchiveTimestampType()) {
+			super.matchArchiveTimestampData(timestampToken);
+			return;
+		}
+		/*
+		 * Same fallback as in getArchiveTimestampData, but the (possibly large) detached content is digested on the fly
+		 * instead of being concatenated in memory
+		 */
+		byte[] archiveTimestampDigest = getArchiveTimestampDigestV2(timestampToken, true);
+		if (!timestampToken.matchDigest(archiveTimestampDigest, true)) {
+			archiveTimestampDigest = getArchiveTimestampDigestV2(timestampToken, false);
+		}
+		timestampToken.matchDigest(archiveTimestampDigest);
+	}
+
 	private byte[] getArchiveTimestampDataV3(final TimestampToken timestampToken) throws DSSException {
 
 		final CadesLevelBaselineLTATimestampExtractor timestampExtractor = new CadesLevelBaselineLTATimestampExtractor(this);
@@ -1590,8 +1618,39 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	 * @throws DSSException
 	 */
 	private byte[] getArchiveTimestampDataV2(TimestampToken timestampToken, boolean includeUnsignedAttrsTagAndLength) throws DSSException {
+		try (ByteArrayOutputStream data = new ByteArrayOutputStream()) {
+			if (writeArchiveTimestampDataV2(timestampToken, includeUnsignedAttrsTagAndLength, data)) {
+				return data.toByteArray();
+			}
+			return DSSUtils.EMPTY_BYTE_ARRAY;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
 
-		try (ByteArrayOutputStream data = new ByteArrayOutputStream(); ByteArrayOutputStream signerByteArrayOutputStream = new ByteArrayOutputStream()) {
+	/**
+	 * Computes the digest of the archive-timestamp-v2 data (see
+	 * {@link #getArchiveTimestampDataV2(TimestampToken, boolean)}) with the digest algorithm of the timestamp,
+	 * without building the data in memory.
+	 */
+	private byte[] getArchiveTimestampDigestV2(TimestampToken timestampToken, boolean includeUnsignedAttrsTagAndLength) throws DSSException {
+		final DigestAlgorithm digestAlgorithm = timestampToken.getSignedDataDigestAlgo();
+		final MessageDigestOutputStream data = new MessageDigestOutputStream(digestAlgorithm);
+		if (writeArchiveTimestampDataV2(timestampToken, includeUnsignedAttrsTagAndLength, data)) {
+			return data.getDigestValue();
+		}
+		return DSSUtils.digest(digestAlgorithm, DSSUtils.EMPTY_BYTE_ARRAY);
+	}
+
+	/**
+	 * Writes the archive-timestamp-v2 data to the given {@code OutputStream}
+	 * 
+	 * @return false if the data cannot be computed (the content of the stream must be ignored)
+	 */
+	private boolean writeArchiveTimestampDataV2(TimestampToken timestampToken, boolean includeUnsignedAttrsTagAndLength, OutputStream data)
+			throws DSSException {
+
+		try (ByteArrayOutputStream signerByteArrayOutputStream = new ByteArrayOutputStream()) {
 
 			final ContentInfo contentInfo = cmsSignedData.toASN1Structure();
 			final SignedData signedData = SignedData.getInstance(contentInfo.getContent());
@@ -1611,10 +1670,7 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 				 * Detached signatures have either no encapContentInfo in signedData, or it
 				 * exists but has no eContent
 				 */
-				byte[] originalDocumentBinaries = DSSUtils.toByteArray(getOriginalDocument());
-				if (Utils.isArrayNotEmpty(originalDocumentBinaries)) {
-					data.write(originalDocumentBinaries);
-				} else {
+				if (writeOriginalDocument(data) == 0) {
 					throw new DSSException("Signature is detached and no original data provided.");
 				}
 			}
@@ -1661,8 +1717,7 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 			}
 			data.write(signerInfoBytes);
 
-			final byte[] result = data.toByteArray();
-			return result;
+			return true;
 
 		} catch (IOException e) {
 			throw new DSSException(e);
@@ -1670,7 +1725,22 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 			// When error in computing or in format the algorithm just
 			// continues.
 			LOG.warn("When error in computing or in format the algorithm just continue...", e);
-			return DSSUtils.EMPTY_BYTE_ARRAY;
+			return false;
+		}
+	}
+
+	private long writeOriginalDocument(OutputStream os) throws DSSException {
+		try (InputStream is = getOriginalDocument().openStream()) {
+			final byte[] buffer = new byte[8192];
+			long count = 0;
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				os.write(buffer, 0, read);
+				count += read;
+			}
+			return count;
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the original document", e);
 		}
 	}
 
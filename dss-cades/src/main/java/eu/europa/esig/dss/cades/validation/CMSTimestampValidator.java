@@ -21,6 +21,7 @@
 package eu.europa.esig.dss.cades.validation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,7 +30,6 @@ import org.bouncycastle.tsp.TimeStampToken;
 
 import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
-import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.validation.AdvancedSignature;
 import eu.europa.esig.dss.validation.TimestampToken;
 import eu.europa.esig.dss.validation.TimestampValidator;
@@ -63,7 +63,11 @@ public class CMSTimestampValidator extends CMSDocumentValidator implements Times
 	@Override
 	public TimestampToken getTimestamp() {
 		TimestampToken timestampToken = new TimestampToken(bcToken, type, validationCertPool);
-		timestampToken.matchData(DSSUtils.toByteArray(timestampedData));
+		try (InputStream is = timestampedData.openStream()) {
+			timestampToken.matchDataStream(is);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
 		return timestampToken;
 	}
 
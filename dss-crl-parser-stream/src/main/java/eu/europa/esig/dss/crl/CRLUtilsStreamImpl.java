@@ -33,6 +33,7 @@ import java.security.PublicKey;
 import java.security.cert.X509CRLEntry;
 import java.text.MessageFormat;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
 
 import javax.crypto.Cipher;
 import javax.security.auth.x500.X500Principal;
@@ -50,8 +51,8 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.SignatureAlgorithm;
-import eu.europa.esig.dss.tsl.KeyUsageBit;
 import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.SignatureVerificationCache;
 
 public class CRLUtilsStreamImpl extends AbstractCRLUtils implements ICRLUtils {
 
@@ -85,7 +86,7 @@ public class CRLUtilsStreamImpl extends AbstractCRLUtils implements ICRLUtils {
 				crlValidity.setIssuerX509PrincipalMatches(true);
 			}
 
-			checkSignatureValue(crlValidity, crlInfos.getSignatureValue(), digest, issuerToken);
+			checkSignatureValue(crlValidity, issuerToken, getSignatureVerifier(crlInfos.getSignatureValue(), digest, issuerToken));
 		}
 		return crlValidity;
 	}
@@ -110,27 +111,30 @@ public class CRLUtilsStreamImpl extends AbstractCRLUtils implements ICRLUtils {
 		return crlEntry;
 	}
 
-	private void checkSignatureValue(CRLValidity crlValidity, byte[] signatureValue, byte[] expectedDigest, CertificateToken signer) {
-		byte[] extractedDigest = null;
-		try {
-			extractedDigest = getSignedDigest(signatureValue, signer);
-		} catch (GeneralSecurityException | IOException e) {
-			crlValidity.setSignatureInvalidityReason(e.getClass().getSimpleName() + " - " + e.getMessage());
-			return;
-		}
-
-		if (Arrays.equals(expectedDigest, extractedDigest)) {
-			crlValidity.setSignatureIntact(true);
-			crlValidity.setIssuerToken(signer);
-			crlValidity.setCrlSignKeyUsage(signer.checkKeyUsage(KeyUsageBit.crlSign));
-		} else {
-			String extractedDigestString = extractedDigest == null ? "" : Hex.toHexString(extractedDigest);
-			String expectedDigestString = expectedDigest == null ? "" : Hex.toHexString(expectedDigest);
-			String message = MessageFormat.format("Signed digest ''{0}'' and computed digest ''{1}'' don''t match",
-					new Object[] { extractedDigestString, expectedDigestString });
-			crlValidity.setSignatureInvalidityReason(message);
-			LOG.warn(message);
-		}
+	private Callable<SignatureVerificationCache.Result> getSignatureVerifier(final byte[] signatureValue, final byte[] expectedDigest,
+			final CertificateToken signer) {
+		return new Callable<SignatureVerificationCache.Result>() {
+			@Override
+			public SignatureVerificationCache.Result call() {
+				byte[] extractedDigest = null;
+				try {
+					extractedDigest = getSignedDigest(signatureValue, signer);
+				} catch (GeneralSecurityException | IOException e) {
+					return new SignatureVerificationCache.Result(false, e.getClass().getSimpleName() + " - " + e.getMessage());
+				}
+
+				if (Arrays.equals(expectedDigest, extractedDigest)) {
+					return new SignatureVerificationCache.Result(true, null);
+				} else {
+					String extractedDigestString = extractedDigest == null ? "" : Hex.toHexString(extractedDigest);
+					String expectedDigestString = expectedDigest == null ? "" : Hex.toHexString(expectedDigest);
+					String message = MessageFormat.format("Signed digest ''{0}'' and computed digest ''{1}'' don''t match",
+							new Object[] { extractedDigestString, expectedDigestString });
+					LOG.warn(message);
+					return new SignatureVerificationCache.Result(false, message);
+				}
+			}
+		};
 	}
 
 	private byte[] recomputeDigest(ByteArrayOutputStream baos, MessageDigest messageDigest) throws IOException {
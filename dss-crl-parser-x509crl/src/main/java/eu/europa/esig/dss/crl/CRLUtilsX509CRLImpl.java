@@ -32,6 +32,7 @@ import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
 import java.security.cert.X509CRLEntry;
+import java.util.concurrent.Callable;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -42,8 +43,8 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.SignatureAlgorithm;
-import eu.europa.esig.dss.tsl.KeyUsageBit;
 import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.SignatureVerificationCache;
 
 public class CRLUtilsX509CRLImpl extends AbstractCRLUtils implements ICRLUtils {
 
@@ -107,23 +108,24 @@ public class CRLUtilsX509CRLImpl extends AbstractCRLUtils implements ICRLUtils {
 		checkCriticalExtensions(crlValidity, x509CRL.getCriticalExtensionOIDs(), x509CRL.getExtensionValue(Extension.issuingDistributionPoint.getId()));
 		extractExpiredCertsOnCRL(crlValidity, x509CRL.getExtensionValue(Extension.expiredCertsOnCRL.getId()));
 
-		checkSignatureValue(x509CRL, issuerToken, crlValidity);
-		if (crlValidity.isSignatureIntact()) {
-			crlValidity.setCrlSignKeyUsage(issuerToken.checkKeyUsage(KeyUsageBit.crlSign));
-		}
+		checkSignatureValue(crlValidity, issuerToken, getSignatureVerifier(x509CRL, issuerToken));
 		return crlValidity;
 	}
 
-	private void checkSignatureValue(final X509CRL x509CRL, final CertificateToken issuerToken, final CRLValidity crlValidity) {
-		try {
-			x509CRL.verify(issuerToken.getPublicKey());
-			crlValidity.setSignatureIntact(true);
-			crlValidity.setIssuerToken(issuerToken);
-		} catch (KeyException | CRLException | NoSuchAlgorithmException | SignatureException e) {
-			crlValidity.setSignatureInvalidityReason(e.getClass().getSimpleName() + " - " + e.getMessage());
-		} catch (NoSuchProviderException e) {
-			throw new DSSException(e);
-		}
+	private Callable<SignatureVerificationCache.Result> getSignatureVerifier(final X509CRL x509CRL, final CertificateToken issuerToken) {
+		return new Callable<SignatureVerificationCache.Result>() {
+			@Override
+			public SignatureVerificationCache.Result call() {
+				try {
+					x509CRL.verify(issuerToken.getPublicKey());
+					return new SignatureVerificationCache.Result(true, null);
+				} catch (KeyException | CRLException | NoSuchAlgorithmException | SignatureException e) {
+					return new SignatureVerificationCache.Result(false, e.getClass().getSimpleName() + " - " + e.getMessage());
+				} catch (NoSuchProviderException e) {
+					throw new DSSException(e);
+				}
+			}
+		};
 	}
 
 	@Override
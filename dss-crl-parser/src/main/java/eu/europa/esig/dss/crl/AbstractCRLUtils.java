@@ -20,7 +20,9 @@
  */
 package eu.europa.esig.dss.crl;
 
+import java.security.MessageDigest;
 import java.util.Collection;
+import java.util.concurrent.Callable;
 
 import org.bouncycastle.asn1.ASN1GeneralizedTime;
 import org.bouncycastle.asn1.ASN1OctetString;
@@ -36,10 +38,57 @@ import org.bouncycastle.asn1.x509.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.Digest;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.TokenIdentifier;
+import eu.europa.esig.dss.tsl.KeyUsageBit;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.SignatureVerificationCache;
+
 public abstract class AbstractCRLUtils {
 
 	private static final Logger LOG = LoggerFactory.getLogger(AbstractCRLUtils.class);
 
+	/**
+	 * Verifies the CRL signature through the {@link SignatureVerificationCache} : the same CRL is parsed again for
+	 * each validation, its signature is only verified once per issuer. The {@code CRLValidity} is updated with the
+	 * result (the encoded CRL and the signature algorithm must be set before).
+	 * 
+	 * @param validity
+	 *            the {@code CRLValidity} to be updated
+	 * @param signer
+	 *            the candidate issuer of the CRL
+	 * @param verifier
+	 *            the signature verification to be executed on cache miss
+	 */
+	protected void checkSignatureValue(CRLValidity validity, CertificateToken signer, Callable<SignatureVerificationCache.Result> verifier) {
+		SignatureVerificationCache.Result result = SignatureVerificationCache.verify(getCRLId(validity.getCrlEncoded()),
+				validity.getSignatureAlgorithm(), signer, verifier);
+		if (result.isValid()) {
+			validity.setSignatureIntact(true);
+			validity.setIssuerToken(signer);
+			validity.setCrlSignKeyUsage(signer.checkKeyUsage(KeyUsageBit.crlSign));
+		} else {
+			validity.setSignatureInvalidityReason(result.getInvalidityReason());
+		}
+	}
+
+	/**
+	 * Returns the DSS id of the future CRLToken (SHA-256 of the encoded CRL)
+	 */
+	private String getCRLId(byte[] crlEncoded) {
+		if (crlEncoded == null) {
+			return null;
+		}
+		try {
+			MessageDigest md = MessageDigest.getInstance(DigestAlgorithm.SHA256.getJavaName());
+			return new TokenIdentifier(new Digest(DigestAlgorithm.SHA256, md.digest(crlEncoded))).asXmlId();
+		} catch (Exception e) {
+			throw new DSSException("Unable to compute the CRL digest", e);
+		}
+	}
+
 	protected void extractExpiredCertsOnCRL(CRLValidity validity, byte[] expiredCertsOnCRLBinaries) {
 		if (expiredCertsOnCRLBinaries != null) {
 			try {
@@ -42,6 +42,7 @@ import org.junit.Test;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.SignatureAlgorithm;
 import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.SignatureVerificationCache;
 
 public abstract class AbstractTestCRLUtils {
 
@@ -122,6 +123,38 @@ public abstract class AbstractTestCRLUtils {
 		}
 	}
 
+	@Test
+	public void isValidCRLSignatureVerificationCached() throws Exception {
+		SignatureVerificationCache.clear();
+		CertificateToken certificateToken;
+		try (InputStream isCer = AbstractTestCRLUtils.class.getResourceAsStream("/belgiumrs2.crt")) {
+			certificateToken = loadCert(isCer);
+		}
+		CertificateToken wrongCertificateToken;
+		try (InputStream isCer = AbstractTestCRLUtils.class.getResourceAsStream("/citizen_ca.cer")) {
+			wrongCertificateToken = loadCert(isCer);
+		}
+
+		for (int i = 0; i < 2; i++) {
+			long hits = SignatureVerificationCache.getHitCount();
+			try (InputStream is = AbstractTestCRLUtils.class.getResourceAsStream("/belgium2.crl")) {
+				CRLValidity validCRL = CRLUtils.isValidCRL(is, certificateToken);
+				assertTrue(validCRL.isSignatureIntact());
+				assertTrue(validCRL.isCrlSignKeyUsage());
+				assertEquals(certificateToken, validCRL.getIssuerToken());
+			}
+			try (InputStream is = AbstractTestCRLUtils.class.getResourceAsStream("/belgium2.crl")) {
+				CRLValidity validCRL = CRLUtils.isValidCRL(is, wrongCertificateToken);
+				assertFalse(validCRL.isSignatureIntact());
+				assertNull(validCRL.getIssuerToken());
+				assertNotNull(validCRL.getSignatureInvalidityReason());
+			}
+			assertEquals(i == 0 ? hits : hits + 2, SignatureVerificationCache.getHitCount());
+		}
+		assertEquals(2, SignatureVerificationCache.size());
+		SignatureVerificationCache.clear();
+	}
+
 	@Test
 	public void testLTGRCA() throws Exception {
 		try (InputStream is = AbstractTestCRLUtils.class.getResourceAsStream("/LTGRCA.crl");
@@ -0,0 +1,46 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+/**
+ * Keeps track of the documents already extended by the {@code BulkExtensionService}, so an interrupted run can be
+ * resumed without extending the same documents twice. The documents are identified by their name.
+ */
+public interface BulkExtensionCheckpoint {
+
+	/**
+	 * Checks if the document was already extended
+	 * 
+	 * @param documentName
+	 *            the document name
+	 * @return true if the document must be skipped
+	 */
+	boolean isDone(String documentName);
+
+	/**
+	 * Records a successfully extended document (after the {@code BulkExtensionListener} call)
+	 * 
+	 * @param documentName
+	 *            the document name
+	 */
+	void markDone(String documentName);
+
+}
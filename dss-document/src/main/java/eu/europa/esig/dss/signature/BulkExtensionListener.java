@@ -0,0 +1,51 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import eu.europa.esig.dss.DSSDocument;
+
+/**
+ * Receives the result of each document processed by the {@code BulkExtensionService}. The methods are called from
+ * the worker threads and must be thread-safe.
+ */
+public interface BulkExtensionListener {
+
+	/**
+	 * Called when a document has been extended (eg : to store the result)
+	 * 
+	 * @param original
+	 *            the original document
+	 * @param extended
+	 *            the extended document
+	 */
+	void onExtended(DSSDocument original, DSSDocument extended);
+
+	/**
+	 * Called when the extension of a document failed
+	 * 
+	 * @param original
+	 *            the original document
+	 * @param e
+	 *            the error
+	 */
+	void onError(DSSDocument original, Exception e);
+
+}
@@ -0,0 +1,117 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and result of a {@code BulkExtensionService} run. The counters are updated while the run is in progress.
+ */
+public class BulkExtensionResult {
+
+	private static final int MAX_REPORTED_FAILURES = 1000;
+
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong extended = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	private final List<String> failedDocuments = Collections.synchronizedList(new ArrayList<String>());
+
+	private final long startTime = System.currentTimeMillis();
+
+	private volatile long endTime;
+
+	void documentSubmitted() {
+		submitted.incrementAndGet();
+	}
+
+	void documentExtended() {
+		extended.incrementAndGet();
+	}
+
+	void documentSkipped() {
+		skipped.incrementAndGet();
+	}
+
+	void documentFailed(String documentName) {
+		failed.incrementAndGet();
+		if (failedDocuments.size() < MAX_REPORTED_FAILURES) {
+			failedDocuments.add(documentName);
+		}
+	}
+
+	void finish() {
+		endTime = System.currentTimeMillis();
+	}
+
+	public long getSubmitted() {
+		return submitted.get();
+	}
+
+	public long getExtended() {
+		return extended.get();
+	}
+
+	public long getSkipped() {
+		return skipped.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	public long getProcessed() {
+		return extended.get() + skipped.get() + failed.get();
+	}
+
+	/**
+	 * Returns the names of the failed documents (limited to the 1000 first ones, the errors are given to the
+	 * {@code BulkExtensionListener})
+	 * 
+	 * @return the list of failed document names
+	 */
+	public List<String> getFailedDocuments() {
+		synchronized (failedDocuments) {
+			return new ArrayList<String>(failedDocuments);
+		}
+	}
+
+	/**
+	 * Returns the duration of the run (or the elapsed time if the run is in progress)
+	 * 
+	 * @return the duration in milliseconds
+	 */
+	public long getDuration() {
+		long end = endTime == 0 ? System.currentTimeMillis() : endTime;
+		return end - startTime;
+	}
+
+	@Override
+	public String toString() {
+		return "BulkExtensionResult [submitted=" + submitted + ", extended=" + extended + ", skipped=" + skipped + ", failed=" + failed
+				+ ", duration=" + getDuration() + "ms]";
+	}
+
+}
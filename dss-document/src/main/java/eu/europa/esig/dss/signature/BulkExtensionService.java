@@ -0,0 +1,254 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.client.http.SharedDataLoader;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.x509.crl.CRLSource;
+import eu.europa.esig.dss.x509.crl.SharedCRLSource;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+import eu.europa.esig.dss.x509.ocsp.SharedOCSPSource;
+
+/**
+ * This class extends a stream of signed documents (eg : re-extension of an archive to the LTA level) with a pool of
+ * workers.
+ * 
+ * During a run, the sources of the {@code CertificateVerifier} used by the signature service are wrapped in shared
+ * caches : the AIA certificates, the CRLs (once per issuer) and the OCSP responses are retrieved once for the whole
+ * batch. The signature services keep a reference to their {@code CertificateVerifier}, so the given instance itself
+ * is modified during the run and the original sources are restored at the end of the run : the
+ * {@code CertificateVerifier} must not be used by another process (or by another run) in the meantime.
+ * 
+ * The results are given to a {@code BulkExtensionListener} as soon as a document is processed. With a
+ * {@code BulkExtensionCheckpoint}, the documents which were already extended are skipped, so an interrupted run can
+ * be restarted with the same input.
+ *
+ * @param <SP>
+ *            the signature parameters type
+ */
+public class BulkExtensionService<SP extends AbstractSignatureParameters> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BulkExtensionService.class);
+
+	private static final int DEFAULT_NB_THREADS = 4;
+
+	private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+
+	private final DocumentSignatureService<SP> signatureService;
+
+	private final CertificateVerifier certificateVerifier;
+
+	private int nbThreads = DEFAULT_NB_THREADS;
+
+	private ExecutorService executorService;
+
+	private BulkExtensionCheckpoint checkpoint;
+
+	private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+	/**
+	 * The default constructor for BulkExtensionService.
+	 * 
+	 * @param signatureService
+	 *            the signature service which extends each document
+	 * @param certificateVerifier
+	 *            the {@code CertificateVerifier} given to the signature service (its sources are replaced during the
+	 *            runs)
+	 */
+	public BulkExtensionService(DocumentSignatureService<SP> signatureService, CertificateVerifier certificateVerifier) {
+		if (signatureService == null || certificateVerifier == null) {
+			throw new NullPointerException("The signature service and the CertificateVerifier cannot be null !");
+		}
+		if (signatureService instanceof AbstractSignatureService
+				&& ((AbstractSignatureService<?>) signatureService).certificateVerifier != certificateVerifier) {
+			throw new DSSException("The CertificateVerifier must be the one used by the signature service !");
+		}
+		this.signatureService = signatureService;
+		this.certificateVerifier = certificateVerifier;
+	}
+
+	/**
+	 * This method allows to define the number of workers (default : 4). If an executor service is provided, this
+	 * value only limits the number of documents in progress.
+	 * 
+	 * @param nbThreads
+	 *            the number of threads
+	 */
+	public void setNbThreads(int nbThreads) {
+		this.nbThreads = nbThreads;
+	}
+
+	/**
+	 * This method allows to provide the executor service to be used (not shut down at the end of the run).
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * This method allows to set a checkpoint to resume an interrupted run.
+	 * 
+	 * @param checkpoint
+	 *            the checkpoint
+	 */
+	public void setCheckpoint(BulkExtensionCheckpoint checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * This method allows to define the number of processed documents between two progress logs (default : 1000).
+	 * 
+	 * @param progressInterval
+	 *            the number of documents
+	 */
+	public void setProgressInterval(int progressInterval) {
+		this.progressInterval = progressInterval;
+	}
+
+	/**
+	 * Extends all the given documents. The documents are read from the iterator when a worker is available, so the
+	 * whole batch is never loaded in memory. This method returns when all the documents are processed.
+	 * 
+	 * @param documents
+	 *            the documents to be extended (the names must be unique if a checkpoint is used)
+	 * @param parametersProvider
+	 *            the provider of the extension parameters
+	 * @param listener
+	 *            the listener which receives the extended documents and the errors
+	 * @return the summary of the run
+	 */
+	public BulkExtensionResult extend(final Iterator<DSSDocument> documents, final ExtensionParametersProvider<SP> parametersProvider,
+			final BulkExtensionListener listener) {
+		final BulkExtensionResult result = new BulkExtensionResult();
+
+		final CRLSource originalCrlSource = certificateVerifier.getCrlSource();
+		final OCSPSource originalOcspSource = certificateVerifier.getOcspSource();
+		final DataLoader originalDataLoader = certificateVerifier.getDataLoader();
+		shareSources(originalCrlSource, originalOcspSource, originalDataLoader);
+
+		final boolean ownExecutor = executorService == null;
+		final ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(nbThreads) : executorService;
+		final int maxInFlight = nbThreads * 2;
+		final Semaphore inFlight = new Semaphore(maxInFlight);
+
+		try {
+			while (documents.hasNext()) {
+				final DSSDocument document = documents.next();
+				result.documentSubmitted();
+				inFlight.acquire();
+				try {
+					executor.execute(new Runnable() {
+
+						@Override
+						public void run() {
+							try {
+								process(document, parametersProvider, listener, result);
+							} finally {
+								inFlight.release();
+							}
+						}
+
+					});
+				} catch (RejectedExecutionException e) {
+					inFlight.release();
+					throw new DSSException("Unable to submit the document '" + document.getName() + "'", e);
+				}
+			}
+			// wait for the running workers
+			inFlight.acquire(maxInFlight);
+			inFlight.release(maxInFlight);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Bulk extension interrupted", e);
+		} finally {
+			if (ownExecutor) {
+				executor.shutdown();
+			}
+			certificateVerifier.setCrlSource(originalCrlSource);
+			certificateVerifier.setOcspSource(originalOcspSource);
+			certificateVerifier.setDataLoader(originalDataLoader);
+			result.finish();
+		}
+
+		LOG.info("Bulk extension done : {}", result);
+		return result;
+	}
+
+	private void shareSources(CRLSource crlSource, OCSPSource ocspSource, DataLoader dataLoader) {
+		if (crlSource != null && !(crlSource instanceof SharedCRLSource)) {
+			certificateVerifier.setCrlSource(new SharedCRLSource(crlSource));
+		}
+		if (ocspSource != null && !(ocspSource instanceof SharedOCSPSource)) {
+			certificateVerifier.setOcspSource(new SharedOCSPSource(ocspSource));
+		}
+		if (dataLoader != null && !(dataLoader instanceof SharedDataLoader)) {
+			certificateVerifier.setDataLoader(new SharedDataLoader(dataLoader));
+		}
+	}
+
+	private void process(DSSDocument document, ExtensionParametersProvider<SP> parametersProvider, BulkExtensionListener listener,
+			BulkExtensionResult result) {
+		final String name = document.getName();
+		try {
+			if (checkpoint != null && checkpoint.isDone(name)) {
+				LOG.debug("Document '{}' already extended", name);
+				result.documentSkipped();
+			} else {
+				DSSDocument extended = signatureService.extendDocument(document, parametersProvider.getParameters(document));
+				listener.onExtended(document, extended);
+				if (checkpoint != null) {
+					checkpoint.markDone(name);
+				}
+				result.documentExtended();
+			}
+		} catch (Exception e) {
+			LOG.warn("Unable to extend the document '{}' : {}", name, e.getMessage());
+			result.documentFailed(name);
+			try {
+				listener.onError(document, e);
+			} catch (Exception listenerException) {
+				LOG.error("Error in the BulkExtensionListener", listenerException);
+			}
+		}
+
+		long processed = result.getProcessed();
+		if (progressInterval > 0 && processed % progressInterval == 0) {
+			LOG.info("Bulk extension progress : {}", result);
+		}
+	}
+
+}
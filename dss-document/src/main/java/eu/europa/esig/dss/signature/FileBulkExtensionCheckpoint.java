@@ -0,0 +1,98 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * Checkpoint stored in a text file (one document name per line). The file is read at creation and each extended
+ * document is appended immediately, so the progress survives a crash of the process.
+ */
+public class FileBulkExtensionCheckpoint implements BulkExtensionCheckpoint {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final File file;
+
+	private final Set<String> doneDocuments = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * The default constructor for FileBulkExtensionCheckpoint.
+	 * 
+	 * @param file
+	 *            the checkpoint file (created if it does not exist)
+	 */
+	public FileBulkExtensionCheckpoint(File file) {
+		this.file = file;
+		if (file.exists()) {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (!line.isEmpty()) {
+						doneDocuments.add(line);
+					}
+				}
+			} catch (IOException e) {
+				throw new DSSException("Unable to read the checkpoint file '" + file.getAbsolutePath() + "'", e);
+			}
+		}
+	}
+
+	@Override
+	public boolean isDone(String documentName) {
+		return doneDocuments.contains(documentName);
+	}
+
+	@Override
+	public synchronized void markDone(String documentName) {
+		if (doneDocuments.add(documentName)) {
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), UTF8)) {
+				writer.write(documentName);
+				writer.write('\n');
+			} catch (IOException e) {
+				throw new DSSException("Unable to update the checkpoint file '" + file.getAbsolutePath() + "'", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of recorded documents
+	 * 
+	 * @return the number of extended documents
+	 */
+	public int size() {
+		return doneDocuments.size();
+	}
+
+}
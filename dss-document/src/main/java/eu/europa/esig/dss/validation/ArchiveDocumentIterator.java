@@ -0,0 +1,118 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.MimeType;
+
+/**
+ * This class reads the documents of a ZIP archive one by one (eg : the input of a {@code BulkValidationService}).
+ * Only the current entry is loaded in memory, the directories are skipped. The archive is read as is : an ASiC
+ * container given to this class is not validated, its entries are returned.
+ * 
+ * The size of an entry is not limited by default : the archives from an untrusted source must be read with a
+ * subclass which overrides {@code createDocument} (eg : to spool the entries with a size limit).
+ */
+public class ArchiveDocumentIterator implements Iterator<DSSDocument>, Closeable {
+
+	private final ZipInputStream zis;
+
+	private DSSDocument next;
+
+	private boolean finished;
+
+	public ArchiveDocumentIterator(DSSDocument archive) {
+		this(archive.openStream());
+	}
+
+	public ArchiveDocumentIterator(InputStream archiveStream) {
+		this.zis = new ZipInputStream(archiveStream);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !finished) {
+			next = readNext();
+		}
+		return next != null;
+	}
+
+	@Override
+	public DSSDocument next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		DSSDocument current = next;
+		next = null;
+		return current;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private DSSDocument readNext() {
+		try {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				if (!entry.isDirectory()) {
+					return createDocument(zis, entry.getName());
+				}
+			}
+			finished = true;
+			return null;
+		} catch (IOException e) {
+			finished = true;
+			throw new DSSException("Unable to read the archive", e);
+		}
+	}
+
+	/**
+	 * Creates the document of the current entry (in memory by default)
+	 * 
+	 * @param entryStream
+	 *            the inflated content of the entry (must not be closed)
+	 * @param name
+	 *            the name of the entry
+	 * @return the {@code DSSDocument} of the entry
+	 */
+	protected DSSDocument createDocument(InputStream entryStream, String name) {
+		return new InMemoryDocument(DSSUtils.toByteArray(entryStream), name, MimeType.fromFileName(name));
+	}
+
+	@Override
+	public void close() throws IOException {
+		zis.close();
+	}
+
+}
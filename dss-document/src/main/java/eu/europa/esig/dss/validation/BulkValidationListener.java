@@ -0,0 +1,52 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Receives the result of each document processed by the {@code BulkValidationService}. The methods are called from
+ * the worker threads and must be thread-safe.
+ */
+public interface BulkValidationListener {
+
+	/**
+	 * Called when a document has been validated (eg : to store or to stream the reports)
+	 * 
+	 * @param document
+	 *            the validated document
+	 * @param reports
+	 *            the validation reports
+	 */
+	void onValidated(DSSDocument document, Reports reports);
+
+	/**
+	 * Called when the validation of a document failed (eg : unsupported document format)
+	 * 
+	 * @param document
+	 *            the document
+	 * @param e
+	 *            the error
+	 */
+	void onError(DSSDocument document, Exception e);
+
+}
@@ -0,0 +1,266 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.client.http.SharedDataLoader;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.x509.crl.CRLSource;
+import eu.europa.esig.dss.x509.crl.SharedCRLSource;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+import eu.europa.esig.dss.x509.ocsp.SharedOCSPSource;
+
+/**
+ * This class validates a stream of signed documents (eg : nightly validation of an archive) with a pool of workers.
+ * 
+ * During a run, the AIA certificates (through the {@code DataLoader}), the CRLs (once per issuer) and the OCSP
+ * responses are retrieved once for the whole batch : the sources of the {@code CertificateVerifier} are wrapped in
+ * bounded shared caches. Each document is validated with a copy of the {@code CertificateVerifier} which uses the
+ * shared sources, the given {@code CertificateVerifier} is not modified and can be used by other processes.
+ * 
+ * The reports are given to a {@code BulkValidationListener} as soon as a document is validated (in the completion
+ * order), the batch is never held in memory.
+ */
+public class BulkValidationService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BulkValidationService.class);
+
+	private static final int DEFAULT_NB_THREADS = 4;
+
+	private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+
+	private static final int DEFAULT_SHARED_CACHE_SIZE = 1000;
+
+	private final CertificateVerifier certificateVerifier;
+
+	private int nbThreads = DEFAULT_NB_THREADS;
+
+	private ExecutorService executorService;
+
+	private ValidationLevel validationLevel = ValidationLevel.ARCHIVAL_DATA;
+
+	private ValidationResultCache validationResultCache;
+
+	private int sharedCacheSize = DEFAULT_SHARED_CACHE_SIZE;
+
+	private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+	/**
+	 * The default constructor for BulkValidationService.
+	 * 
+	 * @param certificateVerifier
+	 *            the {@code CertificateVerifier} with the configuration of the validations
+	 */
+	public BulkValidationService(CertificateVerifier certificateVerifier) {
+		if (certificateVerifier == null) {
+			throw new NullPointerException("The CertificateVerifier cannot be null !");
+		}
+		this.certificateVerifier = certificateVerifier;
+	}
+
+	/**
+	 * This method allows to define the number of workers (default : 4). If an executor service is provided, this
+	 * value only limits the number of documents in progress.
+	 * 
+	 * @param nbThreads
+	 *            the number of threads
+	 */
+	public void setNbThreads(int nbThreads) {
+		this.nbThreads = nbThreads;
+	}
+
+	/**
+	 * This method allows to provide the executor service to be used (not shut down at the end of the run).
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * This method allows to specify the validation level (default : ARCHIVAL_DATA)
+	 * 
+	 * @param validationLevel
+	 *            the validation level
+	 */
+	public void setValidationLevel(ValidationLevel validationLevel) {
+		this.validationLevel = validationLevel;
+	}
+
+	/**
+	 * This method allows to reuse the reports of the documents which were already validated
+	 * 
+	 * @param validationResultCache
+	 *            the cache to be used (null to always validate)
+	 */
+	public void setValidationResultCache(ValidationResultCache validationResultCache) {
+		this.validationResultCache = validationResultCache;
+	}
+
+	/**
+	 * This method allows to define the maximum number of entries of each shared cache (CRLs, OCSP responses, AIA
+	 * responses) during a run (default : 1000)
+	 * 
+	 * @param sharedCacheSize
+	 *            the maximum number of entries
+	 */
+	public void setSharedCacheSize(int sharedCacheSize) {
+		this.sharedCacheSize = sharedCacheSize;
+	}
+
+	/**
+	 * This method allows to define the number of processed documents between two progress logs (default : 1000).
+	 * 
+	 * @param progressInterval
+	 *            the number of documents
+	 */
+	public void setProgressInterval(int progressInterval) {
+		this.progressInterval = progressInterval;
+	}
+
+	/**
+	 * Validates all the given documents. The documents are read from the iterator when a worker is available, so the
+	 * whole batch is never loaded in memory. This method returns when all the documents are processed.
+	 * 
+	 * @param documents
+	 *            the documents to be validated
+	 * @param validationPolicy
+	 *            the validation policy (the default policy is used if null)
+	 * @param listener
+	 *            the listener which receives the reports and the errors
+	 * @return the summary of the run
+	 */
+	public BulkValidationResult validate(final Iterator<DSSDocument> documents, ValidationPolicy validationPolicy, final BulkValidationListener listener) {
+		final BulkValidationResult result = new BulkValidationResult();
+		final ValidationPolicy policy = validationPolicy != null ? validationPolicy
+				: new EtsiValidationPolicy(ValidationResourceManager.loadPolicyData(null));
+		final CertificateVerifier sharedVerifier = createSharedVerifier();
+
+		final boolean ownExecutor = executorService == null;
+		final ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(nbThreads) : executorService;
+		final int maxInFlight = nbThreads * 2;
+		final Semaphore inFlight = new Semaphore(maxInFlight);
+
+		try {
+			while (documents.hasNext()) {
+				final DSSDocument document = documents.next();
+				result.documentSubmitted();
+				inFlight.acquire();
+				try {
+					executor.execute(new Runnable() {
+
+						@Override
+						public void run() {
+							try {
+								process(document, policy, sharedVerifier, listener, result);
+							} finally {
+								inFlight.release();
+							}
+						}
+
+					});
+				} catch (RejectedExecutionException e) {
+					inFlight.release();
+					throw new DSSException("Unable to submit the document '" + document.getName() + "'", e);
+				}
+			}
+			// wait for the running workers
+			inFlight.acquire(maxInFlight);
+			inFlight.release(maxInFlight);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Bulk validation interrupted", e);
+		} finally {
+			if (ownExecutor) {
+				executor.shutdown();
+			}
+			result.finish();
+		}
+
+		LOG.info("Bulk validation done : {}", result);
+		return result;
+	}
+
+	/**
+	 * Creates the configuration of the run : the sources are wrapped in caches shared by all the documents of the run.
+	 */
+	private CertificateVerifier createSharedVerifier() {
+		final CommonCertificateVerifier sharedVerifier = new CommonCertificateVerifier(certificateVerifier);
+		final CRLSource crlSource = certificateVerifier.getCrlSource();
+		if (crlSource != null && !(crlSource instanceof SharedCRLSource)) {
+			sharedVerifier.setCrlSource(new SharedCRLSource(crlSource, sharedCacheSize));
+		}
+		final OCSPSource ocspSource = certificateVerifier.getOcspSource();
+		if (ocspSource != null && !(ocspSource instanceof SharedOCSPSource)) {
+			sharedVerifier.setOcspSource(new SharedOCSPSource(ocspSource, sharedCacheSize));
+		}
+		final DataLoader dataLoader = certificateVerifier.getDataLoader();
+		if (dataLoader != null && !(dataLoader instanceof SharedDataLoader)) {
+			sharedVerifier.setDataLoader(new SharedDataLoader(dataLoader, sharedCacheSize));
+		}
+		return sharedVerifier;
+	}
+
+	private void process(DSSDocument document, ValidationPolicy policy, CertificateVerifier sharedVerifier, BulkValidationListener listener,
+			BulkValidationResult result) {
+		final String name = document.getName();
+		try {
+			// the signature CRL/OCSP sources are set in the verifier by each validation
+			final SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(document);
+			validator.setCertificateVerifier(new CommonCertificateVerifier(sharedVerifier));
+			validator.setValidationLevel(validationLevel);
+			validator.setValidationResultCache(validationResultCache);
+			final Reports reports = validator.validateDocument(policy);
+			listener.onValidated(document, reports);
+			result.documentValidated();
+		} catch (Exception e) {
+			LOG.warn("Unable to validate the document '{}' : {}", name, e.getMessage());
+			result.documentFailed(name);
+			try {
+				listener.onError(document, e);
+			} catch (Exception listenerException) {
+				LOG.error("Error in the BulkValidationListener", listenerException);
+			}
+		}
+
+		long processed = result.getProcessed();
+		if (progressInterval > 0 && processed % progressInterval == 0) {
+			LOG.info("Bulk validation progress : {}", result);
+		}
+	}
+
+}
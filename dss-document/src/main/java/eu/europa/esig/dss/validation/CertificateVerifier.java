@@ -21,6 +21,7 @@
 package eu.europa.esig.dss.validation;
 
 import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.metrics.MetricsRecorder;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateSource;
 import eu.europa.esig.dss.x509.crl.CRLSource;
@@ -225,6 +226,42 @@ public interface CertificateVerifier {
 	 */
 	boolean isIncludeTimestampTokenValues();
 
+	/**
+	 * This method allows to receive the measures of each validation (phase
+	 * durations, network calls, cache accesses,...) in a metrics system.
+	 * 
+	 * @param metricsRecorder
+	 *                        the recorder which receives the measures (default:
+	 *                        null, nothing is measured)
+	 */
+	void setMetricsRecorder(MetricsRecorder metricsRecorder);
+
+	/**
+	 * Returns the recorder of the validation measures
+	 * 
+	 * @return the configured {@code MetricsRecorder} or null
+	 */
+	MetricsRecorder getMetricsRecorder();
+
+	/**
+	 * This method allows to change the behavior by attaching the measures of the
+	 * validation (timing breakdown) to the reports.
+	 * 
+	 * @param include
+	 *                true if the {@code ValidationMetrics} should be attached to
+	 *                the reports (default: false)
+	 */
+	void setIncludeValidationMetrics(boolean include);
+
+	/**
+	 * This method returns true if the measures of the validation need to be
+	 * attached to the reports.
+	 * 
+	 * @return true if the {@code ValidationMetrics} are attached to the reports
+	 *         (default: false)
+	 */
+	boolean isIncludeValidationMetrics();
+
 	/**
 	 * This method allows to change the behavior on invalid timestamp (LT/LTA
 	 * augmentation). (default : true)
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.client.http.NativeHTTPDataLoader;
+import eu.europa.esig.dss.metrics.MetricsRecorder;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateSource;
 import eu.europa.esig.dss.x509.crl.CRLSource;
@@ -117,6 +118,17 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	 */
 	private boolean includeRawTimestampTokens = false;
 
+	/**
+	 * The recorder of the validation measures (default: null)
+	 */
+	private MetricsRecorder metricsRecorder;
+
+	/**
+	 * This variable set the behavior to attach the measures of the validation to
+	 * the reports. (default: false)
+	 */
+	private boolean includeValidationMetrics = false;
+
 	/**
 	 * This variable set the behavior to follow in case of revoked certificate
 	 * (augmentation process). True : throw an exception / False : add a warning
@@ -160,6 +172,32 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 		}
 	}
 
+	/**
+	 * This constructor copies the configuration of another {@code CertificateVerifier} (the sources are shared, the
+	 * signature CRL/OCSP sources are not copied). It allows to run several validations in parallel with the same
+	 * configuration : the signature sources are set by each validation.
+	 *
+	 * @param certificateVerifier
+	 *            the verifier to copy
+	 */
+	CommonCertificateVerifier(final CertificateVerifier certificateVerifier) {
+		this.trustedCertSource = certificateVerifier.getTrustedCertSource();
+		this.adjunctCertSource = certificateVerifier.getAdjunctCertSource();
+		this.ocspSource = certificateVerifier.getOcspSource();
+		this.crlSource = certificateVerifier.getCrlSource();
+		this.dataLoader = certificateVerifier.getDataLoader();
+		this.exceptionOnMissingRevocationData = certificateVerifier.isExceptionOnMissingRevocationData();
+		this.exceptionOnUncoveredPOE = certificateVerifier.isExceptionOnUncoveredPOE();
+		this.includeCertificateTokens = certificateVerifier.isIncludeCertificateTokenValues();
+		this.includeRawRevocationData = certificateVerifier.isIncludeCertificateRevocationValues();
+		this.includeRawTimestampTokens = certificateVerifier.isIncludeTimestampTokenValues();
+		this.metricsRecorder = certificateVerifier.getMetricsRecorder();
+		this.includeValidationMetrics = certificateVerifier.isIncludeValidationMetrics();
+		this.exceptionOnRevokedCertificate = certificateVerifier.isExceptionOnRevokedCertificate();
+		this.exceptionOnInvalidTimestamp = certificateVerifier.isExceptionOnInvalidTimestamp();
+		this.checkRevocationForUntrustedChains = certificateVerifier.isCheckRevocationForUntrustedChains();
+	}
+
 	/**
 	 * The constructor with key parameters.
 	 *
@@ -346,4 +384,24 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 		return this.includeRawTimestampTokens;
 	}
 
+	@Override
+	public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+		this.metricsRecorder = metricsRecorder;
+	}
+
+	@Override
+	public MetricsRecorder getMetricsRecorder() {
+		return metricsRecorder;
+	}
+
+	@Override
+	public void setIncludeValidationMetrics(boolean include) {
+		this.includeValidationMetrics = include;
+	}
+
+	@Override
+	public boolean isIncludeValidationMetrics() {
+		return includeValidationMetrics;
+	}
+
 }
@@ -498,8 +498,7 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 		 * This validates the content-timestamp tokensToProcess present in the signature.
 		 */
 		for (final TimestampToken timestampToken : getContentTimestamps()) {
-			final byte[] timestampBytes = getContentTimestampData(timestampToken);
-			timestampToken.matchData(timestampBytes);
+			matchContentTimestampData(timestampToken);
 		}
 
 		/*
@@ -531,12 +530,35 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 		 */
 		for (final TimestampToken timestampToken : getArchiveTimestamps()) {
 			if (!timestampToken.isProcessed()) {
-				final byte[] timestampData = getArchiveTimestampData(timestampToken, null);
-				timestampToken.matchData(timestampData);
+				matchArchiveTimestampData(timestampToken);
 			}
 		}
 	}
 
+	/**
+	 * Checks the message imprint of a content timestamp. By default, the timestamped data is built in memory with
+	 * {@link #getContentTimestampData(TimestampToken)}. This method can be overridden to digest the data in a streaming
+	 * way (eg : detached content).
+	 * 
+	 * @param timestampToken
+	 *            the content timestamp to check
+	 */
+	protected void matchContentTimestampData(final TimestampToken timestampToken) {
+		timestampToken.matchData(getContentTimestampData(timestampToken));
+	}
+
+	/**
+	 * Checks the message imprint of an archive timestamp. By default, the timestamped data is built in memory with
+	 * {@link #getArchiveTimestampData(TimestampToken, String)}. This method can be overridden to digest the data in a
+	 * streaming way.
+	 * 
+	 * @param timestampToken
+	 *            the archive timestamp to check
+	 */
+	protected void matchArchiveTimestampData(final TimestampToken timestampToken) {
+		timestampToken.matchData(getArchiveTimestampData(timestampToken, null));
+	}
+
 	@Override
 	public void validateStructure() {
 	}
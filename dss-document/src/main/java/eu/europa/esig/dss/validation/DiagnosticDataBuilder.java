@@ -1009,12 +1009,18 @@ public class DiagnosticDataBuilder {
 		return Collections.unmodifiableList(result);
 	}
 
+	/**
+	 * Returns the trust services of the chain which are still applicable after the issuance of the certificate (the
+	 * ones with statuses to report)
+	 */
 	private Set<ServiceInfo> getRelatedTrustServices(CertificateToken certToken) {
 		if (trustedCertSource instanceof TrustedListsCertificateSource) {
+			TrustedListsCertificateSource tlCS = (TrustedListsCertificateSource) trustedCertSource;
+			Date issuance = certToken.getNotBefore();
 			Set<ServiceInfo> result = new HashSet<ServiceInfo>();
 			Set<CertificateToken> processedTokens = new HashSet<CertificateToken>();
 			while (certToken != null) {
-				result.addAll(trustedCertSource.getTrustServices(certToken));
+				result.addAll(tlCS.getTrustServicesAfter(certToken, issuance));
 				if (certToken.isSelfSigned() || processedTokens.contains(certToken)) {
 					break;
 				}
@@ -0,0 +1,188 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.jaxb.diagnostic.ObjectFactory;
+import eu.europa.esig.dss.validation.executor.CustomProcessExecutor;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * This class re-validates stored {@code DiagnosticData} (eg: with a new validation policy). Only the validation
+ * processes are executed : the signed document is not parsed again, no cryptographic check is performed and no
+ * certificate or revocation data is fetched.
+ * 
+ * The diagnostic data can be provided as XML or in the compact form returned by {@link #toCompactForm(DiagnosticData)}
+ * (GZIP compressed XML).
+ * 
+ * This class is thread-safe : a new {@code CustomProcessExecutor} is used for each validation.
+ */
+public class DiagnosticDataValidator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DiagnosticDataValidator.class);
+
+	private static JAXBContext jaxbContext;
+
+	static {
+		try {
+			jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
+		} catch (JAXBException e) {
+			throw new DSSException("Unable to initialize the DiagnosticData context", e);
+		}
+	}
+
+	private ValidationLevel validationLevel = ValidationLevel.ARCHIVAL_DATA;
+
+	private ExecutorService executorService;
+
+	/**
+	 * This method allows to change the validation level (default : ARCHIVAL_DATA)
+	 * 
+	 * @param validationLevel
+	 *            the validation level
+	 */
+	public void setValidationLevel(ValidationLevel validationLevel) {
+		this.validationLevel = validationLevel;
+	}
+
+	/**
+	 * This method allows to execute the validation processes in parallel (see
+	 * {@link CustomProcessExecutor#setExecutorService(ExecutorService)})
+	 * 
+	 * @param executorService
+	 *            the executor service to be used (not shut down by the validator)
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Validates the stored diagnostic data with the given policy.
+	 * 
+	 * @param diagnosticData
+	 *            the diagnostic data (XML or compact form)
+	 * @param policyDataStream
+	 *            the validation policy (the default policy is used if null)
+	 * @param validationTime
+	 *            the validation time (the validation date of the diagnostic data is used if null)
+	 * @return the validation reports
+	 */
+	public Reports validate(InputStream diagnosticData, InputStream policyDataStream, Date validationTime) {
+		return validate(loadDiagnosticData(diagnosticData), new EtsiValidationPolicy(ValidationResourceManager.loadPolicyData(policyDataStream)),
+				validationTime);
+	}
+
+	/**
+	 * Validates the diagnostic data with the given policy.
+	 * 
+	 * @param diagnosticData
+	 *            the JAXB diagnostic data
+	 * @param validationPolicy
+	 *            the validation policy
+	 * @param validationTime
+	 *            the validation time (the validation date of the diagnostic data is used if null)
+	 * @return the validation reports
+	 */
+	public Reports validate(DiagnosticData diagnosticData, ValidationPolicy validationPolicy, Date validationTime) {
+		if (diagnosticData == null || validationPolicy == null) {
+			throw new NullPointerException("The diagnostic data and the validation policy cannot be null !");
+		}
+		Date currentTime = validationTime != null ? validationTime : diagnosticData.getValidationDate();
+		LOG.debug("Validation of the diagnostic data at {}", currentTime);
+
+		CustomProcessExecutor executor = new CustomProcessExecutor();
+		executor.setDiagnosticData(diagnosticData);
+		executor.setValidationPolicy(validationPolicy);
+		executor.setValidationLevel(validationLevel);
+		executor.setCurrentTime(currentTime);
+		executor.setExecutorService(executorService);
+		return executor.execute();
+	}
+
+	/**
+	 * Loads the diagnostic data from its XML representation or from its compact form. The XML is not validated
+	 * against the schema : the stored diagnostic data are expected to be produced by DSS.
+	 * 
+	 * @param inputStream
+	 *            the stored diagnostic data
+	 * @return the JAXB diagnostic data
+	 */
+	public static DiagnosticData loadDiagnosticData(InputStream inputStream) {
+		try {
+			InputStream is = new BufferedInputStream(inputStream);
+			if (isCompactForm(is)) {
+				is = new GZIPInputStream(is);
+			}
+			Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+			return (DiagnosticData) unmarshaller.unmarshal(is);
+		} catch (Exception e) {
+			throw new DSSException("Unable to load the diagnostic data : " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the compact form of the diagnostic data, to be stored for a later re-validation.
+	 * 
+	 * @param diagnosticData
+	 *            the JAXB diagnostic data
+	 * @return the GZIP compressed XML
+	 */
+	public static byte[] toCompactForm(DiagnosticData diagnosticData) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+			Marshaller marshaller = jaxbContext.createMarshaller();
+			marshaller.marshal(diagnosticData, gzip);
+		} catch (JAXBException | IOException e) {
+			throw new DSSException("Unable to serialize the diagnostic data : " + e.getMessage(), e);
+		}
+		return baos.toByteArray();
+	}
+
+	private static boolean isCompactForm(InputStream is) throws IOException {
+		is.mark(2);
+		int first = is.read();
+		int second = is.read();
+		is.reset();
+		return first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * This class stores the entries of the {@code ValidationResultCache} in a folder (one file per entry). The files are
+ * written in a temporary file and then moved, a concurrent reader never sees a partial entry. The folder can be shared
+ * between several instances of the application.
+ */
+public class FileValidationResultStore implements ValidationResultStore {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FileValidationResultStore.class);
+
+	private static final String EXTENSION = ".vrc";
+
+	private final File directory;
+
+	/**
+	 * The default constructor. If the folder does not exist then it's created.
+	 * 
+	 * @param directory
+	 *            the folder of the entries
+	 */
+	public FileValidationResultStore(final File directory) {
+		Objects.requireNonNull(directory, "The directory is missing");
+		directory.mkdirs();
+		this.directory = directory;
+	}
+
+	@Override
+	public byte[] get(String key) {
+		final File file = getFile(key);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			return Files.readAllBytes(file.toPath());
+		} catch (IOException e) {
+			LOG.warn("Unable to read the cached validation result '{}' : {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String key, byte[] entry) {
+		final File file = getFile(key);
+		try {
+			final File tmp = File.createTempFile(key, ".tmp", directory);
+			Files.write(tmp.toPath(), entry);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new DSSException("Unable to store the validation result '" + key + "'", e);
+		}
+	}
+
+	@Override
+	public void remove(String key) {
+		final File file = getFile(key);
+		if (file.exists() && !file.delete()) {
+			LOG.warn("Unable to remove the cached validation result '{}'", key);
+		}
+	}
+
+	private File getFile(String key) {
+		return new File(directory, key + EXTENSION);
+	}
+
+}
@@ -23,6 +23,8 @@ package eu.europa.esig.dss.validation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.metrics.ValidationPhase;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateToken;
 import eu.europa.esig.dss.x509.RevocationSource;
@@ -68,18 +70,23 @@ public class OCSPAndCRLCertificateVerifier implements CertificateStatusVerifier
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("Check revocation for certificate : {}", certificateToken.getDSSIdAsString());
 		}
-		RevocationToken result = checkOCSP(certificateToken);
-		if (result != null) {
-			return result;
-		}
-		result = checkCRL(certificateToken);
-		if (result != null) {
-			return result;
-		}
-		if (LOG.isDebugEnabled()) {
-			LOG.debug("There is no response for {} neither from OCSP nor from CRL!", certificateToken.getDSSIdAsString());
+		final long start = System.nanoTime();
+		try {
+			RevocationToken result = checkOCSP(certificateToken);
+			if (result != null) {
+				return result;
+			}
+			result = checkCRL(certificateToken);
+			if (result != null) {
+				return result;
+			}
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("There is no response for {} neither from OCSP nor from CRL!", certificateToken.getDSSIdAsString());
+			}
+			return null;
+		} finally {
+			ValidationMetrics.phaseCompleted(ValidationPhase.REVOCATION_CHECK, start);
 		}
-		return null;
 	}
 
 	public RevocationToken checkOCSP(final CertificateToken certificateToken) {
@@ -42,6 +42,8 @@ import eu.europa.esig.dss.DSSASN1Utils;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.metrics.ValidationPhase;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.x509.AlternateUrlsSourceAdapter;
 import eu.europa.esig.dss.x509.CertificatePool;
@@ -439,6 +441,7 @@ public class SignatureValidationContext implements ValidationContext {
 
 	@Override
 	public void validate() throws DSSException {
+		final long start = System.nanoTime();
 		Token token = getNotYetVerifiedToken();
 		while (token != null) {
 
@@ -449,6 +452,7 @@ public class SignatureValidationContext implements ValidationContext {
 			}
 			token = getNotYetVerifiedToken();
 		}
+		ValidationMetrics.phaseCompleted(ValidationPhase.VALIDATION_CONTEXT, start);
 	}
 
 	/**
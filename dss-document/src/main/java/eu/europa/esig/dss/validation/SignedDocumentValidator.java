@@ -36,6 +36,9 @@ import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.metrics.MetricsRecorder;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.metrics.ValidationPhase;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.validation.executor.CustomProcessExecutor;
 import eu.europa.esig.dss.validation.executor.ProcessExecutor;
@@ -103,6 +106,8 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 	// Default configuration with the highest level
 	private ValidationLevel validationLevel = ValidationLevel.ARCHIVAL_DATA;
 
+	private ValidationResultCache validationResultCache;
+
 	private static List<Class<SignedDocumentValidator>> registredDocumentValidators = new ArrayList<Class<SignedDocumentValidator>>();
 
 	static {
@@ -207,6 +212,17 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		this.validationLevel = validationLevel;
 	}
 
+	/**
+	 * This method allows to reuse the results of a previous validation of the same document (see
+	 * {@link ValidationResultCache})
+	 * 
+	 * @param validationResultCache
+	 *            the cache to be used (null to always validate)
+	 */
+	public void setValidationResultCache(ValidationResultCache validationResultCache) {
+		this.validationResultCache = validationResultCache;
+	}
+
 	@Override
 	public Reports validateDocument() {
 		return validateDocument((InputStream) null);
@@ -288,11 +304,56 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 
 		ensureSignaturePolicyDetectorInitialized();
 
+		final ValidationMetrics metrics = createValidationMetrics();
+		if (metrics == null) {
+			return validate(validationPolicy);
+		}
+
+		final long start = System.nanoTime();
+		metrics.start();
+		try {
+			final Reports reports = validate(validationPolicy);
+			if (validationCertPool != null) {
+				metrics.recordCertificatePoolSize(validationCertPool.getNumberOfCertificates());
+			}
+			ValidationMetrics.phaseCompleted(ValidationPhase.DOCUMENT_VALIDATION, start);
+			if (certificateVerifier.isIncludeValidationMetrics()) {
+				reports.setValidationMetrics(metrics);
+			}
+			LOG.debug("{}", metrics);
+			return reports;
+		} finally {
+			metrics.stop();
+		}
+	}
+
+	private Reports validate(final ValidationPolicy validationPolicy) {
+		String cacheKey = null;
+		if (validationResultCache != null && providedSigningCertificateToken == null) {
+			cacheKey = validationResultCache.getKey(document, detachedContents, validationPolicy, certificateVerifier,
+					provideProcessExecutorInstance().getCurrentTime(), validationLevel);
+			if (cacheKey != null) {
+				final Reports cachedReports = validationResultCache.get(cacheKey);
+				if (cachedReports != null) {
+					return cachedReports;
+				}
+			}
+		}
+
+		final Reports reports = computeReports(validationPolicy);
+		if (cacheKey != null) {
+			validationResultCache.put(cacheKey, reports);
+		}
+		return reports;
+	}
+
+	private Reports computeReports(final ValidationPolicy validationPolicy) {
 		boolean structuralValidation = isRequireStructuralValidation(validationPolicy);
 		final ValidationContext validationContext = new SignatureValidationContext(validationCertPool);
 
 		List<AdvancedSignature> allSignatureList = processSignaturesValidation(validationContext, structuralValidation);
 
+		final long start = System.nanoTime();
 		final DiagnosticData diagnosticData = new DiagnosticDataBuilder().document(document).containerInfo(getContainerInfo()).foundSignatures(allSignatureList)
 				.usedCertificates(validationContext.getProcessedCertificates()).usedRevocations(validationContext.getProcessedRevocations())
 				.includeRawCertificateTokens(certificateVerifier.isIncludeCertificateTokenValues())
@@ -301,10 +362,25 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 				.certificateSourceTypes(validationContext.getCertificateSourceTypes())
 				.trustedCertificateSource(certificateVerifier.getTrustedCertSource())
 				.validationDate(validationContext.getCurrentTime()).build();
+		ValidationMetrics.phaseCompleted(ValidationPhase.DIAGNOSTIC_DATA, start);
 
 		return processValidationPolicy(diagnosticData, validationPolicy);
 	}
 
+	/**
+	 * Creates the measures of the validation if a {@code MetricsRecorder} is
+	 * configured or if the metrics are requested in the reports
+	 * 
+	 * @return a new {@code ValidationMetrics} or null if nothing is measured
+	 */
+	private ValidationMetrics createValidationMetrics() {
+		final MetricsRecorder recorder = certificateVerifier.getMetricsRecorder();
+		if (recorder == null && !certificateVerifier.isIncludeValidationMetrics()) {
+			return null;
+		}
+		return new ValidationMetrics(recorder);
+	}
+
 	@Override
 	public List<AdvancedSignature> processSignaturesValidation(final ValidationContext validationContext, boolean structuralValidation) {
 		final List<AdvancedSignature> allSignatureList = getAllSignatures();
@@ -324,8 +400,12 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 
 		for (final AdvancedSignature signature : allSignatureList) {
 			signature.checkSigningCertificate();
+			long start = System.nanoTime();
 			signature.checkSignatureIntegrity();
+			ValidationMetrics.phaseCompleted(ValidationPhase.SIGNATURE_INTEGRITY, start);
+			start = System.nanoTime();
 			signature.validateTimestamps();
+			ValidationMetrics.phaseCompleted(ValidationPhase.TIMESTAMP_VALIDATION, start);
 			if (structuralValidation) {
 				signature.validateStructure();
 			}
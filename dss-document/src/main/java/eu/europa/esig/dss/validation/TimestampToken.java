@@ -20,7 +20,9 @@
  */
 package eu.europa.esig.dss.validation;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -38,7 +40,6 @@ import org.bouncycastle.cms.SignerInformationVerifier;
 import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
 import org.bouncycastle.tsp.TSPException;
 import org.bouncycastle.tsp.TimeStampToken;
-import org.bouncycastle.tsp.TimeStampTokenInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -199,25 +200,83 @@ public class TimestampToken extends Token {
 	 * @return true if the data is verified by the TimeStampToken
 	 */
 	public boolean matchData(final byte[] data, final boolean suppressMatchWarnings) {
+		return matchDataStream(data == null ? null : new ByteArrayInputStream(data), suppressMatchWarnings);
+	}
+
+	/**
+	 * Checks if the {@code TimeStampToken} matches the signed data. The data is digested while it is read : the
+	 * timestamped content is never fully loaded in memory.
+	 *
+	 * @param inputStream
+	 *            the {@code InputStream} of the timestamped data (not closed by this method)
+	 * @return true if the data is verified by the TimeStampToken
+	 */
+	public boolean matchDataStream(final InputStream inputStream) {
+		return matchDataStream(inputStream, false);
+	}
+
+	/**
+	 * Checks if the {@code TimeStampToken} matches the signed data read from the given stream.
+	 * 
+	 * @param inputStream
+	 *            the {@code InputStream} of the timestamped data (not closed by this method)
+	 * @param suppressMatchWarnings
+	 *            if true the message imprint match warning logs are suppressed.
+	 * @return true if the data is verified by the TimeStampToken
+	 * @see #matchData(byte[], boolean)
+	 */
+	public boolean matchDataStream(final InputStream inputStream, final boolean suppressMatchWarnings) {
 		processed = true;
 
-		messageImprintData = data != null;
+		messageImprintData = inputStream != null;
 		messageImprintIntact = false;
 
 		if (messageImprintData) {
 			try {
-				final TimeStampTokenInfo timeStampInfo = timeStamp.getTimeStampInfo();
-				final ASN1ObjectIdentifier hashAlgorithm = timeStampInfo.getHashAlgorithm().getAlgorithm();
-				final DigestAlgorithm digestAlgorithm = DigestAlgorithm.forOID(hashAlgorithm.getId());
-
-				final byte[] computedDigest = DSSUtils.digest(digestAlgorithm, data);
-				final byte[] timestampDigest = timeStampInfo.getMessageImprintDigest();
-				messageImprintIntact = Arrays.equals(computedDigest, timestampDigest);
-				if (!messageImprintIntact && !suppressMatchWarnings) {
-					LOG.warn("Computed digest ({}) on the extracted data from the document : {}", digestAlgorithm, Utils.toHex(computedDigest));
-					LOG.warn("Digest present in TimestampToken: {}", Utils.toHex(timestampDigest));
-					LOG.warn("Digest in TimestampToken matches digest of extracted data from document: {}", messageImprintIntact);
-				}
+				final DigestAlgorithm digestAlgorithm = getSignedDataDigestAlgo();
+				final byte[] computedDigest = DSSUtils.digest(digestAlgorithm, inputStream);
+				messageImprintIntact = checkMessageImprint(digestAlgorithm, computedDigest, suppressMatchWarnings);
+			} catch (DSSException e) {
+				LOG.warn("Unable to validate the timestamp", e);
+			}
+		} else {
+			LOG.warn("Timestamped data not found !");
+		}
+
+		return messageImprintIntact;
+	}
+
+	/**
+	 * Checks if the {@code TimeStampToken} matches the digest of the signed data. The digest must be computed with
+	 * the algorithm returned by {@link #getSignedDataDigestAlgo()} (eg : with a {@code MessageDigestOutputStream}).
+	 *
+	 * @param computedDigest
+	 *            the digest of the timestamped data
+	 * @return true if the digest is verified by the TimeStampToken
+	 */
+	public boolean matchDigest(final byte[] computedDigest) {
+		return matchDigest(computedDigest, false);
+	}
+
+	/**
+	 * Checks if the {@code TimeStampToken} matches the digest of the signed data.
+	 * 
+	 * @param computedDigest
+	 *            the digest of the timestamped data
+	 * @param suppressMatchWarnings
+	 *            if true the message imprint match warning logs are suppressed.
+	 * @return true if the digest is verified by the TimeStampToken
+	 * @see #matchData(byte[], boolean)
+	 */
+	public boolean matchDigest(final byte[] computedDigest, final boolean suppressMatchWarnings) {
+		processed = true;
+
+		messageImprintData = computedDigest != null;
+		messageImprintIntact = false;
+
+		if (messageImprintData) {
+			try {
+				messageImprintIntact = checkMessageImprint(getSignedDataDigestAlgo(), computedDigest, suppressMatchWarnings);
 			} catch (DSSException e) {
 				LOG.warn("Unable to validate the timestamp", e);
 			}
@@ -228,6 +287,17 @@ public class TimestampToken extends Token {
 		return messageImprintIntact;
 	}
 
+	private boolean checkMessageImprint(final DigestAlgorithm digestAlgorithm, final byte[] computedDigest, final boolean suppressMatchWarnings) {
+		final byte[] timestampDigest = timeStamp.getTimeStampInfo().getMessageImprintDigest();
+		final boolean intact = Arrays.equals(computedDigest, timestampDigest);
+		if (!intact && !suppressMatchWarnings) {
+			LOG.warn("Computed digest ({}) on the extracted data from the document : {}", digestAlgorithm, Utils.toHex(computedDigest));
+			LOG.warn("Digest present in TimestampToken: {}", Utils.toHex(timestampDigest));
+			LOG.warn("Digest in TimestampToken matches digest of extracted data from document: {}", intact);
+		}
+		return intact;
+	}
+
 	public boolean isProcessed() {
 		return processed;
 	}
@@ -0,0 +1,501 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.jaxb.detailedreport.DetailedReport;
+import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.jaxb.simplereport.SimpleReport;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.tsl.TLInfo;
+import eu.europa.esig.dss.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.util.LoadingCache;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.validation.reports.wrapper.RevocationWrapper;
+import eu.europa.esig.dss.x509.CertificateSource;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.CommonCertificateSource;
+
+/**
+ * This class caches the validation results (diagnostic data and reports). The entries are content-addressed : the key
+ * is computed from the digests of the signed document and of the detached contents, the digest of the validation
+ * policy, a digest of the content of the trusted certificate source, the validation level and a bucket of the
+ * validation time. The same signed document validated with the same policy against the same trusted lists within the
+ * same time bucket returns the stored reports without any parsing, cryptographic check or revocation fetching.
+ * 
+ * An entry expires when the revocation freshness window passes or at the earliest next update of the revocation data
+ * used by the validation. The in-memory tier is cleared when the content of the trusted certificate source changes
+ * (eg: after a refresh of the trusted lists).
+ * 
+ * The entries are kept in a bounded in-memory tier and, optionally, in a persistent tier (see
+ * {@link #setPersistentStore(ValidationResultStore)}) which can be shared between several instances of the
+ * application.
+ * 
+ * The other settings of the {@code CertificateVerifier} (revocation sources, adjunct certificates,...) are not part of
+ * the key : one cache must be used per verifier configuration.
+ * 
+ * This class is thread-safe. The cached JAXB objects are shared between the returned {@code Reports} and must not be
+ * modified.
+ */
+public class ValidationResultCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ValidationResultCache.class);
+
+	/**
+	 * The name of the cache in the validation metrics
+	 */
+	public static final String CACHE_NAME = "validation-result";
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final JAXBContext diagnosticDataContext;
+	private static final JAXBContext detailedReportContext;
+	private static final JAXBContext simpleReportContext;
+	private static final JAXBContext policyContext;
+
+	static {
+		try {
+			diagnosticDataContext = JAXBContext.newInstance(eu.europa.esig.dss.jaxb.diagnostic.ObjectFactory.class);
+			detailedReportContext = JAXBContext.newInstance(eu.europa.esig.dss.jaxb.detailedreport.ObjectFactory.class);
+			simpleReportContext = JAXBContext.newInstance(eu.europa.esig.dss.jaxb.simplereport.ObjectFactory.class);
+			policyContext = JAXBContext.newInstance(eu.europa.esig.jaxb.policy.ObjectFactory.class);
+		} catch (JAXBException e) {
+			throw new DSSException("Unable to initialize the JAXB contexts", e);
+		}
+	}
+
+	private final LoadingCache<String, CachedResult> memoryTier;
+
+	private final Map<CertificateSource, TrustSnapshot> trustSnapshots = new WeakHashMap<CertificateSource, TrustSnapshot>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private ValidationResultStore persistentStore;
+
+	private long revocationFreshness = TimeUnit.MINUTES.toMillis(10);
+
+	/* -1 : the revocation freshness window */
+	private long validationTimeBucket = -1;
+
+	/**
+	 * The default constructor (1000 entries in memory).
+	 */
+	public ValidationResultCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * The constructor with the size of the in-memory tier.
+	 * 
+	 * @param maxSize
+	 *            the maximum number of entries kept in memory
+	 */
+	public ValidationResultCache(final int maxSize) {
+		this.memoryTier = new LoadingCache<String, CachedResult>(maxSize);
+	}
+
+	/**
+	 * This method allows to define a persistent tier. The entries are written in both tiers and the persistent tier
+	 * is read when an entry is not in memory.
+	 * 
+	 * @param persistentStore
+	 *            the persistent tier (null to only keep the entries in memory)
+	 */
+	public void setPersistentStore(ValidationResultStore persistentStore) {
+		this.persistentStore = persistentStore;
+	}
+
+	/**
+	 * This method allows to define the maximum age of an entry (default : 10 minutes). The revocation data used by a
+	 * cached validation is not re-checked within this window.
+	 * 
+	 * @param revocationFreshness
+	 *            the duration in milliseconds
+	 */
+	public void setRevocationFreshness(long revocationFreshness) {
+		this.revocationFreshness = revocationFreshness;
+	}
+
+	/**
+	 * This method allows to define the granularity of the validation time in the key (default : the revocation
+	 * freshness window, see {@link #setRevocationFreshness(long)}). The validations of a document within the same
+	 * bucket share the same reports (and so the same validation time). A smaller bucket reduces the hit ratio : a
+	 * validation in a new bucket is computed again even if the cached entry is still fresh.
+	 * 
+	 * @param validationTimeBucket
+	 *            the duration in milliseconds
+	 */
+	public void setValidationTimeBucket(long validationTimeBucket) {
+		if (validationTimeBucket < 1) {
+			throw new IllegalArgumentException("The validation time bucket must be positive");
+		}
+		this.validationTimeBucket = validationTimeBucket;
+	}
+
+	/**
+	 * Computes the key of a validation.
+	 * 
+	 * @param document
+	 *            the signed document
+	 * @param detachedContents
+	 *            the detached contents (can be null)
+	 * @param validationPolicy
+	 *            the validation policy
+	 * @param certificateVerifier
+	 *            the certificate verifier (trusted certificate source and content of the diagnostic data)
+	 * @param validationTime
+	 *            the validation time
+	 * @param validationLevel
+	 *            the validation level
+	 * @return the hexadecimal key or null if the validation cannot be cached (unknown policy implementation, detached
+	 *         content without SHA-256 digest,...)
+	 */
+	public String getKey(DSSDocument document, List<DSSDocument> detachedContents, ValidationPolicy validationPolicy,
+			CertificateVerifier certificateVerifier, Date validationTime, ValidationLevel validationLevel) {
+		if (!(validationPolicy instanceof EtsiValidationPolicy)) {
+			return null;
+		}
+		final String trustSnapshot = getTrustSnapshot(certificateVerifier.getTrustedCertSource());
+		if (trustSnapshot == null) {
+			return null;
+		}
+		try {
+			final StringBuilder sb = new StringBuilder();
+			sb.append(document.getDigest(DigestAlgorithm.SHA256)).append('|');
+			if (detachedContents != null) {
+				for (DSSDocument detachedContent : detachedContents) {
+					sb.append(detachedContent.getName()).append(':').append(detachedContent.getDigest(DigestAlgorithm.SHA256)).append('|');
+				}
+			}
+			sb.append(getPolicyDigest((EtsiValidationPolicy) validationPolicy)).append('|');
+			sb.append(trustSnapshot).append('|');
+			sb.append(validationLevel).append('|');
+			sb.append(certificateVerifier.isIncludeCertificateTokenValues()).append(certificateVerifier.isIncludeCertificateRevocationValues())
+					.append(certificateVerifier.isIncludeTimestampTokenValues()).append('|');
+			sb.append(validationTime.getTime() / getValidationTimeBucket());
+			return DSSUtils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, sb.toString().getBytes(StandardCharsets.UTF_8)));
+		} catch (DSSException e) {
+			LOG.debug("The validation cannot be cached : {}", e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the cached reports.
+	 * 
+	 * @param key
+	 *            the key returned by {@link #getKey}
+	 * @return new {@code Reports} with the cached content or null if not cached (or expired)
+	 */
+	public Reports get(String key) {
+		CachedResult result = memoryTier.getIfPresent(key);
+		if (result == null && persistentStore != null) {
+			result = loadPersistentEntry(key);
+			if (result != null && !result.isExpired()) {
+				memoryTier.put(key, result);
+			}
+		}
+		if (result != null && result.isExpired()) {
+			invalidate(key);
+			result = null;
+		}
+
+		final boolean hit = result != null;
+		if (hit) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		ValidationMetrics.current().recordCacheAccess(CACHE_NAME, hit);
+
+		if (hit) {
+			LOG.debug("Validation result found in the cache ({})", key);
+			return new Reports(result.diagnosticData, result.detailedReport, result.simpleReport);
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the reports of a validation.
+	 * 
+	 * @param key
+	 *            the key returned by {@link #getKey}
+	 * @param reports
+	 *            the validation reports
+	 */
+	public void put(String key, Reports reports) {
+		final CachedResult result = new CachedResult(reports.getDiagnosticDataJaxb(), reports.getDetailedReportJaxb(), reports.getSimpleReportJaxb(),
+				getExpirationTime(reports));
+		memoryTier.put(key, result);
+		if (persistentStore != null) {
+			try {
+				persistentStore.put(key, toBinaries(result));
+			} catch (DSSException e) {
+				LOG.warn("Unable to store the validation result in the persistent tier : {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Removes an entry from both tiers.
+	 * 
+	 * @param key
+	 *            the key
+	 */
+	public void invalidate(String key) {
+		memoryTier.invalidate(key);
+		if (persistentStore != null) {
+			persistentStore.remove(key);
+		}
+	}
+
+	/**
+	 * Removes all the entries of the in-memory tier. The persistent entries are not addressed anymore after a change
+	 * of the trusted certificate source and are removed on expiration.
+	 */
+	public void clear() {
+		memoryTier.clear();
+	}
+
+	/**
+	 * Returns the number of validations served from the cache
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of validations which were not cached
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	private long getValidationTimeBucket() {
+		if (validationTimeBucket > 0) {
+			return validationTimeBucket;
+		}
+		return Math.max(revocationFreshness, 1);
+	}
+
+	private long getExpirationTime(Reports reports) {
+		final long now = System.currentTimeMillis();
+		long expirationTime = now + revocationFreshness;
+		for (RevocationWrapper revocation : reports.getDiagnosticData().getAllRevocationData()) {
+			final Date nextUpdate = revocation.getNextUpdate();
+			if (nextUpdate != null && nextUpdate.getTime() > now && nextUpdate.getTime() < expirationTime) {
+				expirationTime = nextUpdate.getTime();
+			}
+		}
+		return expirationTime;
+	}
+
+	/**
+	 * The snapshot digest is recomputed only when the version of the source changes. The version is a counter : it
+	 * cannot be used in the persistent keys.
+	 */
+	private String getTrustSnapshot(CertificateSource trustedSource) {
+		if (trustedSource == null) {
+			return "none";
+		}
+		if (!(trustedSource instanceof CommonCertificateSource)) {
+			return null;
+		}
+		final CommonCertificateSource source = (CommonCertificateSource) trustedSource;
+		final long version = source.getVersion();
+		synchronized (trustSnapshots) {
+			final TrustSnapshot snapshot = trustSnapshots.get(source);
+			if (snapshot != null && snapshot.version == version) {
+				return snapshot.digest;
+			}
+			if (snapshot != null) {
+				LOG.debug("The trusted certificate source changed, the in-memory validation results are cleared");
+				memoryTier.clear();
+			}
+			final String digest = computeTrustSnapshotDigest(source);
+			trustSnapshots.put(source, new TrustSnapshot(version, digest));
+			return digest;
+		}
+	}
+
+	private String computeTrustSnapshotDigest(CommonCertificateSource source) {
+		final List<String> ids = new ArrayList<String>();
+		for (CertificateToken certificate : new ArrayList<CertificateToken>(source.getCertificates())) {
+			ids.add(certificate.getDSSIdAsString());
+		}
+		Collections.sort(ids);
+
+		final MessageDigest messageDigest = DSSUtils.getMessageDigest(DigestAlgorithm.SHA256);
+		for (String id : ids) {
+			messageDigest.update(id.getBytes(StandardCharsets.UTF_8));
+		}
+		if (source instanceof TrustedListsCertificateSource) {
+			// the trust services are not digested : any change of the trusted lists changes their sequence numbers
+			final Map<String, TLInfo> summary = new TreeMap<String, TLInfo>(((TrustedListsCertificateSource) source).getSummary());
+			for (Map.Entry<String, TLInfo> entry : summary.entrySet()) {
+				final TLInfo info = entry.getValue();
+				final String tl = entry.getKey() + ':' + info.getSequenceNumber() + ':' + (info.getIssueDate() == null ? "" : info.getIssueDate().getTime())
+						+ ':' + info.isWellSigned();
+				messageDigest.update(tl.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return DSSUtils.toHex(messageDigest.digest());
+	}
+
+	private String getPolicyDigest(EtsiValidationPolicy validationPolicy) {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			final Marshaller marshaller = policyContext.createMarshaller();
+			marshaller.marshal(validationPolicy.getConstraintsParameters(), baos);
+		} catch (JAXBException e) {
+			throw new DSSException("Unable to serialize the validation policy", e);
+		}
+		return DSSUtils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, baos.toByteArray()));
+	}
+
+	private CachedResult loadPersistentEntry(String key) {
+		final byte[] binaries = persistentStore.get(key);
+		if (binaries == null) {
+			return null;
+		}
+		try {
+			return fromBinaries(binaries);
+		} catch (Exception e) {
+			LOG.warn("Unable to read the persistent validation result '{}' : {}", key, e.getMessage());
+			persistentStore.remove(key);
+			return null;
+		}
+	}
+
+	private static byte[] toBinaries(CachedResult result) {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(baos))) {
+			dos.writeInt(FORMAT_VERSION);
+			dos.writeLong(result.expirationTime);
+			writeXml(dos, diagnosticDataContext, result.diagnosticData);
+			writeXml(dos, detailedReportContext, result.detailedReport);
+			writeXml(dos, simpleReportContext, result.simpleReport);
+		} catch (IOException | JAXBException e) {
+			throw new DSSException("Unable to serialize the validation result", e);
+		}
+		return baos.toByteArray();
+	}
+
+	private static void writeXml(DataOutputStream dos, JAXBContext context, Object jaxbObject) throws JAXBException, IOException {
+		final ByteArrayOutputStream xml = new ByteArrayOutputStream();
+		context.createMarshaller().marshal(jaxbObject, xml);
+		dos.writeInt(xml.size());
+		xml.writeTo(dos);
+	}
+
+	private static CachedResult fromBinaries(byte[] binaries) throws IOException, JAXBException {
+		try (DataInputStream dis = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(binaries)))) {
+			final int version = dis.readInt();
+			if (version != FORMAT_VERSION) {
+				throw new DSSException("Unsupported format version : " + version);
+			}
+			final long expirationTime = dis.readLong();
+			final DiagnosticData diagnosticData = (DiagnosticData) readXml(dis, diagnosticDataContext);
+			final DetailedReport detailedReport = (DetailedReport) readXml(dis, detailedReportContext);
+			final SimpleReport simpleReport = (SimpleReport) readXml(dis, simpleReportContext);
+			return new CachedResult(diagnosticData, detailedReport, simpleReport, expirationTime);
+		}
+	}
+
+	private static Object readXml(DataInputStream dis, JAXBContext context) throws IOException, JAXBException {
+		final byte[] xml = new byte[dis.readInt()];
+		dis.readFully(xml);
+		return context.createUnmarshaller().unmarshal(new ByteArrayInputStream(xml));
+	}
+
+	private static final class CachedResult {
+
+		private final DiagnosticData diagnosticData;
+		private final DetailedReport detailedReport;
+		private final SimpleReport simpleReport;
+		private final long expirationTime;
+
+		private CachedResult(DiagnosticData diagnosticData, DetailedReport detailedReport, SimpleReport simpleReport, long expirationTime) {
+			this.diagnosticData = diagnosticData;
+			this.detailedReport = detailedReport;
+			this.simpleReport = simpleReport;
+			this.expirationTime = expirationTime;
+		}
+
+		private boolean isExpired() {
+			return System.currentTimeMillis() >= expirationTime;
+		}
+
+	}
+
+	private static final class TrustSnapshot {
+
+		private final long version;
+		private final String digest;
+
+		private TrustSnapshot(long version, String digest) {
+			this.version = version;
+			this.digest = digest;
+		}
+
+	}
+
+}
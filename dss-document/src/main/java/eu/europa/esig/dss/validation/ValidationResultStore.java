@@ -0,0 +1,58 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+/**
+ * This interface defines the persistent tier of the {@code ValidationResultCache}. The entries are opaque binaries
+ * (compressed reports) identified by the hexadecimal cache key.
+ * 
+ * The implementations must be thread-safe.
+ */
+public interface ValidationResultStore {
+
+	/**
+	 * Returns the stored entry.
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @return the binaries of the entry or null if not found
+	 */
+	byte[] get(String key);
+
+	/**
+	 * Stores (or replaces) an entry.
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @param entry
+	 *            the binaries of the entry
+	 */
+	void put(String key, byte[] entry);
+
+	/**
+	 * Removes an entry (expired or obsolete).
+	 * 
+	 * @param key
+	 *            the cache key
+	 */
+	void remove(String key);
+
+}
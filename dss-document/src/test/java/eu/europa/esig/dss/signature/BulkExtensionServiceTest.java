@@ -0,0 +1,214 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.client.http.MemoryDataLoader;
+import eu.europa.esig.dss.client.http.SharedDataLoader;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.TimestampToken;
+import eu.europa.esig.dss.x509.tsp.TSPSource;
+
+public class BulkExtensionServiceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static class MockParameters extends AbstractSignatureParameters {
+	}
+
+	private static class MockSignatureService implements DocumentSignatureService<MockParameters> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CertificateVerifier certificateVerifier;
+
+		private MockSignatureService(CertificateVerifier certificateVerifier) {
+			this.certificateVerifier = certificateVerifier;
+		}
+
+		@Override
+		public DSSDocument extendDocument(DSSDocument toExtendDocument, MockParameters parameters) throws DSSException {
+			// the sources are shared during the run
+			assertTrue(certificateVerifier.getDataLoader() instanceof SharedDataLoader);
+			if (toExtendDocument.getName().startsWith("invalid")) {
+				throw new DSSException("Invalid signature");
+			}
+			return new InMemoryDocument(("extended " + toExtendDocument.getName()).getBytes(), toExtendDocument.getName());
+		}
+
+		@Override
+		public ToBeSigned getDataToSign(DSSDocument toSignDocument, MockParameters parameters) throws DSSException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public DSSDocument signDocument(DSSDocument toSignDocument, MockParameters parameters, SignatureValue signatureValue) throws DSSException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void setTspSource(TSPSource tspSource) {
+		}
+
+		@Override
+		public TimestampToken getContentTimestamp(DSSDocument toSignDocument, MockParameters parameters) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	private static class CollectingListener implements BulkExtensionListener {
+
+		private final Map<String, DSSDocument> extended = new ConcurrentHashMap<String, DSSDocument>();
+		private final Map<String, Exception> errors = new ConcurrentHashMap<String, Exception>();
+
+		@Override
+		public void onExtended(DSSDocument original, DSSDocument extendedDocument) {
+			extended.put(original.getName(), extendedDocument);
+		}
+
+		@Override
+		public void onError(DSSDocument original, Exception e) {
+			errors.put(original.getName(), e);
+		}
+
+	}
+
+	private static final ExtensionParametersProvider<MockParameters> PARAMETERS = new ExtensionParametersProvider<MockParameters>() {
+		@Override
+		public MockParameters getParameters(DSSDocument toExtendDocument) {
+			return new MockParameters();
+		}
+	};
+
+	private List<DSSDocument> getDocuments(int nb) {
+		List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		for (int i = 0; i < nb; i++) {
+			String name = (i % 10 == 0 ? "invalid" : "doc") + i;
+			documents.add(new InMemoryDocument(name.getBytes(), name));
+		}
+		return documents;
+	}
+
+	@Test
+	public void extend() {
+		CertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		MemoryDataLoader dataLoader = new MemoryDataLoader(Collections.<String, byte[]> emptyMap());
+		certificateVerifier.setDataLoader(dataLoader);
+
+		BulkExtensionService<MockParameters> service = new BulkExtensionService<MockParameters>(new MockSignatureService(certificateVerifier),
+				certificateVerifier);
+		service.setNbThreads(3);
+
+		CollectingListener listener = new CollectingListener();
+		BulkExtensionResult result = service.extend(getDocuments(100).iterator(), PARAMETERS, listener);
+
+		assertEquals(100, result.getSubmitted());
+		assertEquals(90, result.getExtended());
+		assertEquals(10, result.getFailed());
+		assertEquals(10, result.getFailedDocuments().size());
+		assertEquals(90, listener.extended.size());
+		assertEquals(10, listener.errors.size());
+
+		// the original sources are restored
+		assertSame(dataLoader, certificateVerifier.getDataLoader());
+	}
+
+	@Test(expected = DSSException.class)
+	public void otherCertificateVerifier() {
+		DocumentSignatureService<MockParameters> signatureService = new AbstractSignatureService<MockParameters>(new CommonCertificateVerifier()) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public DSSDocument extendDocument(DSSDocument toExtendDocument, MockParameters parameters) throws DSSException {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public ToBeSigned getDataToSign(DSSDocument toSignDocument, MockParameters parameters) throws DSSException {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public DSSDocument signDocument(DSSDocument toSignDocument, MockParameters parameters, SignatureValue signatureValue) throws DSSException {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public TimestampToken getContentTimestamp(DSSDocument toSignDocument, MockParameters parameters) {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+		new BulkExtensionService<MockParameters>(signatureService, new CommonCertificateVerifier());
+	}
+
+	@Test
+	public void resume() throws Exception {
+		File checkpointFile = new File(folder.getRoot(), "checkpoint.txt");
+		CertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		BulkExtensionService<MockParameters> service = new BulkExtensionService<MockParameters>(new MockSignatureService(certificateVerifier),
+				certificateVerifier);
+
+		service.setCheckpoint(new FileBulkExtensionCheckpoint(checkpointFile));
+		BulkExtensionResult result = service.extend(getDocuments(50).iterator(), PARAMETERS, new CollectingListener());
+		assertEquals(45, result.getExtended());
+
+		// new run (eg : after a restart)
+		FileBulkExtensionCheckpoint checkpoint = new FileBulkExtensionCheckpoint(checkpointFile);
+		assertEquals(45, checkpoint.size());
+		service.setCheckpoint(checkpoint);
+		CollectingListener listener = new CollectingListener();
+		result = service.extend(getDocuments(60).iterator(), PARAMETERS, listener);
+
+		assertEquals(45, result.getSkipped());
+		assertEquals(9, result.getExtended());
+		assertEquals(6, result.getFailed());
+		assertFalse(listener.extended.containsKey("doc1"));
+		assertNotNull(listener.extended.get("doc51"));
+	}
+
+}
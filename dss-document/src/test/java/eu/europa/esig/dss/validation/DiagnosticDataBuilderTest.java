@@ -5,6 +5,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -14,13 +16,19 @@ import org.junit.Test;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
 import eu.europa.esig.dss.jaxb.diagnostic.XmlCertificate;
+import eu.europa.esig.dss.jaxb.diagnostic.XmlTrustedServiceProvider;
+import eu.europa.esig.dss.tsl.Condition;
 import eu.europa.esig.dss.tsl.ServiceInfo;
+import eu.europa.esig.dss.tsl.ServiceInfoStatus;
 import eu.europa.esig.dss.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.util.MutableTimeDependentValues;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.x509.CertificateToken;
 
 public class DiagnosticDataBuilderTest {
 
+	private static final String GRANTED = "http://uri.etsi.org/TrstSvc/TrustedList/Svcstatus/granted";
+
 	@Test
 	public void testEmpty() {
 		DiagnosticDataBuilder ddb = new DiagnosticDataBuilder();
@@ -84,8 +92,16 @@ public class DiagnosticDataBuilderTest {
 		TrustedListsCertificateSource trustedCertSource = new TrustedListsCertificateSource();
 		ServiceInfo trustService = new ServiceInfo();
 		trustService.setTlCountryCode("BE");
+		trustService.setTspName("Test");
 		trustService.setTspTradeName("Test");
-		trustedCertSource.addCertificate(rootToken, Arrays.asList(trustService));
+		trustService.setStatus(getStatus(GRANTED, DSSUtils.getUtcDate(2016, 0, 1), null));
+		// withdrawn before the issuance of the certificates : not reported
+		ServiceInfo withdrawnService = new ServiceInfo();
+		withdrawnService.setTlCountryCode("BE");
+		withdrawnService.setTspName("Withdrawn");
+		withdrawnService.setTspTradeName("Withdrawn");
+		withdrawnService.setStatus(getStatus(GRANTED, DSSUtils.getUtcDate(2010, 0, 1), DSSUtils.getUtcDate(2015, 0, 1)));
+		trustedCertSource.addCertificate(rootToken, Arrays.asList(trustService, withdrawnService));
 
 		DiagnosticDataBuilder ddb = new DiagnosticDataBuilder().usedCertificates(usedCertificates).trustedCertificateSource(trustedCertSource);
 		DiagnosticData dd = ddb.build();
@@ -97,6 +113,10 @@ public class DiagnosticDataBuilderTest {
 		boolean trusted = false;
 		for (XmlCertificate xmlCertificate : usedCertificatesDD) {
 			assertTrue(Utils.isCollectionNotEmpty(xmlCertificate.getTrustedServiceProviders()));
+			for (XmlTrustedServiceProvider serviceProvider : xmlCertificate.getTrustedServiceProviders()) {
+				assertEquals("Test", serviceProvider.getTSPName());
+				assertEquals(1, serviceProvider.getTrustedServices().size());
+			}
 			
 			if (xmlCertificate.isTrusted()) {
 				trusted = true;
@@ -105,4 +125,12 @@ public class DiagnosticDataBuilderTest {
 		assertTrue(trusted);
 	}
 
+	private MutableTimeDependentValues<ServiceInfoStatus> getStatus(String status, Date startDate, Date endDate) {
+		MutableTimeDependentValues<ServiceInfoStatus> statuses = new MutableTimeDependentValues<ServiceInfoStatus>();
+		statuses.addOldest(new ServiceInfoStatus("service", "http://uri.etsi.org/TrstSvc/Svctype/CA/QC", status,
+				Collections.<String, List<Condition>> emptyMap(),
+				Collections.<String> emptyList(), Collections.<String> emptyList(), null, startDate, endDate));
+		return statuses;
+	}
+
 }
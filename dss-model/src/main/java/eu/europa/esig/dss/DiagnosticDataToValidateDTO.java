@@ -0,0 +1,75 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.util.Date;
+
+public class DiagnosticDataToValidateDTO {
+
+	/**
+	 * The stored diagnostic data (XML or compact form)
+	 */
+	private RemoteDocument diagnosticData;
+
+	/**
+	 * The custom validation policy to use
+	 */
+	private RemoteDocument policy;
+
+	/**
+	 * The validation time (the validation date of the diagnostic data if null)
+	 */
+	private Date validationTime;
+
+	public DiagnosticDataToValidateDTO() {
+	}
+
+	public DiagnosticDataToValidateDTO(RemoteDocument diagnosticData, RemoteDocument policy, Date validationTime) {
+		this.diagnosticData = diagnosticData;
+		this.policy = policy;
+		this.validationTime = validationTime;
+	}
+
+	public RemoteDocument getDiagnosticData() {
+		return diagnosticData;
+	}
+
+	public void setDiagnosticData(RemoteDocument diagnosticData) {
+		this.diagnosticData = diagnosticData;
+	}
+
+	public RemoteDocument getPolicy() {
+		return policy;
+	}
+
+	public void setPolicy(RemoteDocument policy) {
+		this.policy = policy;
+	}
+
+	public Date getValidationTime() {
+		return validationTime;
+	}
+
+	public void setValidationTime(Date validationTime) {
+		this.validationTime = validationTime;
+	}
+
+}
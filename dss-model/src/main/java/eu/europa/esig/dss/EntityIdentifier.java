@@ -33,4 +33,8 @@ public final class EntityIdentifier extends Identifier {
 		super(publicKey.getEncoded());
 	}
 
+	public EntityIdentifier(final Digest digest) {
+		super(digest);
+	}
+
 }
@@ -39,6 +39,28 @@ public abstract class Identifier implements Serializable {
 		this.id = new Digest(DIGEST_ALGO, getMessageDigest().digest(data));
 	}
 
+	/**
+	 * Restores an identifier from its previously computed digest.
+	 *
+	 * @param id
+	 *            the SHA-256 digest of the identified data
+	 */
+	Identifier(Digest id) {
+		if (id == null || !DIGEST_ALGO.equals(id.getAlgorithm())) {
+			throw new DSSException("An identifier requires a " + DIGEST_ALGO + " digest");
+		}
+		this.id = id;
+	}
+
+	/**
+	 * Returns the digest on which this identifier is based.
+	 *
+	 * @return the SHA-256 digest of the identified data
+	 */
+	public Digest getDigest() {
+		return id;
+	}
+
 	/**
 	 * Return an ID conformant to XML Id
 	 * 
@@ -0,0 +1,241 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * This class builds a multipart/form-data body (RFC 7578) for the streaming REST services : the documents are not
+ * base64 encoded nor loaded in memory, each document is opened when the body is read up to its part.
+ * 
+ * Usage with a proxy of the {@code RestStreamDocumentValidationService} :
+ * 
+ * <pre>
+ * MultipartFormDataWriter body = new MultipartFormDataWriter();
+ * body.addDocument("signedDocument", new FileDocument(file));
+ * try (InputStream is = body.openStream()) {
+ * 	ReportsDTO reports = service.validateSignature(body.getContentType(), is);
+ * }
+ * </pre>
+ */
+public class MultipartFormDataWriter {
+
+	private static final byte[] CRLF = new byte[] { '\r', '\n' };
+
+	private final String boundary;
+
+	private final List<Part> parts = new ArrayList<Part>();
+
+	/**
+	 * The default constructor (with a random boundary)
+	 */
+	public MultipartFormDataWriter() {
+		this("dss-" + UUID.randomUUID().toString().replace("-", ""));
+	}
+
+	/**
+	 * The constructor with a given boundary
+	 * 
+	 * @param boundary
+	 *            the boundary which must not appear in the documents
+	 */
+	public MultipartFormDataWriter(String boundary) {
+		if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+			throw new IllegalArgumentException("The boundary must have 1 to 70 characters");
+		}
+		this.boundary = boundary;
+	}
+
+	/**
+	 * Returns the Content-Type header of the request
+	 * 
+	 * @return the multipart/form-data mimetype with the boundary parameter
+	 */
+	public String getContentType() {
+		return "multipart/form-data; boundary=" + boundary;
+	}
+
+	/**
+	 * Adds a document : the name of the document is sent as the filename parameter of the Content-Disposition header
+	 * 
+	 * @param name
+	 *            the name of the form field (eg : "signedDocument")
+	 * @param document
+	 *            the document
+	 */
+	public void addDocument(String name, final DSSDocument document) {
+		MimeType mimeType = document.getMimeType() != null ? document.getMimeType() : MimeType.BINARY;
+		parts.add(new Part(name, document.getName(), mimeType.getMimeTypeString()) {
+
+			@Override
+			InputStream openContent() {
+				return document.openStream();
+			}
+
+		});
+	}
+
+	/**
+	 * Adds a part which is not a file (eg : the signature parameters in JSON)
+	 * 
+	 * @param name
+	 *            the name of the form field (eg : "parameters")
+	 * @param contentType
+	 *            the Content-Type of the part (eg : "application/json")
+	 * @param content
+	 *            the content of the part
+	 */
+	public void addPart(String name, String contentType, final byte[] content) {
+		parts.add(new Part(name, null, contentType) {
+
+			@Override
+			InputStream openContent() {
+				return new ByteArrayInputStream(content);
+			}
+
+		});
+	}
+
+	/**
+	 * Returns the body. The documents are opened one after the other while the body is read and each stream is
+	 * closed at the end of its part.
+	 * 
+	 * @return the multipart/form-data body
+	 */
+	public InputStream openStream() {
+		final Iterator<Part> partIterator = parts.iterator();
+		return new SequenceInputStream(new Enumeration<InputStream>() {
+
+			private Part current;
+
+			private int step;
+
+			private boolean ended;
+
+			@Override
+			public boolean hasMoreElements() {
+				return !ended;
+			}
+
+			@Override
+			public InputStream nextElement() {
+				if (ended) {
+					throw new NoSuchElementException();
+				}
+				if (current == null || step == 3) {
+					step = 0;
+					if (!partIterator.hasNext()) {
+						ended = true;
+						return new ByteArrayInputStream(getBytes("--" + boundary + "--\r\n"));
+					}
+					current = partIterator.next();
+				}
+				switch (step++) {
+				case 0:
+					return new ByteArrayInputStream(getBytes(current.getHeaders(boundary)));
+				case 1:
+					return current.openContent();
+				default:
+					return new ByteArrayInputStream(CRLF);
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Writes the body in the given stream
+	 * 
+	 * @param os
+	 *            the stream to be written
+	 * @throws IOException
+	 *             if a document cannot be read or the stream cannot be written
+	 */
+	public void writeTo(OutputStream os) throws IOException {
+		try (InputStream is = openStream()) {
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				os.write(buffer, 0, read);
+			}
+		}
+	}
+
+	private static byte[] getBytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Quotes a parameter of the Content-Disposition header : the quotes and the line breaks are percent-encoded (as
+	 * the web browsers do)
+	 */
+	private static String quote(String value) {
+		return "\"" + value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A") + "\"";
+	}
+
+	private abstract static class Part {
+
+		private final String name;
+
+		private final String fileName;
+
+		private final String contentType;
+
+		Part(String name, String fileName, String contentType) {
+			if (name == null) {
+				throw new NullPointerException("The name of the part cannot be null");
+			}
+			this.name = name;
+			this.fileName = fileName;
+			this.contentType = contentType;
+		}
+
+		String getHeaders(String boundary) {
+			StringBuilder headers = new StringBuilder();
+			headers.append("--").append(boundary).append("\r\n");
+			headers.append("Content-Disposition: form-data; name=").append(quote(name));
+			if (fileName != null) {
+				headers.append("; filename=").append(quote(fileName));
+			}
+			headers.append("\r\n");
+			if (contentType != null) {
+				headers.append("Content-Type: ").append(contentType).append("\r\n");
+			}
+			headers.append("\r\n");
+			return headers.toString();
+		}
+
+		abstract InputStream openContent();
+
+	}
+
+}
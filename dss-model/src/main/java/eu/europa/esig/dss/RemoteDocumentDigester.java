@@ -0,0 +1,258 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * This class is the client side of the digest-only validation of detached signatures : the files are hashed locally
+ * (one read, all the digest algorithms at once) and only their digests are sent to the validation service (see
+ * {@code RemoteDocument#getDigestAlgorithm()}). The server merges the digests of a same file (same name) and uses the
+ * digest algorithm of the signature.
+ * 
+ * The name of a digested file must be the name used in the signature (eg : the URI of the XAdES reference).
+ * 
+ * An ASiC container can be reduced to its META-INF entries : the signed files are replaced by their digests, which are
+ * sent as original documents with the reduced container.
+ */
+public class RemoteDocumentDigester {
+
+	/**
+	 * The digest algorithms computed by default (the algorithm used by the signature is not known by the client)
+	 */
+	public static final List<DigestAlgorithm> DEFAULT_DIGEST_ALGORITHMS = Collections
+			.unmodifiableList(Arrays.asList(DigestAlgorithm.SHA1, DigestAlgorithm.SHA256, DigestAlgorithm.SHA384, DigestAlgorithm.SHA512));
+
+	private static final String MIMETYPE_ENTRY = "mimetype";
+
+	private static final String META_INF_FOLDER = "META-INF/";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final List<DigestAlgorithm> digestAlgorithms;
+
+	public RemoteDocumentDigester() {
+		this.digestAlgorithms = DEFAULT_DIGEST_ALGORITHMS;
+	}
+
+	/**
+	 * This constructor allows to restrict the computed digests (eg : to the algorithm of the known signatures)
+	 * 
+	 * @param digestAlgorithms
+	 *            the digest algorithms to compute
+	 */
+	public RemoteDocumentDigester(DigestAlgorithm... digestAlgorithms) {
+		if (digestAlgorithms == null || digestAlgorithms.length == 0) {
+			throw new DSSException("At least one digest algorithm is required");
+		}
+		this.digestAlgorithms = Arrays.asList(digestAlgorithms);
+	}
+
+	/**
+	 * Computes the digests of the file
+	 * 
+	 * @param file
+	 *            the detached file
+	 * @return a {@code RemoteDocument} per digest algorithm (with the name of the file)
+	 */
+	public List<RemoteDocument> digest(File file) {
+		try (InputStream is = new FileInputStream(file)) {
+			return digest(is, file.getName(), MimeType.fromFileName(file.getName()));
+		} catch (IOException e) {
+			throw new DSSException("Unable to digest the file '" + file.getName() + "'", e);
+		}
+	}
+
+	/**
+	 * Computes the digests of the content of the stream (the stream is not closed)
+	 * 
+	 * @param inputStream
+	 *            the content of the detached file
+	 * @param name
+	 *            the name of the file in the signature
+	 * @param mimeType
+	 *            the mime-type of the file (can be null)
+	 * @return a {@code RemoteDocument} per digest algorithm
+	 */
+	public List<RemoteDocument> digest(InputStream inputStream, String name, MimeType mimeType) {
+		List<MessageDigest> messageDigests = getMessageDigests();
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				for (MessageDigest messageDigest : messageDigests) {
+					messageDigest.update(buffer, 0, read);
+				}
+			}
+		} catch (IOException e) {
+			throw new DSSException("Unable to digest the document '" + name + "'", e);
+		}
+
+		List<RemoteDocument> result = new ArrayList<RemoteDocument>();
+		for (int i = 0; i < digestAlgorithms.size(); i++) {
+			result.add(new RemoteDocument(messageDigests.get(i).digest(), digestAlgorithms.get(i), mimeType, name));
+		}
+		return result;
+	}
+
+	/**
+	 * Reduces the ASiC container to its mimetype and META-INF entries and computes the digests of the other entries
+	 * 
+	 * @param container
+	 *            the ASiC container
+	 * @return the reduced container and the digests of the signed files
+	 */
+	public DigestedContainer digestContainer(File container) {
+		try (InputStream is = new FileInputStream(container)) {
+			return digestContainer(is, container.getName(), MimeType.fromFileName(container.getName()));
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the container '" + container.getName() + "'", e);
+		}
+	}
+
+	/**
+	 * Reduces the ASiC container to its mimetype and META-INF entries and computes the digests of the other entries
+	 * (the stream is not closed)
+	 * 
+	 * @param inputStream
+	 *            the content of the ASiC container
+	 * @param name
+	 *            the name of the container
+	 * @param mimeType
+	 *            the mime-type of the container
+	 * @return the reduced container and the digests of the signed files
+	 */
+	public DigestedContainer digestContainer(InputStream inputStream, String name, MimeType mimeType) {
+		List<RemoteDocument> digests = new ArrayList<RemoteDocument>();
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			ZipInputStream zis = new ZipInputStream(inputStream);
+			try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+				ZipEntry entry;
+				while ((entry = zis.getNextEntry()) != null) {
+					String entryName = entry.getName();
+					if (MIMETYPE_ENTRY.equals(entryName)) {
+						copyStoredEntry(entryName, zis, zos);
+					} else if (entryName.startsWith(META_INF_FOLDER)) {
+						zos.putNextEntry(new ZipEntry(entryName));
+						copy(zis, zos);
+						zos.closeEntry();
+					} else if (!entry.isDirectory()) {
+						digests.addAll(digest(zis, entryName, MimeType.fromFileName(entryName)));
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new DSSException("Unable to reduce the container '" + name + "'", e);
+		}
+		return new DigestedContainer(new RemoteDocument(baos.toByteArray(), mimeType, name), digests);
+	}
+
+	/**
+	 * The mimetype entry must be the first one and must not be compressed
+	 */
+	private void copyStoredEntry(String entryName, InputStream is, ZipOutputStream zos) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		copy(is, content);
+		byte[] bytes = content.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+
+		ZipEntry entry = new ZipEntry(entryName);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(bytes.length);
+		entry.setCompressedSize(bytes.length);
+		entry.setCrc(crc.getValue());
+		zos.putNextEntry(entry);
+		zos.write(bytes);
+		zos.closeEntry();
+	}
+
+	private void copy(InputStream is, OutputStream os) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = is.read(buffer)) != -1) {
+			os.write(buffer, 0, read);
+		}
+	}
+
+	private List<MessageDigest> getMessageDigests() {
+		List<MessageDigest> messageDigests = new ArrayList<MessageDigest>();
+		for (DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+			try {
+				messageDigests.add(MessageDigest.getInstance(digestAlgorithm.getJavaName()));
+			} catch (NoSuchAlgorithmException e) {
+				throw new DSSException("Digest algorithm '" + digestAlgorithm.getName() + "' is not supported", e);
+			}
+		}
+		return messageDigests;
+	}
+
+	/**
+	 * The result of the reduction of an ASiC container
+	 */
+	public static class DigestedContainer {
+
+		private final RemoteDocument container;
+
+		private final List<RemoteDocument> digests;
+
+		DigestedContainer(RemoteDocument container, List<RemoteDocument> digests) {
+			this.container = container;
+			this.digests = digests;
+		}
+
+		/**
+		 * Returns the container without the signed files (to be sent as signed document)
+		 * 
+		 * @return the reduced container
+		 */
+		public RemoteDocument getContainer() {
+			return container;
+		}
+
+		/**
+		 * Returns the digests of the signed files (to be sent as original documents)
+		 * 
+		 * @return the digests of the signed files
+		 */
+		public List<RemoteDocument> getDigests() {
+			return digests;
+		}
+
+	}
+
+}
@@ -0,0 +1,136 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.xml.bind.annotation.XmlMimeType;
+
+/**
+ * This class is used to transport a large DSSDocument with SOAP (MTOM) : the binaries are sent as an attachment and
+ * are never base64 encoded nor fully loaded in memory.
+ */
+public class RemoteStreamDocument {
+
+	private DataHandler data;
+	private String name = "RemoteDocument";
+	private MimeType mimeType;
+
+	public RemoteStreamDocument() {
+	}
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param data
+	 *            the document binaries (eg: {@code new DataHandler(new FileDataSource(file))})
+	 * @param mimeType
+	 *            the mimetype
+	 * @param name
+	 *            the document name
+	 */
+	public RemoteStreamDocument(DataHandler data, MimeType mimeType, String name) {
+		this.data = data;
+		this.mimeType = mimeType;
+		this.name = name;
+	}
+
+	/**
+	 * The constructor from a {@code DSSDocument} (eg : on the client side, with MTOM enabled on the client) : the
+	 * document is read when the message is sent.
+	 * 
+	 * @param document
+	 *            the document to be sent
+	 */
+	public RemoteStreamDocument(final DSSDocument document) {
+		this(new DataHandler(new DocumentDataSource(document)), document.getMimeType(), document.getName());
+	}
+
+	/**
+	 * Returns the binaries of the document. The content has to be read only once.
+	 * 
+	 * @return the {@code DataHandler} with the binaries
+	 */
+	@XmlMimeType("application/octet-stream")
+	public DataHandler getData() {
+		return data;
+	}
+
+	public void setData(DataHandler data) {
+		this.data = data;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public MimeType getMimeType() {
+		return mimeType;
+	}
+
+	public void setMimeType(MimeType mimeType) {
+		this.mimeType = mimeType;
+	}
+
+	private static class DocumentDataSource implements DataSource {
+
+		private final DSSDocument document;
+
+		private DocumentDataSource(DSSDocument document) {
+			this.document = document;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return document.openStream();
+		}
+
+		@Override
+		public OutputStream getOutputStream() throws IOException {
+			throw new IOException("Read-only document");
+		}
+
+		@Override
+		public String getContentType() {
+			return document.getMimeType() != null ? document.getMimeType().getMimeTypeString() : MimeType.BINARY.getMimeTypeString();
+		}
+
+		@Override
+		public String getName() {
+			return document.getName();
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return "RemoteStreamDocument [name=" + name + ", mimeType=" + mimeType + "]";
+	}
+
+}
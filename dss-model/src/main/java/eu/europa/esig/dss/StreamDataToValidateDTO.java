@@ -0,0 +1,78 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.util.List;
+
+/**
+ * This class is the streaming (MTOM) variant of {@code DataToValidateDTO}
+ */
+public class StreamDataToValidateDTO {
+
+	/**
+	 * The document which contains the signature(s)
+	 */
+	private RemoteStreamDocument signedDocument;
+
+	/**
+	 * The original file(s) in case of detached signature
+	 */
+	private List<RemoteStreamDocument> originalDocuments;
+
+	/**
+	 * The custom validation policy to use
+	 */
+	private RemoteDocument policy;
+
+	public StreamDataToValidateDTO() {
+	}
+
+	public StreamDataToValidateDTO(RemoteStreamDocument signedDocument, List<RemoteStreamDocument> originalDocuments, RemoteDocument policy) {
+		this.signedDocument = signedDocument;
+		this.originalDocuments = originalDocuments;
+		this.policy = policy;
+	}
+
+	public RemoteStreamDocument getSignedDocument() {
+		return signedDocument;
+	}
+
+	public void setSignedDocument(RemoteStreamDocument signedDocument) {
+		this.signedDocument = signedDocument;
+	}
+
+	public List<RemoteStreamDocument> getOriginalDocuments() {
+		return originalDocuments;
+	}
+
+	public void setOriginalDocuments(List<RemoteStreamDocument> originalDocuments) {
+		this.originalDocuments = originalDocuments;
+	}
+
+	public RemoteDocument getPolicy() {
+		return policy;
+	}
+
+	public void setPolicy(RemoteDocument policy) {
+		this.policy = policy;
+	}
+
+}
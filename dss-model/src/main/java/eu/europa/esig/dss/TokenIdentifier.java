@@ -30,7 +30,11 @@ public final class TokenIdentifier extends Identifier {
 	private static final long serialVersionUID = 1201653840828853681L;
 
 	public TokenIdentifier(final Token token) {
-		super(token.getEncoded());
+		super(new Digest(DigestAlgorithm.SHA256, token.getDigest(DigestAlgorithm.SHA256)));
+	}
+
+	public TokenIdentifier(final Digest digest) {
+		super(digest);
 	}
 
 }
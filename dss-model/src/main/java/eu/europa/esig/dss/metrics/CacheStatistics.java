@@ -0,0 +1,83 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+/**
+ * Hits and misses of a cache
+ */
+public class CacheStatistics {
+
+	private final String name;
+
+	private long hitCount;
+
+	private long missCount;
+
+	CacheStatistics(String name) {
+		this.name = name;
+	}
+
+	void add(boolean hit) {
+		if (hit) {
+			hitCount++;
+		} else {
+			missCount++;
+		}
+	}
+
+	CacheStatistics copy() {
+		CacheStatistics copy = new CacheStatistics(name);
+		copy.hitCount = hitCount;
+		copy.missCount = missCount;
+		return copy;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the ratio of the accesses served by the cache
+	 * 
+	 * @return the hit rate between 0 and 1 (0 if the cache was not accessed)
+	 */
+	public double getHitRate() {
+		long total = hitCount + missCount;
+		if (total == 0) {
+			return 0;
+		}
+		return (double) hitCount / total;
+	}
+
+	@Override
+	public String toString() {
+		return name + " : hits=" + hitCount + ", misses=" + missCount;
+	}
+
+}
@@ -0,0 +1,95 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Number, total and maximum duration of the executions of an operation
+ */
+public class DurationStatistics {
+
+	private long count;
+
+	private long totalNanos;
+
+	private long maxNanos;
+
+	void add(long durationNanos) {
+		count++;
+		totalNanos += durationNanos;
+		if (durationNanos > maxNanos) {
+			maxNanos = durationNanos;
+		}
+	}
+
+	void copyTo(DurationStatistics copy) {
+		copy.count = count;
+		copy.totalNanos = totalNanos;
+		copy.maxNanos = maxNanos;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the cumulated duration
+	 * 
+	 * @param unit
+	 *            the time unit of the result
+	 * @return the total duration
+	 */
+	public long getTotal(TimeUnit unit) {
+		return unit.convert(totalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the longest execution
+	 * 
+	 * @param unit
+	 *            the time unit of the result
+	 * @return the maximum duration
+	 */
+	public long getMax(TimeUnit unit) {
+		return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the average duration
+	 * 
+	 * @param unit
+	 *            the time unit of the result
+	 * @return the average duration (0 if no execution)
+	 */
+	public long getAverage(TimeUnit unit) {
+		if (count == 0) {
+			return 0;
+		}
+		return unit.convert(totalNanos / count, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", total=" + getTotal(TimeUnit.MICROSECONDS) / 1000.0 + "ms, max=" + getMax(TimeUnit.MICROSECONDS) / 1000.0 + "ms";
+	}
+
+}
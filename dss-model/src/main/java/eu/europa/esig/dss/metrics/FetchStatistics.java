@@ -0,0 +1,76 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+/**
+ * Calls of the data loaders to a host : number, failures, downloaded bytes and latency
+ */
+public class FetchStatistics extends DurationStatistics {
+
+	private final String host;
+
+	private long failureCount;
+
+	private long bytes;
+
+	FetchStatistics(String host) {
+		this.host = host;
+	}
+
+	void add(long responseBytes, long durationNanos, boolean success) {
+		add(durationNanos);
+		bytes += responseBytes;
+		if (!success) {
+			failureCount++;
+		}
+	}
+
+	FetchStatistics copy() {
+		FetchStatistics copy = new FetchStatistics(host);
+		copyTo(copy);
+		copy.failureCount = failureCount;
+		copy.bytes = bytes;
+		return copy;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * Returns the total size of the responses
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return host + " : " + super.toString() + ", failures=" + failureCount + ", bytes=" + bytes;
+	}
+
+}
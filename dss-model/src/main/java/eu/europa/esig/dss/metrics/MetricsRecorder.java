@@ -0,0 +1,77 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+/**
+ * Receives the measures of the validation process. An implementation can forward them to a monitoring system : with
+ * Micrometer for instance, {@code recordPhase} maps to a {@code Timer} tagged with the phase, {@code recordFetch} to a
+ * {@code Timer} and a {@code DistributionSummary} tagged with the host, {@code recordCacheAccess} to a
+ * {@code Counter} tagged with the cache name and the result, and {@code recordCertificatePoolSize} to a
+ * {@code DistributionSummary}.
+ * 
+ * The methods are called by the validating threads (and by the threads of the parallel data loaders) : they must be
+ * thread-safe and fast. {@code NoOpMetricsRecorder} can be extended to only handle some measures.
+ */
+public interface MetricsRecorder {
+
+	/**
+	 * Records the duration of a validation phase
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @param durationNanos
+	 *            the duration in nanoseconds
+	 */
+	void recordPhase(ValidationPhase phase, long durationNanos);
+
+	/**
+	 * Records a network (or file) access of a data loader
+	 * 
+	 * @param host
+	 *            the host of the url (or the protocol for urls without host)
+	 * @param bytes
+	 *            the size of the response (0 if the call failed)
+	 * @param durationNanos
+	 *            the duration in nanoseconds
+	 * @param success
+	 *            false if the call failed or returned an empty response
+	 */
+	void recordFetch(String host, long bytes, long durationNanos, boolean success);
+
+	/**
+	 * Records an access to a cache
+	 * 
+	 * @param cacheName
+	 *            the name of the cache
+	 * @param hit
+	 *            true if the value was found in the cache
+	 */
+	void recordCacheAccess(String cacheName, boolean hit);
+
+	/**
+	 * Records the number of certificates in the pool at the end of a validation
+	 * 
+	 * @param size
+	 *            the number of certificates
+	 */
+	void recordCertificatePoolSize(int size);
+
+}
@@ -0,0 +1,301 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * The measures of one validation. The instance is bound to the validating thread between {@link #start()} and
+ * {@link #stop()} : the data loaders, the caches and the validation steps find it with {@link #current()}, without any
+ * change in their signatures. Each measure is added to the breakdown of this validation (which can be attached to the
+ * reports) and forwarded to the configured {@code MetricsRecorder}.
+ * 
+ * Outside of a bound validation, {@link #current()} returns a recorder which ignores the measures.
+ */
+public class ValidationMetrics implements MetricsRecorder {
+
+	private static final ThreadLocal<MetricsRecorder> CURRENT = new ThreadLocal<MetricsRecorder>();
+
+	private final MetricsRecorder delegate;
+
+	private final Map<ValidationPhase, DurationStatistics> phases = new EnumMap<ValidationPhase, DurationStatistics>(ValidationPhase.class);
+
+	private final Map<String, FetchStatistics> fetches = new TreeMap<String, FetchStatistics>();
+
+	private final Map<String, CacheStatistics> caches = new TreeMap<String, CacheStatistics>();
+
+	private int certificatePoolSize;
+
+	private MetricsRecorder previous;
+
+	/**
+	 * The default constructor for ValidationMetrics.
+	 * 
+	 * @param delegate
+	 *            the recorder which receives all the measures (can be null)
+	 */
+	public ValidationMetrics(MetricsRecorder delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Returns the recorder bound to the current thread
+	 * 
+	 * @return the current {@code ValidationMetrics} or a no-op recorder
+	 */
+	public static MetricsRecorder current() {
+		MetricsRecorder recorder = CURRENT.get();
+		if (recorder == null) {
+			return NoOpMetricsRecorder.INSTANCE;
+		}
+		return recorder;
+	}
+
+	/**
+	 * Records the duration of a phase in the current recorder
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @param startNanos
+	 *            the value of {@code System.nanoTime()} at the beginning of the phase
+	 */
+	public static void phaseCompleted(ValidationPhase phase, long startNanos) {
+		MetricsRecorder recorder = CURRENT.get();
+		if (recorder != null) {
+			recorder.recordPhase(phase, System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * Records a data loader call in the current recorder
+	 * 
+	 * @param url
+	 *            the called url
+	 * @param response
+	 *            the response (null if the call failed)
+	 * @param startNanos
+	 *            the value of {@code System.nanoTime()} before the call
+	 */
+	public static void fetchCompleted(String url, byte[] response, long startNanos) {
+		MetricsRecorder recorder = CURRENT.get();
+		if (recorder != null) {
+			boolean success = response != null && response.length > 0;
+			recorder.recordFetch(getHost(url), success ? response.length : 0, System.nanoTime() - startNanos, success);
+		}
+	}
+
+	/**
+	 * Wraps a task to be executed by another thread (eg : parallel calls of a data loader), so its measures are added
+	 * to the validation of the submitting thread
+	 * 
+	 * @param <V>
+	 *            the result type of the task
+	 * @param task
+	 *            the task
+	 * @return the wrapped task (or the task itself if no validation is measured)
+	 */
+	public static <V> Callable<V> propagate(final Callable<V> task) {
+		final MetricsRecorder recorder = CURRENT.get();
+		if (recorder == null) {
+			return task;
+		}
+		return new Callable<V>() {
+
+			@Override
+			public V call() throws Exception {
+				MetricsRecorder previousRecorder = CURRENT.get();
+				CURRENT.set(recorder);
+				try {
+					return task.call();
+				} finally {
+					restore(previousRecorder);
+				}
+			}
+
+		};
+	}
+
+	static String getHost(String url) {
+		try {
+			URI uri = new URI(url.trim());
+			if (uri.getHost() != null) {
+				return uri.getHost();
+			}
+			if (uri.getScheme() != null) {
+				return uri.getScheme();
+			}
+		} catch (Exception e) {
+			// invalid url : not a host
+		}
+		return "unknown";
+	}
+
+	private static void restore(MetricsRecorder recorder) {
+		if (recorder == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(recorder);
+		}
+	}
+
+	/**
+	 * Binds this instance to the current thread
+	 */
+	public void start() {
+		previous = CURRENT.get();
+		CURRENT.set(this);
+	}
+
+	/**
+	 * Unbinds this instance from the current thread (the previous binding, if any, is restored)
+	 */
+	public void stop() {
+		restore(previous);
+		previous = null;
+	}
+
+	@Override
+	public void recordPhase(ValidationPhase phase, long durationNanos) {
+		synchronized (this) {
+			DurationStatistics statistics = phases.get(phase);
+			if (statistics == null) {
+				statistics = new DurationStatistics();
+				phases.put(phase, statistics);
+			}
+			statistics.add(durationNanos);
+		}
+		if (delegate != null) {
+			delegate.recordPhase(phase, durationNanos);
+		}
+	}
+
+	@Override
+	public void recordFetch(String host, long bytes, long durationNanos, boolean success) {
+		synchronized (this) {
+			FetchStatistics statistics = fetches.get(host);
+			if (statistics == null) {
+				statistics = new FetchStatistics(host);
+				fetches.put(host, statistics);
+			}
+			statistics.add(bytes, durationNanos, success);
+		}
+		if (delegate != null) {
+			delegate.recordFetch(host, bytes, durationNanos, success);
+		}
+	}
+
+	@Override
+	public void recordCacheAccess(String cacheName, boolean hit) {
+		synchronized (this) {
+			CacheStatistics statistics = caches.get(cacheName);
+			if (statistics == null) {
+				statistics = new CacheStatistics(cacheName);
+				caches.put(cacheName, statistics);
+			}
+			statistics.add(hit);
+		}
+		if (delegate != null) {
+			delegate.recordCacheAccess(cacheName, hit);
+		}
+	}
+
+	@Override
+	public void recordCertificatePoolSize(int size) {
+		synchronized (this) {
+			certificatePoolSize = size;
+		}
+		if (delegate != null) {
+			delegate.recordCertificatePoolSize(size);
+		}
+	}
+
+	/**
+	 * Returns the durations of the validation phases (in the order of {@code ValidationPhase})
+	 * 
+	 * @return a copy of the phase statistics
+	 */
+	public synchronized Map<ValidationPhase, DurationStatistics> getPhases() {
+		Map<ValidationPhase, DurationStatistics> copy = new EnumMap<ValidationPhase, DurationStatistics>(ValidationPhase.class);
+		for (Map.Entry<ValidationPhase, DurationStatistics> entry : phases.entrySet()) {
+			DurationStatistics statistics = new DurationStatistics();
+			entry.getValue().copyTo(statistics);
+			copy.put(entry.getKey(), statistics);
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the data loader calls by host
+	 * 
+	 * @return a copy of the fetch statistics
+	 */
+	public synchronized Map<String, FetchStatistics> getFetches() {
+		Map<String, FetchStatistics> copy = new LinkedHashMap<String, FetchStatistics>();
+		for (FetchStatistics statistics : fetches.values()) {
+			copy.put(statistics.getHost(), statistics.copy());
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the cache accesses by cache name
+	 * 
+	 * @return a copy of the cache statistics
+	 */
+	public synchronized Map<String, CacheStatistics> getCaches() {
+		Map<String, CacheStatistics> copy = new LinkedHashMap<String, CacheStatistics>();
+		for (CacheStatistics statistics : caches.values()) {
+			copy.put(statistics.getName(), statistics.copy());
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the number of certificates in the validation pool at the end of the validation
+	 * 
+	 * @return the pool size
+	 */
+	public synchronized int getCertificatePoolSize() {
+		return certificatePoolSize;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder("ValidationMetrics");
+		for (Map.Entry<ValidationPhase, DurationStatistics> entry : phases.entrySet()) {
+			sb.append("\n  phase ").append(entry.getKey()).append(" : ").append(entry.getValue());
+		}
+		for (FetchStatistics statistics : fetches.values()) {
+			sb.append("\n  fetch ").append(statistics);
+		}
+		for (CacheStatistics statistics : caches.values()) {
+			sb.append("\n  cache ").append(statistics);
+		}
+		sb.append("\n  certificate pool : ").append(certificatePoolSize);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,64 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+/**
+ * The measured steps of a document validation
+ */
+public enum ValidationPhase {
+
+	/**
+	 * The complete validation of a document ({@code SignedDocumentValidator.validateDocument})
+	 */
+	DOCUMENT_VALIDATION,
+
+	/**
+	 * The building of the certificate chains and the collection of the revocation data
+	 * ({@code SignatureValidationContext.validate})
+	 */
+	VALIDATION_CONTEXT,
+
+	/**
+	 * The online revocation check of a certificate (OCSP request, then CRL download if needed)
+	 */
+	REVOCATION_CHECK,
+
+	/**
+	 * The cryptographic verification of a signature ({@code AdvancedSignature.checkSignatureIntegrity})
+	 */
+	SIGNATURE_INTEGRITY,
+
+	/**
+	 * The verification of the timestamps of a signature ({@code AdvancedSignature.validateTimestamps})
+	 */
+	TIMESTAMP_VALIDATION,
+
+	/**
+	 * The building of the diagnostic data ({@code DiagnosticDataBuilder.build})
+	 */
+	DIAGNOSTIC_DATA,
+
+	/**
+	 * The execution of the validation policy and the building of the reports ({@code ProcessExecutor.execute})
+	 */
+	POLICY_EXECUTION;
+
+}
@@ -0,0 +1,284 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+
+/**
+ * Bounded, thread-safe cache (least recently used entries are evicted first).
+ * 
+ * When several threads request a missing key at the same time, the value is loaded only once : the other threads wait
+ * for the result of the running load. A failed load is not cached. A null value (negative result, eg : a revocation
+ * server which did not answer) is only returned to the threads waiting for the running load, unless a negative result
+ * TTL is configured with {@link #setNegativeResultTTL(long)}.
+ * 
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class LoadingCache<K, V> {
+
+	private final String name;
+
+	private final Map<K, CacheEntry<V>> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private volatile long negativeResultTTL = 0;
+
+	/**
+	 * The default constructor for LoadingCache.
+	 * 
+	 * @param maxSize
+	 *            the maximum number of entries
+	 */
+	public LoadingCache(final int maxSize) {
+		this(null, maxSize);
+	}
+
+	/**
+	 * The constructor for a named LoadingCache : the hits and misses are also reported to the
+	 * {@code MetricsRecorder} of the current validation.
+	 * 
+	 * @param name
+	 *            the cache name in the metrics (null to not report)
+	 * @param maxSize
+	 *            the maximum number of entries
+	 */
+	public LoadingCache(final String name, final int maxSize) {
+		this.name = name;
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The max size must be positive");
+		}
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 2867154786932553375L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * This method allows to keep the null values for the given duration (default : 0, a null value is not cached).
+	 * 
+	 * @param negativeResultTTL
+	 *            the duration in milliseconds
+	 */
+	public void setNegativeResultTTL(long negativeResultTTL) {
+		this.negativeResultTTL = negativeResultTTL;
+	}
+
+	/**
+	 * Returns the cached value or loads it with the given loader.
+	 * 
+	 * @param key
+	 *            the key
+	 * @param loader
+	 *            the loader to be called if the key is not cached
+	 * @return the value (can be null)
+	 */
+	public V get(K key, Callable<V> loader) {
+		CacheEntry<V> task;
+		boolean load = false;
+		synchronized (entries) {
+			task = entries.get(key);
+			if (task != null && task.isExpired()) {
+				entries.remove(key);
+				task = null;
+			}
+			if (task == null) {
+				task = new CacheEntry<V>(loader);
+				entries.put(key, task);
+				load = true;
+			}
+		}
+
+		if (load) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		if (name != null) {
+			ValidationMetrics.current().recordCacheAccess(name, !load);
+		}
+		if (load) {
+			task.run();
+		}
+
+		try {
+			V value = task.get();
+			if (load && value == null) {
+				keepNegativeResult(key, task);
+			}
+			return value;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while loading the cache entry", e);
+		} catch (ExecutionException e) {
+			remove(key, task);
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	/**
+	 * Returns the cached value if it is already loaded.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the value or null
+	 */
+	public V getIfPresent(K key) {
+		CacheEntry<V> task;
+		synchronized (entries) {
+			task = entries.get(key);
+		}
+		if (task != null && task.isDone()) {
+			try {
+				return task.get();
+			} catch (Exception e) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stores a value in the cache.
+	 * 
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value to be cached
+	 */
+	public void put(K key, final V value) {
+		CacheEntry<V> task = new CacheEntry<V>(new Callable<V>() {
+			@Override
+			public V call() throws Exception {
+				return value;
+			}
+		});
+		task.run();
+		synchronized (entries) {
+			entries.put(key, task);
+		}
+	}
+
+	/**
+	 * Removes the entry for the given key.
+	 * 
+	 * @param key
+	 *            the key
+	 */
+	public void invalidate(K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of entries (including the ones which are being loaded)
+	 * 
+	 * @return the cache size
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Returns the number of requests served from the cache
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of requests which required a load
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	private void keepNegativeResult(K key, CacheEntry<V> task) {
+		long ttl = negativeResultTTL;
+		if (ttl > 0) {
+			task.expirationTime = System.currentTimeMillis() + ttl;
+		} else {
+			remove(key, task);
+		}
+	}
+
+	private void remove(K key, CacheEntry<V> task) {
+		synchronized (entries) {
+			if (entries.get(key) == task) {
+				entries.remove(key);
+			}
+		}
+	}
+
+	private static final class CacheEntry<V> extends FutureTask<V> {
+
+		private volatile long expirationTime = Long.MAX_VALUE;
+
+		private CacheEntry(Callable<V> loader) {
+			super(loader);
+		}
+
+		private boolean isExpired() {
+			return expirationTime != Long.MAX_VALUE && expirationTime <= System.currentTimeMillis();
+		}
+
+	}
+
+}
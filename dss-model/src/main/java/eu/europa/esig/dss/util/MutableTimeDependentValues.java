@@ -40,6 +40,14 @@ public class MutableTimeDependentValues<T extends TimeDependent> extends TimeDep
 		super(srcList);
 	}
 
+	/**
+	 * The values can change : the date lookups scan the list
+	 */
+	@Override
+	protected boolean isIndexable() {
+		return false;
+	}
+
 	public synchronized void clear() {
 		list.clear();
 	}
@@ -40,6 +40,9 @@ public class TimeDependentValues<T extends TimeDependent> implements Iterable<T>
 	protected final List<T> list = new LinkedList<T>();
 	private final List<T> immutableList = Collections.unmodifiableList(list);
 
+	/* Lazily built index of the values for the date lookups */
+	private transient volatile Index<T> index;
+
 	/**
 	 * Empty list of values.
 	 */
@@ -69,6 +72,10 @@ public class TimeDependentValues<T extends TimeDependent> implements Iterable<T>
 	}
 
 	public T getCurrent(final Date d) {
+		final Index<T> index = getIndex();
+		if (index != null) {
+			return index.getCurrent(d);
+		}
 		for (final T x : list) {
 			if (x.getStartDate().compareTo(d) <= 0) {
 				final Date endDate = x.getEndDate();
@@ -81,6 +88,10 @@ public class TimeDependentValues<T extends TimeDependent> implements Iterable<T>
 	}
 
 	public List<T> getAfter(Date notBefore) {
+		final Index<T> index = getIndex();
+		if (index != null) {
+			return index.getAfter(notBefore);
+		}
 		List<T> result = new ArrayList<T>();
 		for (final T x : list) {
 			Date endDate = x.getEndDate();
@@ -91,6 +102,109 @@ public class TimeDependentValues<T extends TimeDependent> implements Iterable<T>
 		return result;
 	}
 
+	/**
+	 * Returns true if the values cannot change anymore : the date lookups use a sorted index (binary search) instead
+	 * of scanning the list
+	 * 
+	 * @return true if the values can be indexed
+	 */
+	protected boolean isIndexable() {
+		return true;
+	}
+
+	/**
+	 * Returns the index of the values or null if the values are not indexable (mutable, without start date or
+	 * overlapping)
+	 */
+	private Index<T> getIndex() {
+		if (!isIndexable()) {
+			return null;
+		}
+		Index<T> result = index;
+		if (result == null) {
+			result = Index.build(list);
+			index = result;
+		}
+		return result.isValid() ? result : null;
+	}
+
+	/**
+	 * The values sorted by start date (oldest first) with their start and end times
+	 */
+	private static final class Index<T extends TimeDependent> {
+
+		private static final long NO_END = Long.MAX_VALUE;
+
+		private final List<T> values;
+		private final long[] startTimes;
+		private final long[] endTimes;
+
+		private Index(List<T> values, long[] startTimes, long[] endTimes) {
+			this.values = values;
+			this.startTimes = startTimes;
+			this.endTimes = endTimes;
+		}
+
+		private static <T extends TimeDependent> Index<T> build(List<T> list) {
+			final List<T> values = new ArrayList<T>(list);
+			Collections.reverse(values);
+			final int size = values.size();
+			final long[] startTimes = new long[size];
+			final long[] endTimes = new long[size];
+			for (int i = 0; i < size; i++) {
+				final T x = values.get(i);
+				final Date startDate = x.getStartDate();
+				final Date endDate = x.getEndDate();
+				if (startDate == null || (endDate == null && i < size - 1)) {
+					return new Index<T>(null, null, null);
+				}
+				startTimes[i] = startDate.getTime();
+				endTimes[i] = endDate == null ? NO_END : endDate.getTime();
+				// the values must be sorted and must not overlap
+				if (endTimes[i] < startTimes[i] || (i > 0 && endTimes[i - 1] > startTimes[i])) {
+					return new Index<T>(null, null, null);
+				}
+			}
+			return new Index<T>(values, startTimes, endTimes);
+		}
+
+		private boolean isValid() {
+			return values != null;
+		}
+
+		private T getCurrent(Date d) {
+			// the latest value which starts before or at the given date
+			final int position = lastIndexLowerOrEqual(startTimes, d.getTime());
+			if (position >= 0 && endTimes[position] > d.getTime()) {
+				return values.get(position);
+			}
+			return null;
+		}
+
+		private List<T> getAfter(Date notBefore) {
+			// the end times are sorted : all the values after the first one which ends at or after the given date
+			final int first = lastIndexLowerOrEqual(endTimes, notBefore.getTime() - 1) + 1;
+			final List<T> result = new ArrayList<T>(values.subList(first, values.size()));
+			Collections.reverse(result);
+			return result;
+		}
+
+		private static int lastIndexLowerOrEqual(long[] times, long time) {
+			int low = 0;
+			int high = times.length - 1;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				if (times[mid] <= time) {
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return high;
+		}
+
+	}
+
 	@Override
 	public String toString() {
 		return list.toString();
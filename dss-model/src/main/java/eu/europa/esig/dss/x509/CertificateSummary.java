@@ -0,0 +1,148 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Date;
+
+import javax.security.auth.x500.X500Principal;
+
+import eu.europa.esig.dss.Digest;
+import eu.europa.esig.dss.SignatureAlgorithm;
+
+/**
+ * The values of a parsed certificate which are read on the validation hot paths (identifiers, names, validity
+ * period, key usage...). It allows to restore a {@link CertificateToken} from a compact encoding without parsing the
+ * DER until the {@link java.security.cert.X509Certificate} itself is needed.
+ */
+@SuppressWarnings("serial")
+public class CertificateSummary implements Serializable {
+
+	private final Digest dssId;
+
+	private final Digest entityKey;
+
+	private final SignatureAlgorithm signatureAlgorithm;
+
+	private final X500Principal subject;
+
+	private final X500Principal issuer;
+
+	private final BigInteger serialNumber;
+
+	private final long notBefore;
+
+	private final long notAfter;
+
+	private final boolean[] keyUsage;
+
+	private final int basicConstraints;
+
+	private final Boolean selfSigned;
+
+	/**
+	 * The default constructor for CertificateSummary.
+	 *
+	 * @param dssId
+	 *            the SHA-256 digest of the DER encoded certificate
+	 * @param entityKey
+	 *            the SHA-256 digest of the encoded public key
+	 * @param signatureAlgorithm
+	 *            the signature algorithm of the certificate (may be null if unsupported)
+	 * @param subject
+	 *            the subject distinguished name
+	 * @param issuer
+	 *            the issuer distinguished name
+	 * @param serialNumber
+	 *            the serial number
+	 * @param notBefore
+	 *            the start of the validity period
+	 * @param notAfter
+	 *            the end of the validity period
+	 * @param keyUsage
+	 *            the key usage extension as returned by {@link java.security.cert.X509Certificate#getKeyUsage()}
+	 * @param basicConstraints
+	 *            the basic constraints as returned by
+	 *            {@link java.security.cert.X509Certificate#getBasicConstraints()}
+	 * @param selfSigned
+	 *            the result of the self-signature check, or null if it was not performed
+	 */
+	public CertificateSummary(Digest dssId, Digest entityKey, SignatureAlgorithm signatureAlgorithm, X500Principal subject, X500Principal issuer,
+			BigInteger serialNumber, Date notBefore, Date notAfter, boolean[] keyUsage, int basicConstraints, Boolean selfSigned) {
+		this.dssId = dssId;
+		this.entityKey = entityKey;
+		this.signatureAlgorithm = signatureAlgorithm;
+		this.subject = subject;
+		this.issuer = issuer;
+		this.serialNumber = serialNumber;
+		this.notBefore = notBefore.getTime();
+		this.notAfter = notAfter.getTime();
+		this.keyUsage = keyUsage == null ? null : keyUsage.clone();
+		this.basicConstraints = basicConstraints;
+		this.selfSigned = selfSigned;
+	}
+
+	public Digest getDssId() {
+		return dssId;
+	}
+
+	public Digest getEntityKey() {
+		return entityKey;
+	}
+
+	public SignatureAlgorithm getSignatureAlgorithm() {
+		return signatureAlgorithm;
+	}
+
+	public X500Principal getSubject() {
+		return subject;
+	}
+
+	public X500Principal getIssuer() {
+		return issuer;
+	}
+
+	public BigInteger getSerialNumber() {
+		return serialNumber;
+	}
+
+	public Date getNotBefore() {
+		return new Date(notBefore);
+	}
+
+	public Date getNotAfter() {
+		return new Date(notAfter);
+	}
+
+	public boolean[] getKeyUsage() {
+		return keyUsage == null ? null : keyUsage.clone();
+	}
+
+	public int getBasicConstraints() {
+		return basicConstraints;
+	}
+
+	public Boolean getSelfSigned() {
+		return selfSigned;
+	}
+
+}
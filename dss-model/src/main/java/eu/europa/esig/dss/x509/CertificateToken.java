@@ -20,16 +20,18 @@
  */
 package eu.europa.esig.dss.x509;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigInteger;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
+import java.security.Provider;
 import java.security.PublicKey;
+import java.security.Security;
 import java.security.SignatureException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
-import java.security.cert.CertificateExpiredException;
-import java.security.cert.CertificateNotYetValidException;
+import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -40,6 +42,8 @@ import java.util.Objects;
 import javax.security.auth.x500.X500Principal;
 
 import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.Digest;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.EntityIdentifier;
 import eu.europa.esig.dss.SignatureAlgorithm;
 import eu.europa.esig.dss.tsl.KeyUsageBit;
@@ -54,9 +58,20 @@ import eu.europa.esig.dss.tsl.KeyUsageBit;
 public class CertificateToken extends Token {
 
 	/**
-	 * Encapsulated X509 certificate.
+	 * Encapsulated X509 certificate. For a token restored from a {@code CertificateSummary}, it stays null till the
+	 * first call to a method which needs it.
 	 */
-	private final X509Certificate x509Certificate;
+	private volatile X509Certificate x509Certificate;
+
+	/**
+	 * DER encoding of a token restored from a {@code CertificateSummary}
+	 */
+	private final byte[] encoded;
+
+	/**
+	 * Precomputed values of a token restored from a {@code CertificateSummary}
+	 */
+	private final CertificateSummary summary;
 
 	/**
 	 * Digest of the public key (cross certificates have same public key)
@@ -90,12 +105,62 @@ public class CertificateToken extends Token {
 		Objects.requireNonNull(x509Certificate, "X509 certificate is missing");
 
 		this.x509Certificate = x509Certificate;
+		this.encoded = null;
+		this.summary = null;
 		this.entityKey = new EntityIdentifier(x509Certificate.getPublicKey());
 
 		// The Algorithm OID is used and not the name {@code x509Certificate.getSigAlgName()}
 		this.signatureAlgorithm = SignatureAlgorithm.forOID(x509Certificate.getSigAlgOID());
 	}
 
+	/**
+	 * Creates a CertificateToken from its DER encoding and the values extracted by a previous parsing. The
+	 * X509Certificate is only materialized when a method needs it (public key, signature check,...).
+	 *
+	 * @param encoded
+	 *            the DER encoded certificate
+	 * @param summary
+	 *            the precomputed values of the certificate (see {@link #getSummary()})
+	 */
+	public CertificateToken(byte[] encoded, CertificateSummary summary) {
+		Objects.requireNonNull(encoded, "X509 certificate is missing");
+		Objects.requireNonNull(summary, "Certificate summary is missing");
+
+		this.encoded = encoded.clone();
+		this.summary = summary;
+		this.entityKey = new EntityIdentifier(summary.getEntityKey());
+		this.signatureAlgorithm = summary.getSignatureAlgorithm();
+		this.selfSigned = summary.getSelfSigned();
+		if (Boolean.TRUE.equals(selfSigned)) {
+			signatureValid = true;
+		}
+		initDigest(DigestAlgorithm.SHA256, summary.getDssId().getValue());
+	}
+
+	/**
+	 * Returns the values of the certificate which are needed to restore it without parsing the DER encoding.
+	 * 
+	 * @return the summary of the certificate
+	 */
+	public CertificateSummary getSummary() {
+		if (summary != null) {
+			return summary;
+		}
+		return new CertificateSummary(new Digest(DigestAlgorithm.SHA256, getDigest(DigestAlgorithm.SHA256)), entityKey.getDigest(), signatureAlgorithm,
+				getSubjectX500Principal(), getIssuerX500Principal(), getSerialNumber(), getNotBefore(), getNotAfter(), x509Certificate.getKeyUsage(),
+				x509Certificate.getBasicConstraints(), isSelfSigned());
+	}
+
+	/**
+	 * Indicates if the X509Certificate has been parsed. A token restored from a {@code CertificateSummary} is not
+	 * materialized till a method needs the X509Certificate.
+	 * 
+	 * @return true if the X509Certificate is available without parsing
+	 */
+	public boolean isMaterialized() {
+		return x509Certificate != null;
+	}
+
 	@Override
 	public String getAbbreviation() {
 		return getDSSIdAsString();
@@ -105,7 +170,7 @@ public class CertificateToken extends Token {
 	 * Returns the digest of the current public key. Several certificate can have
 	 * the same public key (cross-certificates)
 	 * 
-	 * @return
+	 * @return the entity key (hexadecimal digest of the public key)
 	 */
 	public String getEntityKey() {
 		return entityKey.asXmlId();
@@ -125,7 +190,7 @@ public class CertificateToken extends Token {
 	 * @return the public key of the certificate
 	 */
 	public PublicKey getPublicKey() {
-		return x509Certificate.getPublicKey();
+		return getCertificate().getPublicKey();
 	}
 
 	/**
@@ -134,6 +199,9 @@ public class CertificateToken extends Token {
 	 * @return the expiration date (notAfter)
 	 */
 	public Date getNotAfter() {
+		if (summary != null) {
+			return summary.getNotAfter();
+		}
 		return x509Certificate.getNotAfter();
 	}
 
@@ -143,6 +211,9 @@ public class CertificateToken extends Token {
 	 * @return the issuance date (notBefore)
 	 */
 	public Date getNotBefore() {
+		if (summary != null) {
+			return summary.getNotBefore();
+		}
 		return x509Certificate.getNotBefore();
 	}
 
@@ -159,10 +230,10 @@ public class CertificateToken extends Token {
 	 * @return true if the certificate was expired on the given date
 	 */
 	public boolean isExpiredOn(final Date date) {
-		if ((x509Certificate == null) || (date == null)) {
+		if (date == null) {
 			return true;
 		}
-		return x509Certificate.getNotAfter().before(date);
+		return getNotAfter().before(date);
 	}
 
 	/**
@@ -173,15 +244,10 @@ public class CertificateToken extends Token {
 	 * @return true if the given date is in the certificate period validity
 	 */
 	public boolean isValidOn(final Date date) {
-		if ((x509Certificate == null) || (date == null)) {
-			return false;
-		}
-		try {
-			x509Certificate.checkValidity(date);
-			return true;
-		} catch (CertificateExpiredException | CertificateNotYetValidException e) {
+		if (date == null) {
 			return false;
 		}
+		return !date.before(getNotBefore()) && !date.after(getNotAfter());
 	}
 
 	/**
@@ -199,7 +265,8 @@ public class CertificateToken extends Token {
 			selfSigned = isSelfIssued();
 			if (selfSigned) {
 				try {
-					x509Certificate.verify(x509Certificate.getPublicKey());
+					final X509Certificate certificate = getCertificate();
+					certificate.verify(certificate.getPublicKey());
 					selfSigned = true;
 					signatureValid = true;
 				} catch (Exception e) {
@@ -219,8 +286,8 @@ public class CertificateToken extends Token {
 	 * @return true if the certificate is self-issued
 	 */
 	public boolean isSelfIssued() {
-		final String n1 = x509Certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL);
-		final String n2 = x509Certificate.getIssuerX500Principal().getName(X500Principal.CANONICAL);
+		final String n1 = getSubjectX500Principal().getName(X500Principal.CANONICAL);
+		final String n2 = getIssuerX500Principal().getName(X500Principal.CANONICAL);
 		return n1.equals(n2);
 	}
 
@@ -243,7 +310,29 @@ public class CertificateToken extends Token {
 	 * @return the X509Certificate object
 	 */
 	public X509Certificate getCertificate() {
-		return x509Certificate;
+		X509Certificate certificate = x509Certificate;
+		if (certificate == null) {
+			synchronized (this) {
+				certificate = x509Certificate;
+				if (certificate == null) {
+					certificate = materialize();
+					x509Certificate = certificate;
+				}
+			}
+		}
+		return certificate;
+	}
+
+	private X509Certificate materialize() {
+		try {
+			// Same provider as DSSUtils when it is registered
+			final Provider provider = Security.getProvider("BC");
+			final CertificateFactory factory = provider == null ? CertificateFactory.getInstance("X.509")
+					: CertificateFactory.getInstance("X.509", provider);
+			return (X509Certificate) factory.generateCertificate(new ByteArrayInputStream(encoded));
+		} catch (CertificateException e) {
+			throw new DSSException("Unable to materialize the certificate", e);
+		}
 	}
 
 	/**
@@ -253,6 +342,9 @@ public class CertificateToken extends Token {
 	 */
 	@Override
 	public byte[] getEncoded() {
+		if (encoded != null) {
+			return encoded.clone();
+		}
 		try {
 			return x509Certificate.getEncoded();
 		} catch (CertificateEncodingException e) {
@@ -267,6 +359,9 @@ public class CertificateToken extends Token {
 	 * @return the certificate serial number
 	 */
 	public BigInteger getSerialNumber() {
+		if (summary != null) {
+			return summary.getSerialNumber();
+		}
 		return x509Certificate.getSerialNumber();
 	}
 
@@ -277,6 +372,9 @@ public class CertificateToken extends Token {
 	 * @return the Subject X500Principal
 	 */
 	public X500Principal getSubjectX500Principal() {
+		if (summary != null) {
+			return summary.getSubject();
+		}
 		return x509Certificate.getSubjectX500Principal();
 	}
 
@@ -288,15 +386,23 @@ public class CertificateToken extends Token {
 	 */
 	@Override
 	public X500Principal getIssuerX500Principal() {
+		if (summary != null) {
+			return summary.getIssuer();
+		}
 		return x509Certificate.getIssuerX500Principal();
 	}
 
+	@Override
+	protected boolean isSignatureVerificationCacheable() {
+		return true;
+	}
+
 	@Override
 	protected boolean checkIsSignedBy(final CertificateToken candidate) {
 		signatureValid = false;
 		signatureInvalidityReason = "";
 		try {
-			x509Certificate.verify(candidate.getPublicKey());
+			getCertificate().verify(candidate.getPublicKey());
 			signatureValid = true;
 		} catch (InvalidKeyException e) {
 			signatureInvalidityReason = "InvalidKeyException - on incorrect key.";
@@ -332,7 +438,7 @@ public class CertificateToken extends Token {
 
 		out.append(indentStr).append("DSS Id              : ").append(getDSSIdAsString()).append('\n');
 		out.append(indentStr).append("Identity Id         : ").append(getEntityKey()).append('\n');
-		out.append(indentStr).append("Validity period     : ").append(x509Certificate.getNotBefore()).append(" - ").append(x509Certificate.getNotAfter())
+		out.append(indentStr).append("Validity period     : ").append(getNotBefore()).append(" - ").append(getNotAfter())
 				.append('\n');
 		out.append(indentStr).append("Subject name        : ").append(getSubjectX500Principal().getName(X500Principal.CANONICAL)).append('\n');
 		out.append(indentStr).append("Issuer subject name : ").append(getIssuerX500Principal().getName(X500Principal.CANONICAL)).append('\n');
@@ -355,7 +461,7 @@ public class CertificateToken extends Token {
 	 */
 	public List<KeyUsageBit> getKeyUsageBits() {
 		List<KeyUsageBit> keyUsageBits = new ArrayList<KeyUsageBit>();
-		final boolean[] keyUsageArray = x509Certificate.getKeyUsage();
+		final boolean[] keyUsageArray = summary != null ? summary.getKeyUsage() : x509Certificate.getKeyUsage();
 		if (keyUsageArray != null) {
 			for (KeyUsageBit keyUsageBit : KeyUsageBit.values()) {
 				if (keyUsageArray[keyUsageBit.getIndex()]) {
@@ -372,7 +478,8 @@ public class CertificateToken extends Token {
 	 * @return true if the certificate is defined as a CA
 	 */
 	public boolean isCA() {
-		return x509Certificate.getBasicConstraints() != -1;
+		final int basicConstraints = summary != null ? summary.getBasicConstraints() : x509Certificate.getBasicConstraints();
+		return basicConstraints != -1;
 	}
 
 	/**
@@ -381,7 +488,7 @@ public class CertificateToken extends Token {
 	 * @return the signature value
 	 */
 	public byte[] getSignature() {
-		return x509Certificate.getSignature();
+		return getCertificate().getSignature();
 	}
 
 }
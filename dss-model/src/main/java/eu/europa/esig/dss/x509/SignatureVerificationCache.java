@@ -0,0 +1,191 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import java.util.concurrent.Callable;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.util.LoadingCache;
+
+/**
+ * Process-wide cache of the token signature verification results.
+ * 
+ * The same intermediate and root certificates (and the same OCSP responses) are parsed again for each validation. This
+ * cache avoids to verify again the same signature with the same public key : the result is keyed by the token
+ * digest, the digest of the signer public key and the signature algorithm. It is consulted by
+ * {@link Token#isSignedBy(CertificateToken)} for the tokens which allow it, and by the CRL parsers which verify the
+ * CRL signature before the creation of the token.
+ */
+public final class SignatureVerificationCache {
+
+	/**
+	 * The default maximum number of cached results
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	/**
+	 * The name of the cache in the validation metrics
+	 */
+	public static final String CACHE_NAME = "signature-verification";
+
+	private static volatile LoadingCache<String, Result> cache = new LoadingCache<String, Result>(CACHE_NAME, DEFAULT_MAX_SIZE);
+
+	private static volatile boolean enabled = true;
+
+	private SignatureVerificationCache() {
+	}
+
+	/**
+	 * Returns the cached verification result or computes it with the given verifier.
+	 * 
+	 * @param token
+	 *            the token which is verified
+	 * @param signer
+	 *            the candidate signer certificate
+	 * @param verifier
+	 *            the signature verification to be executed on cache miss
+	 * @return the verification result
+	 */
+	static Result verify(final Token token, final CertificateToken signer, final Callable<Result> verifier) {
+		return verify(token.getDSSIdAsString(), token.getSignatureAlgorithm(), signer, verifier);
+	}
+
+	/**
+	 * Returns the cached verification result or computes it with the given verifier. This method is used when the
+	 * token is not built yet (eg: the CRL signature is verified while the CRL is parsed).
+	 * 
+	 * @param tokenId
+	 *            the DSS id of the verified token (the result is not cached if null)
+	 * @param signatureAlgorithm
+	 *            the signature algorithm of the verified token
+	 * @param signer
+	 *            the candidate signer certificate
+	 * @param verifier
+	 *            the signature verification to be executed on cache miss
+	 * @return the verification result
+	 */
+	public static Result verify(final String tokenId, final SignatureAlgorithm signatureAlgorithm, final CertificateToken signer,
+			final Callable<Result> verifier) {
+		if (!enabled || tokenId == null) {
+			try {
+				return verifier.call();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new DSSException(e);
+			}
+		}
+		return cache.get(getKey(tokenId, signatureAlgorithm, signer), verifier);
+	}
+
+	private static String getKey(final String tokenId, final SignatureAlgorithm signatureAlgorithm, final CertificateToken signer) {
+		return tokenId + '|' + signer.getEntityKey() + '|' + signatureAlgorithm;
+	}
+
+	/**
+	 * Enables or disables the cache (enabled by default). When disabled, each verification is executed.
+	 * 
+	 * @param enabled
+	 *            true to use the cache
+	 */
+	public static void setEnabled(boolean enabled) {
+		SignatureVerificationCache.enabled = enabled;
+	}
+
+	/**
+	 * Indicates if the cache is enabled
+	 * 
+	 * @return true if the cache is used
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Replaces the cache with a new one with the given maximum size (the cached results and the metrics are lost).
+	 * 
+	 * @param maxSize
+	 *            the maximum number of cached results
+	 */
+	public static void setMaxSize(int maxSize) {
+		cache = new LoadingCache<String, Result>(CACHE_NAME, maxSize);
+	}
+
+	/**
+	 * Returns the number of verifications served from the cache
+	 * 
+	 * @return the hit count
+	 */
+	public static long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of verifications which were executed
+	 * 
+	 * @return the miss count
+	 */
+	public static long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Returns the number of cached results
+	 * 
+	 * @return the cache size
+	 */
+	public static int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Removes all the cached results
+	 */
+	public static void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * The result of a signature verification
+	 */
+	public static final class Result {
+
+		private final boolean valid;
+
+		private final String invalidityReason;
+
+		public Result(boolean valid, String invalidityReason) {
+			this.valid = valid;
+			this.invalidityReason = invalidityReason;
+		}
+
+		public boolean isValid() {
+			return valid;
+		}
+
+		public String getInvalidityReason() {
+			return invalidityReason;
+		}
+
+	}
+
+}
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -134,15 +135,39 @@ public abstract class Token implements Serializable {
 	public boolean isSignedBy(CertificateToken token) {
 		if (publicKeyOfTheSigner != null) {
 			return publicKeyOfTheSigner.equals(token.getPublicKey());
-		} else if (checkIsSignedBy(token)) {
+		} else if (isSignatureVerificationCacheable() ? checkIsSignedByWithCache(token) : checkIsSignedBy(token)) {
 			this.publicKeyOfTheSigner = token.getPublicKey();
 			return true;
 		}
 		return false;
 	}
 
+	private boolean checkIsSignedByWithCache(final CertificateToken token) {
+		SignatureVerificationCache.Result result = SignatureVerificationCache.verify(this, token, new Callable<SignatureVerificationCache.Result>() {
+			@Override
+			public SignatureVerificationCache.Result call() {
+				boolean valid = checkIsSignedBy(token);
+				return new SignatureVerificationCache.Result(valid, signatureInvalidityReason);
+			}
+		});
+		this.signatureValid = result.isValid();
+		this.signatureInvalidityReason = result.getInvalidityReason();
+		return signatureValid;
+	}
+
 	protected abstract boolean checkIsSignedBy(CertificateToken token);
 
+	/**
+	 * Indicates if the result of {@link #checkIsSignedBy(CertificateToken)} can be shared through the
+	 * {@link SignatureVerificationCache}. This is only allowed when the method has no other side effect than setting
+	 * {@code signatureValid} and {@code signatureInvalidityReason}.
+	 * 
+	 * @return true if the verification result can be cached
+	 */
+	protected boolean isSignatureVerificationCacheable() {
+		return false;
+	}
+
 	/**
 	 * Returns the {@code X500Principal} of the certificate which was used to sign
 	 * this token.
@@ -238,6 +263,18 @@ public abstract class Token implements Serializable {
 		return digestValue;
 	}
 
+	/**
+	 * Registers a digest which was computed earlier (eg: restored from a cache), so it is not computed again.
+	 *
+	 * @param digestAlgorithm
+	 *            the used digest algorithm
+	 * @param digestValue
+	 *            the digest of the encoded token
+	 */
+	void initDigest(DigestAlgorithm digestAlgorithm, byte[] digestValue) {
+		digests.put(digestAlgorithm, digestValue);
+	}
+
 	protected byte[] getDigest(DigestAlgorithm digestAlgorithm, byte[] toBeDigested) {
 		try {
 			MessageDigest md = MessageDigest.getInstance(digestAlgorithm.getJavaName());
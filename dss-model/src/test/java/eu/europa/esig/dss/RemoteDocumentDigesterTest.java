@@ -0,0 +1,108 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+public class RemoteDocumentDigesterTest {
+
+	private static final byte[] CONTENT = "Hello World !".getBytes();
+
+	@Test
+	public void digest() throws Exception {
+		List<RemoteDocument> digests = new RemoteDocumentDigester().digest(new ByteArrayInputStream(CONTENT), "hello.txt", MimeType.TEXT);
+		assertEquals(RemoteDocumentDigester.DEFAULT_DIGEST_ALGORITHMS.size(), digests.size());
+		for (RemoteDocument digest : digests) {
+			assertEquals("hello.txt", digest.getName());
+			assertEquals(MimeType.TEXT, digest.getMimeType());
+			assertArrayEquals(MessageDigest.getInstance(digest.getDigestAlgorithm().getJavaName()).digest(CONTENT), digest.getBytes());
+		}
+	}
+
+	@Test
+	public void digestWithAlgorithm() throws Exception {
+		List<RemoteDocument> digests = new RemoteDocumentDigester(DigestAlgorithm.SHA256).digest(new ByteArrayInputStream(CONTENT), "hello.txt",
+				null);
+		assertEquals(1, digests.size());
+		assertEquals(DigestAlgorithm.SHA256, digests.get(0).getDigestAlgorithm());
+	}
+
+	@Test(expected = DSSException.class)
+	public void noAlgorithm() {
+		new RemoteDocumentDigester(new DigestAlgorithm[0]);
+	}
+
+	@Test
+	public void digestContainer() throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+			zos.putNextEntry(new ZipEntry("mimetype"));
+			zos.write(MimeType.ASICE.getMimeTypeString().getBytes());
+			zos.putNextEntry(new ZipEntry("hello.txt"));
+			zos.write(CONTENT);
+			zos.putNextEntry(new ZipEntry("folder/hello2.txt"));
+			zos.write(CONTENT);
+			zos.putNextEntry(new ZipEntry("META-INF/signatures0.xml"));
+			zos.write("<signature/>".getBytes());
+		}
+
+		RemoteDocumentDigester digester = new RemoteDocumentDigester(DigestAlgorithm.SHA256);
+		RemoteDocumentDigester.DigestedContainer result = digester.digestContainer(new ByteArrayInputStream(baos.toByteArray()), "container.asice",
+				MimeType.ASICE);
+
+		assertEquals(2, result.getDigests().size());
+		assertEquals("hello.txt", result.getDigests().get(0).getName());
+		assertEquals("folder/hello2.txt", result.getDigests().get(1).getName());
+
+		RemoteDocument container = result.getContainer();
+		assertEquals("container.asice", container.getName());
+		assertEquals(MimeType.ASICE, container.getMimeType());
+
+		List<String> entries = new ArrayList<String>();
+		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(container.getBytes()))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				entries.add(entry.getName());
+				if ("mimetype".equals(entry.getName())) {
+					assertEquals(ZipEntry.STORED, entry.getMethod());
+				}
+			}
+		}
+		assertEquals(2, entries.size());
+		assertTrue(entries.contains("mimetype"));
+		assertTrue(entries.contains("META-INF/signatures0.xml"));
+	}
+
+}
@@ -0,0 +1,175 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.util.LoadingCache;
+
+public class ValidationMetricsTest {
+
+	@Test
+	public void notBound() {
+		assertSame(NoOpMetricsRecorder.INSTANCE, ValidationMetrics.current());
+		// ignored
+		ValidationMetrics.phaseCompleted(ValidationPhase.DOCUMENT_VALIDATION, System.nanoTime());
+		ValidationMetrics.fetchCompleted("http://crl.example.com/ca.crl", new byte[] { 1 }, System.nanoTime());
+	}
+
+	@Test
+	public void recordAndForward() throws Exception {
+		final CountingRecorder delegate = new CountingRecorder();
+		ValidationMetrics metrics = new ValidationMetrics(delegate);
+		metrics.start();
+		try {
+			assertSame(metrics, ValidationMetrics.current());
+			ValidationMetrics.phaseCompleted(ValidationPhase.REVOCATION_CHECK, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+			ValidationMetrics.phaseCompleted(ValidationPhase.REVOCATION_CHECK, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(15));
+			ValidationMetrics.fetchCompleted("http://crl.example.com/ca.crl", new byte[100], System.nanoTime());
+			ValidationMetrics.fetchCompleted("http://crl.example.com/other.crl", null, System.nanoTime());
+			ValidationMetrics.fetchCompleted("ldap://ldap.example.com/cn=CA?certificateRevocationList", new byte[10], System.nanoTime());
+
+			LoadingCache<String, String> cache = new LoadingCache<String, String>("test", 10);
+			Callable<String> loader = new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return "value";
+				}
+			};
+			cache.get("key", loader);
+			cache.get("key", loader);
+			cache.get("key", loader);
+
+			metrics.recordCertificatePoolSize(42);
+		} finally {
+			metrics.stop();
+		}
+		assertSame(NoOpMetricsRecorder.INSTANCE, ValidationMetrics.current());
+
+		DurationStatistics revocation = metrics.getPhases().get(ValidationPhase.REVOCATION_CHECK);
+		assertEquals(2, revocation.getCount());
+		assertTrue(revocation.getTotal(TimeUnit.MILLISECONDS) >= 20);
+		assertTrue(revocation.getMax(TimeUnit.MILLISECONDS) >= 15);
+
+		Map<String, FetchStatistics> fetches = metrics.getFetches();
+		assertEquals(2, fetches.size());
+		FetchStatistics crl = fetches.get("crl.example.com");
+		assertEquals(2, crl.getCount());
+		assertEquals(1, crl.getFailureCount());
+		assertEquals(100, crl.getBytes());
+		assertEquals(1, fetches.get("ldap.example.com").getCount());
+
+		CacheStatistics cacheStatistics = metrics.getCaches().get("test");
+		assertEquals(2, cacheStatistics.getHitCount());
+		assertEquals(1, cacheStatistics.getMissCount());
+
+		assertEquals(42, metrics.getCertificatePoolSize());
+
+		assertEquals(2, delegate.phases);
+		assertEquals(3, delegate.fetches);
+		assertEquals(3, delegate.cacheAccesses);
+	}
+
+	@Test
+	public void propagate() throws Exception {
+		ValidationMetrics metrics = new ValidationMetrics(null);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		metrics.start();
+		try {
+			executor.submit(ValidationMetrics.propagate(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					ValidationMetrics.fetchCompleted("http://ocsp.example.com", new byte[5], System.nanoTime());
+					return null;
+				}
+			})).get();
+			// the pool thread is not bound anymore
+			executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					assertSame(NoOpMetricsRecorder.INSTANCE, ValidationMetrics.current());
+					return null;
+				}
+			}).get();
+		} finally {
+			metrics.stop();
+			executor.shutdown();
+		}
+		assertEquals(1, metrics.getFetches().get("ocsp.example.com").getCount());
+	}
+
+	@Test
+	public void nested() {
+		ValidationMetrics outer = new ValidationMetrics(null);
+		ValidationMetrics inner = new ValidationMetrics(null);
+		outer.start();
+		try {
+			inner.start();
+			assertSame(inner, ValidationMetrics.current());
+			inner.stop();
+			assertSame(outer, ValidationMetrics.current());
+		} finally {
+			outer.stop();
+		}
+		assertSame(NoOpMetricsRecorder.INSTANCE, ValidationMetrics.current());
+	}
+
+	@Test
+	public void host() {
+		assertEquals("tsa.example.com", ValidationMetrics.getHost("http://tsa.example.com:8080/tsa"));
+		assertEquals("file", ValidationMetrics.getHost("file:/tmp/ca.crl"));
+		assertEquals("unknown", ValidationMetrics.getHost("not an url"));
+	}
+
+	private static class CountingRecorder extends NoOpMetricsRecorder {
+
+		private int phases;
+		private int fetches;
+		private int cacheAccesses;
+
+		@Override
+		public void recordPhase(ValidationPhase phase, long durationNanos) {
+			phases++;
+		}
+
+		@Override
+		public void recordFetch(String host, long bytes, long durationNanos, boolean success) {
+			fetches++;
+		}
+
+		@Override
+		public void recordCacheAccess(String cacheName, boolean hit) {
+			cacheAccesses++;
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+
+public class LoadingCacheTest {
+
+	@Test
+	public void loadOnce() throws Exception {
+		final LoadingCache<String, String> cache = new LoadingCache<String, String>(10);
+		final AtomicInteger loads = new AtomicInteger();
+		final Callable<String> loader = new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				loads.incrementAndGet();
+				Thread.sleep(200);
+				return "value";
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i = 0; i < 5; i++) {
+			futures.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return cache.get("key", loader);
+				}
+			}));
+		}
+		for (Future<String> future : futures) {
+			assertEquals("value", future.get());
+		}
+		executor.shutdown();
+
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(4, cache.getHitCount());
+	}
+
+	@Test
+	public void eviction() {
+		LoadingCache<Integer, Integer> cache = new LoadingCache<Integer, Integer>(2);
+		cache.put(1, 1);
+		cache.put(2, 2);
+		cache.getIfPresent(1);
+		cache.put(3, 3);
+		assertEquals(2, cache.size());
+		assertEquals(Integer.valueOf(1), cache.getIfPresent(1));
+		assertNull(cache.getIfPresent(2));
+	}
+
+	@Test
+	public void failureNotCached() {
+		LoadingCache<String, String> cache = new LoadingCache<String, String>(10);
+		try {
+			cache.get("key", new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					throw new DSSException("Unavailable");
+				}
+			});
+		} catch (DSSException e) {
+			assertEquals("Unavailable", e.getMessage());
+		}
+		assertEquals(0, cache.size());
+
+	}
+
+	@Test
+	public void negativeResultNotCached() {
+		LoadingCache<String, String> cache = new LoadingCache<String, String>(10);
+		CountingLoader loader = new CountingLoader(null);
+		assertNull(cache.get("key", loader));
+		assertEquals(0, cache.size());
+		assertNull(cache.get("key", loader));
+		assertEquals(2, loader.loads.get());
+
+		loader = new CountingLoader("value");
+		assertEquals("value", cache.get("key", loader));
+		assertEquals("value", cache.get("key", loader));
+		assertEquals(1, loader.loads.get());
+	}
+
+	@Test
+	public void negativeResultTTL() throws Exception {
+		LoadingCache<String, String> cache = new LoadingCache<String, String>(10);
+		cache.setNegativeResultTTL(200);
+		CountingLoader loader = new CountingLoader(null);
+		assertNull(cache.get("key", loader));
+		assertNull(cache.get("key", loader));
+		assertEquals(1, loader.loads.get());
+		assertEquals(1, cache.size());
+
+		Thread.sleep(300);
+		loader = new CountingLoader("value");
+		assertEquals("value", cache.get("key", loader));
+		assertEquals(1, loader.loads.get());
+
+		// the TTL only applies to the null values
+		Thread.sleep(300);
+		assertEquals("value", cache.get("key", loader));
+		assertEquals(1, loader.loads.get());
+	}
+
+	private static class CountingLoader implements Callable<String> {
+
+		private final AtomicInteger loads = new AtomicInteger();
+
+		private final String value;
+
+		private CountingLoader(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String call() throws Exception {
+			loads.incrementAndGet();
+			return value;
+		}
+
+	}
+
+}
@@ -22,6 +22,7 @@ package eu.europa.esig.dss.util;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
@@ -154,4 +155,35 @@ public class TimeDependentTest {
 		assertNull( coll.getCurrent( new Date() ) );
 		assertNull( coll.getCurrent( new Date( System.currentTimeMillis() + 5000 ) ) );
 	}
+
+	@Test
+	public void indexedLookups() {
+		final BaseTimeDependent v1In = new BaseTimeDependent( new Date( 30000 ), null );
+		final MutableTimeDependentValues<BaseTimeDependent> mutable = new MutableTimeDependentValues<BaseTimeDependent>( Collections.singleton( v1In ) );
+		final BaseTimeDependent v2In = new BaseTimeDependent( new Date( 20000 ), new Date( 30000 ) );
+		mutable.addOldest( v2In );
+		final BaseTimeDependent v3In = new BaseTimeDependent( new Date( 5000 ), new Date( 10000 ) );
+		mutable.addOldest( v3In );
+
+		final TimeDependentValues<BaseTimeDependent> coll = new TimeDependentValues<BaseTimeDependent>( mutable );
+		for ( long time = 0; time <= 40000; time += 2500 ) {
+			final Date date = new Date( time );
+			assertSame( mutable.getCurrent( date ), coll.getCurrent( date ) );
+			assertEquals( mutable.getAfter( date ), coll.getAfter( date ) );
+		}
+		assertNull( coll.getCurrent( new Date( 15000 ) ) );
+		assertSame( v2In, coll.getCurrent( new Date( 20000 ) ) );
+		assertEquals( Arrays.asList( v1In, v2In ), coll.getAfter( new Date( 30000 ) ) );
+		assertEquals( Arrays.asList( v1In, v2In, v3In ), coll.getAfter( new Date( 10000 ) ) );
+	}
+
+	@Test
+	public void unsortedValuesAreScanned() {
+		final BaseTimeDependent v1In = new BaseTimeDependent( new Date( 10000 ), new Date( 20000 ) );
+		final BaseTimeDependent v2In = new BaseTimeDependent( new Date( 30000 ), null );
+		final TimeDependentValues<BaseTimeDependent> coll = new TimeDependentValues<BaseTimeDependent>( Arrays.asList( v1In, v2In ) );
+		assertSame( v1In, coll.getCurrent( new Date( 15000 ) ) );
+		assertSame( v2In, coll.getCurrent( new Date( 35000 ) ) );
+		assertEquals( Arrays.asList( v1In, v2In ), coll.getAfter( new Date( 0 ) ) );
+	}
 }
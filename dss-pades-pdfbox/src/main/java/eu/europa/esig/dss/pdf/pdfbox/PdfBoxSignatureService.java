@@ -21,6 +21,7 @@
 package eu.europa.esig.dss.pdf.pdfbox;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -60,6 +61,7 @@ import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.FileDocument;
 import eu.europa.esig.dss.InMemoryDocument;
 import eu.europa.esig.dss.MimeType;
 import eu.europa.esig.dss.pades.CertificationPermission;
@@ -76,6 +78,7 @@ import eu.europa.esig.dss.pdf.PdfSigDict;
 import eu.europa.esig.dss.pdf.PdfSignatureInfo;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfoComparator;
+import eu.europa.esig.dss.pdf.SignedContentCallback;
 import eu.europa.esig.dss.pdf.pdfbox.visible.PdfBoxSignatureDrawer;
 import eu.europa.esig.dss.pdf.pdfbox.visible.PdfBoxSignatureDrawerFactory;
 import eu.europa.esig.dss.utils.Utils;
@@ -89,6 +92,20 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(PdfBoxSignatureService.class);
 
+	private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+
+		@Override
+		public void write(int b) {
+			// discarded
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			// discarded
+		}
+
+	};
+
 	/**
 	 * Constructor for the PdfBoxSignatureService
 	 * 
@@ -103,15 +120,15 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 	@Override
 	public byte[] digest(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) {
 
-		final byte[] signatureValue = DSSUtils.EMPTY_BYTE_ARRAY;
-		try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-				InputStream is = toSignDocument.openStream();
-				PDDocument pdDocument = PDDocument.load(is)) {
-			final byte[] digest = signDocumentAndReturnDigest(parameters, signatureValue, outputStream, pdDocument, digestAlgorithm);
+		final MessageDigest digest = DSSUtils.getMessageDigest(digestAlgorithm);
+		try (PDDocument pdDocument = loadPDDocument(toSignDocument)) {
+			// the incremental update is only needed to compute the digest
+			signDocument(parameters, new DigestSignatureInterface(digest, DSSUtils.EMPTY_BYTE_ARRAY), NULL_OUTPUT_STREAM, pdDocument);
+			final byte[] digestValue = digest.digest();
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("Base64 messageDigest : {}", Utils.toBase64(digest));
+				LOG.debug("Base64 messageDigest : {}", Utils.toBase64(digestValue));
 			}
-			return digest;
+			return digestValue;
 		} catch (IOException e) {
 			throw new DSSException(e);
 		}
@@ -120,38 +137,41 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 	@Override
 	public DSSDocument sign(final DSSDocument toSignDocument, final byte[] signatureValue, final PAdESSignatureParameters parameters,
 			final DigestAlgorithm digestAlgorithm) {
+		return sign(toSignDocument, new DigestSignatureInterface(DSSUtils.getMessageDigest(digestAlgorithm), signatureValue), parameters);
+	}
 
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				InputStream is = toSignDocument.openStream();
-				PDDocument pdDocument = PDDocument.load(is)) {
+	@Override
+	public DSSDocument sign(final DSSDocument toSignDocument, final SignedContentCallback callback, final PAdESSignatureParameters parameters,
+			final DigestAlgorithm digestAlgorithm) {
+		return sign(toSignDocument, new CallbackSignatureInterface(DSSUtils.getMessageDigest(digestAlgorithm), callback), parameters);
+	}
+
+	@Override
+	public void sign(final DSSDocument toSignDocument, final SignedContentCallback callback, final PAdESSignatureParameters parameters,
+			final DigestAlgorithm digestAlgorithm, final OutputStream outputStream) {
+		sign(toSignDocument, new CallbackSignatureInterface(DSSUtils.getMessageDigest(digestAlgorithm), callback), parameters, outputStream);
+	}
 
-			signDocumentAndReturnDigest(parameters, signatureValue, baos, pdDocument, digestAlgorithm);
+	private DSSDocument sign(final DSSDocument toSignDocument, final SignatureInterface signatureInterface, final PAdESSignatureParameters parameters) {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		sign(toSignDocument, signatureInterface, parameters, baos);
 
-			DSSDocument signature = new InMemoryDocument(baos.toByteArray());
-			signature.setMimeType(MimeType.PDF);
-			return signature;
+		DSSDocument signature = new InMemoryDocument(baos.toByteArray());
+		signature.setMimeType(MimeType.PDF);
+		return signature;
+	}
+
+	private void sign(final DSSDocument toSignDocument, final SignatureInterface signatureInterface, final PAdESSignatureParameters parameters,
+			final OutputStream outputStream) {
+		try (PDDocument pdDocument = loadPDDocument(toSignDocument)) {
+			signDocument(parameters, signatureInterface, outputStream, pdDocument);
 		} catch (IOException e) {
 			throw new DSSException(e);
 		}
 	}
 
-	private byte[] signDocumentAndReturnDigest(final PAdESSignatureParameters parameters, final byte[] signatureBytes, final OutputStream fileOutputStream,
-			final PDDocument pdDocument, final DigestAlgorithm digestAlgorithm) {
-
-		final MessageDigest digest = DSSUtils.getMessageDigest(digestAlgorithm);
-		SignatureInterface signatureInterface = new SignatureInterface() {
-
-			@Override
-			public byte[] sign(InputStream content) throws IOException {
-
-				byte[] b = new byte[4096];
-				int count;
-				while ((count = content.read(b)) > 0) {
-					digest.update(b, 0, count);
-				}
-				return signatureBytes;
-			}
-		};
+	private void signDocument(final PAdESSignatureParameters parameters, final SignatureInterface signatureInterface, final OutputStream outputStream,
+			final PDDocument pdDocument) {
 
 		final PDSignature pdSignature = createSignatureDictionary(parameters, pdDocument);
 		try (SignatureOptions options = new SignatureOptions()) {
@@ -166,13 +186,77 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 
 			pdDocument.addSignature(pdSignature, signatureInterface, options);
 
-			saveDocumentIncrementally(parameters, fileOutputStream, pdDocument);
-			return digest.digest();
+			saveDocumentIncrementally(parameters, outputStream, pdDocument);
 		} catch (IOException e) {
 			throw new DSSException(e);
 		}
 	}
 
+	/**
+	 * Loads the PDF document without an intermediate copy : a file is read through random accesses, the original
+	 * revision is then streamed from the file to the output during the incremental save.
+	 */
+	private PDDocument loadPDDocument(DSSDocument document) throws IOException {
+		if (document instanceof FileDocument) {
+			return PDDocument.load(new File(((FileDocument) document).getAbsolutePath()));
+		} else if (document instanceof InMemoryDocument) {
+			return PDDocument.load(((InMemoryDocument) document).getBytes());
+		}
+		try (InputStream is = document.openStream()) {
+			return PDDocument.load(is);
+		}
+	}
+
+	private static void updateDigest(MessageDigest digest, InputStream content) throws IOException {
+		byte[] b = new byte[8192];
+		int count;
+		while ((count = content.read(b)) > 0) {
+			digest.update(b, 0, count);
+		}
+	}
+
+	/**
+	 * Digests the signed content and returns a precomputed signature value
+	 */
+	private static final class DigestSignatureInterface implements SignatureInterface {
+
+		private final MessageDigest digest;
+		private final byte[] signatureValue;
+
+		DigestSignatureInterface(MessageDigest digest, byte[] signatureValue) {
+			this.digest = digest;
+			this.signatureValue = signatureValue;
+		}
+
+		@Override
+		public byte[] sign(InputStream content) throws IOException {
+			updateDigest(digest, content);
+			return signatureValue;
+		}
+
+	}
+
+	/**
+	 * Digests the signed content and returns the signature value computed by the callback
+	 */
+	private static final class CallbackSignatureInterface implements SignatureInterface {
+
+		private final MessageDigest digest;
+		private final SignedContentCallback callback;
+
+		CallbackSignatureInterface(MessageDigest digest, SignedContentCallback callback) {
+			this.digest = digest;
+			this.callback = callback;
+		}
+
+		@Override
+		public byte[] sign(InputStream content) throws IOException {
+			updateDigest(digest, content);
+			return callback.sign(digest.digest());
+		}
+
+	}
+
 	private PDSignature createSignatureDictionary(final PAdESSignatureParameters parameters, PDDocument pdDocument) {
 
 		PDSignature signature;
@@ -314,9 +398,9 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 	@Override
 	protected List<PdfSignatureOrDocTimestampInfo> getSignatures(CertificatePool validationCertPool, DSSDocument document) {
 		List<PdfSignatureOrDocTimestampInfo> signatures = new ArrayList<PdfSignatureOrDocTimestampInfo>();
-		try (InputStream is = document.openStream(); PDDocument doc = PDDocument.load(is)) {
+		byte[] originalBytes = DSSUtils.toByteArray(document);
+		try (PDDocument doc = PDDocument.load(originalBytes)) {
 
-			byte[] originalBytes = DSSUtils.toByteArray(document);
 			int originalBytesLength = originalBytes.length;
 
 			PdfDssDict dssDictionary = getDSSDictionary(doc);
@@ -410,7 +494,7 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 
 	@Override
 	public DSSDocument addDssDictionary(DSSDocument document, List<DSSDictionaryCallback> callbacks) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); InputStream is = document.openStream(); PDDocument pdDocument = PDDocument.load(is)) {
+		try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); PDDocument pdDocument = loadPDDocument(document)) {
 
 			if (Utils.isCollectionNotEmpty(callbacks)) {
 				final COSDictionary cosDictionary = pdDocument.getDocumentCatalog().getCOSObject();
@@ -527,7 +611,7 @@ class PdfBoxSignatureService extends AbstractPDFSignatureService {
 	@Override
 	public List<String> getAvailableSignatureFields(DSSDocument document) {
 		List<String> result = new ArrayList<String>();
-		try (InputStream is = document.openStream(); PDDocument pdfDoc = PDDocument.load(is)) {
+		try (PDDocument pdfDoc = loadPDDocument(document)) {
 			List<PDSignatureField> signatureFields = pdfDoc.getSignatureFields();
 			for (PDSignatureField pdSignatureField : signatureFields) {
 				PDSignature signature = pdSignatureField.getSignature();
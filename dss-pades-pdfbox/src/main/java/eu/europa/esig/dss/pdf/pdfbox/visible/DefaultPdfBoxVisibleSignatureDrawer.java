@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.pdf.pdfbox.visible;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
@@ -39,8 +40,16 @@ public class DefaultPdfBoxVisibleSignatureDrawer extends AbstractPdfBoxSignature
 
 		SignatureImageAndPosition signatureImageAndPosition = SignatureImageAndPositionProcessor.process(parameters, document, ires);
 
-		PDVisibleSignDesigner visibleSig = new PDVisibleSignDesigner(document, new ByteArrayInputStream(signatureImageAndPosition.getSignatureImage()),
-				parameters.getPage());
+		PDVisibleSignDesigner visibleSig;
+		BufferedImage image = signatureImageAndPosition.getImage();
+		if (image != null && image.getColorModel().hasAlpha()) {
+			// the PNG round trip is lossless : the decoded image is given as is
+			visibleSig = new PDVisibleSignDesigner(document, image, parameters.getPage());
+		} else {
+			// the JPEG round trip is kept : the appearance is not changed
+			visibleSig = new PDVisibleSignDesigner(document, new ByteArrayInputStream(signatureImageAndPosition.getSignatureImage()),
+					parameters.getPage());
+		}
 
 		visibleSig.xAxis(signatureImageAndPosition.getX());
 		visibleSig.yAxis(signatureImageAndPosition.getY());
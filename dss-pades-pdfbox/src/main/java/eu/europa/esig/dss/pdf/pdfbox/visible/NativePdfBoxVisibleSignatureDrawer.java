@@ -0,0 +1,328 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox.visible;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceDictionary;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDSignatureField;
+import org.apache.pdfbox.util.Matrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.pades.SignatureImageParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
+import eu.europa.esig.dss.pdf.visible.ImageTextWriter;
+import eu.europa.esig.dss.pdf.visible.ImageUtils;
+import eu.europa.esig.dss.pdf.visible.SignatureImageCache;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This drawer writes the text of the visible signature as vector text in the appearance stream (a PDF Form XObject)
+ * instead of rasterizing it with AWT. The text is drawn with one of the standard 14 PDF fonts (Helvetica, Times or
+ * Courier depending on the family of the AWT font), the logo (if any) is embedded as an image XObject.
+ * 
+ * The standard 14 fonts are not embedded : this drawer must not be used for PDF/A documents. Signatures with a
+ * rotation, without text or with a text which cannot be encoded with the standard fonts (WinAnsiEncoding, eg : Greek or
+ * Cyrillic characters) are delegated to the {@link DefaultPdfBoxVisibleSignatureDrawer}.
+ */
+public class NativePdfBoxVisibleSignatureDrawer extends DefaultPdfBoxVisibleSignatureDrawer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(NativePdfBoxVisibleSignatureDrawer.class);
+
+	/* Same margin as the raster text (10 pixels at 300 DPI) */
+	private static final float DEFAULT_MARGIN = 2.4f;
+
+	@Override
+	public void draw() throws IOException {
+		SignatureImageTextParameters textParameters = parameters.getTextParameters();
+		if (textParameters == null || Utils.isStringEmpty(textParameters.getText()) || isRotated()) {
+			LOG.debug("Signature without text or with rotation, the raster drawer is used");
+			super.draw();
+			return;
+		}
+
+		PDFont pdFont = getPdFont(textParameters.getFont());
+		float fontSize = textParameters.getFont().getSize2D();
+		String[] lines = textParameters.getText().split("\n");
+		if (!canEncode(pdFont, lines)) {
+			LOG.debug("The text cannot be encoded with the font '{}', the raster drawer is used", pdFont.getName());
+			super.draw();
+			return;
+		}
+
+		float lineHeight = pdFont.getBoundingBox().getHeight() / 1000 * fontSize;
+		float ascent = pdFont.getFontDescriptor().getAscent() / 1000 * fontSize;
+		float[] lineWidths = new float[lines.length];
+		float maxLineWidth = 0;
+		for (int i = 0; i < lines.length; i++) {
+			lineWidths[i] = pdFont.getStringWidth(lines[i]) / 1000 * fontSize;
+			maxLineWidth = Math.max(maxLineWidth, lineWidths[i]);
+		}
+		float textWidth = maxLineWidth + DEFAULT_MARGIN;
+		float textHeight = lineHeight * lines.length + DEFAULT_MARGIN;
+
+		DSSDocument logo = parameters.getImage();
+		BufferedImage logoImage = null;
+		float logoWidth = 0;
+		float logoHeight = 0;
+		if (logo != null) {
+			logoImage = SignatureImageCache.getImage(logo);
+			float ratio = ImageUtils.getDpi(parameters.getDpi()) / (float) ImageTextWriter.PDF_DEFAULT_DPI;
+			logoWidth = logoImage.getWidth() / ratio;
+			logoHeight = logoImage.getHeight() / ratio;
+		}
+
+		// content coordinates (origin at the bottom left corner)
+		float width;
+		float height;
+		float textX;
+		float textY;
+		float logoX = 0;
+		float logoY = 0;
+		switch (textParameters.getSignerNamePosition()) {
+		case LEFT:
+			width = logoWidth + textWidth;
+			height = Math.max(logoHeight, textHeight);
+			textX = logoWidth;
+			textY = getVerticalOffset(height, textHeight);
+			logoY = getVerticalOffset(height, logoHeight);
+			break;
+		case RIGHT:
+			width = textWidth + logoWidth;
+			height = Math.max(logoHeight, textHeight);
+			textX = 0;
+			textY = getVerticalOffset(height, textHeight);
+			logoX = textWidth;
+			logoY = getVerticalOffset(height, logoHeight);
+			break;
+		case TOP:
+			width = Math.max(logoWidth, textWidth);
+			height = logoHeight + textHeight;
+			textX = (width - textWidth) / 2;
+			textY = logoHeight;
+			logoX = (width - logoWidth) / 2;
+			break;
+		case BOTTOM:
+			width = Math.max(logoWidth, textWidth);
+			height = logoHeight + textHeight;
+			textX = (width - textWidth) / 2;
+			textY = 0;
+			logoX = (width - logoWidth) / 2;
+			logoY = textHeight;
+			break;
+		default:
+			throw new IllegalStateException("Unsupported signer name position : " + textParameters.getSignerNamePosition());
+		}
+
+		float zoom = parameters.getZoom() / 100f;
+		float rectWidth = width * zoom;
+		float rectHeight = height * zoom;
+		if ((parameters.getWidth() != 0) && (parameters.getHeight() != 0)) {
+			rectWidth = parameters.getWidth();
+			rectHeight = parameters.getHeight();
+		}
+
+		PDPage page = document.getPage(parameters.getPage() - 1);
+		PDRectangle mediaBox = page.getMediaBox();
+		PDRectangle rect = new PDRectangle(mediaBox.getLowerLeftX() + getX(mediaBox, rectWidth),
+				mediaBox.getLowerLeftY() + mediaBox.getHeight() - getY(mediaBox, rectHeight) - rectHeight, rectWidth, rectHeight);
+
+		try (PDDocument template = new PDDocument(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			PDPage templatePage = new PDPage(mediaBox);
+			template.addPage(templatePage);
+
+			PDAcroForm acroForm = new PDAcroForm(template);
+			template.getDocumentCatalog().setAcroForm(acroForm);
+			acroForm.setSignaturesExist(true);
+			acroForm.setAppendOnly(true);
+			acroForm.getCOSObject().setDirect(true);
+
+			PDSignatureField signatureField = new PDSignatureField(acroForm);
+			acroForm.getFields().add(signatureField);
+			PDAnnotationWidget widget = signatureField.getWidgets().get(0);
+			widget.setRectangle(rect);
+
+			PDFormXObject form = new PDFormXObject(new PDStream(template));
+			form.setResources(new PDResources());
+			form.setFormType(1);
+			form.setBBox(new PDRectangle(rectWidth, rectHeight));
+
+			PDAppearanceDictionary appearance = new PDAppearanceDictionary();
+			appearance.getCOSObject().setDirect(true);
+			PDAppearanceStream appearanceStream = new PDAppearanceStream(form.getCOSObject());
+			appearance.setNormalAppearance(appearanceStream);
+			widget.setAppearance(appearance);
+
+			try (PDPageContentStream cs = new PDPageContentStream(template, appearanceStream)) {
+				cs.transform(new Matrix(rectWidth / width, 0, 0, rectHeight / height, 0, 0));
+
+				Color backgroundColor = textParameters.getBackgroundColor();
+				if (backgroundColor != null) {
+					cs.setNonStrokingColor(backgroundColor);
+					cs.addRect(0, 0, width, height);
+					cs.fill();
+				}
+
+				if (logoImage != null) {
+					cs.drawImage(getImageXObject(template, logo, logoImage), logoX, logoY, logoWidth, logoHeight);
+				}
+
+				cs.beginText();
+				cs.setFont(pdFont, fontSize);
+				cs.setNonStrokingColor(textParameters.getTextColor() == null ? Color.BLACK : textParameters.getTextColor());
+				float baseline = textY + textHeight - DEFAULT_MARGIN / 2 - ascent;
+				for (int i = 0; i < lines.length; i++) {
+					float lineX = textX + getHorizontalOffset(textParameters.getSignerTextHorizontalAlignment(), textWidth, lineWidths[i]);
+					cs.setTextMatrix(Matrix.getTranslateInstance(lineX, baseline - i * lineHeight));
+					cs.showText(lines[i]);
+				}
+				cs.endText();
+			}
+
+			template.save(baos);
+			signatureOptions.setVisualSignature(new ByteArrayInputStream(baos.toByteArray()));
+			signatureOptions.setPage(parameters.getPage() - 1); // DSS-1138
+		}
+	}
+
+	/**
+	 * The standard 14 fonts only support the characters of their encoding (WinAnsiEncoding for Helvetica, Times and
+	 * Courier)
+	 */
+	static boolean canEncode(PDFont pdFont, String[] lines) {
+		for (String line : lines) {
+			try {
+				pdFont.encode(line);
+			} catch (IllegalArgumentException | IOException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isRotated() {
+		return parameters.getRotation() != null && SignatureImageParameters.VisualSignatureRotation.NONE != parameters.getRotation();
+	}
+
+	private float getVerticalOffset(float height, float elementHeight) {
+		switch (parameters.getSignerTextImageVerticalAlignment()) {
+		case TOP:
+			return height - elementHeight;
+		case BOTTOM:
+			return 0;
+		case MIDDLE:
+		default:
+			return (height - elementHeight) / 2;
+		}
+	}
+
+	private float getHorizontalOffset(SignatureImageTextParameters.SignerTextHorizontalAlignment alignment, float textWidth, float lineWidth) {
+		if (alignment != null) {
+			switch (alignment) {
+			case RIGHT:
+				return textWidth - DEFAULT_MARGIN / 2 - lineWidth;
+			case CENTER:
+				return (textWidth - lineWidth) / 2;
+			default:
+				break;
+			}
+		}
+		return DEFAULT_MARGIN / 2;
+	}
+
+	private float getX(PDRectangle mediaBox, float rectWidth) {
+		SignatureImageParameters.VisualSignatureAlignmentHorizontal alignment = parameters.getAlignmentHorizontal();
+		if (alignment == null) {
+			return parameters.getxAxis();
+		}
+		switch (alignment) {
+		case CENTER:
+			return (mediaBox.getWidth() - rectWidth) / 2;
+		case RIGHT:
+			return mediaBox.getWidth() - rectWidth - parameters.getxAxis();
+		default:
+			return parameters.getxAxis();
+		}
+	}
+
+	private float getY(PDRectangle mediaBox, float rectHeight) {
+		SignatureImageParameters.VisualSignatureAlignmentVertical alignment = parameters.getAlignmentVertical();
+		if (alignment == null) {
+			return parameters.getyAxis();
+		}
+		switch (alignment) {
+		case MIDDLE:
+			return (mediaBox.getHeight() - rectHeight) / 2;
+		case BOTTON:
+			return mediaBox.getHeight() - rectHeight - parameters.getyAxis();
+		default:
+			return parameters.getyAxis();
+		}
+	}
+
+	private PDImageXObject getImageXObject(PDDocument template, DSSDocument logo, BufferedImage logoImage) throws IOException {
+		if (MimeType.JPEG.equals(logo.getMimeType())) {
+			// the DCT stream is embedded as is
+			return JPEGFactory.createFromByteArray(template, DSSUtils.toByteArray(logo));
+		}
+		return LosslessFactory.createFromImage(template, logoImage);
+	}
+
+	static PDFont getPdFont(Font font) {
+		String name = font.getName().toLowerCase();
+		boolean bold = font.isBold();
+		boolean italic = font.isItalic();
+		if (name.contains("mono") || name.contains("courier")) {
+			return bold ? (italic ? PDType1Font.COURIER_BOLD_OBLIQUE : PDType1Font.COURIER_BOLD)
+					: (italic ? PDType1Font.COURIER_OBLIQUE : PDType1Font.COURIER);
+		} else if ((name.contains("serif") && !name.contains("sans")) || name.contains("times")) {
+			return bold ? (italic ? PDType1Font.TIMES_BOLD_ITALIC : PDType1Font.TIMES_BOLD)
+					: (italic ? PDType1Font.TIMES_ITALIC : PDType1Font.TIMES_ROMAN);
+		}
+		return bold ? (italic ? PDType1Font.HELVETICA_BOLD_OBLIQUE : PDType1Font.HELVETICA_BOLD)
+				: (italic ? PDType1Font.HELVETICA_OBLIQUE : PDType1Font.HELVETICA);
+	}
+
+}
@@ -20,11 +20,20 @@
  */
 package eu.europa.esig.dss.pdf.pdfbox.visible;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import eu.europa.esig.dss.DSSException;
+
 public class SignatureImageAndPosition {
 
     private float x;
     private float y;
 	private byte[] signatureImage;
+	private BufferedImage image;
 
     public SignatureImageAndPosition() {
     }
@@ -35,6 +44,12 @@ public class SignatureImageAndPosition {
         this.signatureImage = signatureImage;
     }
 
+    public SignatureImageAndPosition(float x, float y, BufferedImage image) {
+        this.x = x;
+        this.y = y;
+        this.image = image;
+    }
+
     public float getX() {
         return x;
     }
@@ -51,11 +66,41 @@ public class SignatureImageAndPosition {
         this.y = y;
     }
 
+    /**
+     * Returns the encoded image (PNG if the image has an alpha channel, JPEG otherwise)
+     * 
+     * @return the encoded image
+     */
     public byte[] getSignatureImage() {
+        if (signatureImage == null && image != null) {
+            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                String imageType = "jpg";
+                if (image.getColorModel().hasAlpha()) {
+                    imageType = "png";
+                }
+                ImageIO.write(image, imageType, baos);
+                signatureImage = baos.toByteArray();
+            } catch (IOException e) {
+                throw new DSSException("Unable to encode the signature image", e);
+            }
+        }
         return signatureImage;
     }
 
     public void setSignatureImage(byte[] signatureImage) {
         this.signatureImage = signatureImage;
     }
+
+    /**
+     * Returns the decoded image, this avoids an encoding/decoding round trip before the embedding by PDFBox
+     * 
+     * @return the decoded image or null
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public void setImage(BufferedImage image) {
+        this.image = image;
+    }
 }
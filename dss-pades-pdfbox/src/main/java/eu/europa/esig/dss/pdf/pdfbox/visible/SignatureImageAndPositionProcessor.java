@@ -21,7 +21,6 @@
 package eu.europa.esig.dss.pdf.pdfbox.visible;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -62,14 +61,7 @@ public final class SignatureImageAndPositionProcessor {
 			float x = processX(rotate, ires, visualImageSignature, pdPage, signatureImageParameters);
 			float y = processY(rotate, ires, visualImageSignature, pdPage, signatureImageParameters);
 
-			ByteArrayOutputStream visualImageSignatureOutputStream = new ByteArrayOutputStream();
-			String imageType = "jpg";
-			if (visualImageSignature.getColorModel().hasAlpha()) {
-				imageType = "png";
-			}
-			ImageIO.write(visualImageSignature, imageType, visualImageSignatureOutputStream);
-
-			return new SignatureImageAndPosition(x, y, visualImageSignatureOutputStream.toByteArray());
+			return new SignatureImageAndPosition(x, y, visualImageSignature);
 		}
     }
 
@@ -0,0 +1,199 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades.signature.visible;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.apache.pdfbox.pdmodel.interactive.form.PDSignatureField;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.SignatureImageParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters.SignerPosition;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters.SignerTextHorizontalAlignment;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.pdf.PdfObjFactory;
+import eu.europa.esig.dss.pdf.pdfbox.PdfBoxNativeObjectFactory;
+import eu.europa.esig.dss.pdf.pdfbox.PdfBoxObjectFactory;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+import eu.europa.esig.dss.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.validation.reports.wrapper.DiagnosticData;
+
+public class PdfBoxNativeVisibleSignatureTest extends PKIFactoryAccess {
+
+	private DocumentSignatureService<PAdESSignatureParameters> service;
+	private PAdESSignatureParameters signatureParameters;
+	private DSSDocument documentToSign;
+
+	@Before
+	public void init() throws Exception {
+		PdfObjFactory.setInstance(new PdfBoxNativeObjectFactory());
+
+		documentToSign = new InMemoryDocument(getClass().getResourceAsStream("/sample.pdf"));
+
+		signatureParameters = new PAdESSignatureParameters();
+		signatureParameters.bLevel().setSigningDate(new Date());
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
+
+		service = new PAdESService(getCompleteCertificateVerifier());
+	}
+
+	@After
+	public void reset() {
+		PdfObjFactory.setInstance(new PdfBoxObjectFactory());
+	}
+
+	@Test
+	public void testTextOnly() throws IOException {
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setxAxis(100);
+		imageParameters.setyAxis(100);
+		SignatureImageTextParameters textParameters = new SignatureImageTextParameters();
+		textParameters.setText("My signature\nSecond line");
+		textParameters.setTextColor(Color.BLUE);
+		textParameters.setSignerTextHorizontalAlignment(SignerTextHorizontalAlignment.CENTER);
+		imageParameters.setTextParameters(textParameters);
+		signatureParameters.setSignatureImageParameters(imageParameters);
+
+		assertVectorText(signAndValidate());
+	}
+
+	@Test
+	public void testPNGAndTextOnTop() throws IOException {
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setImage(new InMemoryDocument(getClass().getResourceAsStream("/signature-image.png"), "signature-image.png", MimeType.PNG));
+		imageParameters.setxAxis(100);
+		imageParameters.setyAxis(100);
+		imageParameters.setZoom(150);
+		SignatureImageTextParameters textParameters = new SignatureImageTextParameters();
+		textParameters.setText("My signature");
+		textParameters.setFont(new Font("SansSerif", Font.BOLD, 15));
+		textParameters.setSignerNamePosition(SignerPosition.TOP);
+		imageParameters.setTextParameters(textParameters);
+		signatureParameters.setSignatureImageParameters(imageParameters);
+
+		assertVectorText(signAndValidate());
+	}
+
+	@Test
+	public void testJPGAndTextWithSize() throws IOException {
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setImage(new InMemoryDocument(getClass().getResourceAsStream("/small-red.jpg"), "small-red.jpg", MimeType.JPEG));
+		imageParameters.setxAxis(10);
+		imageParameters.setyAxis(10);
+		imageParameters.setWidth(200);
+		imageParameters.setHeight(50);
+		imageParameters.setAlignmentHorizontal(SignatureImageParameters.VisualSignatureAlignmentHorizontal.RIGHT);
+		imageParameters.setAlignmentVertical(SignatureImageParameters.VisualSignatureAlignmentVertical.BOTTON);
+		SignatureImageTextParameters textParameters = new SignatureImageTextParameters();
+		textParameters.setText("My signature");
+		textParameters.setSignerNamePosition(SignerPosition.RIGHT);
+		imageParameters.setTextParameters(textParameters);
+		signatureParameters.setSignatureImageParameters(imageParameters);
+
+		assertVectorText(signAndValidate());
+	}
+
+	@Test
+	public void testImageOnlyFallback() throws IOException {
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setImage(new InMemoryDocument(getClass().getResourceAsStream("/small-red.jpg"), "small-red.jpg", MimeType.JPEG));
+		imageParameters.setxAxis(100);
+		imageParameters.setyAxis(100);
+		signatureParameters.setSignatureImageParameters(imageParameters);
+
+		signAndValidate();
+	}
+
+	@Test
+	public void testNonWinAnsiTextFallback() throws IOException {
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setxAxis(100);
+		imageParameters.setyAxis(100);
+		SignatureImageTextParameters textParameters = new SignatureImageTextParameters();
+		// Cyrillic characters are not in WinAnsiEncoding
+		textParameters.setText("\u041f\u043e\u0434\u043f\u0438\u0441\u044c");
+		imageParameters.setTextParameters(textParameters);
+		signatureParameters.setSignatureImageParameters(imageParameters);
+
+		DSSDocument signedDocument = signAndValidate();
+		try (InputStream is = signedDocument.openStream(); PDDocument pdDocument = PDDocument.load(is)) {
+			PDSignatureField signatureField = pdDocument.getSignatureFields().get(0);
+			assertNotNull(signatureField.getWidgets().get(0).getNormalAppearanceStream());
+		}
+	}
+
+	private DSSDocument signAndValidate() {
+		ToBeSigned dataToSign = service.getDataToSign(documentToSign, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		DSSDocument signedDocument = service.signDocument(documentToSign, signatureParameters, signatureValue);
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getCompleteCertificateVerifier());
+		Reports reports = validator.validateDocument();
+
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		assertTrue(diagnosticData.isBLevelTechnicallyValid(diagnosticData.getFirstSignatureId()));
+		return signedDocument;
+	}
+
+	private void assertVectorText(DSSDocument signedDocument) throws IOException {
+		try (InputStream is = signedDocument.openStream(); PDDocument pdDocument = PDDocument.load(is)) {
+			PDSignatureField signatureField = pdDocument.getSignatureFields().get(0);
+			PDAppearanceStream appearanceStream = signatureField.getWidgets().get(0).getNormalAppearanceStream();
+			assertNotNull(appearanceStream);
+			assertTrue(appearanceStream.getResources().getFontNames().iterator().hasNext());
+			try (InputStream contentIs = appearanceStream.getContentStream().createInputStream()) {
+				String content = new String(DSSUtils.toByteArray(contentIs), "ISO-8859-1");
+				assertTrue(content.contains("Tj"));
+			}
+		}
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
@@ -0,0 +1,123 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pdf.PDFSignatureService;
+import eu.europa.esig.dss.pdf.SignedContentCallback;
+
+public class PdfBoxSignatureServiceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private PAdESSignatureParameters parameters;
+
+	@Before
+	public void init() {
+		parameters = new PAdESSignatureParameters();
+		parameters.bLevel().setSigningDate(new Date());
+	}
+
+	@Test
+	public void singlePassSignature() throws IOException {
+		PDFSignatureService service = new PdfBoxObjectFactory().newPAdESSignatureService();
+
+		DSSDocument inMemoryDocument = new InMemoryDocument(getClass().getResourceAsStream("/sample.pdf"));
+		File file = folder.newFile("sample.pdf");
+		inMemoryDocument.save(file.getAbsolutePath());
+		DSSDocument fileDocument = new FileDocument(file);
+
+		byte[] expectedDigest = service.digest(fileDocument, parameters, DigestAlgorithm.SHA256);
+		assertArrayEquals(expectedDigest, service.digest(inMemoryDocument, parameters, DigestAlgorithm.SHA256));
+
+		final byte[][] receivedDigest = new byte[1][];
+		DSSDocument signed = service.sign(fileDocument, new SignedContentCallback() {
+
+			@Override
+			public byte[] sign(byte[] messageDigest) {
+				receivedDigest[0] = messageDigest;
+				return new byte[] { 1, 2, 3 };
+			}
+
+		}, parameters, DigestAlgorithm.SHA256);
+
+		assertArrayEquals(expectedDigest, receivedDigest[0]);
+
+		// same output than the two steps signature
+		DSSDocument twoSteps = service.sign(inMemoryDocument, new byte[] { 1, 2, 3 }, parameters, DigestAlgorithm.SHA256);
+		assertEquals(twoSteps.getDigest(DigestAlgorithm.SHA256), signed.getDigest(DigestAlgorithm.SHA256));
+		assertNotNull(signed.getMimeType());
+
+		List<String> fields = service.getAvailableSignatureFields(signed);
+		assertEquals(0, fields.size());
+		assertTrue(DSSUtils.toByteArray(signed).length > file.length());
+	}
+
+	@Test
+	public void signatureWrittenToStream() throws IOException {
+		PDFSignatureService service = new PdfBoxObjectFactory().newPAdESSignatureService();
+
+		File file = folder.newFile("sample.pdf");
+		new InMemoryDocument(getClass().getResourceAsStream("/sample.pdf")).save(file.getAbsolutePath());
+		DSSDocument fileDocument = new FileDocument(file);
+
+		SignedContentCallback callback = new SignedContentCallback() {
+
+			@Override
+			public byte[] sign(byte[] messageDigest) {
+				return messageDigest;
+			}
+
+		};
+
+		File signedFile = folder.newFile("signed.pdf");
+		try (OutputStream os = new FileOutputStream(signedFile)) {
+			service.sign(fileDocument, callback, parameters, DigestAlgorithm.SHA256, os);
+		}
+
+		DSSDocument signed = service.sign(fileDocument, callback, parameters, DigestAlgorithm.SHA256);
+		assertEquals(signed.getDigest(DigestAlgorithm.SHA256), new FileDocument(signedFile).getDigest(DigestAlgorithm.SHA256));
+	}
+
+}
@@ -0,0 +1,96 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox.visible;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
+
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.pades.SignatureImageParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
+import eu.europa.esig.dss.pdf.visible.SignatureImageCache;
+
+/**
+ * Measures the per-signature cost of the visible signature appearance (same logo, different text for each
+ * signature) with the raster drawer (without and with the image cache) and with the vector text drawer.
+ * 
+ * Usage : VisibleSignatureAppearanceBenchmarkApp [iterations]
+ */
+public class VisibleSignatureAppearanceBenchmarkApp {
+
+	private static final int DEFAULT_ITERATIONS = 200;
+
+	private static final int WARMUP_ITERATIONS = 20;
+
+	public static void main(String[] args) throws IOException {
+		int iterations = DEFAULT_ITERATIONS;
+		if (args.length > 0) {
+			iterations = Integer.parseInt(args[0]);
+		}
+
+		InMemoryDocument logo = new InMemoryDocument(VisibleSignatureAppearanceBenchmarkApp.class.getResourceAsStream("/signature-image.png"),
+				"signature-image.png", MimeType.PNG);
+
+		try (InputStream is = VisibleSignatureAppearanceBenchmarkApp.class.getResourceAsStream("/sample.pdf");
+				PDDocument document = PDDocument.load(is)) {
+			run("Raster (no cache)", new DefaultPdfBoxVisibleSignatureDrawer(), document, logo, iterations, true);
+			run("Raster (cached)", new DefaultPdfBoxVisibleSignatureDrawer(), document, logo, iterations, false);
+			run("Vector text", new NativePdfBoxVisibleSignatureDrawer(), document, logo, iterations, false);
+		}
+	}
+
+	private static void run(String name, PdfBoxSignatureDrawer drawer, PDDocument document, InMemoryDocument logo, int iterations, boolean clearCache)
+			throws IOException {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			draw(drawer, document, logo, i, clearCache);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			draw(drawer, document, logo, i, clearCache);
+		}
+		long duration = System.nanoTime() - start;
+		System.out.println(String.format("%-20s : %8.3f ms / signature", name, duration / 1000000d / iterations));
+	}
+
+	private static void draw(PdfBoxSignatureDrawer drawer, PDDocument document, InMemoryDocument logo, int index, boolean clearCache)
+			throws IOException {
+		if (clearCache) {
+			SignatureImageCache.clear();
+		}
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setImage(logo);
+		imageParameters.setxAxis(100);
+		imageParameters.setyAxis(100);
+		SignatureImageTextParameters textParameters = new SignatureImageTextParameters();
+		textParameters.setText("Signed by Contract Signer " + index + "\nDate : 2019-01-01");
+		imageParameters.setTextParameters(textParameters);
+
+		try (SignatureOptions options = new SignatureOptions()) {
+			drawer.init(imageParameters, document, options);
+			drawer.draw();
+		}
+	}
+
+}
@@ -20,6 +20,8 @@
  */
 package eu.europa.esig.dss.pades.signature;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import org.bouncycastle.cms.CMSProcessableByteArray;
@@ -46,6 +48,7 @@ import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pades.SignatureFieldParameters;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.PdfObjFactory;
+import eu.europa.esig.dss.pdf.SignedContentCallback;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
 import eu.europa.esig.dss.signature.SignatureExtension;
 import eu.europa.esig.dss.validation.CertificateVerifier;
@@ -131,28 +134,12 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 		assertSigningDateInCertificateValidityRange(parameters);
 
-		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
-		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
-
 		final PDFSignatureService pdfSignatureService = PdfObjFactory.newPAdESSignatureService();
-		final byte[] messageDigest = pdfSignatureService.digest(toSignDocument, parameters, parameters.getDigestAlgorithm());
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
-
-		final CMSSignedDataGenerator generator = padesCMSSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner,
-				signerInfoGeneratorBuilder, null);
-
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(messageDigest);
-		CMSSignedData data = CMSUtils.generateDetachedCMSSignedData(generator, content);
-
 		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
-		if (signatureLevel != SignatureLevel.PAdES_BASELINE_B) {
-			// use an embedded timestamp
-			CAdESLevelBaselineT cadesLevelBaselineT = new CAdESLevelBaselineT(tspSource, false);
-			data = cadesLevelBaselineT.extendCMSSignatures(data, parameters);
-		}
 
-		final byte[] encodedData = CMSUtils.getEncoded(data);
-		DSSDocument signature = pdfSignatureService.sign(toSignDocument, encodedData, parameters, parameters.getDigestAlgorithm());
+		// the digest and the signature are computed in the same pass over the PDF document
+		DSSDocument signature = pdfSignatureService.sign(toSignDocument, getSignedContentCallback(parameters, signatureValue), parameters,
+				parameters.getDigestAlgorithm());
 
 		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(signatureLevel);
 		if ((signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T) && (extension != null)) {
@@ -164,6 +151,79 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		return signature;
 	}
 
+	/**
+	 * Signs the document and writes the signed document to the output stream (eg : a file) : for the B and T levels,
+	 * the signed document is written as it is built and it is never kept in memory. The LT and LTA levels add
+	 * revisions to the signed document, which is then built with
+	 * {@link #signDocument(DSSDocument, PAdESSignatureParameters, SignatureValue)} before being written.
+	 *
+	 * @param toSignDocument
+	 *            the document to be signed
+	 * @param parameters
+	 *            the signature parameters
+	 * @param signatureValue
+	 *            the signature value
+	 * @param outputStream
+	 *            the stream which receives the signed document (not closed)
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	public void signDocument(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final SignatureValue signatureValue,
+			final OutputStream outputStream) throws DSSException {
+
+		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
+		if ((signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T)) {
+			try {
+				signDocument(toSignDocument, parameters, signatureValue).writeTo(outputStream);
+			} catch (IOException e) {
+				throw new DSSException("Unable to write the signed document", e);
+			}
+			return;
+		}
+
+		assertSigningDateInCertificateValidityRange(parameters);
+
+		final PDFSignatureService pdfSignatureService = PdfObjFactory.newPAdESSignatureService();
+		pdfSignatureService.sign(toSignDocument, getSignedContentCallback(parameters, signatureValue), parameters, parameters.getDigestAlgorithm(),
+				outputStream);
+
+		parameters.reinitDeterministicId();
+	}
+
+	/**
+	 * Builds the CMS from the digest of the signed byte ranges (with an embedded timestamp above the B level)
+	 */
+	private SignedContentCallback getSignedContentCallback(final PAdESSignatureParameters parameters, final SignatureValue signatureValue) {
+
+		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
+		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
+		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
+
+		return new SignedContentCallback() {
+
+			@Override
+			public byte[] sign(byte[] messageDigest) {
+				final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters,
+						messageDigest);
+
+				final CMSSignedDataGenerator generator = padesCMSSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner,
+						signerInfoGeneratorBuilder, null);
+
+				final CMSProcessableByteArray content = new CMSProcessableByteArray(messageDigest);
+				CMSSignedData data = CMSUtils.generateDetachedCMSSignedData(generator, content);
+
+				if (signatureLevel != SignatureLevel.PAdES_BASELINE_B) {
+					// use an embedded timestamp
+					CAdESLevelBaselineT cadesLevelBaselineT = new CAdESLevelBaselineT(tspSource, false);
+					data = cadesLevelBaselineT.extendCMSSignatures(data, parameters);
+				}
+
+				return CMSUtils.getEncoded(data);
+			}
+
+		};
+	}
+
 	@Override
 	public DSSDocument extendDocument(DSSDocument original, PAdESSignatureParameters parameters) throws DSSException {
 		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(parameters.getSignatureLevel());
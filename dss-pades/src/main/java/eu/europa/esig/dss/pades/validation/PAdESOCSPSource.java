@@ -38,6 +38,8 @@ public class PAdESOCSPSource extends OfflineOCSPSource {
 
 	private final PdfDssDict dssDictionary;
 
+	private List<BasicOCSPResp> containedOCSPResponses;
+
 	/**
 	 * The default constructor for PAdESOCSPSource.
 	 *
@@ -50,7 +52,10 @@ public class PAdESOCSPSource extends OfflineOCSPSource {
 
 	@Override
 	public List<BasicOCSPResp> getContainedOCSPResponses() {
-		return new ArrayList<BasicOCSPResp>(getOcspMap().values());
+		if (containedOCSPResponses == null) {
+			containedOCSPResponses = new ArrayList<BasicOCSPResp>(getOcspMap().values());
+		}
+		return containedOCSPResponses;
 	}
 
 	/**
@@ -20,6 +20,8 @@
  */
 package eu.europa.esig.dss.pdf;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -129,13 +131,44 @@ public abstract class AbstractPDFSignatureService implements PDFSignatureService
 		}
 	}
 
+	/**
+	 * Default implementation in two passes : the digest is computed first, then the document is signed. This method
+	 * should be overridden by the implementations which are able to sign in a single pass.
+	 */
+	@Override
+	public DSSDocument sign(DSSDocument pdfData, SignedContentCallback callback, PAdESSignatureParameters parameters, DigestAlgorithm digestAlgorithm) {
+		final byte[] digest = digest(pdfData, parameters, digestAlgorithm);
+		return sign(pdfData, callback.sign(digest), parameters, digestAlgorithm);
+	}
+
+	/**
+	 * Default implementation : the signed document is built with
+	 * {@link #sign(DSSDocument, SignedContentCallback, PAdESSignatureParameters, DigestAlgorithm)}, then written. This
+	 * method should be overridden by the implementations which are able to write the signed document as it is built.
+	 */
 	@Override
-	public DSSDocument timestamp(DSSDocument document, PAdESSignatureParameters parameters, TSPSource tspSource) {
+	public void sign(DSSDocument pdfData, SignedContentCallback callback, PAdESSignatureParameters parameters, DigestAlgorithm digestAlgorithm,
+			OutputStream outputStream) {
+		final DSSDocument signed = sign(pdfData, callback, parameters, digestAlgorithm);
+		try {
+			signed.writeTo(outputStream);
+		} catch (IOException e) {
+			throw new DSSException("Unable to write the signed document", e);
+		}
+	}
+
+	@Override
+	public DSSDocument timestamp(DSSDocument document, PAdESSignatureParameters parameters, final TSPSource tspSource) {
 		final DigestAlgorithm timestampDigestAlgorithm = parameters.getSignatureTimestampParameters().getDigestAlgorithm();
-		final byte[] digest = digest(document, parameters, timestampDigestAlgorithm);
-		final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, digest);
-		final byte[] encoded = CMSUtils.getEncoded(timeStampToken.toCMSSignedData());
-		return sign(document, encoded, parameters, timestampDigestAlgorithm);
+		return sign(document, new SignedContentCallback() {
+
+			@Override
+			public byte[] sign(byte[] messageDigest) {
+				final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, messageDigest);
+				return CMSUtils.getEncoded(timeStampToken.toCMSSignedData());
+			}
+
+		}, parameters, timestampDigestAlgorithm);
 	}
 
 	@Override
@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.pdf;
 
+import java.io.OutputStream;
 import java.util.List;
 
 import eu.europa.esig.dss.DSSDocument;
@@ -66,6 +67,45 @@ public interface PDFSignatureService {
 	 */
 	DSSDocument sign(final DSSDocument pdfData, final byte[] signatureValue, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm);
 
+	/**
+	 * Signs a PDF document, the signature value is computed by the callback from the digest of the signed byte
+	 * ranges. Implementations may parse the document only once for both operations.
+	 *
+	 * @param pdfData
+	 *            the pdf document
+	 * @param callback
+	 *            the callback which computes the signature value from the message digest
+	 * @param parameters
+	 *            the signature parameters
+	 * @param digestAlgorithm
+	 *            the digest algorithm to be used
+	 * @return the signed pdf document
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	DSSDocument sign(final DSSDocument pdfData, final SignedContentCallback callback, final PAdESSignatureParameters parameters,
+			final DigestAlgorithm digestAlgorithm);
+
+	/**
+	 * Signs a PDF document and writes the signed document to the output stream, as the incremental update is built
+	 * : the signed document is not kept in memory (eg : a large document saved to a file).
+	 *
+	 * @param pdfData
+	 *            the pdf document
+	 * @param callback
+	 *            the callback which computes the signature value from the message digest
+	 * @param parameters
+	 *            the signature parameters
+	 * @param digestAlgorithm
+	 *            the digest algorithm to be used
+	 * @param outputStream
+	 *            the stream which receives the signed pdf document (not closed)
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	void sign(final DSSDocument pdfData, final SignedContentCallback callback, final PAdESSignatureParameters parameters,
+			final DigestAlgorithm digestAlgorithm, final OutputStream outputStream);
+
 	/**
 	 * Retrieves and triggers validation of the signatures from a PDF document
 	 *
@@ -0,0 +1,39 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf;
+
+/**
+ * Computes the value of the /Contents entry (CMS signature or timestamp token) from the digest of the signed byte
+ * ranges. It allows the PDF implementations to compute the digest and to write the signature in a single pass over
+ * the document.
+ */
+public interface SignedContentCallback {
+
+	/**
+	 * Returns the encoded signature to be embedded in the PDF
+	 * 
+	 * @param messageDigest
+	 *            the digest of the signed byte ranges
+	 * @return the encoded CMS signature or timestamp token
+	 */
+	byte[] sign(byte[] messageDigest);
+
+}
@@ -24,7 +24,6 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.FontMetrics;
-import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 
@@ -51,16 +50,13 @@ public final class ImageTextWriter {
 			SignatureImageTextParameters.SignerTextHorizontalAlignment horizontalAlignment) {
 		// Computing image size depending of the font
 		float fontSize = Math.round((font.getSize() * dpi) / (float) PDF_DEFAULT_DPI);
-		Font largerFont = font.deriveFont(fontSize);
+		Font largerFont = SignatureImageCache.getFont(font, fontSize);
 		Dimension dimension = computeSize(largerFont, text);
 		return createTextImage(text, largerFont, textColor, bgColor, dimension.width, dimension.height, horizontalAlignment);
 	}
 
 	public static Dimension computeSize(Font font, String text) {
-		BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
-		Graphics g = img.getGraphics();
-		g.setFont(font);
-		FontMetrics fontMetrics = g.getFontMetrics(font);
+		FontMetrics fontMetrics = SignatureImageCache.getFontMetrics(font);
 
 		String[] lines = text.split("\n");
 
@@ -74,7 +70,6 @@ public final class ImageTextWriter {
 
 		width += DEFAULT_MARGIN;
 		int height = (fontMetrics.getHeight() * lines.length) + DEFAULT_MARGIN;
-		g.dispose();
 
 		return new Dimension(width, height);
 	}
@@ -92,27 +92,23 @@ public class ImageUtils {
 					textParamaters.getBackgroundColor(), getDpi(imageParameters.getDpi()), textParamaters.getSignerTextHorizontalAlignment());
 
 			if (image != null) {
-				try (InputStream is = image.openStream()) {
-					if (is != null) {
-						switch (textParamaters.getSignerNamePosition()) {
-						case LEFT:
-							buffImg = ImagesMerger.mergeOnRight(ImageIO.read(is), buffImg, textParamaters.getBackgroundColor(),
-									imageParameters.getSignerTextImageVerticalAlignment());
-							break;
-						case RIGHT:
-							buffImg = ImagesMerger.mergeOnRight(buffImg, ImageIO.read(is), textParamaters.getBackgroundColor(),
-									imageParameters.getSignerTextImageVerticalAlignment());
-							break;
-						case TOP:
-							buffImg = ImagesMerger.mergeOnTop(ImageIO.read(is), buffImg, textParamaters.getBackgroundColor());
-							break;
-						case BOTTOM:
-							buffImg = ImagesMerger.mergeOnTop(buffImg, ImageIO.read(is), textParamaters.getBackgroundColor());
-							break;
-						default:
-							break;
-						}
-					}
+				switch (textParamaters.getSignerNamePosition()) {
+				case LEFT:
+					buffImg = ImagesMerger.mergeOnRight(SignatureImageCache.getImage(image), buffImg, textParamaters.getBackgroundColor(),
+							imageParameters.getSignerTextImageVerticalAlignment());
+					break;
+				case RIGHT:
+					buffImg = ImagesMerger.mergeOnRight(buffImg, SignatureImageCache.getImage(image), textParamaters.getBackgroundColor(),
+							imageParameters.getSignerTextImageVerticalAlignment());
+					break;
+				case TOP:
+					buffImg = ImagesMerger.mergeOnTop(SignatureImageCache.getImage(image), buffImg, textParamaters.getBackgroundColor());
+					break;
+				case BOTTOM:
+					buffImg = ImagesMerger.mergeOnTop(buffImg, SignatureImageCache.getImage(image), textParamaters.getBackgroundColor());
+					break;
+				default:
+					break;
 				}
 			}
 			return convertToInputStream(buffImg, getDpi(imageParameters.getDpi()));
@@ -136,11 +132,9 @@ public class ImageUtils {
 
 		DSSDocument docImage = imageParameters.getImage();
 		if (docImage != null) {
-			try (InputStream is = docImage.openStream()) {
-				BufferedImage image = ImageIO.read(is);
-				width = image.getWidth();
-				height = image.getHeight();
-			}
+			BufferedImage image = SignatureImageCache.getImage(docImage);
+			width = image.getWidth();
+			height = image.getHeight();
 		}
 
 		SignatureImageTextParameters textParamaters = imageParameters.getTextParameters();
@@ -243,7 +237,7 @@ public class ImageUtils {
 
 	private static Dimension getTextDimension(String text, Font font, Integer dpi) {
 		float fontSize = Math.round((font.getSize() * getDpi(dpi)) / (float) ImageTextWriter.PDF_DEFAULT_DPI);
-		Font largerFont = font.deriveFont(fontSize);
+		Font largerFont = SignatureImageCache.getFont(font, fontSize);
 		return ImageTextWriter.computeSize(largerFont, text);
 	}
 
@@ -322,7 +316,7 @@ public class ImageUtils {
 		metadata.mergeTree("javax_imageio_1.0", root);
 	}
 
-	static int getDpi(Integer dpi) {
+	public static int getDpi(Integer dpi) {
 		int result = DPI;
 		if (dpi != null && dpi.intValue() > 0) {
 			result = dpi.intValue();
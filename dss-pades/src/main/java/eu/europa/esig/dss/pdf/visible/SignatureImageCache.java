@@ -0,0 +1,186 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.visible;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+import javax.imageio.ImageIO;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.util.LoadingCache;
+
+/**
+ * Process-wide cache of the resources used to render the visible signatures.
+ * 
+ * The same logo is commonly used for thousands of signatures while only the text changes. Decoded images are cached
+ * by the SHA-256 digest of their content, derived fonts by their size and font metrics by font. The cached images
+ * are shared and MUST NOT be modified by the callers.
+ */
+public final class SignatureImageCache {
+
+	private static final DigestAlgorithm KEY_DIGEST_ALGORITHM = DigestAlgorithm.SHA256;
+
+	private static final int DEFAULT_MAX_IMAGES = 64;
+
+	private static final int DEFAULT_MAX_FONTS = 256;
+
+	private static final LoadingCache<String, BufferedImage> IMAGES = new LoadingCache<String, BufferedImage>(DEFAULT_MAX_IMAGES);
+
+	private static final LoadingCache<FontKey, Font> FONTS = new LoadingCache<FontKey, Font>(DEFAULT_MAX_FONTS);
+
+	private static final LoadingCache<Font, FontMetrics> FONT_METRICS = new LoadingCache<Font, FontMetrics>(DEFAULT_MAX_FONTS);
+
+	private SignatureImageCache() {
+	}
+
+	/**
+	 * Returns the decoded image. The image is decoded only once for a given content.
+	 * 
+	 * @param image
+	 *            the image document (PNG, JPEG,...)
+	 * @return the decoded image (shared, read-only)
+	 */
+	public static BufferedImage getImage(final DSSDocument image) {
+		return IMAGES.get(image.getDigest(KEY_DIGEST_ALGORITHM), new Callable<BufferedImage>() {
+
+			@Override
+			public BufferedImage call() throws IOException {
+				try (InputStream is = image.openStream()) {
+					BufferedImage bufferedImage = ImageIO.read(is);
+					if (bufferedImage == null) {
+						throw new DSSException("Unable to read the image '" + image.getName() + "'");
+					}
+					return bufferedImage;
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Returns the font derived with the given size
+	 * 
+	 * @param font
+	 *            the original font
+	 * @param size
+	 *            the new size
+	 * @return the derived font
+	 */
+	public static Font getFont(final Font font, final float size) {
+		return FONTS.get(new FontKey(font, size), new Callable<Font>() {
+
+			@Override
+			public Font call() {
+				return font.deriveFont(size);
+			}
+
+		});
+	}
+
+	/**
+	 * Returns the font metrics of the given font
+	 * 
+	 * @param font
+	 *            the font
+	 * @return the font metrics
+	 */
+	public static FontMetrics getFontMetrics(final Font font) {
+		return FONT_METRICS.get(font, new Callable<FontMetrics>() {
+
+			@Override
+			public FontMetrics call() {
+				BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+				Graphics2D g = img.createGraphics();
+				try {
+					return g.getFontMetrics(font);
+				} finally {
+					g.dispose();
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Returns the number of image loads served from the cache
+	 * 
+	 * @return the number of hits
+	 */
+	public static long getImageHitCount() {
+		return IMAGES.getHitCount();
+	}
+
+	/**
+	 * Returns the number of decoded images
+	 * 
+	 * @return the number of misses
+	 */
+	public static long getImageMissCount() {
+		return IMAGES.getMissCount();
+	}
+
+	/**
+	 * Removes all the cached images, fonts and font metrics
+	 */
+	public static void clear() {
+		IMAGES.clear();
+		FONTS.clear();
+		FONT_METRICS.clear();
+	}
+
+	private static final class FontKey {
+
+		private final Font font;
+		private final float size;
+
+		FontKey(Font font, float size) {
+			this.font = font;
+			this.size = size;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * font.hashCode() + Float.floatToIntBits(size);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof FontKey)) {
+				return false;
+			}
+			FontKey other = (FontKey) obj;
+			return font.equals(other.font) && Float.floatToIntBits(size) == Float.floatToIntBits(other.size);
+		}
+
+	}
+
+}
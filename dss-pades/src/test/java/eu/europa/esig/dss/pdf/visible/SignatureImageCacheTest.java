@@ -0,0 +1,74 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.visible;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
+
+public class SignatureImageCacheTest {
+
+	@Before
+	public void init() {
+		SignatureImageCache.clear();
+	}
+
+	@Test
+	public void imageDecodedOnce() {
+		long misses = SignatureImageCache.getImageMissCount();
+		long hits = SignatureImageCache.getImageHitCount();
+
+		BufferedImage image = SignatureImageCache.getImage(new FileDocument(new File("src/test/resources/signature-image.png")));
+		assertNotNull(image);
+		// Same content, another document instance
+		assertSame(image, SignatureImageCache.getImage(new FileDocument(new File("src/test/resources/signature-image.png"))));
+
+		assertEquals(misses + 1, SignatureImageCache.getImageMissCount());
+		assertEquals(hits + 1, SignatureImageCache.getImageHitCount());
+	}
+
+	@Test(expected = DSSException.class)
+	public void notAnImage() {
+		SignatureImageCache.getImage(new InMemoryDocument(new byte[] { 1, 2, 3 }));
+	}
+
+	@Test
+	public void fonts() {
+		Font font = SignatureImageTextParameters.DEFAULT_FONT;
+		Font derived = SignatureImageCache.getFont(font, 50);
+		assertEquals(50, derived.getSize());
+		assertSame(derived, SignatureImageCache.getFont(font, 50));
+		assertSame(SignatureImageCache.getFontMetrics(derived), SignatureImageCache.getFontMetrics(derived));
+	}
+
+}
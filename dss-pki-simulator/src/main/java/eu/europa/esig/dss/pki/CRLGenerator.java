@@ -0,0 +1,234 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * Builds the CRLs of the simulated certification authorities.
+ * 
+ * The DER structure is written directly in a single byte array : a CRL with millions of (synthetic) entries does
+ * not require an ASN.1 object per entry.
+ */
+class CRLGenerator {
+
+	private static final byte SEQUENCE = 0x30;
+	private static final byte INTEGER = 0x02;
+	private static final byte BIT_STRING = 0x03;
+
+	/*
+	 * Synthetic serial numbers are 8 bytes long, with a first byte which cannot collide with the serial numbers of
+	 * the issued certificates (based on the current time)
+	 */
+	private static final long SYNTHETIC_SERIAL_PREFIX = 0x7E00000000000000L;
+
+	private CRLGenerator() {
+	}
+
+	/**
+	 * Generates a signed CRL
+	 * 
+	 * @param ca
+	 *            the issuer of the CRL
+	 * @param crlNumber
+	 *            the value of the CRLNumber extension
+	 * @param thisUpdate
+	 *            the thisUpdate date
+	 * @param nextUpdate
+	 *            the nextUpdate date
+	 * @param syntheticEntries
+	 *            the number of additional revoked serial numbers which do not match any issued certificate
+	 * @return the DER encoded CRL
+	 */
+	static byte[] generate(PKIEntity ca, BigInteger crlNumber, Date thisUpdate, Date nextUpdate, int syntheticEntries) {
+		try {
+			byte[] version = new ASN1Integer(1).getEncoded();
+			byte[] signatureAlgorithm = new DefaultSignatureAlgorithmIdentifierFinder().find(CertificateIssuer.SIGNATURE_ALGORITHM).getEncoded();
+			byte[] issuer = ca.getCertificate().getSubjectX500Principal().getEncoded();
+			byte[] thisUpdateBytes = new Time(thisUpdate).getEncoded();
+			byte[] nextUpdateBytes = new Time(nextUpdate).getEncoded();
+
+			List<byte[]> revokedEntries = new ArrayList<byte[]>();
+			for (PKIEntity revoked : ca.getRevokedEntities()) {
+				revokedEntries.add(getEntry(revoked));
+			}
+
+			Extensions extensions = new Extensions(new Extension[] {
+					new Extension(Extension.authorityKeyIdentifier, false,
+							new DEROctetString(new JcaX509ExtensionUtils().createAuthorityKeyIdentifier(ca.getCertificate().getPublicKey()))),
+					new Extension(Extension.cRLNumber, false, new DEROctetString(new CRLNumber(crlNumber))) });
+			byte[] crlExtensions = new DERTaggedObject(true, 0, extensions).getEncoded();
+
+			// A synthetic entry is SEQUENCE { INTEGER (8 bytes), UTCTime/GeneralizedTime }
+			int syntheticEntryContentLength = 2 + 8 + thisUpdateBytes.length;
+			int syntheticEntryLength = 1 + lengthOfLength(syntheticEntryContentLength) + syntheticEntryContentLength;
+
+			long revokedContentLength = (long) syntheticEntries * syntheticEntryLength;
+			for (byte[] entry : revokedEntries) {
+				revokedContentLength += entry.length;
+			}
+			boolean withRevokedCertificates = revokedContentLength > 0;
+
+			long tbsContentLength = version.length + signatureAlgorithm.length + issuer.length + thisUpdateBytes.length + nextUpdateBytes.length
+					+ crlExtensions.length;
+			if (withRevokedCertificates) {
+				tbsContentLength += 1 + lengthOfLength(revokedContentLength) + revokedContentLength;
+			}
+			long tbsLength = 1 + lengthOfLength(tbsContentLength) + tbsContentLength;
+			if (tbsLength > Integer.MAX_VALUE - 1024) {
+				throw new DSSException("The CRL is too large (" + syntheticEntries + " entries)");
+			}
+
+			DERWriter tbs = new DERWriter((int) tbsLength);
+			tbs.writeHeader(SEQUENCE, tbsContentLength);
+			tbs.write(version);
+			tbs.write(signatureAlgorithm);
+			tbs.write(issuer);
+			tbs.write(thisUpdateBytes);
+			tbs.write(nextUpdateBytes);
+			if (withRevokedCertificates) {
+				tbs.writeHeader(SEQUENCE, revokedContentLength);
+				for (byte[] entry : revokedEntries) {
+					tbs.write(entry);
+				}
+				for (int i = 0; i < syntheticEntries; i++) {
+					tbs.writeHeader(SEQUENCE, syntheticEntryContentLength);
+					tbs.writeHeader(INTEGER, 8);
+					tbs.writeLong(SYNTHETIC_SERIAL_PREFIX | i);
+					tbs.write(thisUpdateBytes);
+				}
+			}
+			tbs.write(crlExtensions);
+
+			byte[] tbsBytes = tbs.toByteArray();
+			byte[] signatureValue = sign(ca, tbsBytes);
+
+			long bitStringContentLength = signatureValue.length + 1L;
+			long crlContentLength = tbsBytes.length + signatureAlgorithm.length + 1 + lengthOfLength(bitStringContentLength) + bitStringContentLength;
+			DERWriter crl = new DERWriter((int) (1 + lengthOfLength(crlContentLength) + crlContentLength));
+			crl.writeHeader(SEQUENCE, crlContentLength);
+			crl.write(tbsBytes);
+			crl.write(signatureAlgorithm);
+			crl.writeHeader(BIT_STRING, bitStringContentLength);
+			crl.write(new byte[] { 0 }); // no unused bits
+			crl.write(signatureValue);
+			return crl.toByteArray();
+		} catch (DSSException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSException("Unable to generate the CRL of '" + ca.getName() + "'", e);
+		}
+	}
+
+	private static byte[] getEntry(PKIEntity revoked) throws IOException {
+		Extensions entryExtensions = new Extensions(
+				new Extension(Extension.reasonCode, false, new DEROctetString(CRLReason.lookup(revoked.getRevocationReason()))));
+		return new DERSequence(new ASN1Encodable[] { new ASN1Integer(revoked.getCertificate().getSerialNumber()), new Time(revoked.getRevocationDate()),
+				entryExtensions }).getEncoded();
+	}
+
+	private static byte[] sign(PKIEntity ca, byte[] tbsBytes) throws GeneralSecurityException {
+		Signature signature = Signature.getInstance(CertificateIssuer.SIGNATURE_ALGORITHM);
+		signature.initSign(ca.getPrivateKey());
+		signature.update(tbsBytes);
+		return signature.sign();
+	}
+
+	static int lengthOfLength(long length) {
+		if (length < 0x80) {
+			return 1;
+		}
+		int bytes = 0;
+		long value = length;
+		while (value > 0) {
+			bytes++;
+			value >>>= 8;
+		}
+		return 1 + bytes;
+	}
+
+	/**
+	 * Minimal DER writer over a pre-sized array
+	 */
+	private static class DERWriter {
+
+		private final byte[] buffer;
+		private int position;
+
+		DERWriter(int size) {
+			this.buffer = new byte[size];
+		}
+
+		void writeHeader(byte tag, long length) {
+			buffer[position++] = tag;
+			if (length < 0x80) {
+				buffer[position++] = (byte) length;
+			} else {
+				int bytes = lengthOfLength(length) - 1;
+				buffer[position++] = (byte) (0x80 | bytes);
+				for (int i = bytes - 1; i >= 0; i--) {
+					buffer[position++] = (byte) (length >>> (8 * i));
+				}
+			}
+		}
+
+		void writeLong(long value) {
+			for (int i = 7; i >= 0; i--) {
+				buffer[position++] = (byte) (value >>> (8 * i));
+			}
+		}
+
+		void write(byte[] bytes) {
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+		}
+
+		byte[] toByteArray() {
+			if (position != buffer.length) {
+				throw new DSSException("Invalid DER length computation : " + position + " / " + buffer.length);
+			}
+			return buffer;
+		}
+
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * Generates the key pairs and the certificates of the simulated PKI
+ */
+class CertificateIssuer {
+
+	static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+	private static final int KEY_SIZE = 2048;
+
+	private final AtomicLong serialNumbers = new AtomicLong(System.currentTimeMillis());
+
+	private final String organization;
+
+	CertificateIssuer(String organization) {
+		this.organization = organization;
+	}
+
+	/**
+	 * Issues a certificate for the given type
+	 * 
+	 * @param name
+	 *            the name of the entity (used as common name and in the URLs)
+	 * @param type
+	 *            the type of entity
+	 * @param issuer
+	 *            the issuer or null for a self-signed certificate
+	 * @param baseUrl
+	 *            the URL of the simulator, to build the AIA and CRL distribution point extensions
+	 * @param notBefore
+	 *            the start of the validity period
+	 * @param notAfter
+	 *            the end of the validity period
+	 * @return the new entity
+	 */
+	PKIEntity issue(String name, EntityType type, PKIEntity issuer, String baseUrl, Date notBefore, Date notAfter) {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(KEY_SIZE);
+			KeyPair keyPair = generator.generateKeyPair();
+
+			X500Name subject = new X500Name("CN=" + name + ",O=" + organization + ",C=ZZ");
+			X500Name issuerName = issuer == null ? subject : X500Name.getInstance(issuer.getCertificate().getSubjectX500Principal().getEncoded());
+			PublicKey issuerPublicKey = issuer == null ? keyPair.getPublic() : issuer.getCertificate().getPublicKey();
+			PrivateKey signingKey = issuer == null ? keyPair.getPrivate() : issuer.getPrivateKey();
+
+			X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuerName, BigInteger.valueOf(serialNumbers.incrementAndGet()), notBefore,
+					notAfter, subject, keyPair.getPublic());
+
+			JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+			builder.addExtension(Extension.subjectKeyIdentifier, false, extensionUtils.createSubjectKeyIdentifier(keyPair.getPublic()));
+			builder.addExtension(Extension.authorityKeyIdentifier, false, extensionUtils.createAuthorityKeyIdentifier(issuerPublicKey));
+
+			switch (type) {
+			case ROOT_CA:
+			case CA:
+				builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+				builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+				break;
+			case TSA:
+				builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature));
+				builder.addExtension(Extension.extendedKeyUsage, true, new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+				break;
+			case USER:
+			case TL_SIGNER:
+				builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.nonRepudiation | KeyUsage.digitalSignature));
+				break;
+			default:
+				throw new DSSException("Unsupported type " + type);
+			}
+
+			if (issuer != null) {
+				String issuerAlias = issuer.getName();
+				AccessDescription caIssuers = new AccessDescription(AccessDescription.id_ad_caIssuers,
+						new GeneralName(GeneralName.uniformResourceIdentifier, baseUrl + "/" + Endpoint.AIA.getPath() + "/" + issuerAlias + ".crt"));
+				AccessDescription ocsp = new AccessDescription(AccessDescription.id_ad_ocsp,
+						new GeneralName(GeneralName.uniformResourceIdentifier, baseUrl + "/" + Endpoint.OCSP.getPath() + "/" + issuerAlias));
+				builder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(new AccessDescription[] { caIssuers, ocsp }));
+
+				GeneralNames crlUrl = new GeneralNames(
+						new GeneralName(GeneralName.uniformResourceIdentifier, baseUrl + "/" + Endpoint.CRL.getPath() + "/" + issuerAlias + ".crl"));
+				DistributionPoint distributionPoint = new DistributionPoint(new DistributionPointName(crlUrl), null, null);
+				builder.addExtension(Extension.cRLDistributionPoints, false, new CRLDistPoint(new DistributionPoint[] { distributionPoint }));
+			}
+
+			CertificateToken certificate = new CertificateToken(
+					new JcaX509CertificateConverter().getCertificate(builder.build(new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(signingKey))));
+			return new PKIEntity(name, type, certificate, keyPair.getPrivate(), issuer);
+		} catch (DSSException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSException("Unable to issue the certificate '" + name + "'", e);
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+/**
+ * The services exposed by the {@code PKISimulator}. Each endpoint is served under its own path prefix.
+ */
+public enum Endpoint {
+
+	/** PKCS#12 keystores of the entities and the JKS of the trust anchors */
+	KEYSTORE("keystore"),
+
+	/** DER encoded certificates (caIssuers) */
+	AIA("aia"),
+
+	/** CRLs of the certification authorities */
+	CRL("crl"),
+
+	/** OCSP responders of the certification authorities */
+	OCSP("ocsp"),
+
+	/** RFC 3161 time-stamping authorities */
+	TSA("tsa"),
+
+	/** The list of trusted lists and the trusted list */
+	TL("tl");
+
+	private final String path;
+
+	Endpoint(String path) {
+		this.path = path;
+	}
+
+	/**
+	 * Returns the path prefix of the endpoint (without slashes)
+	 * 
+	 * @return the path prefix
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	static Endpoint forPath(String path) {
+		for (Endpoint endpoint : values()) {
+			if (endpoint.path.equals(path)) {
+				return endpoint;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,114 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.util.Random;
+
+/**
+ * The simulated network conditions of an {@code Endpoint} : response latency and failures.
+ */
+public class EndpointBehaviour {
+
+	private volatile long latency;
+
+	private volatile long latencyJitter;
+
+	private volatile double failureRate;
+
+	private volatile int failureStatusCode = 500;
+
+	/**
+	 * Sets the fixed delay (in milliseconds) before each response is sent. Use a value higher than the
+	 * client read timeout to simulate a hanging server.
+	 * 
+	 * @param latency
+	 *            the delay in milliseconds (0 by default)
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * Sets the maximum random delay (in milliseconds) added to the fixed latency.
+	 * 
+	 * @param latencyJitter
+	 *            the maximum additional delay in milliseconds (0 by default)
+	 */
+	public void setLatencyJitter(long latencyJitter) {
+		this.latencyJitter = latencyJitter;
+	}
+
+	/**
+	 * Sets the probability of a failed request.
+	 * 
+	 * @param failureRate
+	 *            a value between 0 (never fails, by default) and 1 (always fails)
+	 */
+	public void setFailureRate(double failureRate) {
+		if (failureRate < 0 || failureRate > 1) {
+			throw new IllegalArgumentException("The failure rate must be between 0 and 1");
+		}
+		this.failureRate = failureRate;
+	}
+
+	/**
+	 * Sets the HTTP status code returned for a failed request.
+	 * 
+	 * @param failureStatusCode
+	 *            the HTTP status code (500 by default)
+	 */
+	public void setFailureStatusCode(int failureStatusCode) {
+		this.failureStatusCode = failureStatusCode;
+	}
+
+	public long getLatency() {
+		return latency;
+	}
+
+	public long getLatencyJitter() {
+		return latencyJitter;
+	}
+
+	public double getFailureRate() {
+		return failureRate;
+	}
+
+	public int getFailureStatusCode() {
+		return failureStatusCode;
+	}
+
+	long nextDelay(Random random) {
+		long jitter = latencyJitter;
+		if (jitter <= 0) {
+			return latency;
+		}
+		return latency + (long) (random.nextDouble() * jitter);
+	}
+
+	boolean nextFailure(Random random) {
+		double rate = failureRate;
+		if (rate <= 0) {
+			return false;
+		}
+		return random.nextDouble() < rate;
+	}
+
+}
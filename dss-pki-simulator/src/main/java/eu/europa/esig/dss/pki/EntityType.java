@@ -0,0 +1,43 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+/**
+ * The role of a {@code PKIEntity}, which defines the certificate extensions
+ */
+public enum EntityType {
+
+	/** Self-signed certification authority, published in the trusted list */
+	ROOT_CA,
+
+	/** Intermediate certification authority */
+	CA,
+
+	/** End-entity certificate usable for signatures */
+	USER,
+
+	/** Time-stamping unit, published in the trusted list when issued by a root CA */
+	TSA,
+
+	/** Self-signed certificate used to sign the (list of) trusted list(s) */
+	TL_SIGNER
+
+}
@@ -0,0 +1,115 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.util.Date;
+
+import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.cert.ocsp.UnknownStatus;
+import org.bouncycastle.cert.ocsp.jcajce.JcaBasicOCSPRespBuilder;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * OCSP responder of a simulated certification authority. The responses are signed with the key of the CA.
+ */
+class OCSPResponder {
+
+	private OCSPResponder() {
+	}
+
+	/**
+	 * Answers an OCSP request
+	 * 
+	 * @param ca
+	 *            the certification authority
+	 * @param request
+	 *            the DER encoded OCSPRequest
+	 * @param producedAt
+	 *            the production time of the response
+	 * @return the DER encoded OCSPResponse
+	 */
+	static byte[] respond(PKIEntity ca, byte[] request, Date producedAt) {
+		try {
+			OCSPReq ocspReq;
+			try {
+				ocspReq = new OCSPReq(request);
+			} catch (Exception e) {
+				return new OCSPRespBuilder().build(OCSPRespBuilder.MALFORMED_REQUEST, null).getEncoded();
+			}
+
+			DigestCalculatorProvider digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+			X509CertificateHolder caHolder = new X509CertificateHolder(ca.getCertificate().getEncoded());
+
+			BasicOCSPRespBuilder builder = new JcaBasicOCSPRespBuilder(ca.getCertificate().getPublicKey(),
+					digestCalculatorProvider.get(CertificateID.HASH_SHA1));
+
+			for (Req req : ocspReq.getRequestList()) {
+				CertificateID certID = req.getCertID();
+				builder.addResponse(certID, getStatus(ca, caHolder, certID, digestCalculatorProvider), producedAt, (Date) null);
+			}
+
+			Extension nonce = ocspReq.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
+			if (nonce != null) {
+				builder.setResponseExtensions(new Extensions(nonce));
+			}
+
+			BasicOCSPResp basicResponse = builder.build(new JcaContentSignerBuilder(CertificateIssuer.SIGNATURE_ALGORITHM).build(ca.getPrivateKey()),
+					new X509CertificateHolder[] { caHolder }, producedAt);
+			OCSPResp response = new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basicResponse);
+			return response.getEncoded();
+		} catch (Exception e) {
+			throw new DSSException("Unable to build the OCSP response of '" + ca.getName() + "'", e);
+		}
+	}
+
+	private static CertificateStatus getStatus(PKIEntity ca, X509CertificateHolder caHolder, CertificateID certID,
+			DigestCalculatorProvider digestCalculatorProvider) throws OCSPException {
+		if (!certID.matchesIssuer(caHolder, digestCalculatorProvider)) {
+			return new UnknownStatus();
+		}
+		PKIEntity entity = ca.getIssued(certID.getSerialNumber());
+		if (entity == null) {
+			return new UnknownStatus();
+		}
+		if (entity.isRevoked()) {
+			return new RevokedStatus(entity.getRevocationDate(), entity.getRevocationReason());
+		}
+		return CertificateStatus.GOOD;
+	}
+
+}
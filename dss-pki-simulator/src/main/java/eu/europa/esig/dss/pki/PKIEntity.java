@@ -0,0 +1,143 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * A certificate and its private key issued by the {@code PKISimulator}
+ */
+public class PKIEntity {
+
+	private final String name;
+	private final EntityType type;
+	private final CertificateToken certificate;
+	private final PrivateKey privateKey;
+	private final PKIEntity issuer;
+
+	/* Certificates issued by this entity (CA only), by serial number */
+	private final Map<BigInteger, PKIEntity> issued = new ConcurrentHashMap<BigInteger, PKIEntity>();
+
+	private volatile Date revocationDate;
+	private volatile int revocationReason;
+
+	PKIEntity(String name, EntityType type, CertificateToken certificate, PrivateKey privateKey, PKIEntity issuer) {
+		this.name = name;
+		this.type = type;
+		this.certificate = certificate;
+		this.privateKey = privateKey;
+		this.issuer = issuer;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public EntityType getType() {
+		return type;
+	}
+
+	public CertificateToken getCertificate() {
+		return certificate;
+	}
+
+	public PrivateKey getPrivateKey() {
+		return privateKey;
+	}
+
+	/**
+	 * Returns the issuer of this entity
+	 * 
+	 * @return the issuer or null for a self-signed certificate
+	 */
+	public PKIEntity getIssuer() {
+		return issuer;
+	}
+
+	/**
+	 * Returns the certificate chain, starting with the certificate of this entity and ending with the root
+	 * 
+	 * @return the certificate chain
+	 */
+	public CertificateToken[] getCertificateChain() {
+		List<CertificateToken> chain = new ArrayList<CertificateToken>();
+		PKIEntity current = this;
+		while (current != null) {
+			chain.add(current.getCertificate());
+			current = current.getIssuer();
+		}
+		return chain.toArray(new CertificateToken[chain.size()]);
+	}
+
+	public boolean isRevoked() {
+		return revocationDate != null;
+	}
+
+	public Date getRevocationDate() {
+		return revocationDate;
+	}
+
+	/**
+	 * Returns the revocation reason
+	 * 
+	 * @return the reason code (see {@code org.bouncycastle.asn1.x509.CRLReason})
+	 */
+	public int getRevocationReason() {
+		return revocationReason;
+	}
+
+	void revoke(Date date, int reason) {
+		this.revocationReason = reason;
+		this.revocationDate = date;
+	}
+
+	void addIssued(PKIEntity entity) {
+		issued.put(entity.getCertificate().getSerialNumber(), entity);
+	}
+
+	PKIEntity getIssued(BigInteger serialNumber) {
+		return issued.get(serialNumber);
+	}
+
+	List<PKIEntity> getRevokedEntities() {
+		List<PKIEntity> revoked = new ArrayList<PKIEntity>();
+		for (PKIEntity entity : issued.values()) {
+			if (entity.isRevoked()) {
+				revoked.add(entity);
+			}
+		}
+		return revoked;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + type + ") : " + certificate.getSubjectX500Principal();
+	}
+
+}
@@ -0,0 +1,881 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.token.KeyStoreSignatureTokenConnection;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
+
+/**
+ * Self-contained PKI served over HTTP on the loopback interface, for load tests and benchmarks which cannot rely on
+ * an external PKI.
+ * 
+ * The simulator issues certificate chains on demand (with AIA, OCSP and CRL distribution point extensions pointing
+ * to itself) and serves :
+ * <ul>
+ * <li>/keystore/{name}.p12 : the PKCS#12 keystore of an entity and /keystore/trust-anchors.jks : the root CAs</li>
+ * <li>/aia/{name}.crt : the certificate of an entity</li>
+ * <li>/crl/{name}.crl : the CRL of a CA (optionally padded with synthetic entries)</li>
+ * <li>/ocsp/{name} : the OCSP responder of a CA</li>
+ * <li>/tsa/{name} : a RFC 3161 time-stamping authority</li>
+ * <li>/tl/lotl.xml and /tl/{territory}.xml : a signed list of trusted lists and a trusted list with the root CAs and
+ * the TSAs</li>
+ * </ul>
+ * 
+ * The layout of the keystore and TSA paths is the one of the PKI factory used by {@code PKIFactoryAccess}. The
+ * latency and the failures of each {@link Endpoint} can be configured with {@link #getBehaviour(Endpoint)}.
+ * 
+ * <pre>
+ * PKISimulator pki = new PKISimulator();
+ * pki.start();
+ * pki.createRootCA("root-ca");
+ * pki.createCA("intermediate-ca", "root-ca");
+ * pki.createUser("good-user", "intermediate-ca");
+ * pki.createTSA("good-tsa", "root-ca");
+ * pki.getBehaviour(Endpoint.OCSP).setLatency(50);
+ * ...
+ * pki.stop();
+ * </pre>
+ */
+public class PKISimulator implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PKISimulator.class);
+
+	public static final String DEFAULT_KEYSTORE_PASSWORD = "ks-password";
+
+	public static final String TRUST_ANCHORS = "trust-anchors";
+
+	public static final String LOTL_FILENAME = "lotl.xml";
+
+	private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_.\\-]+");
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	private final Map<String, PKIEntity> entities = new LinkedHashMap<String, PKIEntity>();
+
+	private final Map<Endpoint, EndpointBehaviour> behaviours = new EnumMap<Endpoint, EndpointBehaviour>(Endpoint.class);
+	private final Map<Endpoint, AtomicLong> requestCounts = new EnumMap<Endpoint, AtomicLong>(Endpoint.class);
+	private final Map<Endpoint, AtomicLong> failureCounts = new EnumMap<Endpoint, AtomicLong>(Endpoint.class);
+
+	private final Map<String, Integer> crlSizes = new ConcurrentHashMap<String, Integer>();
+	private final Map<String, byte[]> crls = new ConcurrentHashMap<String, byte[]>();
+	private final Map<String, byte[]> keystores = new ConcurrentHashMap<String, byte[]>();
+	private final AtomicLong crlNumber = new AtomicLong();
+	private final AtomicLong timestampSerialNumber = new AtomicLong();
+
+	private final CertificateIssuer certificateIssuer = new CertificateIssuer("DSS PKI Simulator");
+	private final TrustedListGenerator trustedListGenerator = new TrustedListGenerator();
+
+	/* Shared by the request threads, the seed and the draws of a request are synchronized on it */
+	private final Random random = new Random();
+
+	private String keystorePassword = DEFAULT_KEYSTORE_PASSWORD;
+	private int port;
+	private long crlValidity = DAY;
+	private long trustedListValidity = 30 * DAY;
+	private String trustedListTerritory = "ZZ";
+
+	private HttpServer server;
+	private ExecutorService executorService;
+	private String baseUrl;
+
+	private PKIEntity lotlSigner;
+	private PKIEntity tlSigner;
+	private byte[] lotl;
+	private byte[] trustedList;
+	private int trustedListSequenceNumber;
+
+	public PKISimulator() {
+		for (Endpoint endpoint : Endpoint.values()) {
+			behaviours.put(endpoint, new EndpointBehaviour());
+			requestCounts.put(endpoint, new AtomicLong());
+			failureCounts.put(endpoint, new AtomicLong());
+		}
+	}
+
+	/**
+	 * Sets the port to listen on
+	 * 
+	 * @param port
+	 *            the port (0 by default : a free port is chosen at start-up)
+	 */
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	/**
+	 * Sets the password of the served keystores
+	 * 
+	 * @param keystorePassword
+	 *            the password ({@value #DEFAULT_KEYSTORE_PASSWORD} by default)
+	 */
+	public void setKeystorePassword(String keystorePassword) {
+		this.keystorePassword = keystorePassword;
+		keystores.clear();
+	}
+
+	/**
+	 * Sets the seed of the random generator used for the latency jitter and the failure injection, in order to
+	 * reproduce a run
+	 * 
+	 * @param seed
+	 *            the seed
+	 */
+	public void setSeed(long seed) {
+		synchronized (random) {
+			random.setSeed(seed);
+		}
+	}
+
+	/**
+	 * Sets the period between the thisUpdate and the nextUpdate of the CRLs
+	 * 
+	 * @param crlValidity
+	 *            the validity in milliseconds (one day by default)
+	 */
+	public void setCrlValidity(long crlValidity) {
+		this.crlValidity = crlValidity;
+		crls.clear();
+	}
+
+	/**
+	 * Sets the period between the issue date and the next update of the trusted lists
+	 * 
+	 * @param trustedListValidity
+	 *            the validity in milliseconds (30 days by default)
+	 */
+	public void setTrustedListValidity(long trustedListValidity) {
+		this.trustedListValidity = trustedListValidity;
+		invalidateTrustedLists();
+	}
+
+	/**
+	 * Sets the territory (scheme territory) of the simulated trusted list
+	 * 
+	 * @param trustedListTerritory
+	 *            the two letters territory ("ZZ" by default)
+	 */
+	public void setTrustedListTerritory(String trustedListTerritory) {
+		checkName(trustedListTerritory);
+		this.trustedListTerritory = trustedListTerritory;
+		invalidateTrustedLists();
+	}
+
+	/**
+	 * Starts the HTTP server
+	 */
+	public synchronized void start() {
+		if (server != null) {
+			throw new DSSException("The PKI simulator is already started");
+		}
+		try {
+			InetAddress loopback = InetAddress.getByName("127.0.0.1");
+			server = HttpServer.create(new InetSocketAddress(loopback, port), 0);
+			server.createContext("/", new SimulatorHandler());
+			executorService = Executors.newCachedThreadPool(new DaemonThreadFactory());
+			server.setExecutor(executorService);
+			server.start();
+			baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+			LOG.info("PKI simulator started on {}", baseUrl);
+		} catch (IOException e) {
+			server = null;
+			throw new DSSException("Unable to start the PKI simulator", e);
+		}
+	}
+
+	/**
+	 * Stops the HTTP server. The issued entities are kept but their URLs are no longer reachable.
+	 */
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			executorService.shutdownNow();
+			server = null;
+			executorService = null;
+			LOG.info("PKI simulator stopped");
+		}
+	}
+
+	@Override
+	public void close() {
+		stop();
+	}
+
+	/**
+	 * Returns the URL of the simulator (eg : http://127.0.0.1:54321)
+	 * 
+	 * @return the base URL
+	 */
+	public synchronized String getBaseUrl() {
+		if (baseUrl == null) {
+			throw new DSSException("The PKI simulator is not started");
+		}
+		return baseUrl;
+	}
+
+	/**
+	 * Returns the URL of a resource
+	 * 
+	 * @param endpoint
+	 *            the endpoint
+	 * @param resource
+	 *            the resource name (eg : "root-ca.crl" for the CRL endpoint)
+	 * @return the URL
+	 */
+	public String getUrl(Endpoint endpoint, String resource) {
+		return getBaseUrl() + "/" + endpoint.getPath() + "/" + resource;
+	}
+
+	public String getTsaUrl(String tsaName) {
+		return getUrl(Endpoint.TSA, tsaName);
+	}
+
+	public String getLOTLUrl() {
+		return getUrl(Endpoint.TL, LOTL_FILENAME);
+	}
+
+	public String getTrustedListUrl() {
+		return getUrl(Endpoint.TL, trustedListTerritory + ".xml");
+	}
+
+	/**
+	 * Returns the scheme information URI of the list of trusted lists (the value to use as OJ URL in the
+	 * {@code TSLValidationJob})
+	 * 
+	 * @return the scheme information URI
+	 */
+	public String getLOTLSchemeInformationUri() {
+		return getUrl(Endpoint.TL, "lotl.html");
+	}
+
+	public String getTrustedListTerritory() {
+		return trustedListTerritory;
+	}
+
+	public String getLOTLTerritory() {
+		return TrustedListGenerator.LOTL_TERRITORY;
+	}
+
+	public EndpointBehaviour getBehaviour(Endpoint endpoint) {
+		return behaviours.get(endpoint);
+	}
+
+	/**
+	 * Returns the number of received requests (including the failed ones)
+	 * 
+	 * @param endpoint
+	 *            the endpoint
+	 * @return the number of requests
+	 */
+	public long getRequestCount(Endpoint endpoint) {
+		return requestCounts.get(endpoint).get();
+	}
+
+	/**
+	 * Returns the number of requests which failed (injected failures and errors)
+	 * 
+	 * @param endpoint
+	 *            the endpoint
+	 * @return the number of failed requests
+	 */
+	public long getFailureCount(Endpoint endpoint) {
+		return failureCounts.get(endpoint).get();
+	}
+
+	public void resetStatistics() {
+		for (Endpoint endpoint : Endpoint.values()) {
+			requestCounts.get(endpoint).set(0);
+			failureCounts.get(endpoint).set(0);
+		}
+	}
+
+	/**
+	 * Creates a self-signed certification authority, published in the trusted list and in the trust anchors
+	 * keystore
+	 * 
+	 * @param name
+	 *            the unique name of the entity
+	 * @return the created entity
+	 */
+	public PKIEntity createRootCA(String name) {
+		return create(name, EntityType.ROOT_CA, null, null, null);
+	}
+
+	/**
+	 * Creates an intermediate certification authority
+	 * 
+	 * @param name
+	 *            the unique name of the entity
+	 * @param issuerName
+	 *            the name of the issuing CA
+	 * @return the created entity
+	 */
+	public PKIEntity createCA(String name, String issuerName) {
+		return create(name, EntityType.CA, issuerName, null, null);
+	}
+
+	/**
+	 * Creates an end-entity certificate usable to sign
+	 * 
+	 * @param name
+	 *            the unique name of the entity
+	 * @param issuerName
+	 *            the name of the issuing CA
+	 * @return the created entity
+	 */
+	public PKIEntity createUser(String name, String issuerName) {
+		return create(name, EntityType.USER, issuerName, null, null);
+	}
+
+	/**
+	 * Creates an end-entity certificate with a given validity period (eg : an expired certificate)
+	 * 
+	 * @param name
+	 *            the unique name of the entity
+	 * @param issuerName
+	 *            the name of the issuing CA
+	 * @param notBefore
+	 *            the start of the validity period
+	 * @param notAfter
+	 *            the end of the validity period
+	 * @return the created entity
+	 */
+	public PKIEntity createUser(String name, String issuerName, Date notBefore, Date notAfter) {
+		return create(name, EntityType.USER, issuerName, notBefore, notAfter);
+	}
+
+	/**
+	 * Creates a time-stamping unit, served on /tsa/{name} and published in the trusted list
+	 * 
+	 * @param name
+	 *            the unique name of the entity
+	 * @param issuerName
+	 *            the name of the issuing CA
+	 * @return the created entity
+	 */
+	public PKIEntity createTSA(String name, String issuerName) {
+		return create(name, EntityType.TSA, issuerName, null, null);
+	}
+
+	private PKIEntity create(String name, EntityType type, String issuerName, Date notBefore, Date notAfter) {
+		checkName(name);
+		if (TRUST_ANCHORS.equals(name)) {
+			throw new DSSException("The name '" + TRUST_ANCHORS + "' is reserved");
+		}
+		PKIEntity issuer = null;
+		if (issuerName != null) {
+			issuer = getEntity(issuerName);
+			if (issuer.getType() != EntityType.ROOT_CA && issuer.getType() != EntityType.CA) {
+				throw new DSSException("The entity '" + issuerName + "' is not a certification authority");
+			}
+		}
+
+		long now = System.currentTimeMillis();
+		Date start = notBefore != null ? notBefore : new Date(now - DAY);
+		Date end = notAfter != null ? notAfter : new Date(now + (issuer == null ? 3650 : 730) * DAY);
+		PKIEntity entity = certificateIssuer.issue(name, type, issuer, getBaseUrl(), start, end);
+
+		synchronized (entities) {
+			if (entities.containsKey(name)) {
+				throw new DSSException("The entity '" + name + "' already exists");
+			}
+			entities.put(name, entity);
+		}
+		if (issuer != null) {
+			issuer.addIssued(entity);
+		}
+		if (type == EntityType.ROOT_CA || type == EntityType.TSA) {
+			invalidateTrustedLists();
+		}
+		LOG.debug("Entity created : {}", entity);
+		return entity;
+	}
+
+	/**
+	 * Returns an entity by name
+	 * 
+	 * @param name
+	 *            the name of the entity
+	 * @return the entity
+	 * @throws DSSException
+	 *             if the entity does not exist
+	 */
+	public PKIEntity getEntity(String name) {
+		PKIEntity entity;
+		synchronized (entities) {
+			entity = entities.get(name);
+		}
+		if (entity == null) {
+			throw new DSSException("Unknown entity '" + name + "'");
+		}
+		return entity;
+	}
+
+	public List<PKIEntity> getEntities() {
+		synchronized (entities) {
+			return new ArrayList<PKIEntity>(entities.values());
+		}
+	}
+
+	/**
+	 * Revokes an entity now (reason : unspecified)
+	 * 
+	 * @param name
+	 *            the name of the entity
+	 */
+	public void revoke(String name) {
+		revoke(name, new Date(), CRLReason.unspecified);
+	}
+
+	/**
+	 * Revokes an entity. The OCSP responses and the CRL of the issuer are updated immediately.
+	 * 
+	 * @param name
+	 *            the name of the entity
+	 * @param revocationDate
+	 *            the revocation date
+	 * @param reason
+	 *            the reason code (see {@code org.bouncycastle.asn1.x509.CRLReason})
+	 */
+	public void revoke(String name, Date revocationDate, int reason) {
+		PKIEntity entity = getEntity(name);
+		if (entity.getIssuer() == null) {
+			throw new DSSException("A self-signed certificate cannot be revoked");
+		}
+		entity.revoke(revocationDate, reason);
+		crls.remove(entity.getIssuer().getName());
+	}
+
+	/**
+	 * Sets the number of synthetic entries added to the CRL of a CA, to simulate large CRLs (up to millions of
+	 * entries). The synthetic serial numbers never match an issued certificate.
+	 * 
+	 * @param caName
+	 *            the name of the CA
+	 * @param syntheticEntries
+	 *            the number of additional entries
+	 */
+	public void setCrlSize(String caName, int syntheticEntries) {
+		getEntity(caName);
+		crlSizes.put(caName, syntheticEntries);
+		crls.remove(caName);
+	}
+
+	/**
+	 * Returns the current CRL of a CA (generated on the first call and after each revocation)
+	 * 
+	 * @param caName
+	 *            the name of the CA
+	 * @return the DER encoded CRL
+	 */
+	public byte[] getCRL(String caName) {
+		byte[] crl = crls.get(caName);
+		if (crl == null) {
+			PKIEntity ca = getEntity(caName);
+			if (ca.getType() != EntityType.ROOT_CA && ca.getType() != EntityType.CA) {
+				throw new DSSException("The entity '" + caName + "' is not a certification authority");
+			}
+			synchronized (ca) {
+				crl = crls.get(caName);
+				if (crl == null) {
+					Integer size = crlSizes.get(caName);
+					Date thisUpdate = new Date();
+					crl = CRLGenerator.generate(ca, BigInteger.valueOf(crlNumber.incrementAndGet()), thisUpdate,
+							new Date(thisUpdate.getTime() + crlValidity), size == null ? 0 : size);
+					crls.put(caName, crl);
+				}
+			}
+		}
+		return crl;
+	}
+
+	/**
+	 * Returns the PKCS#12 keystore with the private key and the certificate chain of an entity
+	 * 
+	 * @param name
+	 *            the name of the entity
+	 * @return the keystore binaries
+	 */
+	public byte[] getKeystore(String name) {
+		byte[] keystore = keystores.get(name);
+		if (keystore == null) {
+			PKIEntity entity = getEntity(name);
+			try {
+				CertificateToken[] chain = entity.getCertificateChain();
+				Certificate[] certificates = new Certificate[chain.length];
+				for (int i = 0; i < chain.length; i++) {
+					certificates[i] = chain[i].getCertificate();
+				}
+				KeyStore keyStore = KeyStore.getInstance("PKCS12");
+				keyStore.load(null, null);
+				keyStore.setKeyEntry(name, entity.getPrivateKey(), keystorePassword.toCharArray(), certificates);
+				keystore = store(keyStore);
+				keystores.put(name, keystore);
+			} catch (Exception e) {
+				throw new DSSException("Unable to create the keystore of '" + name + "'", e);
+			}
+		}
+		return keystore;
+	}
+
+	/**
+	 * Returns a signature token with the private key of an entity
+	 * 
+	 * @param name
+	 *            the name of the entity
+	 * @return the token (the key alias is the name of the entity)
+	 */
+	public KeyStoreSignatureTokenConnection getToken(String name) {
+		return new KeyStoreSignatureTokenConnection(getKeystore(name), "PKCS12", new PasswordProtection(keystorePassword.toCharArray()));
+	}
+
+	/**
+	 * Returns the JKS keystore with the certificates of the root CAs
+	 * 
+	 * @return the keystore binaries
+	 */
+	public byte[] getTrustAnchorsKeystore() {
+		try {
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(null, null);
+			for (PKIEntity entity : getEntities()) {
+				if (entity.getType() == EntityType.ROOT_CA) {
+					keyStore.setCertificateEntry(entity.getName(), entity.getCertificate().getCertificate());
+				}
+			}
+			return store(keyStore);
+		} catch (Exception e) {
+			throw new DSSException("Unable to create the trust anchors keystore", e);
+		}
+	}
+
+	/**
+	 * Returns a trusted certificate source with the root CAs
+	 * 
+	 * @return the trusted certificate source
+	 */
+	public CommonTrustedCertificateSource getTrustedCertificateSource() {
+		CommonTrustedCertificateSource trustedCertificateSource = new CommonTrustedCertificateSource();
+		for (PKIEntity entity : getEntities()) {
+			if (entity.getType() == EntityType.ROOT_CA) {
+				trustedCertificateSource.addCertificate(entity.getCertificate());
+			}
+		}
+		return trustedCertificateSource;
+	}
+
+	private byte[] store(KeyStore keyStore) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		keyStore.store(baos, keystorePassword.toCharArray());
+		return baos.toByteArray();
+	}
+
+	/**
+	 * Returns the certificate which signs the list of trusted lists (to add in the OJ keystore of the
+	 * {@code TSLValidationJob})
+	 * 
+	 * @return the LOTL signing certificate
+	 */
+	public CertificateToken getLOTLSigningCertificate() {
+		return getTrustedListSigners()[0].getCertificate();
+	}
+
+	/**
+	 * Returns the certificate which signs the trusted list (announced in the LOTL pointer)
+	 * 
+	 * @return the TL signing certificate
+	 */
+	public CertificateToken getTrustedListSigningCertificate() {
+		return getTrustedListSigners()[1].getCertificate();
+	}
+
+	/**
+	 * Returns the signed list of trusted lists
+	 * 
+	 * @return the LOTL binaries
+	 */
+	public synchronized byte[] getLOTL() {
+		if (lotl == null) {
+			PKIEntity[] signers = getTrustedListSigners();
+			Date issueDate = new Date();
+			lotl = trustedListGenerator.generateLOTL(signers[0], getLOTLUrl(), getLOTLSchemeInformationUri(), signers[1], trustedListTerritory,
+					getTrustedListUrl(), ++trustedListSequenceNumber, issueDate, new Date(issueDate.getTime() + trustedListValidity));
+		}
+		return lotl;
+	}
+
+	/**
+	 * Returns the signed trusted list, with the root CAs and the TSAs
+	 * 
+	 * @return the TL binaries
+	 */
+	public synchronized byte[] getTrustedList() {
+		if (trustedList == null) {
+			PKIEntity[] signers = getTrustedListSigners();
+			List<PKIEntity> trustedEntities = new ArrayList<PKIEntity>();
+			for (PKIEntity entity : getEntities()) {
+				if (entity.getType() == EntityType.ROOT_CA || entity.getType() == EntityType.TSA) {
+					trustedEntities.add(entity);
+				}
+			}
+			Date issueDate = new Date();
+			trustedList = trustedListGenerator.generateTL(signers[1], trustedListTerritory, getTrustedListUrl(), getBaseUrl(), trustedEntities,
+					++trustedListSequenceNumber, issueDate, new Date(issueDate.getTime() + trustedListValidity));
+		}
+		return trustedList;
+	}
+
+	private synchronized PKIEntity[] getTrustedListSigners() {
+		if (lotlSigner == null) {
+			long now = System.currentTimeMillis();
+			Date notBefore = new Date(now - DAY);
+			Date notAfter = new Date(now + 730 * DAY);
+			lotlSigner = certificateIssuer.issue("lotl-signer", EntityType.TL_SIGNER, null, getBaseUrl(), notBefore, notAfter);
+			tlSigner = certificateIssuer.issue("tl-signer", EntityType.TL_SIGNER, null, getBaseUrl(), notBefore, notAfter);
+		}
+		return new PKIEntity[] { lotlSigner, tlSigner };
+	}
+
+	private synchronized void invalidateTrustedLists() {
+		trustedList = null;
+		lotl = null;
+	}
+
+	private void checkName(String name) {
+		if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+			throw new DSSException("Invalid name '" + name + "' (allowed characters : letters, digits, '.', '_' and '-')");
+		}
+	}
+
+	private byte[] handle(Endpoint endpoint, String resource, byte[] body) {
+		switch (endpoint) {
+		case KEYSTORE:
+			if ((TRUST_ANCHORS + ".jks").equals(resource)) {
+				return getTrustAnchorsKeystore();
+			}
+			return getKeystore(lookup(removeExtension(resource, ".p12")).getName());
+		case AIA:
+			return lookup(removeExtension(resource, ".crt")).getCertificate().getEncoded();
+		case CRL:
+			return getCRL(lookup(removeExtension(resource, ".crl")).getName());
+		case OCSP:
+			int slash = resource.indexOf('/');
+			if (slash > 0) {
+				// GET request : /ocsp/{name}/{base64 request}
+				PKIEntity ca = lookup(resource.substring(0, slash));
+				byte[] request;
+				try {
+					request = Utils.fromBase64(resource.substring(slash + 1));
+				} catch (RuntimeException e) {
+					throw new IllegalArgumentException("Malformed base64 OCSP request", e);
+				}
+				return OCSPResponder.respond(ca, request, new Date());
+			}
+			return OCSPResponder.respond(lookup(resource), body, new Date());
+		case TSA:
+			PKIEntity tsa = lookup(resource);
+			if (tsa.getType() != EntityType.TSA) {
+				throw new UnknownResourceException();
+			}
+			return TimestampAuthority.respond(tsa, body, BigInteger.valueOf(timestampSerialNumber.incrementAndGet()), new Date());
+		case TL:
+			if (LOTL_FILENAME.equals(resource)) {
+				return getLOTL();
+			} else if ((trustedListTerritory + ".xml").equals(resource)) {
+				return getTrustedList();
+			}
+			throw new UnknownResourceException();
+		default:
+			throw new UnknownResourceException();
+		}
+	}
+
+	private PKIEntity lookup(String name) {
+		synchronized (entities) {
+			PKIEntity entity = entities.get(name);
+			if (entity == null) {
+				throw new UnknownResourceException();
+			}
+			return entity;
+		}
+	}
+
+	private String removeExtension(String resource, String extension) {
+		if (!resource.endsWith(extension)) {
+			throw new UnknownResourceException();
+		}
+		return resource.substring(0, resource.length() - extension.length());
+	}
+
+	private static String getContentType(Endpoint endpoint) {
+		switch (endpoint) {
+		case KEYSTORE:
+			return "application/octet-stream";
+		case AIA:
+			return "application/pkix-cert";
+		case CRL:
+			return "application/pkix-crl";
+		case OCSP:
+			return "application/ocsp-response";
+		case TSA:
+			return "application/timestamp-reply";
+		case TL:
+			return "application/vnd.etsi.tsl+xml";
+		default:
+			return "application/octet-stream";
+		}
+	}
+
+	private static byte[] readBody(HttpExchange exchange) throws IOException {
+		try (InputStream is = exchange.getRequestBody(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			Utils.copy(is, baos);
+			return baos.toByteArray();
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, byte[] content) throws IOException {
+		if (contentType != null) {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+		}
+		if (content == null || content.length == 0) {
+			exchange.sendResponseHeaders(status, -1);
+		} else {
+			exchange.sendResponseHeaders(status, content.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(content);
+			}
+		}
+	}
+
+	private class SimulatorHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				String path = exchange.getRequestURI().getPath();
+				String[] parts = path.substring(1).split("/", 2);
+				Endpoint endpoint = Endpoint.forPath(parts[0]);
+				if (endpoint == null || parts.length < 2 || parts[1].isEmpty()) {
+					send(exchange, 404, null, null);
+					return;
+				}
+
+				requestCounts.get(endpoint).incrementAndGet();
+				byte[] body = readBody(exchange);
+
+				EndpointBehaviour behaviour = behaviours.get(endpoint);
+				long delay;
+				boolean failure;
+				synchronized (random) {
+					delay = behaviour.nextDelay(random);
+					failure = behaviour.nextFailure(random);
+				}
+				if (delay > 0) {
+					Thread.sleep(delay);
+				}
+				if (failure) {
+					failureCounts.get(endpoint).incrementAndGet();
+					send(exchange, behaviour.getFailureStatusCode(), null, null);
+					return;
+				}
+
+				byte[] response;
+				try {
+					response = PKISimulator.this.handle(endpoint, parts[1], body);
+				} catch (UnknownResourceException e) {
+					failureCounts.get(endpoint).incrementAndGet();
+					send(exchange, 404, null, null);
+					return;
+				} catch (IllegalArgumentException e) {
+					LOG.warn("Bad request '{}' : {}", path, e.getMessage());
+					failureCounts.get(endpoint).incrementAndGet();
+					send(exchange, 400, null, null);
+					return;
+				} catch (RuntimeException e) {
+					LOG.warn("Unable to process '{}' : {}", path, e.getMessage());
+					failureCounts.get(endpoint).incrementAndGet();
+					send(exchange, 500, null, null);
+					return;
+				}
+				send(exchange, 200, getContentType(endpoint), response);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				exchange.close();
+			}
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class UnknownResourceException extends DSSException {
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "pki-simulator-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampResponseGenerator;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * RFC 3161 time-stamping authority based on a simulated TSA certificate
+ */
+class TimestampAuthority {
+
+	/* ETSI EN 319 421 best-practices policy */
+	static final String DEFAULT_POLICY = "0.4.0.2023.1.1";
+
+	private TimestampAuthority() {
+	}
+
+	/**
+	 * Answers a time-stamp request
+	 * 
+	 * @param tsa
+	 *            the time-stamping unit
+	 * @param request
+	 *            the DER encoded TimeStampReq
+	 * @param serialNumber
+	 *            the serial number of the token
+	 * @param genTime
+	 *            the time of the token
+	 * @return the DER encoded TimeStampResp
+	 * @throws IllegalArgumentException
+	 *             if the request is malformed
+	 */
+	static byte[] respond(PKIEntity tsa, byte[] request, BigInteger serialNumber, Date genTime) {
+		TimeStampRequest timeStampRequest;
+		try {
+			timeStampRequest = new TimeStampRequest(request);
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Malformed time-stamp request", e);
+		}
+		try {
+			TimeStampTokenGenerator tokenGenerator = new TimeStampTokenGenerator(
+					new JcaSimpleSignerInfoGeneratorBuilder().build(CertificateIssuer.SIGNATURE_ALGORITHM, tsa.getPrivateKey(),
+							tsa.getCertificate().getCertificate()),
+					new JcaDigestCalculatorProviderBuilder().build().get(new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256)),
+					new ASN1ObjectIdentifier(DEFAULT_POLICY));
+			tokenGenerator.addCertificates(new JcaCertStore(Collections.singletonList(tsa.getCertificate().getCertificate())));
+
+			TimeStampResponseGenerator responseGenerator = new TimeStampResponseGenerator(tokenGenerator, TSPAlgorithms.ALLOWED);
+			return responseGenerator.generate(timeStampRequest, serialNumber, genTime).getEncoded();
+		} catch (Exception e) {
+			throw new DSSException("Unable to generate the timestamp of '" + tsa.getName() + "'", e);
+		}
+	}
+
+}
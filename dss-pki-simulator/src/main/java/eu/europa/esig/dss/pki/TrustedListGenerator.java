@@ -0,0 +1,305 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.Signature;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignaturePackaging;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+import eu.europa.esig.jaxb.tsl.AdditionalInformationType;
+import eu.europa.esig.jaxb.tsl.AddressType;
+import eu.europa.esig.jaxb.tsl.AnyType;
+import eu.europa.esig.jaxb.tsl.DigitalIdentityListType;
+import eu.europa.esig.jaxb.tsl.DigitalIdentityType;
+import eu.europa.esig.jaxb.tsl.ElectronicAddressType;
+import eu.europa.esig.jaxb.tsl.InternationalNamesType;
+import eu.europa.esig.jaxb.tsl.MultiLangNormStringType;
+import eu.europa.esig.jaxb.tsl.NextUpdateType;
+import eu.europa.esig.jaxb.tsl.NonEmptyMultiLangURIListType;
+import eu.europa.esig.jaxb.tsl.NonEmptyMultiLangURIType;
+import eu.europa.esig.jaxb.tsl.ObjectFactory;
+import eu.europa.esig.jaxb.tsl.OtherTSLPointerType;
+import eu.europa.esig.jaxb.tsl.OtherTSLPointersType;
+import eu.europa.esig.jaxb.tsl.PostalAddressListType;
+import eu.europa.esig.jaxb.tsl.PostalAddressType;
+import eu.europa.esig.jaxb.tsl.ServiceDigitalIdentityListType;
+import eu.europa.esig.jaxb.tsl.ServiceSupplyPointsType;
+import eu.europa.esig.jaxb.tsl.TSLSchemeInformationType;
+import eu.europa.esig.jaxb.tsl.TSPInformationType;
+import eu.europa.esig.jaxb.tsl.TSPServiceInformationType;
+import eu.europa.esig.jaxb.tsl.TSPServiceType;
+import eu.europa.esig.jaxb.tsl.TSPServicesListType;
+import eu.europa.esig.jaxb.tsl.TSPType;
+import eu.europa.esig.jaxb.tsl.TrustServiceProviderListType;
+import eu.europa.esig.jaxb.tsl.TrustStatusListType;
+
+/**
+ * Builds and signs (XAdES enveloped) a synthetic list of trusted lists and a trusted list
+ */
+class TrustedListGenerator {
+
+	static final String LOTL_TERRITORY = "EU";
+
+	private static final String TSL_TAG = "http://uri.etsi.org/19612/TSLTag";
+	private static final String TSL_MIME_TYPE = "application/vnd.etsi.tsl+xml";
+	private static final String LOTL_TYPE = "http://uri.etsi.org/TrstSvc/TrustedList/TSLType/EUlistofthelists";
+	private static final String TL_TYPE = "http://uri.etsi.org/TrstSvc/TrustedList/TSLType/EUgeneric";
+	private static final String LOTL_STATUS_DETERMINATION = "http://uri.etsi.org/TrstSvc/TrustedList/StatusDetn/EUlistofthelists";
+	private static final String TL_STATUS_DETERMINATION = "http://uri.etsi.org/TrstSvc/TrustedList/StatusDetn/EUappropriate";
+	private static final String SERVICE_TYPE_CA_QC = "http://uri.etsi.org/TrstSvc/Svctype/CA/QC";
+	private static final String SERVICE_TYPE_TSA_QTST = "http://uri.etsi.org/TrstSvc/Svctype/TSA/QTST";
+	private static final String SERVICE_STATUS_GRANTED = "http://uri.etsi.org/TrstSvc/TrustedList/Svcstatus/granted";
+	private static final String ENGLISH = "en";
+
+	private static final JAXBContext jaxbContext;
+
+	static {
+		try {
+			jaxbContext = JAXBContext.newInstance(ObjectFactory.class, eu.europa.esig.jaxb.tslx.ObjectFactory.class);
+		} catch (JAXBException e) {
+			throw new DSSException("Unable to initialize JaxB : " + e.getMessage(), e);
+		}
+	}
+
+	private final ObjectFactory objectFactory = new ObjectFactory();
+	private final eu.europa.esig.jaxb.tslx.ObjectFactory additionalTypesFactory = new eu.europa.esig.jaxb.tslx.ObjectFactory();
+
+	/**
+	 * Generates the signed list of trusted lists, with a pointer to itself and a pointer to the trusted list
+	 */
+	byte[] generateLOTL(PKIEntity lotlSigner, String lotlUrl, String schemeInformationUri, PKIEntity tlSigner, String tlTerritory, String tlUrl,
+			int sequenceNumber, Date issueDate, Date nextUpdate) {
+		TrustStatusListType lotl = createTrustStatusList(LOTL_TERRITORY, LOTL_TYPE, LOTL_STATUS_DETERMINATION, schemeInformationUri, sequenceNumber,
+				issueDate, nextUpdate);
+
+		OtherTSLPointersType pointers = new OtherTSLPointersType();
+		pointers.getOtherTSLPointer().add(createPointer(lotlSigner, LOTL_TERRITORY, lotlUrl));
+		pointers.getOtherTSLPointer().add(createPointer(tlSigner, tlTerritory, tlUrl));
+		lotl.getSchemeInformation().setPointersToOtherTSL(pointers);
+
+		return sign(lotl, lotlSigner);
+	}
+
+	/**
+	 * Generates the signed trusted list with a "granted" service per root certification authority and time-stamping
+	 * unit. The CRL of a certification authority is given as service supply point.
+	 */
+	byte[] generateTL(PKIEntity tlSigner, String territory, String schemeInformationUri, String baseUrl, List<PKIEntity> trustedEntities,
+			int sequenceNumber, Date issueDate, Date nextUpdate) {
+		TrustStatusListType tl = createTrustStatusList(territory, TL_TYPE, TL_STATUS_DETERMINATION, schemeInformationUri, sequenceNumber, issueDate,
+				nextUpdate);
+
+		TSPInformationType tspInformation = new TSPInformationType();
+		tspInformation.setTSPName(createNames("DSS PKI Simulator"));
+		tspInformation.setTSPTradeName(createNames("DSS PKI Simulator"));
+		tspInformation.setTSPAddress(createAddress(schemeInformationUri));
+
+		TSPServicesListType services = new TSPServicesListType();
+		for (PKIEntity entity : trustedEntities) {
+			services.getTSPService().add(createService(entity, baseUrl));
+		}
+
+		TSPType tsp = new TSPType();
+		tsp.setTSPInformation(tspInformation);
+		tsp.setTSPServices(services);
+
+		TrustServiceProviderListType providers = new TrustServiceProviderListType();
+		providers.getTrustServiceProvider().add(tsp);
+		tl.setTrustServiceProviderList(providers);
+
+		return sign(tl, tlSigner);
+	}
+
+	private TrustStatusListType createTrustStatusList(String territory, String type, String statusDetermination, String schemeInformationUri,
+			int sequenceNumber, Date issueDate, Date nextUpdate) {
+		TSLSchemeInformationType schemeInformation = new TSLSchemeInformationType();
+		schemeInformation.setTSLVersionIdentifier(BigInteger.valueOf(5));
+		schemeInformation.setTSLSequenceNumber(BigInteger.valueOf(sequenceNumber));
+		schemeInformation.setTSLType(type);
+		schemeInformation.setSchemeOperatorName(createNames("DSS PKI Simulator"));
+		schemeInformation.setSchemeOperatorAddress(createAddress(schemeInformationUri));
+		schemeInformation.setSchemeName(createNames(territory + " : simulated trusted list"));
+
+		NonEmptyMultiLangURIListType schemeInformationURIs = new NonEmptyMultiLangURIListType();
+		NonEmptyMultiLangURIType schemeInformationURI = new NonEmptyMultiLangURIType();
+		schemeInformationURI.setLang(ENGLISH);
+		schemeInformationURI.setValue(schemeInformationUri);
+		schemeInformationURIs.getURI().add(schemeInformationURI);
+		schemeInformation.setSchemeInformationURI(schemeInformationURIs);
+
+		schemeInformation.setStatusDeterminationApproach(statusDetermination);
+		schemeInformation.setSchemeTerritory(territory);
+		schemeInformation.setHistoricalInformationPeriod(BigInteger.valueOf(65535));
+		schemeInformation.setListIssueDateTime(toCalendar(issueDate));
+		NextUpdateType nextUpdateType = new NextUpdateType();
+		nextUpdateType.setDateTime(toCalendar(nextUpdate));
+		schemeInformation.setNextUpdate(nextUpdateType);
+
+		TrustStatusListType trustStatusList = new TrustStatusListType();
+		trustStatusList.setTSLTag(TSL_TAG);
+		trustStatusList.setId("TrustServiceStatusList-" + territory);
+		trustStatusList.setSchemeInformation(schemeInformation);
+		return trustStatusList;
+	}
+
+	private AddressType createAddress(String uri) {
+		PostalAddressType postalAddress = new PostalAddressType();
+		postalAddress.setLang(ENGLISH);
+		postalAddress.setStreetAddress("127.0.0.1");
+		postalAddress.setLocality("Localhost");
+		postalAddress.setCountryName("ZZ");
+		PostalAddressListType postalAddresses = new PostalAddressListType();
+		postalAddresses.getPostalAddress().add(postalAddress);
+
+		NonEmptyMultiLangURIType electronicAddressURI = new NonEmptyMultiLangURIType();
+		electronicAddressURI.setLang(ENGLISH);
+		electronicAddressURI.setValue(uri);
+		ElectronicAddressType electronicAddress = new ElectronicAddressType();
+		electronicAddress.getURI().add(electronicAddressURI);
+
+		AddressType address = new AddressType();
+		address.setPostalAddresses(postalAddresses);
+		address.setElectronicAddress(electronicAddress);
+		return address;
+	}
+
+	private OtherTSLPointerType createPointer(PKIEntity signer, String territory, String url) {
+		OtherTSLPointerType pointer = new OtherTSLPointerType();
+		pointer.setTSLLocation(url);
+
+		ServiceDigitalIdentityListType identities = new ServiceDigitalIdentityListType();
+		identities.getServiceDigitalIdentity().add(createDigitalIdentity(signer));
+		pointer.setServiceDigitalIdentities(identities);
+
+		AdditionalInformationType additionalInformation = new AdditionalInformationType();
+		AnyType territoryInformation = new AnyType();
+		territoryInformation.getContent().add(objectFactory.createSchemeTerritory(territory));
+		additionalInformation.getTextualInformationOrOtherInformation().add(territoryInformation);
+		AnyType mimeTypeInformation = new AnyType();
+		mimeTypeInformation.getContent().add(additionalTypesFactory.createMimeType(TSL_MIME_TYPE));
+		additionalInformation.getTextualInformationOrOtherInformation().add(mimeTypeInformation);
+		pointer.setAdditionalInformation(additionalInformation);
+		return pointer;
+	}
+
+	private TSPServiceType createService(PKIEntity entity, String baseUrl) {
+		TSPServiceInformationType serviceInformation = new TSPServiceInformationType();
+		serviceInformation.setServiceTypeIdentifier(EntityType.TSA == entity.getType() ? SERVICE_TYPE_TSA_QTST : SERVICE_TYPE_CA_QC);
+		serviceInformation.setServiceName(createNames(entity.getName()));
+		serviceInformation.setServiceDigitalIdentity(createDigitalIdentity(entity));
+		serviceInformation.setServiceStatus(SERVICE_STATUS_GRANTED);
+		serviceInformation.setStatusStartingTime(toCalendar(entity.getCertificate().getNotBefore()));
+		if (EntityType.TSA != entity.getType()) {
+			ServiceSupplyPointsType supplyPoints = new ServiceSupplyPointsType();
+			supplyPoints.getServiceSupplyPoint().add(baseUrl + "/" + Endpoint.CRL.getPath() + "/" + entity.getName() + ".crl");
+			serviceInformation.setServiceSupplyPoints(supplyPoints);
+		}
+
+		TSPServiceType service = new TSPServiceType();
+		service.setServiceInformation(serviceInformation);
+		return service;
+	}
+
+	private DigitalIdentityListType createDigitalIdentity(PKIEntity entity) {
+		DigitalIdentityType digitalIdentity = new DigitalIdentityType();
+		digitalIdentity.setX509Certificate(entity.getCertificate().getEncoded());
+		DigitalIdentityListType digitalIdentities = new DigitalIdentityListType();
+		digitalIdentities.getDigitalId().add(digitalIdentity);
+		return digitalIdentities;
+	}
+
+	private InternationalNamesType createNames(String value) {
+		MultiLangNormStringType name = new MultiLangNormStringType();
+		name.setLang(ENGLISH);
+		name.setValue(value);
+		InternationalNamesType names = new InternationalNamesType();
+		names.getName().add(name);
+		return names;
+	}
+
+	private XMLGregorianCalendar toCalendar(Date date) {
+		try {
+			GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+			calendar.setTime(date);
+			XMLGregorianCalendar xmlCalendar = DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
+			xmlCalendar.setMillisecond(DatatypeConstants.FIELD_UNDEFINED);
+			return xmlCalendar;
+		} catch (Exception e) {
+			throw new DSSException("Unable to convert the date", e);
+		}
+	}
+
+	private byte[] sign(TrustStatusListType trustStatusList, PKIEntity signer) {
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			Marshaller marshaller = jaxbContext.createMarshaller();
+			marshaller.marshal(objectFactory.createTrustServiceStatusList(trustStatusList), baos);
+			DSSDocument unsigned = new InMemoryDocument(baos.toByteArray());
+
+			XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+			parameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
+			parameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+			parameters.setDigestAlgorithm(DigestAlgorithm.SHA256);
+			parameters.setSigningCertificate(signer.getCertificate());
+			parameters.setCertificateChain(signer.getCertificateChain());
+
+			XAdESService service = new XAdESService(new CommonCertificateVerifier());
+			ToBeSigned dataToSign = service.getDataToSign(unsigned, parameters);
+
+			SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.RSA_SHA256;
+			Signature signature = Signature.getInstance(signatureAlgorithm.getJCEId());
+			signature.initSign(signer.getPrivateKey());
+			signature.update(dataToSign.getBytes());
+			SignatureValue signatureValue = new SignatureValue(signatureAlgorithm, signature.sign());
+
+			return DSSUtils.toByteArray(service.signDocument(unsigned, parameters, signatureValue));
+		} catch (DSSException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSException("Unable to generate the trusted list " + trustStatusList.getSchemeInformation().getSchemeTerritory(), e);
+		}
+	}
+
+}
@@ -0,0 +1,288 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.util.Collection;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignaturePackaging;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.client.crl.OnlineCRLSource;
+import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.client.http.commons.OCSPDataLoader;
+import eu.europa.esig.dss.client.http.commons.TimestampDataLoader;
+import eu.europa.esig.dss.client.ocsp.OnlineOCSPSource;
+import eu.europa.esig.dss.client.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.token.KeyStoreSignatureTokenConnection;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.validation.policy.rules.Indication;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.ocsp.OCSPToken;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+
+public class PKISimulatorTest {
+
+	private static PKISimulator pki;
+
+	@BeforeClass
+	public static void init() {
+		pki = new PKISimulator();
+		pki.start();
+		pki.createRootCA("root-ca");
+		pki.createCA("intermediate-ca", "root-ca");
+		pki.createUser("good-user", "intermediate-ca");
+		pki.createUser("revoked-user", "intermediate-ca");
+		pki.createTSA("good-tsa", "root-ca");
+		pki.revoke("revoked-user", new Date(System.currentTimeMillis() - 60000), CRLReason.keyCompromise);
+	}
+
+	@AfterClass
+	public static void close() {
+		pki.stop();
+	}
+
+	@Before
+	public void reset() {
+		for (Endpoint endpoint : Endpoint.values()) {
+			pki.getBehaviour(endpoint).setLatency(0);
+			pki.getBehaviour(endpoint).setFailureRate(0);
+		}
+		pki.resetStatistics();
+	}
+
+	@Test
+	public void ocsp() {
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(new OCSPDataLoader());
+
+		CertificateToken issuer = pki.getEntity("intermediate-ca").getCertificate();
+		OCSPToken good = ocspSource.getRevocationToken(pki.getEntity("good-user").getCertificate(), issuer);
+		assertNotNull(good);
+		good.extractInfo();
+		assertTrue(good.getStatus());
+		assertTrue(good.isSignedBy(issuer));
+
+		OCSPToken revoked = ocspSource.getRevocationToken(pki.getEntity("revoked-user").getCertificate(), issuer);
+		assertNotNull(revoked);
+		revoked.extractInfo();
+		assertFalse(revoked.getStatus());
+		assertEquals(2, pki.getRequestCount(Endpoint.OCSP));
+	}
+
+	@Test
+	public void crl() {
+		OnlineCRLSource crlSource = new OnlineCRLSource(new CommonsDataLoader());
+
+		CertificateToken issuer = pki.getEntity("intermediate-ca").getCertificate();
+		CRLToken good = crlSource.getRevocationToken(pki.getEntity("good-user").getCertificate(), issuer);
+		assertNotNull(good);
+		assertTrue(good.getStatus());
+
+		CRLToken revoked = crlSource.getRevocationToken(pki.getEntity("revoked-user").getCertificate(), issuer);
+		assertNotNull(revoked);
+		assertFalse(revoked.getStatus());
+	}
+
+	@Test
+	public void largeCrl() throws Exception {
+		pki.createCA("large-crl-ca", "root-ca");
+		PKIEntity user = pki.createUser("large-crl-user", "large-crl-ca");
+		pki.revoke("large-crl-user");
+		pki.setCrlSize("large-crl-ca", 100000);
+
+		byte[] crlBinaries = new CommonsDataLoader().get(pki.getUrl(Endpoint.CRL, "large-crl-ca.crl"));
+		X509CRL crl = (X509CRL) CertificateFactory.getInstance("X.509").generateCRL(new ByteArrayInputStream(crlBinaries));
+		crl.verify(pki.getEntity("large-crl-ca").getCertificate().getPublicKey());
+		assertEquals(100001, crl.getRevokedCertificates().size());
+		assertTrue(crl.isRevoked(user.getCertificate().getCertificate()));
+		assertFalse(crl.isRevoked(pki.getEntity("good-user").getCertificate().getCertificate()));
+	}
+
+	@Test
+	public void aia() {
+		byte[] certificate = new CommonsDataLoader().get(pki.getUrl(Endpoint.AIA, "intermediate-ca.crt"));
+		assertArrayEquals(pki.getEntity("intermediate-ca").getCertificate().getEncoded(), certificate);
+
+		Collection<CertificateToken> issuers = DSSUtils.loadPotentialIssuerCertificates(pki.getEntity("good-user").getCertificate(),
+				new CommonsDataLoader());
+		assertEquals(1, issuers.size());
+		assertEquals(pki.getEntity("intermediate-ca").getCertificate(), issuers.iterator().next());
+	}
+
+	@Test
+	public void tsa() {
+		OnlineTSPSource tspSource = new OnlineTSPSource(pki.getTsaUrl("good-tsa"));
+		tspSource.setDataLoader(new TimestampDataLoader());
+
+		byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, "Hello".getBytes());
+		TimeStampToken timeStampToken = tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, digest);
+		assertNotNull(timeStampToken);
+		assertArrayEquals(digest, timeStampToken.getTimeStampInfo().getMessageImprintDigest());
+		assertEquals(pki.getEntity("good-tsa").getCertificate().getSerialNumber(), timeStampToken.getSID().getSerialNumber());
+	}
+
+	@Test
+	public void keystore() {
+		byte[] keystore = new CommonsDataLoader().get(pki.getUrl(Endpoint.KEYSTORE, "good-user.p12"));
+		assertArrayEquals(pki.getKeystore("good-user"), keystore);
+
+		try (KeyStoreSignatureTokenConnection token = pki.getToken("good-user")) {
+			DSSPrivateKeyEntry key = token.getKey("good-user");
+			assertEquals(pki.getEntity("good-user").getCertificate(), key.getCertificate());
+			assertEquals(3, key.getCertificateChain().length);
+		}
+	}
+
+	@Test
+	public void signAndValidate() {
+		CertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setDataLoader(new CommonsDataLoader());
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(new OCSPDataLoader());
+		certificateVerifier.setOcspSource(ocspSource);
+		certificateVerifier.setCrlSource(new OnlineCRLSource(new CommonsDataLoader()));
+		certificateVerifier.setTrustedCertSource(pki.getTrustedCertificateSource());
+
+		OnlineTSPSource tspSource = new OnlineTSPSource(pki.getTsaUrl("good-tsa"));
+		tspSource.setDataLoader(new TimestampDataLoader());
+
+		DSSDocument toSign = new InMemoryDocument("<root>Hello</root>".getBytes(), "test.xml");
+		DSSDocument signed;
+		try (KeyStoreSignatureTokenConnection token = pki.getToken("good-user")) {
+			DSSPrivateKeyEntry key = token.getKey("good-user");
+			XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+			parameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_LT);
+			parameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+			parameters.setSigningCertificate(key.getCertificate());
+			parameters.setCertificateChain(key.getCertificateChain());
+
+			XAdESService service = new XAdESService(certificateVerifier);
+			service.setTspSource(tspSource);
+			ToBeSigned dataToSign = service.getDataToSign(toSign, parameters);
+			SignatureValue signatureValue = token.sign(dataToSign, parameters.getDigestAlgorithm(), key);
+			signed = service.signDocument(toSign, parameters, signatureValue);
+		}
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signed);
+		validator.setCertificateVerifier(certificateVerifier);
+		Reports reports = validator.validateDocument();
+		assertEquals(Indication.TOTAL_PASSED, reports.getSimpleReport().getIndication(reports.getSimpleReport().getFirstSignatureId()));
+		assertTrue(pki.getRequestCount(Endpoint.TSA) > 0);
+		assertTrue(pki.getRequestCount(Endpoint.OCSP) > 0);
+	}
+
+	@Test
+	public void failureInjection() {
+		pki.getBehaviour(Endpoint.AIA).setFailureRate(1);
+		try {
+			new CommonsDataLoader().get(pki.getUrl(Endpoint.AIA, "root-ca.crt"));
+			fail("Failure expected");
+		} catch (DSSException e) {
+			assertEquals(1, pki.getFailureCount(Endpoint.AIA));
+		}
+	}
+
+	@Test
+	public void latency() {
+		pki.getBehaviour(Endpoint.AIA).setLatency(300);
+		long start = System.currentTimeMillis();
+		new CommonsDataLoader().get(pki.getUrl(Endpoint.AIA, "root-ca.crt"));
+		assertTrue(System.currentTimeMillis() - start >= 300);
+	}
+
+	@Test
+	public void unknownResource() {
+		try {
+			new CommonsDataLoader().get(pki.getUrl(Endpoint.AIA, "unknown.crt"));
+			fail("Failure expected");
+		} catch (DSSException e) {
+			assertEquals(1, pki.getFailureCount(Endpoint.AIA));
+		}
+	}
+
+	@Test
+	public void malformedRequest() throws Exception {
+		HttpURLConnection connection = (HttpURLConnection) new URL(pki.getTsaUrl("good-tsa")).openConnection();
+		connection.setDoOutput(true);
+		connection.setRequestMethod("POST");
+		try (OutputStream os = connection.getOutputStream()) {
+			os.write("not a time-stamp request".getBytes("UTF-8"));
+		}
+		assertEquals(400, connection.getResponseCode());
+		connection.disconnect();
+		assertEquals(1, pki.getFailureCount(Endpoint.TSA));
+	}
+
+	@Test
+	public void seedReproducesFailures() {
+		pki.getBehaviour(Endpoint.AIA).setFailureRate(0.5);
+		pki.setSeed(42);
+		boolean[] first = getAiaFailures(20);
+		pki.setSeed(42);
+		assertArrayEquals(first, getAiaFailures(20));
+	}
+
+	private boolean[] getAiaFailures(int nbRequests) {
+		boolean[] failures = new boolean[nbRequests];
+		for (int i = 0; i < nbRequests; i++) {
+			try {
+				new CommonsDataLoader().get(pki.getUrl(Endpoint.AIA, "root-ca.crt"));
+			} catch (DSSException e) {
+				failures[i] = true;
+			}
+		}
+		return failures;
+	}
+
+}
@@ -0,0 +1,144 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import eu.europa.esig.dss.client.crl.OnlineCRLSource;
+import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.tsl.TSLValidationModel;
+import eu.europa.esig.dss.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.tsl.service.TSLRepository;
+import eu.europa.esig.dss.tsl.service.TSLValidationJob;
+import eu.europa.esig.dss.tsl.service.TrustedListsCRLPrefetcher;
+import eu.europa.esig.dss.validation.policy.rules.Indication;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.KeyStoreCertificateSource;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.crl.SharedCRLSource;
+
+public class TrustedListTest {
+
+	private static PKISimulator pki;
+
+	@BeforeClass
+	public static void init() {
+		pki = new PKISimulator();
+		pki.start();
+		pki.createRootCA("root-ca");
+		pki.createTSA("good-tsa", "root-ca");
+		pki.createUser("user", "root-ca");
+	}
+
+	@AfterClass
+	public static void close() {
+		pki.stop();
+	}
+
+	@Test
+	public void refresh() throws Exception {
+		pki.resetStatistics();
+		TrustedListsCertificateSource trustedListsCertificateSource = new TrustedListsCertificateSource();
+		TSLRepository repository = createRepository(trustedListsCertificateSource);
+		TSLValidationJob job = createJob(repository);
+		job.refresh();
+
+		TSLValidationModel lotl = repository.getByCountry(pki.getLOTLTerritory());
+		assertNotNull(lotl);
+		assertEquals(Indication.TOTAL_PASSED, lotl.getValidationResult().getIndication());
+
+		TSLValidationModel tl = repository.getByCountry(pki.getTrustedListTerritory());
+		assertNotNull(tl);
+		assertEquals(Indication.TOTAL_PASSED, tl.getValidationResult().getIndication());
+		assertEquals(2, tl.getParseResult().getServiceProviders().get(0).getServices().size());
+
+		assertTrue(trustedListsCertificateSource.getCertificates().contains(pki.getEntity("root-ca").getCertificate()));
+		assertTrue(trustedListsCertificateSource.getCertificates().contains(pki.getEntity("good-tsa").getCertificate()));
+		// the LOTL, its self-pointer (as in the European LOTL) and the national trusted list
+		assertEquals(3, pki.getRequestCount(Endpoint.TL));
+		assertEquals(0, pki.getFailureCount(Endpoint.TL));
+	}
+
+	@Test
+	public void crlPrefetch() throws Exception {
+		pki.resetStatistics();
+		TrustedListsCertificateSource trustedListsCertificateSource = new TrustedListsCertificateSource();
+		TSLValidationJob job = createJob(createRepository(trustedListsCertificateSource));
+		SharedCRLSource crlSource = new SharedCRLSource(new OnlineCRLSource(new CommonsDataLoader()));
+		TrustedListsCRLPrefetcher prefetcher = new TrustedListsCRLPrefetcher(trustedListsCertificateSource, new CommonsDataLoader(), crlSource);
+		job.setCrlPrefetcher(prefetcher);
+		try {
+			job.refresh();
+
+			CertificateToken rootCA = pki.getEntity("root-ca").getCertificate();
+			String crlUrl = pki.getUrl(Endpoint.CRL, "root-ca.crl");
+			long timeout = System.currentTimeMillis() + 10000;
+			while (crlSource.getCRL(rootCA, crlUrl) == null && System.currentTimeMillis() < timeout) {
+				Thread.sleep(50);
+			}
+			assertNotNull(crlSource.getCRL(rootCA, crlUrl));
+			// the service supply point of the CA and the distribution point of the TSA certificate
+			assertEquals(1, pki.getRequestCount(Endpoint.CRL));
+
+			CRLToken crlToken = crlSource.getRevocationToken(pki.getEntity("user").getCertificate(), rootCA);
+			assertNotNull(crlToken);
+			assertTrue(crlToken.getStatus());
+			assertEquals(crlUrl, crlToken.getSourceURL());
+			assertEquals(1, pki.getRequestCount(Endpoint.CRL));
+			assertEquals(1, crlSource.getHitCount());
+			assertEquals(0, crlSource.getMissCount());
+		} finally {
+			prefetcher.shutdown();
+		}
+	}
+
+	private TSLRepository createRepository(TrustedListsCertificateSource trustedListsCertificateSource) {
+		TSLRepository repository = new TSLRepository();
+		repository.setCacheDirectoryPath(new File("target/tsl-cache-" + System.nanoTime()).getAbsolutePath() + File.separator);
+		repository.setTrustedListsCertificateSource(trustedListsCertificateSource);
+		return repository;
+	}
+
+	private TSLValidationJob createJob(TSLRepository repository) {
+		KeyStoreCertificateSource ojKeystore = new KeyStoreCertificateSource("PKCS12", PKISimulator.DEFAULT_KEYSTORE_PASSWORD);
+		ojKeystore.addCertificateToKeyStore(pki.getLOTLSigningCertificate());
+
+		TSLValidationJob job = new TSLValidationJob();
+		job.setDataLoader(new CommonsDataLoader());
+		job.setRepository(repository);
+		job.setLotlCode(pki.getLOTLTerritory());
+		job.setLotlUrl(pki.getLOTLUrl());
+		job.setOjUrl(pki.getLOTLSchemeInformationUri());
+		job.setOjContentKeyStore(ojKeystore);
+		job.setCheckLOTLSignature(true);
+		job.setCheckTSLSignatures(true);
+		return job;
+	}
+
+}
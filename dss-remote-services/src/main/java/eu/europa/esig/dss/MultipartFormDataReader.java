@@ -0,0 +1,399 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class reads a multipart/form-data body (RFC 7578) part by part : the content of a part is streamed and never
+ * buffered, the parts have to be read in order.
+ * 
+ * This reader only depends on the JAX-RS API : the REST services receive the raw body as an {@code InputStream}.
+ */
+public class MultipartFormDataReader {
+
+	private static final Pattern BOUNDARY_PATTERN = Pattern.compile("boundary=(\"([^\"]+)\"|([^;\\s]+))", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern PARAMETER_PATTERN = Pattern.compile(";\\s*([\\w\\-]+)=(\"([^\"]*)\"|([^;\\s]*))");
+
+	private static final int MAX_HEADER_LINE_LENGTH = 8192;
+
+	private static final int MAX_HEADERS = 32;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final PushbackInputStream in;
+
+	private final byte[] delimiter;
+
+	private final byte[] lookahead;
+
+	private PartInputStream currentStream;
+
+	private boolean ended;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param contentType
+	 *            the Content-Type header of the request (with the boundary parameter)
+	 * @param body
+	 *            the request body
+	 */
+	public MultipartFormDataReader(String contentType, InputStream body) {
+		final String boundary = getBoundary(contentType);
+		this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+		this.lookahead = new byte[delimiter.length - 1];
+		// the first delimiter is not preceded by a CRLF
+		InputStream bodyWithCrlf = new SequenceInputStream(new ByteArrayInputStream(new byte[] { '\r', '\n' }), body);
+		this.in = new PushbackInputStream(new BufferedInputStream(bodyWithCrlf), BUFFER_SIZE + delimiter.length);
+		this.currentStream = new PartInputStream();
+	}
+
+	/**
+	 * Extracts the boundary from the Content-Type header
+	 * 
+	 * @param contentType
+	 *            the Content-Type header
+	 * @return the boundary
+	 */
+	static String getBoundary(String contentType) {
+		if (contentType == null || !contentType.toLowerCase(Locale.ENGLISH).startsWith("multipart/")) {
+			throw new DSSException("A multipart content is expected (Content-Type : " + contentType + ")");
+		}
+		Matcher matcher = BOUNDARY_PATTERN.matcher(contentType);
+		if (!matcher.find()) {
+			throw new DSSException("The multipart boundary is missing (Content-Type : " + contentType + ")");
+		}
+		return matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+	}
+
+	/**
+	 * Returns the next part. The remaining content of the previous part is skipped.
+	 * 
+	 * @return the next part or null if all the parts were read
+	 * @throws IOException
+	 *             if the body cannot be read or is malformed
+	 */
+	public Part nextPart() throws IOException {
+		if (ended) {
+			return null;
+		}
+		// skip the preamble or the remaining content of the previous part
+		currentStream.skipToEnd();
+
+		int first = in.read();
+		int second = in.read();
+		if (first == '-' && second == '-') {
+			ended = true;
+			return null;
+		}
+		// transport padding (RFC 2046)
+		while (first == ' ' || first == '\t') {
+			first = second;
+			second = in.read();
+		}
+		if (first == -1 || second == -1) {
+			throw new EOFException("Unexpected end of the multipart body (missing final boundary)");
+		}
+		if (first != '\r' || second != '\n') {
+			throw new IOException("Malformed multipart body (unexpected content after the boundary)");
+		}
+
+		final Map<String, String> headers = readHeaders();
+		currentStream = new PartInputStream();
+		return new Part(headers, currentStream);
+	}
+
+	private Map<String, String> readHeaders() throws IOException {
+		final Map<String, String> headers = new HashMap<String, String>();
+		String line;
+		while (!(line = readLine()).isEmpty()) {
+			if (headers.size() == MAX_HEADERS) {
+				throw new IOException("Too many headers in the multipart body");
+			}
+			int separator = line.indexOf(':');
+			if (separator > 0) {
+				headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ENGLISH), line.substring(separator + 1).trim());
+			}
+		}
+		return headers;
+	}
+
+	private String readLine() throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != '\n') {
+			if (b == -1) {
+				throw new EOFException("Unexpected end of the multipart body");
+			}
+			if (b != '\r') {
+				baos.write(b);
+			}
+			if (baos.size() > MAX_HEADER_LINE_LENGTH) {
+				throw new IOException("Too long header in the multipart body");
+			}
+		}
+		return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A part of the multipart body
+	 */
+	public static class Part {
+
+		private final Map<String, String> headers;
+
+		private final InputStream inputStream;
+
+		private final Map<String, String> dispositionParameters = new HashMap<String, String>();
+
+		Part(Map<String, String> headers, InputStream inputStream) {
+			this.headers = headers;
+			this.inputStream = inputStream;
+			String disposition = headers.get("content-disposition");
+			if (disposition != null) {
+				Matcher matcher = PARAMETER_PATTERN.matcher(disposition);
+				while (matcher.find()) {
+					dispositionParameters.put(matcher.group(1).toLowerCase(Locale.ENGLISH), matcher.group(3) != null ? matcher.group(3) : matcher.group(4));
+				}
+			}
+		}
+
+		/**
+		 * Returns the name of the form field
+		 * 
+		 * @return the name parameter of the Content-Disposition header
+		 */
+		public String getName() {
+			return dispositionParameters.get("name");
+		}
+
+		/**
+		 * Returns the original file name
+		 * 
+		 * @return the filename parameter of the Content-Disposition header (can be null)
+		 */
+		public String getFileName() {
+			return dispositionParameters.get("filename");
+		}
+
+		/**
+		 * Returns the mimetype of the part
+		 * 
+		 * @return the Content-Type header of the part (can be null)
+		 */
+		public String getContentType() {
+			return headers.get("content-type");
+		}
+
+		/**
+		 * Returns the {@code MimeType} of the part. The generic "application/octet-stream" is ignored : the mimetype
+		 * is then guessed from the file name.
+		 * 
+		 * @return the mimetype or null if not specified
+		 */
+		public MimeType getMimeType() {
+			String contentType = getContentType();
+			if (contentType == null) {
+				return null;
+			}
+			int parametersIndex = contentType.indexOf(';');
+			if (parametersIndex != -1) {
+				contentType = contentType.substring(0, parametersIndex);
+			}
+			contentType = contentType.trim().toLowerCase(Locale.ENGLISH);
+			if (contentType.isEmpty() || MimeType.BINARY.getMimeTypeString().equals(contentType)) {
+				return null;
+			}
+			return MimeType.fromMimeTypeString(contentType);
+		}
+
+		/**
+		 * Returns the content of the part. The stream ends at the next boundary, it must be read before the next part.
+		 * 
+		 * @return the content of the part
+		 */
+		public InputStream getInputStream() {
+			return inputStream;
+		}
+
+		/**
+		 * Returns the content of the part, with a size limit (eg : for a part which is loaded in memory)
+		 * 
+		 * @param maxSize
+		 *            the maximum size of the part in bytes
+		 * @return the content of the part, which throws an {@code IOException} when more than maxSize bytes are read
+		 */
+		public InputStream getInputStream(final long maxSize) {
+			return new FilterInputStream(inputStream) {
+
+				private long count;
+
+				@Override
+				public int read() throws IOException {
+					int b = super.read();
+					if (b != -1) {
+						count(1);
+					}
+					return b;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					int read = super.read(b, off, len);
+					if (read > 0) {
+						count(read);
+					}
+					return read;
+				}
+
+				private void count(int read) throws IOException {
+					count += read;
+					if (count > maxSize) {
+						throw new IOException("The part '" + getName() + "' exceeds the maximum size (" + maxSize + " bytes)");
+					}
+				}
+
+			};
+		}
+
+	}
+
+	private class PartInputStream extends InputStream {
+
+		private boolean finished;
+
+		@Override
+		public int read() throws IOException {
+			if (finished) {
+				return -1;
+			}
+			final int b = in.read();
+			if (b == -1) {
+				throw new EOFException("Unexpected end of the multipart body");
+			}
+			if (b != (delimiter[0] & 0xFF)) {
+				return b;
+			}
+			int length = 0;
+			int read;
+			while (length < lookahead.length && (read = in.read(lookahead, length, lookahead.length - length)) != -1) {
+				length += read;
+			}
+			if (length == lookahead.length && isDelimiter()) {
+				finished = true;
+				return -1;
+			}
+			in.unread(lookahead, 0, length);
+			return b;
+		}
+
+		/**
+		 * Reads a block of the body and returns its content up to the first possible delimiter. The bytes after are
+		 * pushed back, a delimiter which is not fully in the block is checked byte by byte.
+		 */
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (finished) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			final int read = in.read(b, off, Math.min(len, BUFFER_SIZE));
+			if (read == -1) {
+				throw new EOFException("Unexpected end of the multipart body");
+			}
+			final int end = off + read;
+			for (int i = off; i < end; i++) {
+				if (b[i] != delimiter[0]) {
+					continue;
+				}
+				if (i + delimiter.length > end) {
+					// the delimiter may continue after the block
+					in.unread(b, i, end - i);
+					return i > off ? i - off : readByte(b, off);
+				}
+				if (isDelimiter(b, i)) {
+					if (i > off) {
+						in.unread(b, i, end - i);
+						return i - off;
+					}
+					finished = true;
+					in.unread(b, i + delimiter.length, end - i - delimiter.length);
+					return -1;
+				}
+			}
+			return read;
+		}
+
+		private int readByte(byte[] b, int off) throws IOException {
+			final int value = read();
+			if (value == -1) {
+				return -1;
+			}
+			b[off] = (byte) value;
+			return 1;
+		}
+
+		private boolean isDelimiter(byte[] b, int off) {
+			for (int i = 1; i < delimiter.length; i++) {
+				if (b[off + i] != delimiter[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isDelimiter() {
+			for (int i = 0; i < lookahead.length; i++) {
+				if (lookahead[i] != delimiter[i + 1]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void skipToEnd() throws IOException {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			while (read(buffer, 0, buffer.length) != -1) {
+				// skip
+			}
+		}
+
+	}
+
+}
@@ -21,7 +21,9 @@
 package eu.europa.esig.dss;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import eu.europa.esig.dss.utils.Utils;
 
@@ -30,12 +32,30 @@ public class RemoteConverter {
 	private RemoteConverter() {
 	}
 
+	/**
+	 * Converts the remote documents. The digests of a same file (same name, see {@code RemoteDocumentDigester}) are
+	 * merged in one {@code DigestDocument} : the validation uses the digest algorithm of the signature.
+	 * 
+	 * @param remoteDocuments
+	 *            the remote documents
+	 * @return the list of {@code DSSDocument} or null if the given list is empty
+	 */
 	public static List<DSSDocument> toDSSDocuments(List<RemoteDocument> remoteDocuments) {
 		if (Utils.isCollectionNotEmpty(remoteDocuments)) {
 			List<DSSDocument> dssDocuments = new ArrayList<DSSDocument>();
+			Map<String, DigestDocument> digestDocuments = new HashMap<String, DigestDocument>();
 			for (RemoteDocument remoteDocument : remoteDocuments) {
 				if (remoteDocument != null) {
-					dssDocuments.add(toDSSDocument(remoteDocument));
+					DigestDocument digestDocument = remoteDocument.getDigestAlgorithm() != null ? digestDocuments.get(remoteDocument.getName()) : null;
+					if (digestDocument != null) {
+						digestDocument.addDigest(remoteDocument.getDigestAlgorithm(), Utils.toBase64(remoteDocument.getBytes()));
+						continue;
+					}
+					DSSDocument dssDocument = toDSSDocument(remoteDocument);
+					if (dssDocument instanceof DigestDocument && remoteDocument.getName() != null) {
+						digestDocuments.put(remoteDocument.getName(), (DigestDocument) dssDocument);
+					}
+					dssDocuments.add(dssDocument);
 				}
 			}
 			return dssDocuments;
@@ -67,4 +87,15 @@ public class RemoteConverter {
 		return new RemoteDocument(DSSUtils.toByteArray(originalDocument), originalDocument.getMimeType(), originalDocument.getName());
 	}
 
+	/**
+	 * Wraps the document for a MTOM transfer : the binaries are read from the document when the attachment is written.
+	 * 
+	 * @param document
+	 *            the document to transfer
+	 * @return the {@code RemoteStreamDocument}
+	 */
+	public static RemoteStreamDocument toRemoteStreamDocument(final DSSDocument document) {
+		return new RemoteStreamDocument(document);
+	}
+
 }
@@ -0,0 +1,297 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This class spools the streamed documents of a request (MTOM attachments, multipart parts) : the small documents are
+ * kept in memory and the large ones are written in temporary files. The temporary files are deleted when the spool is
+ * closed (at the end of the request).
+ * 
+ * A document is kept in memory if it does not exceed the in-memory threshold and if the documents of the spool kept
+ * in memory do not exceed the maximum in-memory size : the memory used by a request is bounded by the maximum
+ * in-memory size, whatever the number and the size of the documents. The size of each document, the total size and
+ * the number of documents of a request can be limited (eg : to reject an archive which inflates to a huge size) : a
+ * {@code DSSException} is thrown as soon as a limit is exceeded. A spool is used by one request, the documents are
+ * spooled one after the other.
+ */
+public class RemoteDocumentSpool implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RemoteDocumentSpool.class);
+
+	private static final int DEFAULT_IN_MEMORY_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * The default maximum size of a document (1 GB)
+	 */
+	public static final long DEFAULT_MAX_DOCUMENT_SIZE = 1024L * 1024 * 1024;
+
+	/**
+	 * The default maximum size of all the documents of a spool (4 GB)
+	 */
+	public static final long DEFAULT_MAX_TOTAL_SIZE = 4 * DEFAULT_MAX_DOCUMENT_SIZE;
+
+	/**
+	 * The default maximum size of the documents of a spool kept in memory (16 MB)
+	 */
+	public static final long DEFAULT_MAX_IN_MEMORY_SIZE = 16L * DEFAULT_IN_MEMORY_THRESHOLD;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final List<File> temporaryFiles = new ArrayList<File>();
+
+	private final File directory;
+
+	private final int inMemoryThreshold;
+
+	private long maxDocumentSize = DEFAULT_MAX_DOCUMENT_SIZE;
+
+	private long maxTotalSize = DEFAULT_MAX_TOTAL_SIZE;
+
+	private long maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
+
+	private int maxDocuments = -1;
+
+	private long totalSize;
+
+	private long inMemorySize;
+
+	private int nbDocuments;
+
+	/**
+	 * The default constructor (temporary files in java.io.tmpdir, documents up to 1 MB kept in memory)
+	 */
+	public RemoteDocumentSpool() {
+		this(null, DEFAULT_IN_MEMORY_THRESHOLD);
+	}
+
+	/**
+	 * The constructor with the spool configuration
+	 * 
+	 * @param directory
+	 *            the folder of the temporary files (null for the default temporary-file directory)
+	 * @param inMemoryThreshold
+	 *            the maximum size (in bytes) of a document kept in memory
+	 */
+	public RemoteDocumentSpool(final File directory, final int inMemoryThreshold) {
+		this.directory = directory;
+		this.inMemoryThreshold = inMemoryThreshold;
+	}
+
+	/**
+	 * Sets the maximum size of a document (default : 1 GB, -1 for no limit)
+	 * 
+	 * @param maxDocumentSize
+	 *            the size in bytes
+	 */
+	public void setMaxDocumentSize(long maxDocumentSize) {
+		this.maxDocumentSize = maxDocumentSize;
+	}
+
+	/**
+	 * Sets the maximum size of all the documents of the spool (default : 4 GB, -1 for no limit)
+	 * 
+	 * @param maxTotalSize
+	 *            the size in bytes
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	/**
+	 * Sets the maximum size of the documents of the spool kept in memory (default : 16 MB). Once this size is reached,
+	 * the next documents are written in temporary files, even if they do not exceed the in-memory threshold.
+	 * 
+	 * @param maxInMemorySize
+	 *            the size in bytes
+	 */
+	public void setMaxInMemorySize(long maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Sets the maximum number of documents of the spool (default : -1, no limit)
+	 * 
+	 * @param maxDocuments
+	 *            the number of documents
+	 */
+	public void setMaxDocuments(int maxDocuments) {
+		this.maxDocuments = maxDocuments;
+	}
+
+	/**
+	 * Spools a streamed document
+	 * 
+	 * @param remoteStreamDocument
+	 *            the document received with MTOM
+	 * @return the {@code DSSDocument} (null if the parameter is null)
+	 */
+	public DSSDocument spool(RemoteStreamDocument remoteStreamDocument) {
+		if (remoteStreamDocument == null) {
+			return null;
+		}
+		if (remoteStreamDocument.getData() == null) {
+			throw new DSSException("The document '" + remoteStreamDocument.getName() + "' has no content");
+		}
+		try (InputStream is = remoteStreamDocument.getData().getInputStream()) {
+			return spool(is, remoteStreamDocument.getName(), remoteStreamDocument.getMimeType());
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the document '" + remoteStreamDocument.getName() + "'", e);
+		}
+	}
+
+	/**
+	 * Spools a list of streamed documents
+	 * 
+	 * @param remoteStreamDocuments
+	 *            the documents received with MTOM
+	 * @return the list of {@code DSSDocument} (null if the parameter is empty)
+	 */
+	public List<DSSDocument> spool(List<RemoteStreamDocument> remoteStreamDocuments) {
+		if (Utils.isCollectionEmpty(remoteStreamDocuments)) {
+			return null;
+		}
+		List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		for (RemoteStreamDocument remoteStreamDocument : remoteStreamDocuments) {
+			if (remoteStreamDocument != null) {
+				documents.add(spool(remoteStreamDocument));
+			}
+		}
+		return documents;
+	}
+
+	/**
+	 * Spools the content of the stream. The stream is read until its end but it is not closed.
+	 * 
+	 * @param inputStream
+	 *            the document content
+	 * @param name
+	 *            the document name
+	 * @param mimeType
+	 *            the mimetype (can be null)
+	 * @return the {@code DSSDocument} in memory or in a temporary file
+	 * @throws DSSException
+	 *             if the document cannot be read or if a limit of the spool is exceeded
+	 */
+	public DSSDocument spool(InputStream inputStream, String name, MimeType mimeType) {
+		if (maxDocuments >= 0 && nbDocuments >= maxDocuments) {
+			throw new DSSException("Too many documents (maximum : " + maxDocuments + ")");
+		}
+		nbDocuments++;
+
+		File file = null;
+		long size = 0;
+		final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+		OutputStream out = memory;
+		try {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				size += read;
+				totalSize += read;
+				if (maxDocumentSize >= 0 && size > maxDocumentSize) {
+					throw new DSSException("The document '" + name + "' exceeds the maximum size (" + maxDocumentSize + " bytes)");
+				}
+				if (maxTotalSize >= 0 && totalSize > maxTotalSize) {
+					throw new DSSException("The documents exceed the maximum total size (" + maxTotalSize + " bytes)");
+				}
+				if (file == null && !isKeptInMemory(memory.size() + read)) {
+					file = createTemporaryFile();
+					out = new FileOutputStream(file);
+					memory.writeTo(out);
+					memory.reset();
+				}
+				out.write(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw new DSSException("Unable to spool the document '" + name + "'", e);
+		} finally {
+			if (out != memory) {
+				Utils.closeQuietly(out);
+			}
+		}
+
+		if (file == null) {
+			inMemorySize += memory.size();
+			return new InMemoryDocument(memory.toByteArray(), name, getMimeType(name, mimeType));
+		}
+		LOG.debug("Document '{}' spooled in {} ({} bytes)", name, file.getAbsolutePath(), file.length());
+		final FileDocument document = new FileDocument(file);
+		document.setName(name);
+		document.setMimeType(getMimeType(name, mimeType));
+		return document;
+	}
+
+	/**
+	 * A document is kept in memory if it does not exceed the threshold and if the memory of the spool is not full
+	 */
+	private boolean isKeptInMemory(long size) {
+		return size <= inMemoryThreshold && inMemorySize + size <= maxInMemorySize;
+	}
+
+	/**
+	 * The mimetype is guessed from the name if it is not given (the same as {@code new InMemoryDocument(bytes, name)})
+	 */
+	private MimeType getMimeType(String name, MimeType mimeType) {
+		if (mimeType != null || name == null) {
+			return mimeType;
+		}
+		return MimeType.fromFileName(name);
+	}
+
+	private File createTemporaryFile() throws IOException {
+		final File file = File.createTempFile("dss-spool-", ".tmp", directory);
+		synchronized (temporaryFiles) {
+			temporaryFiles.add(file);
+		}
+		return file;
+	}
+
+	/**
+	 * Deletes the temporary files
+	 */
+	@Override
+	public void close() {
+		synchronized (temporaryFiles) {
+			for (File file : temporaryFiles) {
+				if (file.exists() && !file.delete()) {
+					LOG.warn("Unable to delete the temporary file {}", file.getAbsolutePath());
+				}
+			}
+			temporaryFiles.clear();
+		}
+	}
+
+}
@@ -104,40 +104,80 @@ public class RemoteDocumentSignatureServiceImpl extends AbstractRemoteSignatureS
 		}
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Override
 	public ToBeSigned getDataToSign(RemoteDocument remoteDocument, RemoteSignatureParameters remoteParameters) {
+		return getDataToSign(RemoteConverter.toDSSDocument(remoteDocument), remoteParameters);
+	}
+
+	@Override
+	public RemoteDocument signDocument(RemoteDocument remoteDocument, RemoteSignatureParameters remoteParameters, SignatureValue signatureValue) {
+		return RemoteConverter.toRemoteDocument(signDocument(RemoteConverter.toDSSDocument(remoteDocument), remoteParameters, signatureValue));
+	}
+
+	@Override
+	public RemoteDocument extendDocument(RemoteDocument remoteDocument, RemoteSignatureParameters remoteParameters) {
+		return RemoteConverter.toRemoteDocument(extendDocument(RemoteConverter.toDSSDocument(remoteDocument), remoteParameters));
+	}
+
+	/**
+	 * Retrieves the data to be signed. This method is used by the streaming services : the document is spooled in a
+	 * temporary file (see {@link eu.europa.esig.dss.RemoteDocumentSpool}).
+	 * 
+	 * @param dssDocument
+	 *            the document to be signed
+	 * @param remoteParameters
+	 *            the signature parameters
+	 * @return the data to be signed
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public ToBeSigned getDataToSign(DSSDocument dssDocument, RemoteSignatureParameters remoteParameters) {
 		LOG.info("GetDataToSign in process...");
 		AbstractSignatureParameters parameters = createParameters(remoteParameters);
 		DocumentSignatureService service = getServiceForSignature(remoteParameters);
-		DSSDocument dssDocument = RemoteConverter.toDSSDocument(remoteDocument);
 		ToBeSigned dataToSign = service.getDataToSign(dssDocument, parameters);
 		LOG.info("GetDataToSign is finished");
 		return dataToSign;
 	}
 
+	/**
+	 * Signs the document with the provided signature value (see {@link #getDataToSign(DSSDocument,
+	 * RemoteSignatureParameters)})
+	 * 
+	 * @param dssDocument
+	 *            the document to be signed
+	 * @param remoteParameters
+	 *            the signature parameters
+	 * @param signatureValue
+	 *            the signature value
+	 * @return the signed document
+	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	@Override
-	public RemoteDocument signDocument(RemoteDocument remoteDocument, RemoteSignatureParameters remoteParameters, SignatureValue signatureValue) {
+	public DSSDocument signDocument(DSSDocument dssDocument, RemoteSignatureParameters remoteParameters, SignatureValue signatureValue) {
 		LOG.info("SignDocument in process...");
 		AbstractSignatureParameters parameters = createParameters(remoteParameters);
 		DocumentSignatureService service = getServiceForSignature(remoteParameters);
-		DSSDocument dssDocument = RemoteConverter.toDSSDocument(remoteDocument);
 		DSSDocument signDocument = (DSSDocument) service.signDocument(dssDocument, parameters, signatureValue);
 		LOG.info("SignDocument is finished");
-		return RemoteConverter.toRemoteDocument(signDocument);
+		return signDocument;
 	}
 
+	/**
+	 * Extends the signatures of the document (see {@link #getDataToSign(DSSDocument, RemoteSignatureParameters)})
+	 * 
+	 * @param dssDocument
+	 *            the document to be extended
+	 * @param remoteParameters
+	 *            the extension parameters
+	 * @return the extended document
+	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	@Override
-	public RemoteDocument extendDocument(RemoteDocument remoteDocument, RemoteSignatureParameters remoteParameters) {
+	public DSSDocument extendDocument(DSSDocument dssDocument, RemoteSignatureParameters remoteParameters) {
 		LOG.info("ExtendDocument in process...");
 		AbstractSignatureParameters parameters = createParameters(remoteParameters);
 		DocumentSignatureService service = getServiceForSignature(remoteParameters);
-		DSSDocument dssDocument = RemoteConverter.toDSSDocument(remoteDocument);
 		DSSDocument extendDocument = (DSSDocument) service.extendDocument(dssDocument, parameters);
 		LOG.info("ExtendDocument is finished");
-		return RemoteConverter.toRemoteDocument(extendDocument);
+		return extendDocument;
 	}
 
 }
@@ -22,6 +22,9 @@ package eu.europa.esig.dss.validation;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -32,6 +35,8 @@ import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.RemoteConverter;
 import eu.europa.esig.dss.RemoteDocument;
 import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
 import eu.europa.esig.dss.validation.reports.Reports;
 import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
 
@@ -41,13 +46,60 @@ public class RemoteDocumentValidationService {
 
 	private CertificateVerifier verifier;
 
+	private DiagnosticDataValidator diagnosticDataValidator = new DiagnosticDataValidator();
+
+	private ValidationResultCache validationResultCache;
+
+	private int bulkNbThreads = 4;
+
 	public void setVerifier(CertificateVerifier verifier) {
 		this.verifier = verifier;
 	}
 
+	public void setDiagnosticDataValidator(DiagnosticDataValidator diagnosticDataValidator) {
+		this.diagnosticDataValidator = diagnosticDataValidator;
+	}
+
+	/**
+	 * This method allows to reuse the reports of the documents which were already validated (see
+	 * {@link ValidationResultCache})
+	 * 
+	 * @param validationResultCache
+	 *            the cache to be used (null to always validate)
+	 */
+	public void setValidationResultCache(ValidationResultCache validationResultCache) {
+		this.validationResultCache = validationResultCache;
+	}
+
+	/**
+	 * Sets the number of workers of a bulk validation (default : 4)
+	 * 
+	 * @param bulkNbThreads
+	 *            the number of threads
+	 */
+	public void setBulkNbThreads(int bulkNbThreads) {
+		this.bulkNbThreads = bulkNbThreads;
+	}
+
 	public ReportsDTO validateDocument(RemoteDocument signedFile, List<RemoteDocument> originalFiles, RemoteDocument policy) {
+		return validateDocument(RemoteConverter.toDSSDocument(signedFile), RemoteConverter.toDSSDocuments(originalFiles), policy);
+	}
+
+	/**
+	 * Validates the signed document. This method is used by the streaming services : the documents are spooled in
+	 * temporary files (see {@link eu.europa.esig.dss.RemoteDocumentSpool}).
+	 * 
+	 * @param signedDocument
+	 *            the signed document
+	 * @param originalDocuments
+	 *            the original documents in case of detached signature (can be null)
+	 * @param policy
+	 *            the validation policy (the default policy is used if null)
+	 * @return the validation reports
+	 */
+	public ReportsDTO validateDocument(DSSDocument signedDocument, List<DSSDocument> originalDocuments, RemoteDocument policy) {
 		LOG.info("ValidateDocument in process...");
-		DocumentValidator validator = initValidator(signedFile, originalFiles);
+		DocumentValidator validator = initValidator(signedDocument, originalDocuments);
 
 		Reports reports = null;
 		if (policy == null) {
@@ -65,6 +117,57 @@ public class RemoteDocumentValidationService {
 		return reportsDTO;
 	}
 
+	/**
+	 * Validates a batch of signed documents with a {@link BulkValidationService} : the revocation data and the AIA
+	 * certificates are shared between the documents. The reports are given to the listener as soon as a document is
+	 * validated.
+	 * 
+	 * @param signedDocuments
+	 *            the signed documents
+	 * @param policy
+	 *            the validation policy (the default policy is used if null)
+	 * @param listener
+	 *            the listener which receives the reports
+	 * @return the summary of the run
+	 */
+	public BulkValidationResult validateDocuments(Iterator<DSSDocument> signedDocuments, RemoteDocument policy, BulkValidationListener listener) {
+		LOG.info("ValidateDocuments in process...");
+		ValidationPolicy validationPolicy = null;
+		if (policy != null) {
+			try (ByteArrayInputStream bais = new ByteArrayInputStream(policy.getBytes())) {
+				validationPolicy = new EtsiValidationPolicy(ValidationResourceManager.loadPolicyData(bais));
+			} catch (IOException e) {
+				throw new DSSException(e);
+			}
+		}
+
+		BulkValidationService bulkValidationService = new BulkValidationService(verifier);
+		bulkValidationService.setNbThreads(bulkNbThreads);
+		bulkValidationService.setValidationResultCache(validationResultCache);
+		BulkValidationResult result = bulkValidationService.validate(signedDocuments, validationPolicy, listener);
+		LOG.info("ValidateDocuments is finished");
+		return result;
+	}
+
+	public ReportsDTO validateDiagnosticData(RemoteDocument diagnosticData, RemoteDocument policy, Date validationTime) {
+		LOG.info("ValidateDiagnosticData in process...");
+		if (diagnosticData == null || diagnosticData.getBytes() == null) {
+			throw new DSSException("The diagnostic data is missing");
+		}
+
+		Reports reports = null;
+		try (InputStream diagnosticDataStream = new ByteArrayInputStream(diagnosticData.getBytes());
+				InputStream policyStream = policy == null ? null : new ByteArrayInputStream(policy.getBytes())) {
+			reports = diagnosticDataValidator.validate(diagnosticDataStream, policyStream, validationTime);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+
+		ReportsDTO reportsDTO = new ReportsDTO(reports.getDiagnosticDataJaxb(), reports.getSimpleReportJaxb(), reports.getDetailedReportJaxb());
+		LOG.info("ValidateDiagnosticData is finished");
+		return reportsDTO;
+	}
+
 	public List<RemoteDocument> getOriginalDocuments(RemoteDocument signedFile, List<RemoteDocument> originalFiles, String signatureId) {
 		LOG.info("GetOriginalDocuments in process...");
 		DocumentValidator validator = initValidator(signedFile, originalFiles);
@@ -84,11 +187,15 @@ public class RemoteDocumentValidationService {
 	}
 
 	private DocumentValidator initValidator(RemoteDocument signedFile, List<RemoteDocument> originalFiles) {
-		DSSDocument signedDocument = RemoteConverter.toDSSDocument(signedFile);
+		return initValidator(RemoteConverter.toDSSDocument(signedFile), RemoteConverter.toDSSDocuments(originalFiles));
+	}
+
+	private DocumentValidator initValidator(DSSDocument signedDocument, List<DSSDocument> originalDocuments) {
 		SignedDocumentValidator signedDocValidator = SignedDocumentValidator.fromDocument(signedDocument);
 		signedDocValidator.setCertificateVerifier(verifier);
-		if (Utils.isCollectionNotEmpty(originalFiles)) {
-			signedDocValidator.setDetachedContents(RemoteConverter.toDSSDocuments(originalFiles));
+		signedDocValidator.setValidationResultCache(validationResultCache);
+		if (Utils.isCollectionNotEmpty(originalDocuments)) {
+			signedDocValidator.setDetachedContents(originalDocuments);
 		}
 		return signedDocValidator;
 	}
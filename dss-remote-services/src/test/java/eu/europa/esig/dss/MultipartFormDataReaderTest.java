@@ -0,0 +1,275 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class MultipartFormDataReaderTest {
+
+	private static final String BOUNDARY = "dss-boundary";
+
+	private static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+
+	@Test
+	public void boundaryInContentType() {
+		assertEquals("abc", MultipartFormDataReader.getBoundary("multipart/form-data; boundary=abc"));
+		assertEquals("a b;c", MultipartFormDataReader.getBoundary("multipart/form-data; charset=UTF-8; BOUNDARY=\"a b;c\""));
+	}
+
+	@Test(expected = DSSException.class)
+	public void notMultipart() {
+		new MultipartFormDataReader("application/json", new ByteArrayInputStream(new byte[0]));
+	}
+
+	@Test(expected = DSSException.class)
+	public void missingBoundary() {
+		new MultipartFormDataReader("multipart/form-data", new ByteArrayInputStream(new byte[0]));
+	}
+
+	@Test
+	public void writtenBodyIsReadWithAnyReadSize() throws IOException {
+		byte[] document = new byte[20000];
+		for (int i = 0; i < document.length; i++) {
+			document[i] = (byte) (i % 251);
+		}
+		MultipartFormDataWriter writer = new MultipartFormDataWriter(BOUNDARY);
+		writer.addDocument("signedDocument", new InMemoryDocument(document, "signed \"file\".xml", MimeType.XML));
+		writer.addDocument("originalDocuments", new InMemoryDocument(new byte[0], "empty.bin"));
+		writer.addPart("parameters", "application/json", "{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+		byte[] body = toByteArray(writer.openStream());
+
+		// the boundary is split across the reads of the underlying stream
+		for (int readSize = 1; readSize <= BOUNDARY.length() + 6; readSize++) {
+			MultipartFormDataReader reader = new MultipartFormDataReader(writer.getContentType(), new ChunkedInputStream(body, readSize));
+
+			MultipartFormDataReader.Part part = reader.nextPart();
+			assertEquals("signedDocument", part.getName());
+			assertEquals("signed %22file%22.xml", part.getFileName());
+			assertEquals(MimeType.XML, part.getMimeType());
+			assertArrayEquals(document, toByteArray(part.getInputStream()));
+
+			part = reader.nextPart();
+			assertEquals("originalDocuments", part.getName());
+			assertEquals("empty.bin", part.getFileName());
+			// application/octet-stream is ignored
+			assertNull(part.getMimeType());
+			assertEquals(0, toByteArray(part.getInputStream()).length);
+
+			part = reader.nextPart();
+			assertEquals("parameters", part.getName());
+			assertNull(part.getFileName());
+			assertEquals("application/json", part.getContentType());
+			assertEquals("{\"a\":1}", new String(toByteArray(part.getInputStream()), StandardCharsets.UTF_8));
+
+			assertNull(reader.nextPart());
+			assertNull(reader.nextPart());
+		}
+	}
+
+	@Test
+	public void lineBreaksAndDashesInContent() throws IOException {
+		String content = "\r\n--dss-boundar\r\n-\r\n--\r\nx--dss-boundary is not a delimiter without CRLF\n\r\n\r";
+		String body = "--" + BOUNDARY + "\r\n" + disposition("first") + "\r\n" + content + "\r\n--" + BOUNDARY + "--\r\n";
+
+		MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, new ChunkedInputStream(body.getBytes(StandardCharsets.ISO_8859_1), 3));
+		MultipartFormDataReader.Part part = reader.nextPart();
+		assertEquals(content, new String(toByteArray(part.getInputStream()), StandardCharsets.ISO_8859_1));
+		assertNull(reader.nextPart());
+	}
+
+	@Test
+	public void blockReads() throws IOException {
+		// line breaks, partial delimiters and a delimiter split across the blocks of the reader
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		for (int i = 0; i < 3000; i++) {
+			content.write(("\r\n--" + BOUNDARY.substring(0, i % BOUNDARY.length()) + (char) (i % 256)).getBytes(StandardCharsets.ISO_8859_1));
+		}
+		byte[] expected = content.toByteArray();
+		byte[] body = toByteArray(bodyWithParts(expected));
+
+		for (int bufferSize : new int[] { 1, 2, 7, 100, 4096, 8192, 100000 }) {
+			MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, new ChunkedInputStream(body, 1000));
+			InputStream is = reader.nextPart().getInputStream();
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			byte[] buffer = new byte[bufferSize];
+			int read;
+			while ((read = is.read(buffer, 0, bufferSize)) != -1) {
+				baos.write(buffer, 0, read);
+				// the single byte and the block reads can be mixed
+				int b = is.read();
+				if (b != -1) {
+					baos.write(b);
+				}
+			}
+			assertArrayEquals(expected, baos.toByteArray());
+			assertEquals("value2", read(reader.nextPart()));
+			assertNull(reader.nextPart());
+		}
+	}
+
+	@Test
+	public void preambleTransportPaddingAndEpilogue() throws IOException {
+		String body = "preamble\r\n--" + BOUNDARY + " \t\r\n" + disposition("first") + "\r\nvalue1\r\n--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=second\r\nX-Other:  ignored \r\n\r\nvalue2\r\n--" + BOUNDARY + "--\r\nepilogue";
+
+		MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, stream(body));
+		MultipartFormDataReader.Part part = reader.nextPart();
+		assertEquals("first", part.getName());
+		assertEquals("value1", read(part));
+		part = reader.nextPart();
+		assertEquals("second", part.getName());
+		assertEquals("value2", read(part));
+		assertNull(reader.nextPart());
+	}
+
+	@Test
+	public void unreadPartIsSkipped() throws IOException {
+		String body = "--" + BOUNDARY + "\r\n" + disposition("first") + "\r\nvalue1\r\n--" + BOUNDARY + "\r\n" + disposition("second")
+				+ "\r\nvalue2\r\n--" + BOUNDARY + "--";
+
+		MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, stream(body));
+		assertEquals("first", reader.nextPart().getName());
+		MultipartFormDataReader.Part part = reader.nextPart();
+		assertEquals("second", part.getName());
+		assertEquals("value2", read(part));
+		assertNull(reader.nextPart());
+	}
+
+	@Test(expected = EOFException.class)
+	public void missingFinalBoundaryInContent() throws IOException {
+		String body = "--" + BOUNDARY + "\r\n" + disposition("first") + "\r\nvalue1\r\n--" + BOUNDARY.substring(0, 4);
+
+		MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, stream(body));
+		read(reader.nextPart());
+	}
+
+	@Test(expected = EOFException.class)
+	public void missingFinalBoundaryAfterPart() throws IOException {
+		String body = "--" + BOUNDARY + "\r\n" + disposition("first") + "\r\nvalue1\r\n--" + BOUNDARY;
+
+		MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, stream(body));
+		assertEquals("value1", read(reader.nextPart()));
+		reader.nextPart();
+	}
+
+	@Test(expected = EOFException.class)
+	public void endInHeaders() throws IOException {
+		String body = "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=";
+
+		new MultipartFormDataReader(CONTENT_TYPE, stream(body)).nextPart();
+	}
+
+	@Test(expected = IOException.class)
+	public void contentAfterBoundary() throws IOException {
+		String body = "--" + BOUNDARY + "xyz\r\n" + disposition("first") + "\r\nvalue1\r\n--" + BOUNDARY + "--";
+
+		new MultipartFormDataReader(CONTENT_TYPE, stream(body)).nextPart();
+	}
+
+	@Test(expected = IOException.class)
+	public void tooLongHeader() throws IOException {
+		StringBuilder header = new StringBuilder("X-Long: ");
+		for (int i = 0; i < 10000; i++) {
+			header.append('a');
+		}
+		String body = "--" + BOUNDARY + "\r\n" + header + "\r\n\r\nvalue1\r\n--" + BOUNDARY + "--";
+
+		new MultipartFormDataReader(CONTENT_TYPE, stream(body)).nextPart();
+	}
+
+	@Test
+	public void oversizePart() throws IOException {
+		String body = "--" + BOUNDARY + "\r\n" + disposition("policy") + "\r\n0123456789\r\n--" + BOUNDARY + "--";
+
+		MultipartFormDataReader reader = new MultipartFormDataReader(CONTENT_TYPE, stream(body));
+		assertEquals("0123456789", new String(toByteArray(reader.nextPart().getInputStream(10)), StandardCharsets.UTF_8));
+
+		reader = new MultipartFormDataReader(CONTENT_TYPE, stream(body));
+		try {
+			toByteArray(reader.nextPart().getInputStream(9));
+			fail("The part is larger than the limit");
+		} catch (IOException e) {
+			assertEquals("The part 'policy' exceeds the maximum size (9 bytes)", e.getMessage());
+		}
+	}
+
+	private static String disposition(String name) {
+		return "Content-Disposition: form-data; name=\"" + name + "\"\r\n";
+	}
+
+	private static InputStream bodyWithParts(byte[] first) {
+		MultipartFormDataWriter writer = new MultipartFormDataWriter(BOUNDARY);
+		writer.addDocument("first", new InMemoryDocument(first, "first.bin"));
+		writer.addPart("second", "text/plain", "value2".getBytes(StandardCharsets.UTF_8));
+		return writer.openStream();
+	}
+
+	private static InputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(MultipartFormDataReader.Part part) throws IOException {
+		return new String(toByteArray(part.getInputStream()), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] toByteArray(InputStream is) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = is.read(buffer)) != -1) {
+			baos.write(buffer, 0, read);
+		}
+		return baos.toByteArray();
+	}
+
+	/**
+	 * Returns at most readSize bytes per read (as a network stream)
+	 */
+	private static class ChunkedInputStream extends FilterInputStream {
+
+		private final int readSize;
+
+		ChunkedInputStream(byte[] bytes, int readSize) {
+			super(new ByteArrayInputStream(bytes));
+			this.readSize = readSize;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, readSize));
+		}
+
+	}
+
+}
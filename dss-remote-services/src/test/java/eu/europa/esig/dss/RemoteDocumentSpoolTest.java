@@ -0,0 +1,142 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RemoteDocumentSpoolTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void spoolToDiskAboveThreshold() throws Exception {
+		File directory = folder.getRoot();
+		byte[] small = new byte[10];
+		byte[] large = new byte[10000];
+		large[9999] = 1;
+
+		try (RemoteDocumentSpool spool = new RemoteDocumentSpool(directory, 10)) {
+			DSSDocument inMemory = spool.spool(new ByteArrayInputStream(small), "small.xml", null);
+			assertTrue(inMemory instanceof InMemoryDocument);
+			assertEquals(0, directory.list().length);
+
+			DSSDocument spooled = spool.spool(new ByteArrayInputStream(large), "large.xml", null);
+			assertTrue(spooled instanceof FileDocument);
+			assertEquals("large.xml", spooled.getName());
+			assertArrayEquals(large, DSSUtils.toByteArray(spooled));
+			assertEquals(1, directory.list().length);
+
+			// the mimetype is guessed from the name in both cases
+			assertEquals(MimeType.XML, inMemory.getMimeType());
+			assertEquals(MimeType.XML, spooled.getMimeType());
+			assertEquals(MimeType.PDF, spool.spool(new ByteArrayInputStream(small), "small.xml", MimeType.PDF).getMimeType());
+			assertEquals(MimeType.PDF, spool.spool(new ByteArrayInputStream(large), "large.xml", MimeType.PDF).getMimeType());
+			assertNull(spool.spool(new ByteArrayInputStream(small), null, null).getMimeType());
+		}
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void maxInMemorySize() {
+		File directory = folder.getRoot();
+		try (RemoteDocumentSpool spool = new RemoteDocumentSpool(directory, 10)) {
+			spool.setMaxInMemorySize(25);
+			assertTrue(spool.spool(new ByteArrayInputStream(new byte[10]), "doc1", null) instanceof InMemoryDocument);
+			assertTrue(spool.spool(new ByteArrayInputStream(new byte[10]), "doc2", null) instanceof InMemoryDocument);
+			// below the threshold but the memory of the spool is full
+			DSSDocument spooled = spool.spool(new ByteArrayInputStream(new byte[10]), "doc3", null);
+			assertTrue(spooled instanceof FileDocument);
+			assertEquals(10, DSSUtils.toByteArray(spooled).length);
+			assertTrue(spool.spool(new ByteArrayInputStream(new byte[5]), "doc4", null) instanceof InMemoryDocument);
+			assertTrue(spool.spool(new ByteArrayInputStream(new byte[1]), "doc5", null) instanceof FileDocument);
+			assertEquals(2, directory.list().length);
+		}
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void maxDocumentSize() {
+		File directory = folder.getRoot();
+		try (RemoteDocumentSpool spool = new RemoteDocumentSpool(directory, 10)) {
+			spool.setMaxDocumentSize(100);
+			spool.spool(new ByteArrayInputStream(new byte[100]), "doc1", null);
+			try {
+				spool.spool(new ByteArrayInputStream(new byte[101]), "doc2", null);
+				fail("The document is too large");
+			} catch (DSSException e) {
+				assertEquals("The document 'doc2' exceeds the maximum size (100 bytes)", e.getMessage());
+			}
+		}
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void maxTotalSize() {
+		try (RemoteDocumentSpool spool = new RemoteDocumentSpool(folder.getRoot(), 10)) {
+			spool.setMaxTotalSize(150);
+			spool.spool(new ByteArrayInputStream(new byte[100]), "doc1", null);
+			try {
+				spool.spool(new ByteArrayInputStream(new byte[100]), "doc2", null);
+				fail("The documents are too large");
+			} catch (DSSException e) {
+				assertEquals("The documents exceed the maximum total size (150 bytes)", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void maxDocuments() {
+		try (RemoteDocumentSpool spool = new RemoteDocumentSpool()) {
+			spool.setMaxDocuments(2);
+			spool.spool(new ByteArrayInputStream(new byte[1]), "doc1", null);
+			spool.spool(new ByteArrayInputStream(new byte[1]), "doc2", null);
+			try {
+				spool.spool(new ByteArrayInputStream(new byte[1]), "doc3", null);
+				fail("Too many documents");
+			} catch (DSSException e) {
+				assertEquals("Too many documents (maximum : 2)", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void noLimit() {
+		try (RemoteDocumentSpool spool = new RemoteDocumentSpool(folder.getRoot(), 10)) {
+			spool.setMaxDocumentSize(-1);
+			spool.setMaxTotalSize(-1);
+			assertFalse(spool.spool(new ByteArrayInputStream(new byte[1000]), "doc", null) instanceof InMemoryDocument);
+		}
+	}
+
+}
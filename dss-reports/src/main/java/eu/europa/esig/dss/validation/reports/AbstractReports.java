@@ -33,6 +33,7 @@ import javax.xml.validation.SchemaFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.metrics.ValidationMetrics;
 import eu.europa.esig.dss.validation.reports.wrapper.DiagnosticData;
 
 /**
@@ -62,6 +63,12 @@ public abstract class AbstractReports {
 	private String xmlDiagnosticData;
 	private String xmlDetailedReport;
 
+	/**
+	 * The measures of the validation (only if requested in the
+	 * {@code CertificateVerifier}).
+	 */
+	private ValidationMetrics validationMetrics;
+
 	/**
 	 * This is the default constructor to instantiate this container.
 	 *
@@ -119,6 +126,20 @@ public abstract class AbstractReports {
 		return detailedReport;
 	}
 
+	/**
+	 * This method returns the measures of the validation (timing breakdown by
+	 * phase, network calls, cache accesses,...)
+	 * 
+	 * @return the {@code ValidationMetrics} or null if they were not requested
+	 */
+	public ValidationMetrics getValidationMetrics() {
+		return validationMetrics;
+	}
+
+	public void setValidationMetrics(ValidationMetrics validationMetrics) {
+		this.validationMetrics = validationMetrics;
+	}
+
 	/**
 	 * For debug purpose.
 	 */
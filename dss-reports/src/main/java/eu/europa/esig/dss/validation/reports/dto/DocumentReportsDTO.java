@@ -0,0 +1,69 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.reports.dto;
+
+import java.io.Serializable;
+
+/**
+ * The result of the validation of one document of a bulk validation : the reports or the error message
+ */
+public class DocumentReportsDTO implements Serializable {
+
+	private static final long serialVersionUID = 4460526735327212640L;
+
+	private String documentName;
+	private ReportsDTO reports;
+	private String error;
+
+	public DocumentReportsDTO() {
+	}
+
+	public DocumentReportsDTO(String documentName, ReportsDTO reports, String error) {
+		this.documentName = documentName;
+		this.reports = reports;
+		this.error = error;
+	}
+
+	public String getDocumentName() {
+		return documentName;
+	}
+
+	public void setDocumentName(String documentName) {
+		this.documentName = documentName;
+	}
+
+	public ReportsDTO getReports() {
+		return reports;
+	}
+
+	public void setReports(ReportsDTO reports) {
+		this.reports = reports;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+}
@@ -44,8 +44,12 @@ public class DiagnosticData {
 
 	private final eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData wrapped;
 
-	private List<SignatureWrapper> foundSignatures;
-	private List<CertificateWrapper> usedCertificates;
+	/*
+	 * Lazily built and only published once complete: the wrapper may be read by several threads (parallel execution
+	 * of the validation processes)
+	 */
+	private volatile List<SignatureWrapper> foundSignatures;
+	private volatile List<CertificateWrapper> usedCertificates;
 
 	public DiagnosticData(final eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData wrapped) {
 		this.wrapped = wrapped;
@@ -611,16 +615,18 @@ public class DiagnosticData {
 	 * @return a list of signature wrappers.
 	 */
 	public List<SignatureWrapper> getSignatures() {
-		if (foundSignatures == null) {
-			foundSignatures = new ArrayList<SignatureWrapper>();
+		List<SignatureWrapper> signatures = foundSignatures;
+		if (signatures == null) {
+			signatures = new ArrayList<SignatureWrapper>();
 			List<XmlSignature> xmlSignatures = wrapped.getSignatures();
 			if (Utils.isCollectionNotEmpty(xmlSignatures)) {
 				for (XmlSignature xmlSignature : xmlSignatures) {
-					foundSignatures.add(new SignatureWrapper(xmlSignature));
+					signatures.add(new SignatureWrapper(xmlSignature));
 				}
 			}
+			foundSignatures = signatures;
 		}
-		return foundSignatures;
+		return signatures;
 	}
 
 	/**
@@ -629,16 +635,18 @@ public class DiagnosticData {
 	 * @return a list of certificate wrappers
 	 */
 	public List<CertificateWrapper> getUsedCertificates() {
-		if (usedCertificates == null) {
-			usedCertificates = new ArrayList<CertificateWrapper>();
+		List<CertificateWrapper> certificates = usedCertificates;
+		if (certificates == null) {
+			certificates = new ArrayList<CertificateWrapper>();
 			List<XmlCertificate> xmlCertificates = wrapped.getUsedCertificates();
 			if (Utils.isCollectionNotEmpty(xmlCertificates)) {
 				for (XmlCertificate certificate : xmlCertificates) {
-					usedCertificates.add(new CertificateWrapper(certificate));
+					certificates.add(new CertificateWrapper(certificate));
 				}
 			}
+			usedCertificates = certificates;
 		}
-		return usedCertificates;
+		return certificates;
 	}
 
 	/**
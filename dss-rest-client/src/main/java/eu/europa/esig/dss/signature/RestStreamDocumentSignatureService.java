@@ -0,0 +1,95 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.InputStream;
+import java.io.Serializable;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.ToBeSigned;
+
+/**
+ * The streaming variant of the REST signature service : the document is sent in a multipart/form-data body (no base64
+ * encoding) and is spooled to a temporary file on the server. The signed document is returned as the binary body of
+ * the response.
+ * 
+ * The expected parts are :
+ * <ul>
+ * <li>toSignDocument : the document to be signed (the file name is the filename parameter of its
+ * Content-Disposition header)</li>
+ * <li>parameters : the {@code RemoteSignatureParameters} in JSON</li>
+ * <li>signatureValue : the {@code SignatureValue} in JSON (only for signDocument)</li>
+ * </ul>
+ * A client builds the multipart body with {@code MultipartFormDataWriter}.
+ */
+@Path("/")
+public interface RestStreamDocumentSignatureService extends Serializable {
+
+	String TO_SIGN_DOCUMENT_PART = "toSignDocument";
+
+	String PARAMETERS_PART = "parameters";
+
+	String SIGNATURE_VALUE_PART = "signatureValue";
+
+	/**
+	 * Retrieves the bytes of the data that need to be signed based on the toSignDocument and parameters.
+	 * 
+	 * @param contentType
+	 *            the Content-Type of the request (with the multipart boundary)
+	 * @param multipartBody
+	 *            the multipart/form-data body with the document and the parameters
+	 * @return the data to be signed
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	@POST
+	@Path("getDataToSign")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(MediaType.APPLICATION_JSON)
+	ToBeSigned getDataToSign(@HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, InputStream multipartBody) throws DSSException;
+
+	/**
+	 * Signs the toSignDocument with the provided signatureValue.
+	 * 
+	 * @param contentType
+	 *            the Content-Type of the request (with the multipart boundary)
+	 * @param multipartBody
+	 *            the multipart/form-data body with the document, the parameters and the signature value
+	 * @return the response with the signed document as body
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	@POST
+	@Path("signDocument")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(MediaType.APPLICATION_OCTET_STREAM)
+	Response signDocument(@HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, InputStream multipartBody) throws DSSException;
+
+}
@@ -0,0 +1,238 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Providers;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.MultipartFormDataReader;
+import eu.europa.esig.dss.RemoteDocumentSpool;
+import eu.europa.esig.dss.RemoteSignatureParameters;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+
+/**
+ * The JSON parts are read with the JSON provider of the JAX-RS runtime.
+ */
+@SuppressWarnings("serial")
+public class RestStreamDocumentSignatureServiceImpl implements RestStreamDocumentSignatureService {
+
+	/**
+	 * The characters which are not percent-encoded in the filename* parameter, besides ALPHA and DIGIT (RFC 5987)
+	 */
+	private static final String ATTR_CHARS = "!#$&+-.^_`|~";
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private RemoteDocumentSignatureServiceImpl service;
+
+	private File temporaryDirectory;
+
+	private int inMemoryThreshold = 1024 * 1024;
+
+	private long maxDocumentSize = RemoteDocumentSpool.DEFAULT_MAX_DOCUMENT_SIZE;
+
+	private long maxTotalSize = RemoteDocumentSpool.DEFAULT_MAX_TOTAL_SIZE;
+
+	@Context
+	private transient Providers providers;
+
+	public void setService(RemoteDocumentSignatureServiceImpl service) {
+		this.service = service;
+	}
+
+	/**
+	 * Sets the folder of the temporary files (default : java.io.tmpdir)
+	 * 
+	 * @param temporaryDirectory
+	 *            the folder of the temporary files
+	 */
+	public void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Sets the maximum size of a document kept in memory (default : 1 MB)
+	 * 
+	 * @param inMemoryThreshold
+	 *            the size in bytes
+	 */
+	public void setInMemoryThreshold(int inMemoryThreshold) {
+		this.inMemoryThreshold = inMemoryThreshold;
+	}
+
+	/**
+	 * Sets the maximum size of a document (default : 1 GB, -1 for no limit)
+	 * 
+	 * @param maxDocumentSize
+	 *            the size in bytes
+	 */
+	public void setMaxDocumentSize(long maxDocumentSize) {
+		this.maxDocumentSize = maxDocumentSize;
+	}
+
+	/**
+	 * Sets the maximum size of all the documents of a request (default : 4 GB, -1 for no limit)
+	 * 
+	 * @param maxTotalSize
+	 *            the size in bytes
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	@Override
+	public ToBeSigned getDataToSign(String contentType, InputStream multipartBody) {
+		try (RemoteDocumentSpool spool = createSpool()) {
+			MultipartRequest request = readRequest(spool, contentType, multipartBody);
+			return service.getDataToSign(request.toSignDocument, request.parameters);
+		}
+	}
+
+	@Override
+	public Response signDocument(String contentType, InputStream multipartBody) {
+		final DSSDocument signedDocument;
+		try (RemoteDocumentSpool spool = createSpool()) {
+			MultipartRequest request = readRequest(spool, contentType, multipartBody);
+			if (request.signatureValue == null) {
+				throw new DSSException("The part '" + SIGNATURE_VALUE_PART + "' is missing");
+			}
+			signedDocument = service.signDocument(request.toSignDocument, request.parameters, request.signatureValue);
+		}
+
+		StreamingOutput output = new StreamingOutput() {
+
+			@Override
+			public void write(OutputStream os) throws IOException {
+				signedDocument.writeTo(os);
+			}
+
+		};
+		MimeType mimeType = signedDocument.getMimeType() != null ? signedDocument.getMimeType() : MimeType.BINARY;
+		return Response.ok(output, mimeType.getMimeTypeString())
+				.header(HttpHeaders.CONTENT_DISPOSITION, getContentDisposition(signedDocument.getName())).build();
+	}
+
+	/**
+	 * Builds the Content-Disposition header of the signed document (RFC 6266). The name comes from the client : it is
+	 * only written as an ASCII fallback without quotes, backslashes and control characters, and as a percent-encoded
+	 * UTF-8 filename* parameter (RFC 5987).
+	 * 
+	 * @param fileName
+	 *            the name of the signed document (can be null)
+	 * @return the value of the Content-Disposition header
+	 */
+	static String getContentDisposition(String fileName) {
+		if (fileName == null || fileName.isEmpty()) {
+			return "attachment";
+		}
+		final StringBuilder fallback = new StringBuilder();
+		for (int i = 0; i < fileName.length(); i++) {
+			char c = fileName.charAt(i);
+			fallback.append(c < 0x20 || c > 0x7E || c == '"' || c == '\\' ? '_' : c);
+		}
+		final StringBuilder encoded = new StringBuilder();
+		for (byte b : fileName.getBytes(StandardCharsets.UTF_8)) {
+			int c = b & 0xFF;
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || ATTR_CHARS.indexOf(c) != -1) {
+				encoded.append((char) c);
+			} else {
+				encoded.append('%').append(HEX[c >> 4]).append(HEX[c & 0x0F]);
+			}
+		}
+		return "attachment; filename=\"" + fallback + "\"; filename*=UTF-8''" + encoded;
+	}
+
+	private RemoteDocumentSpool createSpool() {
+		RemoteDocumentSpool spool = new RemoteDocumentSpool(temporaryDirectory, inMemoryThreshold);
+		spool.setMaxDocumentSize(maxDocumentSize);
+		spool.setMaxTotalSize(maxTotalSize);
+		return spool;
+	}
+
+	private MultipartRequest readRequest(RemoteDocumentSpool spool, String contentType, InputStream multipartBody) {
+		MultipartRequest request = new MultipartRequest();
+		try {
+			MultipartFormDataReader reader = new MultipartFormDataReader(contentType, multipartBody);
+			MultipartFormDataReader.Part part;
+			while ((part = reader.nextPart()) != null) {
+				if (TO_SIGN_DOCUMENT_PART.equals(part.getName())) {
+					request.toSignDocument = spool.spool(part.getInputStream(), part.getFileName(), part.getMimeType());
+				} else if (PARAMETERS_PART.equals(part.getName())) {
+					request.parameters = readJson(RemoteSignatureParameters.class, getInputStream(part));
+				} else if (SIGNATURE_VALUE_PART.equals(part.getName())) {
+					request.signatureValue = readJson(SignatureValue.class, getInputStream(part));
+				}
+			}
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the multipart body", e);
+		}
+		if (request.toSignDocument == null) {
+			throw new DSSException("The part '" + TO_SIGN_DOCUMENT_PART + "' is missing");
+		}
+		if (request.parameters == null) {
+			throw new DSSException("The part '" + PARAMETERS_PART + "' is missing");
+		}
+		return request;
+	}
+
+	/**
+	 * The JSON parts are loaded in memory : they are limited to the maximum size of a document
+	 */
+	private InputStream getInputStream(MultipartFormDataReader.Part part) {
+		return maxDocumentSize < 0 ? part.getInputStream() : part.getInputStream(maxDocumentSize);
+	}
+
+	private <T> T readJson(Class<T> clazz, InputStream inputStream) throws IOException {
+		MessageBodyReader<T> reader = providers.getMessageBodyReader(clazz, clazz, new Annotation[0], MediaType.APPLICATION_JSON_TYPE);
+		if (reader == null) {
+			throw new DSSException("No JSON provider for " + clazz.getSimpleName());
+		}
+		return reader.readFrom(clazz, clazz, new Annotation[0], MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<String, String>(), inputStream);
+	}
+
+	private static class MultipartRequest {
+
+		private DSSDocument toSignDocument;
+
+		private RemoteSignatureParameters parameters;
+
+		private SignatureValue signatureValue;
+
+	}
+
+}
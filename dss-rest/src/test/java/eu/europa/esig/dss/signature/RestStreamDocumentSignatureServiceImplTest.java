@@ -0,0 +1,40 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RestStreamDocumentSignatureServiceImplTest {
+
+	@Test
+	public void contentDisposition() {
+		assertEquals("attachment", RestStreamDocumentSignatureServiceImpl.getContentDisposition(null));
+		assertEquals("attachment; filename=\"signed.xml\"; filename*=UTF-8''signed.xml",
+				RestStreamDocumentSignatureServiceImpl.getContentDisposition("signed.xml"));
+		assertEquals("attachment; filename=\"a_ b_.pdf__Set-Cookie: x\"; filename*=UTF-8''a%22%20b%5C.pdf%0D%0ASet-Cookie%3A%20x",
+				RestStreamDocumentSignatureServiceImpl.getContentDisposition("a\" b\\.pdf\r\nSet-Cookie: x"));
+		assertEquals("attachment; filename=\"_ila_ai.xml\"; filename*=UTF-8''%C5%A0ila%C4%97ai.xml",
+				RestStreamDocumentSignatureServiceImpl.getContentDisposition("Šilaėai.xml"));
+	}
+
+}
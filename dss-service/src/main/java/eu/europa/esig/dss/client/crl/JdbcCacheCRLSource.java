@@ -41,11 +41,16 @@ import eu.europa.esig.dss.SignatureAlgorithm;
 import eu.europa.esig.dss.crl.CRLValidity;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.CompactTokenSerializer;
 import eu.europa.esig.dss.x509.crl.CRLSource;
 import eu.europa.esig.dss.x509.crl.CRLToken;
 
 /**
  * CRLSource that retrieve information from a JDBC datasource
+ * 
+ * The ISSUER column contains the issuer certificate in the {@link CompactTokenSerializer} format. The rows which
+ * contain the DER encoded certificate (written by the previous versions) are still read, but the previous versions
+ * cannot read the new rows : the nodes sharing the same table must be upgraded together.
  */
 public class JdbcCacheCRLSource implements CRLSource {
 
@@ -247,7 +252,7 @@ public class JdbcCacheCRLSource implements CRLSource {
 				cached.setThisUpdate(rs.getTimestamp(SQL_FIND_QUERY_THIS_UPDATE));
 				cached.setNextUpdate(rs.getTimestamp(SQL_FIND_QUERY_NEXT_UPDATE));
 				cached.setExpiredCertsOnCRL(rs.getTimestamp(SQL_FIND_QUERY_EXPIRED_CERTS_ON_CRL));
-				cached.setIssuerToken(DSSUtils.loadCertificate(rs.getBytes(SQL_FIND_QUERY_ISSUER)));
+				cached.setIssuerToken(loadIssuer(rs.getBytes(SQL_FIND_QUERY_ISSUER)));
 				cached.setCrlSignKeyUsage(rs.getBoolean(SQL_FIND_QUERY_CRL_SIGN_KEY_USAGE));
 				cached.setUnknownCriticalExtension(rs.getBoolean(SQL_FIND_QUERY_UNKNOWN_CRITICAL_EXTENSION));
 				cached.setIssuerX509PrincipalMatches(rs.getBoolean(SQL_FIND_QUERY_ISSUER_PRINCIPAL_MATCH));
@@ -266,6 +271,17 @@ public class JdbcCacheCRLSource implements CRLSource {
 		return null;
 	}
 
+	/**
+	 * The issuer is stored with its precomputed values (see {@link CompactTokenSerializer}), so it is not parsed
+	 * again. The rows written by the previous versions contain the DER encoded certificate.
+	 */
+	private CertificateToken loadIssuer(byte[] binaries) {
+		if (CompactTokenSerializer.isCompactRecord(binaries)) {
+			return CompactTokenSerializer.deserializeCertificate(binaries);
+		}
+		return DSSUtils.loadCertificate(binaries);
+	}
+
 	/**
 	 * Insert a new CRL into the cache
 	 *
@@ -306,7 +322,7 @@ public class JdbcCacheCRLSource implements CRLSource {
 				s.setNull(6, Types.TIMESTAMP);
 			}
 
-			s.setBytes(7, token.getIssuerToken().getEncoded());
+			s.setBytes(7, CompactTokenSerializer.serialize(token.getIssuerToken()));
 			s.setBoolean(8, token.isIssuerX509PrincipalMatches());
 			s.setBoolean(9, token.isSignatureIntact());
 			s.setBoolean(10, token.isCrlSignKeyUsage());
@@ -359,7 +375,7 @@ public class JdbcCacheCRLSource implements CRLSource {
 				s.setNull(5, Types.TIMESTAMP);
 			}
 
-			s.setBytes(6, token.getIssuerToken().getEncoded());
+			s.setBytes(6, CompactTokenSerializer.serialize(token.getIssuerToken()));
 			s.setBoolean(7, token.isIssuerX509PrincipalMatches());
 			s.setBoolean(8, token.isSignatureIntact());
 			s.setBoolean(9, token.isCrlSignKeyUsage());
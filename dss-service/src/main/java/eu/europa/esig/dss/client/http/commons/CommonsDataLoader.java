@@ -90,6 +90,7 @@ import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.client.http.Protocol;
 import eu.europa.esig.dss.client.http.proxy.ProxyConfig;
 import eu.europa.esig.dss.client.http.proxy.ProxyProperties;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
 import eu.europa.esig.dss.utils.Utils;
 
 /**
@@ -398,7 +399,17 @@ public class CommonsDataLoader implements DataLoader {
 
 	@Override
 	public byte[] get(final String urlString) {
+		final long start = System.nanoTime();
+		byte[] bytes = null;
+		try {
+			bytes = getByProtocol(urlString);
+			return bytes;
+		} finally {
+			ValidationMetrics.fetchCompleted(urlString, bytes, start);
+		}
+	}
 
+	private byte[] getByProtocol(final String urlString) {
 		if (Protocol.isFileUrl(urlString)) {
 			return fileGet(urlString);
 		} else if (Protocol.isHttpUrl(urlString)) {
@@ -571,6 +582,8 @@ public class CommonsDataLoader implements DataLoader {
 
 		LOG.debug("Fetching data via POST from url {}", url);
 
+		final long start = System.nanoTime();
+		byte[] response = null;
 		HttpPost httpRequest = null;
 		CloseableHttpResponse httpResponse = null;
 		CloseableHttpClient client = null;
@@ -596,10 +609,12 @@ public class CommonsDataLoader implements DataLoader {
 			client = getHttpClient(url);
 			httpResponse = getHttpResponse(client, httpRequest);
 
-			return readHttpResponse(httpResponse);
+			response = readHttpResponse(httpResponse);
+			return response;
 		} catch (IOException e) {
 			throw new DSSException("Unable to process POST call for url '" + url + "'", e);
 		} finally {
+			ValidationMetrics.fetchCompleted(url, response, start);
 			try {
 				if (httpRequest != null) {
 					httpRequest.releaseConnection();
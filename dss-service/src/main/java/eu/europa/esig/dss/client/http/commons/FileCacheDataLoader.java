@@ -33,6 +33,7 @@ import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.client.http.Protocol;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
 import eu.europa.esig.dss.utils.Utils;
 
 /**
@@ -44,6 +45,8 @@ public class FileCacheDataLoader extends CommonsDataLoader implements DataLoader
 
 	private static final Logger LOG = LoggerFactory.getLogger(FileCacheDataLoader.class);
 
+	public static final String CACHE_NAME = "file-cache";
+
 	private File fileCacheDirectory = new File(System.getProperty("java.io.tmpdir"));
 
 	private ResourceLoader resourceLoader = new ResourceLoader();
@@ -150,7 +153,9 @@ public class FileCacheDataLoader extends CommonsDataLoader implements DataLoader
 		final File file = getCacheFile(fileName);
 		final boolean fileExists = file.exists();
 		final boolean isCacheExpired = isCacheExpired(file);
-		if (fileExists && !refresh && !isCacheExpired) {
+		final boolean cacheHit = fileExists && !refresh && !isCacheExpired;
+		ValidationMetrics.current().recordCacheAccess(CACHE_NAME, cacheHit);
+		if (cacheHit) {
 
 			LOG.debug("Cached file was used");
 			final byte[] bytes = DSSUtils.toByteArray(file);
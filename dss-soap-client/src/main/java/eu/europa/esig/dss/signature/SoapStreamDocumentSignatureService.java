@@ -0,0 +1,67 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.Serializable;
+
+import javax.jws.WebParam;
+import javax.jws.WebResult;
+import javax.jws.WebService;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.RemoteStreamDocument;
+import eu.europa.esig.dss.ToBeSigned;
+
+/**
+ * The streaming variant of the signature web service : the documents are transferred as MTOM attachments and are
+ * spooled to temporary files on the server. The client has to enable MTOM (eg: with
+ * {@code javax.xml.ws.soap.MTOMFeature}) to avoid the base64 encoding of the documents. A {@code DSSDocument} is
+ * sent without being loaded in memory with {@code new RemoteStreamDocument(document)}.
+ */
+@WebService
+public interface SoapStreamDocumentSignatureService extends Serializable {
+
+	/**
+	 * This method computes the digest to be signed
+	 *
+	 * @param dataToSign
+	 *            a DTO which contains the document to sign and parameters
+	 * @return the data to be signed
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	@WebResult(name = "response")
+	ToBeSigned getDataToSign(@WebParam(name = "streamDataToSignDTO") StreamDataToSignOneDocumentDTO dataToSign) throws DSSException;
+
+	/**
+	 * This web service operation signs a document according to a previously signed digest, a level of signature, some
+	 * signature properties and keyInfo.
+	 *
+	 * @param signDocument
+	 *            a DTO which contains the document to be signed, the parameters and the signature value
+	 * @return the signed document (MTOM attachment)
+	 * @throws DSSException
+	 *             if an error occurred
+	 */
+	@WebResult(name = "response")
+	RemoteStreamDocument signDocument(@WebParam(name = "streamSignDocumentDTO") StreamSignOneDocumentDTO signDocument) throws DSSException;
+
+}
@@ -0,0 +1,112 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.File;
+
+import javax.xml.ws.soap.MTOM;
+
+import eu.europa.esig.dss.RemoteConverter;
+import eu.europa.esig.dss.RemoteDocumentSpool;
+import eu.europa.esig.dss.RemoteStreamDocument;
+import eu.europa.esig.dss.ToBeSigned;
+
+@MTOM
+@SuppressWarnings("serial")
+public class SoapStreamDocumentSignatureServiceImpl implements SoapStreamDocumentSignatureService {
+
+	private RemoteDocumentSignatureServiceImpl service;
+
+	private File temporaryDirectory;
+
+	private int inMemoryThreshold = 1024 * 1024;
+
+	private long maxDocumentSize = RemoteDocumentSpool.DEFAULT_MAX_DOCUMENT_SIZE;
+
+	private long maxTotalSize = RemoteDocumentSpool.DEFAULT_MAX_TOTAL_SIZE;
+
+	public void setService(RemoteDocumentSignatureServiceImpl service) {
+		this.service = service;
+	}
+
+	/**
+	 * Sets the folder of the temporary files (default : java.io.tmpdir)
+	 * 
+	 * @param temporaryDirectory
+	 *            the folder of the temporary files
+	 */
+	public void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Sets the maximum size of a document kept in memory (default : 1 MB)
+	 * 
+	 * @param inMemoryThreshold
+	 *            the size in bytes
+	 */
+	public void setInMemoryThreshold(int inMemoryThreshold) {
+		this.inMemoryThreshold = inMemoryThreshold;
+	}
+
+	/**
+	 * Sets the maximum size of a document (default : 1 GB, -1 for no limit)
+	 * 
+	 * @param maxDocumentSize
+	 *            the size in bytes
+	 */
+	public void setMaxDocumentSize(long maxDocumentSize) {
+		this.maxDocumentSize = maxDocumentSize;
+	}
+
+	/**
+	 * Sets the maximum size of all the documents of a request (default : 4 GB, -1 for no limit)
+	 * 
+	 * @param maxTotalSize
+	 *            the size in bytes
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	@Override
+	public ToBeSigned getDataToSign(StreamDataToSignOneDocumentDTO dataToSignDto) {
+		try (RemoteDocumentSpool spool = createSpool()) {
+			return service.getDataToSign(spool.spool(dataToSignDto.getToSignDocument()), dataToSignDto.getParameters());
+		}
+	}
+
+	@Override
+	public RemoteStreamDocument signDocument(StreamSignOneDocumentDTO signDocumentDto) {
+		try (RemoteDocumentSpool spool = createSpool()) {
+			return RemoteConverter.toRemoteStreamDocument(
+					service.signDocument(spool.spool(signDocumentDto.getToSignDocument()), signDocumentDto.getParameters(), signDocumentDto.getSignatureValue()));
+		}
+	}
+
+	private RemoteDocumentSpool createSpool() {
+		RemoteDocumentSpool spool = new RemoteDocumentSpool(temporaryDirectory, inMemoryThreshold);
+		spool.setMaxDocumentSize(maxDocumentSize);
+		spool.setMaxTotalSize(maxTotalSize);
+		return spool;
+	}
+
+}
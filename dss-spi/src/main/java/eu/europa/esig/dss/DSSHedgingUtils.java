@@ -0,0 +1,112 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility class to execute equivalent calls (several servers for the same resource) without waiting for a dead or
+ * slow server.
+ */
+public final class DSSHedgingUtils {
+
+	private DSSHedgingUtils() {
+	}
+
+	/**
+	 * Executes the calls in the preferred order : the first call is submitted, the next one is submitted in parallel
+	 * after the hedge delay (or immediately if the previous call completed without result). The first non null result
+	 * is returned and the other calls are cancelled. A call which throws an exception is considered as completed
+	 * without result.
+	 * 
+	 * @param <T>
+	 *            the type of the result
+	 * @param executorService
+	 *            the executor service which runs the calls
+	 * @param calls
+	 *            the calls in the preferred order
+	 * @param hedgeDelay
+	 *            the delay in milliseconds before the submission of the next call
+	 * @param timeout
+	 *            the maximum time in milliseconds to obtain a result, all calls included (no limit if 0 or negative)
+	 * @return the first non null result or null (no result from all the calls or timeout reached)
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+	public static <T> T invokeFirst(final ExecutorService executorService, final List<? extends Callable<T>> calls, final long hedgeDelay,
+			final long timeout) throws InterruptedException {
+		if (calls.isEmpty()) {
+			return null;
+		}
+
+		final CompletionService<T> completionService = new ExecutorCompletionService<T>(executorService);
+		final List<Future<T>> futures = new ArrayList<Future<T>>();
+		final long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+
+		try {
+			futures.add(completionService.submit(calls.get(0)));
+			int pending = 1;
+			while (pending > 0 || futures.size() < calls.size()) {
+				long remainingTime = deadline - System.currentTimeMillis();
+				if (remainingTime <= 0) {
+					break;
+				}
+
+				boolean nextAvailable = futures.size() < calls.size();
+				Future<T> done = completionService.poll(nextAvailable ? Math.min(hedgeDelay, remainingTime) : remainingTime, TimeUnit.MILLISECONDS);
+				if (done != null) {
+					pending--;
+					T result = getResult(done);
+					if (result != null) {
+						return result;
+					}
+				}
+				if (nextAvailable) {
+					futures.add(completionService.submit(calls.get(futures.size())));
+					pending++;
+				}
+			}
+		} finally {
+			for (Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return null;
+	}
+
+	private static <T> T getResult(Future<T> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			// logged by the call
+			return null;
+		}
+	}
+
+}
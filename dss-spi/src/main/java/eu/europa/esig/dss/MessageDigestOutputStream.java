@@ -0,0 +1,76 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * This {@code OutputStream} computes the digest of the written data without keeping it in memory. It allows to use
+ * the methods which write the data to be signed / timestamped in a streaming way.
+ */
+public class MessageDigestOutputStream extends OutputStream {
+
+	private final MessageDigest messageDigest;
+
+	private long count = 0;
+
+	/**
+	 * The default constructor for MessageDigestOutputStream.
+	 * 
+	 * @param digestAlgorithm
+	 *            the digest algorithm to use
+	 */
+	public MessageDigestOutputStream(final DigestAlgorithm digestAlgorithm) {
+		this.messageDigest = DSSUtils.getMessageDigest(digestAlgorithm);
+	}
+
+	@Override
+	public void write(int b) {
+		messageDigest.update((byte) b);
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		messageDigest.update(b, off, len);
+		count += len;
+	}
+
+	/**
+	 * Returns the number of written bytes
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Completes the digest computation (the stream must not be used after this call)
+	 * 
+	 * @return the digest value of the written data
+	 */
+	public byte[] getDigestValue() {
+		return messageDigest.digest();
+	}
+
+}
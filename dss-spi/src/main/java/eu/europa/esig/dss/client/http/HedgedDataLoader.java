@@ -0,0 +1,264 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSHedgingUtils;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * DataLoader which downloads a resource available at several urls (CRL distribution points, AIA,...) without waiting
+ * for a dead or slow server : the urls are called with {@link DSSHedgingUtils#invokeFirst}, the first downloaded
+ * data wins.
+ * 
+ * The latency and the failures are recorded per host. For the next calls, the hosts which failed last time are tried
+ * after the others, then the fastest hosts are tried first. The hosts without statistics keep the given order after
+ * the hosts known to be available.
+ * 
+ * The calls with a single url are delegated to the wrapped DataLoader.
+ */
+public class HedgedDataLoader implements DataLoader {
+
+	private static final long serialVersionUID = -1870931585014356482L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(HedgedDataLoader.class);
+
+	private static final int DEFAULT_NB_THREADS = 10;
+
+	private static final long DEFAULT_HEDGE_DELAY = 1000; // 1 second
+
+	private final DataLoader dataLoader;
+
+	private final ConcurrentMap<String, HostStatistics> statistics = new ConcurrentHashMap<String, HostStatistics>();
+
+	private transient ExecutorService executorService;
+
+	private long hedgeDelay = DEFAULT_HEDGE_DELAY;
+
+	/**
+	 * The default constructor for HedgedDataLoader.
+	 * 
+	 * @param dataLoader
+	 *            the DataLoader used to download each url
+	 */
+	public HedgedDataLoader(DataLoader dataLoader) {
+		this.dataLoader = dataLoader;
+	}
+
+	/**
+	 * This method allows to set the executor service to be used. By default, a thread pool with 10 threads is created.
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * This method allows to define the delay before calling the next url when the previous one has not answered yet
+	 * (default : 1 second)
+	 * 
+	 * @param hedgeDelay
+	 *            the delay in milliseconds
+	 */
+	public void setHedgeDelay(long hedgeDelay) {
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	/**
+	 * Returns the recorded statistics (one entry per host)
+	 * 
+	 * @return an unmodifiable collection of {@code HostStatistics}
+	 */
+	public Collection<HostStatistics> getStatistics() {
+		return Collections.unmodifiableCollection(statistics.values());
+	}
+
+	@Override
+	public byte[] get(String url) {
+		return dataLoader.get(url);
+	}
+
+	@Override
+	public byte[] get(String url, boolean refresh) {
+		return dataLoader.get(url, refresh);
+	}
+
+	@Override
+	public DataAndUrl get(final List<String> urlStrings) {
+		if (Utils.isCollectionEmpty(urlStrings)) {
+			throw new DSSException("No url to obtain data");
+		}
+
+		final List<Callable<DataAndUrl>> calls = new ArrayList<Callable<DataAndUrl>>();
+		for (String url : getOrderedUrls(urlStrings)) {
+			calls.add(ValidationMetrics.propagate(getCall(url)));
+		}
+
+		try {
+			DataAndUrl dataAndUrl = DSSHedgingUtils.invokeFirst(getExecutorService(), calls, hedgeDelay, 0);
+			if (dataAndUrl != null) {
+				return dataAndUrl;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for the data", e);
+		}
+		throw new DSSException(String.format("Impossible to obtain data using with given urls %s", urlStrings));
+	}
+
+	private Callable<DataAndUrl> getCall(final String url) {
+		return new Callable<DataAndUrl>() {
+
+			@Override
+			public DataAndUrl call() throws Exception {
+				LOG.debug("Trying to obtain data using {}", url);
+				final HostStatistics hostStatistics = getHostStatistics(url);
+				final long start = System.currentTimeMillis();
+				try {
+					final byte[] data = dataLoader.get(url);
+					if (Utils.isArrayNotEmpty(data)) {
+						hostStatistics.recordSuccess(System.currentTimeMillis() - start);
+						return new DataAndUrl(data, url);
+					}
+					LOG.warn("No data obtained using {}", url);
+				} catch (Exception e) {
+					if (Thread.currentThread().isInterrupted()) {
+						// cancelled because another url answered
+						throw e;
+					}
+					LOG.warn("Impossible to obtain data using {} : {}", url, e.getMessage());
+				}
+				hostStatistics.recordFailure();
+				return null;
+			}
+
+		};
+	}
+
+	/**
+	 * Sorts the urls according to the statistics of their host (the sort is stable). The statistics are read once
+	 * before sorting because they can be updated by the running calls.
+	 */
+	private List<String> getOrderedUrls(final List<String> urlStrings) {
+		final Map<String, long[]> ranks = new HashMap<String, long[]>();
+		for (String url : urlStrings) {
+			HostStatistics hostStatistics = statistics.get(getHost(url));
+			long consecutiveFailures = hostStatistics == null ? 0 : hostStatistics.getConsecutiveFailures();
+			long latency = hostStatistics == null ? -1 : hostStatistics.getAverageLatency();
+			// unknown latency after the known ones
+			ranks.put(url, new long[] { consecutiveFailures, latency < 0 ? Long.MAX_VALUE : latency });
+		}
+
+		final List<String> orderedUrls = new ArrayList<String>(urlStrings);
+		Collections.sort(orderedUrls, new Comparator<String>() {
+
+			@Override
+			public int compare(String url1, String url2) {
+				long[] rank1 = ranks.get(url1);
+				long[] rank2 = ranks.get(url2);
+				int result = Long.compare(rank1[0], rank2[0]);
+				if (result == 0) {
+					result = Long.compare(rank1[1], rank2[1]);
+				}
+				return result;
+			}
+
+		});
+		return orderedUrls;
+	}
+
+	private HostStatistics getHostStatistics(String url) {
+		final String host = getHost(url);
+		HostStatistics hostStatistics = statistics.get(host);
+		if (hostStatistics == null) {
+			hostStatistics = new HostStatistics(host);
+			HostStatistics previous = statistics.putIfAbsent(host, hostStatistics);
+			if (previous != null) {
+				hostStatistics = previous;
+			}
+		}
+		return hostStatistics;
+	}
+
+	/**
+	 * Extracts the host of the url (without using java.net.URL which does not support the ldap protocol)
+	 */
+	static String getHost(String url) {
+		String host = url;
+		int schemeIndex = host.indexOf("://");
+		if (schemeIndex >= 0) {
+			host = host.substring(schemeIndex + 3);
+		}
+		for (char separator : new char[] { '/', '?', '#' }) {
+			int index = host.indexOf(separator);
+			if (index >= 0) {
+				host = host.substring(0, index);
+			}
+		}
+		int userInfoIndex = host.lastIndexOf('@');
+		if (userInfoIndex >= 0) {
+			host = host.substring(userInfoIndex + 1);
+		}
+		return host.toLowerCase();
+	}
+
+	@Override
+	public byte[] post(String url, byte[] content) {
+		return dataLoader.post(url, content);
+	}
+
+	@Override
+	public void setContentType(String contentType) {
+		dataLoader.setContentType(contentType);
+	}
+
+	private synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(DEFAULT_NB_THREADS, DEFAULT_NB_THREADS, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>());
+			threadPool.allowCoreThreadTimeOut(true);
+			executorService = threadPool;
+		}
+		return executorService;
+	}
+
+}
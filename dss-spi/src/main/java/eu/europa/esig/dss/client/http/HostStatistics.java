@@ -0,0 +1,117 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+import java.io.Serializable;
+
+/**
+ * Latency and failure statistics of the calls to a host. They are used by {@code HedgedDataLoader} to order the urls.
+ */
+public class HostStatistics implements Serializable {
+
+	private static final long serialVersionUID = -6395012466185006294L;
+
+	/**
+	 * Weight of the last call in the average latency
+	 */
+	private static final double SMOOTHING_FACTOR = 0.3;
+
+	private final String host;
+
+	private long successCount;
+
+	private long failureCount;
+
+	private int consecutiveFailures;
+
+	private double averageLatency = -1;
+
+	/**
+	 * The default constructor for HostStatistics.
+	 * 
+	 * @param host
+	 *            the host name
+	 */
+	public HostStatistics(String host) {
+		this.host = host;
+	}
+
+	/**
+	 * Records a successful call
+	 * 
+	 * @param latency
+	 *            the duration of the call in milliseconds
+	 */
+	public synchronized void recordSuccess(long latency) {
+		successCount++;
+		consecutiveFailures = 0;
+		if (averageLatency < 0) {
+			averageLatency = latency;
+		} else {
+			averageLatency = SMOOTHING_FACTOR * latency + (1 - SMOOTHING_FACTOR) * averageLatency;
+		}
+	}
+
+	/**
+	 * Records a failed call (error or empty response)
+	 */
+	public synchronized void recordFailure() {
+		failureCount++;
+		consecutiveFailures++;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public synchronized long getSuccessCount() {
+		return successCount;
+	}
+
+	public synchronized long getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * Returns the number of failures since the last successful call
+	 * 
+	 * @return the number of consecutive failures
+	 */
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	/**
+	 * Returns the smoothed latency of the successful calls
+	 * 
+	 * @return the average latency in milliseconds or -1 if no call succeeded
+	 */
+	public synchronized long getAverageLatency() {
+		return Math.round(averageLatency);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "HostStatistics [host=" + host + ", successCount=" + successCount + ", failureCount=" + failureCount + ", consecutiveFailures="
+				+ consecutiveFailures + ", averageLatency=" + getAverageLatency() + "]";
+	}
+
+}
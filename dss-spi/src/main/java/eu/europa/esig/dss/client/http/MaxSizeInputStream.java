@@ -37,7 +37,7 @@ public class MaxSizeInputStream extends InputStream {
 	private String url;
 
 	/**
-	 * The default constructor for NativeHTTPDataLoader.MaxSizeInputStream.
+	 * The default constructor for MaxSizeInputStream.
 	 * 
 	 * @param wrappedStream
 	 *            the wrapped stream
@@ -63,4 +63,26 @@ public class MaxSizeInputStream extends InputStream {
 		return wrappedStream.read();
 	}
 
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int nbRead = wrappedStream.read(b, off, len);
+		if (maxSize != 0 && nbRead > 0) {
+			count += nbRead;
+			if (count > maxSize) {
+				throw new IOException("Cannot fetch data limit=" + maxSize + ", url =" + url);
+			}
+		}
+		return nbRead;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return wrappedStream.available();
+	}
+
+	@Override
+	public void close() throws IOException {
+		wrappedStream.close();
+	}
+
 }
@@ -23,25 +23,31 @@ package eu.europa.esig.dss.client.http;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.concurrent.Callable;
 
 import eu.europa.esig.dss.DSSException;
-import eu.europa.esig.dss.client.http.MaxSizeInputStream;
 import eu.europa.esig.dss.utils.Utils;
 
 public class NativeDataLoaderCall implements Callable<byte[]> {
 
 	private static final String ERROR_MESSAGE = "An error occured while reading from url '%s' : %s";
-	
+
+	private static final String CONTENT_TYPE = "Content-Type";
+
 	private String url;
 	private byte[] content;
 	private long maxInputSize;
 
 	private boolean useCaches;
 
+	private int connectTimeout;
+	private int readTimeout;
+	private String contentType;
+
 	public NativeDataLoaderCall(String url, byte[] content, boolean useCaches, long maxInputSize) {
 		super();
 		this.url = url;
@@ -49,24 +55,39 @@ public class NativeDataLoaderCall implements Callable<byte[]> {
 		this.useCaches = useCaches;
 		this.maxInputSize = maxInputSize;
 	}
-	
+
 	public byte[] call() {
 		OutputStream out = null;
 		InputStream inputStream = null;
+		URLConnection connection = null;
 		byte[] result = null;
 		try {
-			URLConnection connection = createConnection();
+			connection = createConnection();
 
 			connection.setUseCaches(useCaches);
 			connection.setDoInput(true);
+			connection.setConnectTimeout(connectTimeout);
+			connection.setReadTimeout(readTimeout);
 			if (content != null) {
 				connection.setDoOutput(true);
+				if (contentType != null) {
+					connection.setRequestProperty(CONTENT_TYPE, contentType);
+				}
 				out = connection.getOutputStream();
 				Utils.write(content, out);
 			}
 			inputStream = connection.getInputStream();
-			result = Utils.toByteArray(maxInputSize > 0? new MaxSizeInputStream(inputStream, maxInputSize, url): inputStream);
+			if (maxInputSize > 0) {
+				// fails before the download when the announced size is already too big
+				long contentLength = connection.getContentLengthLong();
+				if (contentLength > maxInputSize) {
+					throw new IOException("Cannot fetch data limit=" + maxInputSize + ", url =" + url + " (content length=" + contentLength + ")");
+				}
+				inputStream = new MaxSizeInputStream(inputStream, maxInputSize, url);
+			}
+			result = Utils.toByteArray(inputStream);
 		} catch (IOException e) {
+			consumeErrorStream(connection);
 			throw new DSSException(String.format(ERROR_MESSAGE, url, e.getMessage()), e);
 		} finally {
 			Utils.closeQuietly(out);
@@ -75,6 +96,25 @@ public class NativeDataLoaderCall implements Callable<byte[]> {
 		return result;
 	}
 
+	/**
+	 * The error stream of a HTTP connection needs to be read and closed to allow the reuse of the connection
+	 * (keep-alive)
+	 */
+	private void consumeErrorStream(URLConnection connection) {
+		if (connection instanceof HttpURLConnection) {
+			InputStream errorStream = ((HttpURLConnection) connection).getErrorStream();
+			if (errorStream != null) {
+				try {
+					Utils.toByteArray(maxInputSize > 0 ? new MaxSizeInputStream(errorStream, maxInputSize, url) : errorStream);
+				} catch (IOException e) {
+					// the connection will not be reused
+				} finally {
+					Utils.closeQuietly(errorStream);
+				}
+			}
+		}
+	}
+
 	protected URLConnection createConnection() throws MalformedURLException, IOException {
 		return new URL(url).openConnection();
 	}
@@ -94,4 +134,47 @@ public class NativeDataLoaderCall implements Callable<byte[]> {
 	public boolean isUseCaches() {
 		return useCaches;
 	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Sets the connect timeout of the connection (0 = infinite)
+	 * 
+	 * @param connectTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Sets the read timeout of the connection (0 = infinite)
+	 * 
+	 * @param readTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * Sets the Content-Type of the posted content
+	 * 
+	 * @param contentType
+	 *            the content type (eg : application/ocsp-request)
+	 */
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
 }
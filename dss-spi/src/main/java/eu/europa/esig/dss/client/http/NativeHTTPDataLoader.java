@@ -23,28 +23,49 @@ package eu.europa.esig.dss.client.http;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
 
 /**
  * Implementation of native java DataLoader using the java.net.URL class.
- *
+ * 
+ * The HTTP connections are reused (keep-alive of {@code HttpURLConnection}) when the response is fully read. The
+ * connect and read timeouts are applied on the connection. The global timeout (send and retrieve data) is enforced
+ * with an executor shared by all the instances (unless a dedicated one is provided) : no thread is created per call.
+ * Without global timeout, the call is executed in the calling thread.
+ * 
+ * A blocking I/O cannot be interrupted : when the connect or the read timeout is not set, the global timeout is used
+ * instead, so that a hung server does not hold a thread of the executor forever. The queue of the shared executor is
+ * bounded : a call is rejected with a {@code DSSException} when all the threads are busy and the queue is full.
  */
 public class NativeHTTPDataLoader implements DataLoader {
 
+	private static final long serialVersionUID = 4125087297587402347L;
+
 	public enum HttpMethod {
 		GET, POST
 	}
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(NativeHTTPDataLoader.class);
 
+	private static final int SHARED_EXECUTOR_NB_THREADS = 20;
+
+	private static final int SHARED_EXECUTOR_QUEUE_SIZE = 1000;
+
+	private static ExecutorService sharedExecutorService;
+
 	private long maxInputSize;
 
 	/**
@@ -52,22 +73,75 @@ public class NativeHTTPDataLoader implements DataLoader {
 	 */
 	private long timeout = 0;
 
+	private int connectTimeout = 0;
+
+	private int readTimeout = 0;
+
+	private String contentType;
+
+	private transient ExecutorService executorService;
+
 	protected byte[] request(String url, HttpMethod method, byte[] content, boolean refresh) {
-		NativeDataLoaderCall task = new NativeDataLoaderCall(url, content, refresh, maxInputSize);
+		final long start = System.nanoTime();
+		byte[] response = null;
+		try {
+			response = execute(createCall(url, content, refresh));
+			return response;
+		} finally {
+			ValidationMetrics.fetchCompleted(url, response, start);
+		}
+	}
 
-		ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private byte[] execute(NativeDataLoaderCall task) {
+		if (timeout <= 0) {
+			return task.call();
+		}
+
+		final Future<byte[]> result;
+		try {
+			result = getExecutorService().submit(task);
+		} catch (RejectedExecutionException e) {
+			throw new DSSException("Unable to process the call to '" + task.getUrl() + "' : too many pending calls", e);
+		}
 		try {
-			Future<byte[]> result = executorService.submit(task);
-			return timeout > 0 ? result.get(timeout, TimeUnit.MILLISECONDS) : result.get();
+			return result.get(timeout, TimeUnit.MILLISECONDS);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 			throw new DSSException(e);
 		} catch (ExecutionException | TimeoutException e) {
 			throw new DSSException(e);
 		} finally {
-			executorService.shutdown();
+			result.cancel(true);
 		}
+	}
 
+	/**
+	 * Creates the call to be executed
+	 * 
+	 * @param url
+	 *            the url to call
+	 * @param content
+	 *            the content to post (null for GET)
+	 * @param useCaches
+	 *            true if the cached data can be used
+	 * @return the configured {@code NativeDataLoaderCall}
+	 */
+	protected NativeDataLoaderCall createCall(String url, byte[] content, boolean useCaches) {
+		NativeDataLoaderCall call = new NativeDataLoaderCall(url, content, useCaches, maxInputSize);
+		call.setConnectTimeout(getSocketTimeout(connectTimeout));
+		call.setReadTimeout(getSocketTimeout(readTimeout));
+		call.setContentType(contentType);
+		return call;
+	}
+
+	/**
+	 * Returns the given connect or read timeout, or the global timeout if it is not set
+	 */
+	private int getSocketTimeout(int socketTimeout) {
+		if (socketTimeout > 0 || timeout <= 0) {
+			return socketTimeout;
+		}
+		return (int) Math.min(timeout, Integer.MAX_VALUE);
 	}
 
 	@Override
@@ -102,13 +176,20 @@ public class NativeHTTPDataLoader implements DataLoader {
 
 	@Override
 	public void setContentType(String contentType) {
-		throw new DSSException("Not implemented");
+		this.contentType = contentType;
 	}
 
 	public long getMaxInputSize() {
 		return maxInputSize;
 	}
 
+	/**
+	 * Sets the maximum size of the response. The limit is checked with the announced content length and while reading
+	 * the response (0 = no limit).
+	 * 
+	 * @param maxInputSize
+	 *            the maximum size in bytes
+	 */
 	public void setMaxInputSize(long maxInputSize) {
 		this.maxInputSize = maxInputSize;
 	}
@@ -120,4 +201,73 @@ public class NativeHTTPDataLoader implements DataLoader {
 	public void setTimeout(long timeout) {
 		this.timeout = timeout;
 	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Sets the connect timeout (0 = the global timeout if it is set, infinite otherwise)
+	 * 
+	 * @param connectTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Sets the read timeout : maximum time between two received packets (0 = the global timeout if it is set,
+	 * infinite otherwise)
+	 * 
+	 * @param readTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * This method allows to set a dedicated executor service to enforce the global timeout. By default, a bounded
+	 * thread pool shared by all the instances is used.
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	private ExecutorService getExecutorService() {
+		if (executorService != null) {
+			return executorService;
+		}
+		return getSharedExecutorService();
+	}
+
+	private static synchronized ExecutorService getSharedExecutorService() {
+		if (sharedExecutorService == null) {
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(SHARED_EXECUTOR_NB_THREADS, SHARED_EXECUTOR_NB_THREADS, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(SHARED_EXECUTOR_QUEUE_SIZE), new ThreadFactory() {
+
+						private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "native-http-data-loader-" + threadNumber.getAndIncrement());
+							thread.setDaemon(true);
+							return thread;
+						}
+
+					});
+			threadPool.allowCoreThreadTimeOut(true);
+			sharedExecutorService = threadPool;
+		}
+		return sharedExecutorService;
+	}
+
 }
@@ -0,0 +1,139 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import eu.europa.esig.dss.util.LoadingCache;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * DataLoader which shares the result of the GET requests (eg : AIA certificates) between the validations. Concurrent
+ * requests for the same url wait for the running download. POST requests (OCSP, TSP) are never cached.
+ */
+public class SharedDataLoader implements DataLoader {
+
+	private static final long serialVersionUID = -2452437637838633416L;
+
+	/**
+	 * The name of the cache in the validation metrics
+	 */
+	public static final String CACHE_NAME = "shared-data-loader";
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final DataLoader dataLoader;
+
+	private final transient LoadingCache<String, byte[]> cache;
+
+	/**
+	 * The default constructor for SharedDataLoader.
+	 * 
+	 * @param dataLoader
+	 *            the DataLoader to be called on cache miss
+	 */
+	public SharedDataLoader(DataLoader dataLoader) {
+		this(dataLoader, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * The constructor for SharedDataLoader with a custom cache size.
+	 * 
+	 * @param dataLoader
+	 *            the DataLoader to be called on cache miss
+	 * @param maxSize
+	 *            the maximum number of cached responses
+	 */
+	public SharedDataLoader(DataLoader dataLoader, int maxSize) {
+		this.dataLoader = dataLoader;
+		this.cache = new LoadingCache<String, byte[]>(CACHE_NAME, maxSize);
+	}
+
+	@Override
+	public byte[] get(final String url) {
+		return cache.get(url, new Callable<byte[]>() {
+			@Override
+			public byte[] call() throws Exception {
+				return dataLoader.get(url);
+			}
+		});
+	}
+
+	@Override
+	public DataAndUrl get(final List<String> urlStrings) {
+		for (String url : urlStrings) {
+			byte[] data = cache.getIfPresent(url);
+			if (Utils.isArrayNotEmpty(data)) {
+				return new DataAndUrl(data, url);
+			}
+		}
+		DataAndUrl dataAndUrl = dataLoader.get(urlStrings);
+		if (dataAndUrl != null) {
+			cache.put(dataAndUrl.urlString, dataAndUrl.data);
+		}
+		return dataAndUrl;
+	}
+
+	@Override
+	public byte[] get(String url, boolean refresh) {
+		if (refresh) {
+			cache.invalidate(url);
+		}
+		return get(url);
+	}
+
+	@Override
+	public byte[] post(String url, byte[] content) {
+		return dataLoader.post(url, content);
+	}
+
+	@Override
+	public void setContentType(String contentType) {
+		dataLoader.setContentType(contentType);
+	}
+
+	/**
+	 * Returns the number of GET requests served from the cache
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of GET requests sent to the underlying DataLoader
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Removes all the cached responses
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+}
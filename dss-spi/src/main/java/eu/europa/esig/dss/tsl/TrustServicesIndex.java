@@ -0,0 +1,219 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable index of the trust services by certificate entity key, compiled once per trusted lists synchronization
+ * and shared by all the validations.
+ * 
+ * For each entity, the status history of all its services is split into time intervals (between two consecutive
+ * start/end dates) : the services and statuses applicable at a given date, or the services still applicable after
+ * a given date, are found with a binary search.
+ */
+public final class TrustServicesIndex implements Serializable {
+
+	private static final long serialVersionUID = -2416398862381373563L;
+
+	private final Map<String, EntityTrustServices> servicesByEntity;
+
+	/**
+	 * Compiles the index
+	 * 
+	 * @param trustServicesByEntity
+	 *            the trust services by certificate entity key
+	 */
+	public TrustServicesIndex(Map<String, List<ServiceInfo>> trustServicesByEntity) {
+		Map<String, EntityTrustServices> index = new HashMap<String, EntityTrustServices>();
+		for (Map.Entry<String, List<ServiceInfo>> entry : trustServicesByEntity.entrySet()) {
+			index.put(entry.getKey(), new EntityTrustServices(entry.getValue()));
+		}
+		this.servicesByEntity = Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * Returns all the trust services of the entity
+	 * 
+	 * @param entityKey
+	 *            the certificate entity key
+	 * @return an unmodifiable set of trust services (empty if the entity is not trusted)
+	 */
+	public Set<ServiceInfo> getTrustServices(String entityKey) {
+		EntityTrustServices entityServices = servicesByEntity.get(entityKey);
+		if (entityServices == null) {
+			return Collections.emptySet();
+		}
+		return entityServices.services;
+	}
+
+	/**
+	 * Returns the trust services of the entity with their status applicable at the given date (start date included,
+	 * end date excluded)
+	 * 
+	 * @param entityKey
+	 *            the certificate entity key
+	 * @param date
+	 *            the date of the lookup
+	 * @return an unmodifiable map of the applicable statuses by trust service (empty if none)
+	 */
+	public Map<ServiceInfo, ServiceInfoStatus> getTrustServices(String entityKey, Date date) {
+		EntityTrustServices entityServices = servicesByEntity.get(entityKey);
+		if (entityServices == null || date == null) {
+			return Collections.emptyMap();
+		}
+		return entityServices.getStatuses(date.getTime());
+	}
+
+	/**
+	 * Returns the trust services of the entity with a status applicable at the given date or later, end date included
+	 * as in {@link eu.europa.esig.dss.util.TimeDependentValues#getAfter(Date)} (eg : the services to report for a
+	 * certificate issued at this date)
+	 * 
+	 * @param entityKey
+	 *            the certificate entity key
+	 * @param date
+	 *            the date of the lookup
+	 * @return an unmodifiable set of trust services (empty if none)
+	 */
+	public Set<ServiceInfo> getTrustServicesAfter(String entityKey, Date date) {
+		EntityTrustServices entityServices = servicesByEntity.get(entityKey);
+		if (entityServices == null || date == null) {
+			return Collections.emptySet();
+		}
+		return entityServices.getServicesAfter(date.getTime());
+	}
+
+	/**
+	 * Returns the number of indexed entities
+	 * 
+	 * @return the number of trusted public keys
+	 */
+	public int size() {
+		return servicesByEntity.size();
+	}
+
+	private static final class EntityTrustServices implements Serializable {
+
+		private static final long serialVersionUID = 4283917413460393719L;
+
+		private final Set<ServiceInfo> services;
+
+		/* The sorted start/end times of all the statuses */
+		private final long[] boundaries;
+
+		/* The applicable statuses of the intervals : before the first boundary, between two boundaries, after the last one */
+		private final List<Map<ServiceInfo, ServiceInfoStatus>> intervals;
+
+		/* The services applicable in an interval or in a later one */
+		private final List<Set<ServiceInfo>> servicesAfter;
+
+		private EntityTrustServices(List<ServiceInfo> serviceInfos) {
+			this.services = Collections.unmodifiableSet(new LinkedHashSet<ServiceInfo>(serviceInfos));
+
+			TreeSet<Long> times = new TreeSet<Long>();
+			for (ServiceInfo serviceInfo : services) {
+				for (ServiceInfoStatus status : serviceInfo.getStatus()) {
+					if (status.getStartDate() != null) {
+						times.add(status.getStartDate().getTime());
+					}
+					if (status.getEndDate() != null) {
+						times.add(status.getEndDate().getTime());
+					}
+				}
+			}
+			this.boundaries = new long[times.size()];
+			int i = 0;
+			for (Long time : times) {
+				boundaries[i++] = time;
+			}
+
+			List<Map<ServiceInfo, ServiceInfoStatus>> result = new ArrayList<Map<ServiceInfo, ServiceInfoStatus>>(boundaries.length + 1);
+			result.add(getApplicableStatuses(Long.MIN_VALUE));
+			for (long boundary : boundaries) {
+				result.add(getApplicableStatuses(boundary));
+			}
+			this.intervals = Collections.unmodifiableList(result);
+
+			List<Set<ServiceInfo>> after = new ArrayList<Set<ServiceInfo>>(Collections.<Set<ServiceInfo>> nCopies(result.size(), null));
+			Set<ServiceInfo> later = Collections.emptySet();
+			for (int j = result.size() - 1; j >= 0; j--) {
+				if (!later.containsAll(result.get(j).keySet())) {
+					Set<ServiceInfo> union = new LinkedHashSet<ServiceInfo>(later);
+					union.addAll(result.get(j).keySet());
+					later = Collections.unmodifiableSet(union);
+				}
+				after.set(j, later);
+			}
+			this.servicesAfter = Collections.unmodifiableList(after);
+		}
+
+		private Map<ServiceInfo, ServiceInfoStatus> getApplicableStatuses(long time) {
+			Map<ServiceInfo, ServiceInfoStatus> result = new LinkedHashMap<ServiceInfo, ServiceInfoStatus>();
+			for (ServiceInfo serviceInfo : services) {
+				for (ServiceInfoStatus status : serviceInfo.getStatus()) {
+					if (isApplicable(status, time)) {
+						result.put(serviceInfo, status);
+						break;
+					}
+				}
+			}
+			if (result.isEmpty()) {
+				return Collections.emptyMap();
+			}
+			return Collections.unmodifiableMap(result);
+		}
+
+		private boolean isApplicable(ServiceInfoStatus status, long time) {
+			Date startDate = status.getStartDate();
+			Date endDate = status.getEndDate();
+			return (startDate == null || startDate.getTime() <= time) && (endDate == null || endDate.getTime() > time);
+		}
+
+		private Map<ServiceInfo, ServiceInfoStatus> getStatuses(long time) {
+			return intervals.get(getInterval(time));
+		}
+
+		private Set<ServiceInfo> getServicesAfter(long time) {
+			// the statuses which end at the given time are applicable just before it
+			return servicesAfter.get(getInterval(time - 1));
+		}
+
+		private int getInterval(long time) {
+			int position = Arrays.binarySearch(boundaries, time);
+			// the interval starts at the boundary when found, else after the previous boundary (insertion point - 1)
+			return position >= 0 ? position + 1 : -position - 1;
+		}
+
+	}
+
+}
@@ -22,9 +22,8 @@ package eu.europa.esig.dss.tsl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -48,6 +47,12 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	private Map<String, List<ServiceInfo>> trustServicesByEntity = new HashMap<String, List<ServiceInfo>>();
 
+	/* Compiled from trustServicesByEntity, reset on each change */
+	private volatile TrustServicesIndex trustServicesIndex;
+
+	/* Guards trustServicesByEntity and trustServicesIndex (the map is replaced on reinit, it cannot be the lock) */
+	private final Object trustServicesLock = new Object();
+
 	/**
 	 * The default constructor.
 	 */
@@ -62,7 +67,39 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	public void reinit() {
 		tlInfos = new HashMap<String, TLInfo>();
-		trustServicesByEntity = new HashMap<String, List<ServiceInfo>>();
+		synchronized (trustServicesLock) {
+			trustServicesByEntity = new HashMap<String, List<ServiceInfo>>();
+			trustServicesIndex = null;
+		}
+		contentChanged();
+	}
+
+	/**
+	 * Replaces all the trust services at once. Unlike {@link #reinit()} followed by
+	 * {@link #addCertificate(CertificateToken, List)} calls, the running validations never see a partial content :
+	 * they use the previous trust services until the new ones are compiled.
+	 * 
+	 * @param servicesByCertificate
+	 *            the trust services by trusted certificate
+	 */
+	public void replaceTrustServices(Map<CertificateToken, List<ServiceInfo>> servicesByCertificate) {
+		Map<String, List<ServiceInfo>> newTrustServicesByEntity = new HashMap<String, List<ServiceInfo>>();
+		for (Map.Entry<CertificateToken, List<ServiceInfo>> entry : servicesByCertificate.entrySet()) {
+			CertificateToken certificate = super.addCertificate(entry.getKey());
+			List<ServiceInfo> serviceInfos = entry.getValue();
+			List<ServiceInfo> storedServiceInfos = newTrustServicesByEntity.get(certificate.getEntityKey());
+			if (storedServiceInfos == null) {
+				newTrustServicesByEntity.put(certificate.getEntityKey(), new ArrayList<ServiceInfo>(serviceInfos));
+			} else if (!storedServiceInfos.equals(serviceInfos)) {
+				storedServiceInfos.addAll(serviceInfos);
+			}
+		}
+		TrustServicesIndex newTrustServicesIndex = new TrustServicesIndex(newTrustServicesByEntity);
+		synchronized (trustServicesLock) {
+			trustServicesByEntity = newTrustServicesByEntity;
+			trustServicesIndex = newTrustServicesIndex;
+		}
+		contentChanged();
 	}
 
 	public void addCertificate(CertificateToken certificate, List<ServiceInfo> serviceInfos) {
@@ -70,7 +107,7 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 		String entityKey = certificate.getEntityKey();
 
-		synchronized (trustServicesByEntity) {
+		synchronized (trustServicesLock) {
 
 			if (trustServicesByEntity.containsKey(entityKey)) {
 				List<ServiceInfo> storedServiceInfos = trustServicesByEntity.get(entityKey);
@@ -81,9 +118,12 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 			} else {
 				trustServicesByEntity.put(entityKey, serviceInfos);
 			}
+			trustServicesIndex = null;
 
 		}
 
+		contentChanged();
+
 	}
 
 	/**
@@ -101,6 +141,7 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	public void updateTlInfo(String countryCode, TLInfo info) {
 		tlInfos.put(countryCode, info);
+		contentChanged();
 	}
 
 	public TLInfo getTlInfo(String countryCode) {
@@ -120,14 +161,56 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		return tlInfos;
 	}
 
+	/**
+	 * Returns the trust services index, compiled on the first call after a change of the trust services (eg : after
+	 * the trusted lists synchronization)
+	 * 
+	 * @return the immutable index of the trust services
+	 */
+	public TrustServicesIndex getTrustServicesIndex() {
+		TrustServicesIndex index = trustServicesIndex;
+		if (index == null) {
+			synchronized (trustServicesLock) {
+				index = trustServicesIndex;
+				if (index == null) {
+					index = new TrustServicesIndex(trustServicesByEntity);
+					trustServicesIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
 	@Override
 	public Set<ServiceInfo> getTrustServices(CertificateToken token) {
-		List<ServiceInfo> trustServicesForToken = trustServicesByEntity.get(token.getEntityKey());
-		if (trustServicesForToken != null) {
-			return new HashSet<ServiceInfo>(trustServicesForToken);
-		} else {
-			return Collections.emptySet();
-		}
+		return getTrustServicesIndex().getTrustServices(token.getEntityKey());
+	}
+
+	/**
+	 * Returns the trust services of the certificate with their status at the given date
+	 * 
+	 * @param token
+	 *            the trusted certificate
+	 * @param date
+	 *            the date of the lookup (eg : the signing time, the best signature time or the validation time)
+	 * @return an unmodifiable map of the applicable statuses by trust service
+	 */
+	public Map<ServiceInfo, ServiceInfoStatus> getTrustServices(CertificateToken token, Date date) {
+		return getTrustServicesIndex().getTrustServices(token.getEntityKey(), date);
+	}
+
+	/**
+	 * Returns the trust services of the certificate with a status applicable at the given date or later (end date
+	 * included)
+	 * 
+	 * @param token
+	 *            the trusted certificate
+	 * @param date
+	 *            the date of the lookup (eg : the issuance date of a certificate of the chain)
+	 * @return an unmodifiable set of trust services
+	 */
+	public Set<ServiceInfo> getTrustServicesAfter(CertificateToken token, Date date) {
+		return getTrustServicesIndex().getTrustServicesAfter(token.getEntityKey(), date);
 	}
 
 	@Override
@@ -163,7 +246,7 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 	}
 
 	public int getNumberOfTrustedPublicKeys() {
-		return trustServicesByEntity.size();
+		return getTrustServicesIndex().size();
 	}
 
 }
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -43,6 +44,11 @@ public class CommonCertificateSource implements CertificateSource {
 	 */
 	private final List<CertificateToken> certificateTokens = new ArrayList<CertificateToken>();
 
+	/**
+	 * The version of the content, incremented on each change
+	 */
+	private final AtomicLong version = new AtomicLong();
+
 	/**
 	 * The default constructor to generate a certificates source with an independent certificates pool.
 	 */
@@ -86,6 +92,7 @@ public class CommonCertificateSource implements CertificateSource {
 		final CertificateToken certToken = certPool.getInstance(token, getCertificateSourceType());
 		if (!certificateTokens.contains(certToken)) {
 			certificateTokens.add(certToken);
+			contentChanged();
 		}
 		return certToken;
 	}
@@ -138,7 +145,11 @@ public class CommonCertificateSource implements CertificateSource {
 	 * @return true if removed
 	 */
 	public boolean removeCertificate(CertificateToken certificate) {
-		return certificateTokens.remove(certificate);
+		boolean removed = certificateTokens.remove(certificate);
+		if (removed) {
+			contentChanged();
+		}
+		return removed;
 	}
 
 	/**
@@ -150,4 +161,22 @@ public class CommonCertificateSource implements CertificateSource {
 		return certificateTokens.size();
 	}
 
+	/**
+	 * This method returns the version of the content of this source. The version changes each time a certificate (or
+	 * any information linked to the certificates) is added or removed, it allows to detect that the results computed
+	 * with this source are outdated.
+	 * 
+	 * @return the content version
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * This method has to be called by the sub-classes when the information linked to the certificates changes.
+	 */
+	protected void contentChanged() {
+		version.incrementAndGet();
+	}
+
 }
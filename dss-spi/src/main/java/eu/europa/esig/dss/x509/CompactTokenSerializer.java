@@ -0,0 +1,470 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
+import org.bouncycastle.asn1.ocsp.CertID;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.Digest;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.x509.crl.CRLReasonEnum;
+import eu.europa.esig.dss.x509.ocsp.OCSPRespStatus;
+import eu.europa.esig.dss.x509.ocsp.OCSPToken;
+
+/**
+ * Compact and versioned binary encoding of the tokens and of their verification results, to be used by caches
+ * (in memory, JDBC, files...) instead of the default Java serialization.
+ * 
+ * A certificate is stored as its DER encoding followed by its {@code CertificateSummary} (digests, names, validity
+ * period, key usage, self-signature result). It is restored without any parsing : the X509Certificate is only
+ * materialized when it is needed (public key, signature check).
+ * 
+ * The revocation data keep their encoding and the result of their signature verification, so they are restored
+ * without checking their signature again.
+ * 
+ * Every record starts with a magic number, the format version and the record type. A record with an unknown version
+ * is rejected with a {@code DSSException} (callers are expected to reload the data).
+ */
+public final class CompactTokenSerializer {
+
+	/**
+	 * First bytes of any record ("DT"). A DER encoded structure always starts with 0x30, so the two kinds of content
+	 * can be distinguished.
+	 */
+	private static final short MAGIC = 0x4454;
+
+	private static final byte VERSION = 1;
+
+	private static final byte TYPE_CERTIFICATE = 1;
+	private static final byte TYPE_CERTIFICATES = 2;
+	private static final byte TYPE_CRL = 3;
+	private static final byte TYPE_OCSP = 4;
+
+	private CompactTokenSerializer() {
+	}
+
+	/**
+	 * This method returns true if the given binaries is a record produced by this class
+	 * 
+	 * @param binaries
+	 *            the binaries to be tested
+	 * @return true if the binaries start with the magic number
+	 */
+	public static boolean isCompactRecord(byte[] binaries) {
+		return binaries != null && binaries.length > 3 && ((binaries[0] & 0xFF) << 8 | (binaries[1] & 0xFF)) == MAGIC;
+	}
+
+	public static byte[] serialize(CertificateToken certificate) {
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(baos);
+			writeHeader(out, TYPE_CERTIFICATE);
+			writeCertificate(out, certificate);
+			out.flush();
+			return baos.toByteArray();
+		} catch (IOException e) {
+			throw new DSSException("Unable to serialize the certificate", e);
+		}
+	}
+
+	public static CertificateToken deserializeCertificate(byte[] binaries) {
+		try {
+			DataInputStream in = open(binaries, TYPE_CERTIFICATE);
+			return readCertificate(in);
+		} catch (IOException e) {
+			throw new DSSException("Unable to deserialize the certificate", e);
+		}
+	}
+
+	/**
+	 * This method serializes a collection of certificates (eg: a snapshot of a {@code CertificatePool} or of a
+	 * trusted list)
+	 * 
+	 * @param certificates
+	 *            the certificates to be serialized
+	 * @return the compact record
+	 */
+	public static byte[] serialize(Collection<CertificateToken> certificates) {
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(baos);
+			writeHeader(out, TYPE_CERTIFICATES);
+			out.writeInt(certificates.size());
+			for (CertificateToken certificate : certificates) {
+				writeCertificate(out, certificate);
+			}
+			out.flush();
+			return baos.toByteArray();
+		} catch (IOException e) {
+			throw new DSSException("Unable to serialize the certificates", e);
+		}
+	}
+
+	public static List<CertificateToken> deserializeCertificates(byte[] binaries) {
+		try {
+			DataInputStream in = open(binaries, TYPE_CERTIFICATES);
+			int size = in.readInt();
+			List<CertificateToken> certificates = new ArrayList<CertificateToken>(size);
+			for (int i = 0; i < size; i++) {
+				certificates.add(readCertificate(in));
+			}
+			return certificates;
+		} catch (IOException e) {
+			throw new DSSException("Unable to deserialize the certificates", e);
+		}
+	}
+
+	/**
+	 * This method serializes a CRL with the result of its verification (signature, issuer, key usage,...)
+	 * 
+	 * @param crlValidity
+	 *            the verified CRL
+	 * @return the compact record
+	 */
+	public static byte[] serialize(CRLValidity crlValidity) {
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(baos);
+			writeHeader(out, TYPE_CRL);
+			writeString(out, crlValidity.getKey());
+			writeString(out, crlValidity.getUrl());
+			writeBytes(out, crlValidity.getCrlEncoded());
+			writeSignatureAlgorithm(out, crlValidity.getSignatureAlgorithm());
+			writeDate(out, crlValidity.getThisUpdate());
+			writeDate(out, crlValidity.getNextUpdate());
+			writeDate(out, crlValidity.getExpiredCertsOnCRL());
+			out.writeBoolean(crlValidity.isIssuerX509PrincipalMatches());
+			out.writeBoolean(crlValidity.isSignatureIntact());
+			out.writeBoolean(crlValidity.isCrlSignKeyUsage());
+			out.writeBoolean(crlValidity.isUnknownCriticalExtension());
+			writeString(out, crlValidity.getSignatureInvalidityReason());
+			CertificateToken issuerToken = crlValidity.getIssuerToken();
+			out.writeBoolean(issuerToken != null);
+			if (issuerToken != null) {
+				writeCertificate(out, issuerToken);
+			}
+			out.flush();
+			return baos.toByteArray();
+		} catch (IOException e) {
+			throw new DSSException("Unable to serialize the CRL", e);
+		}
+	}
+
+	public static CRLValidity deserializeCRL(byte[] binaries) {
+		try {
+			DataInputStream in = open(binaries, TYPE_CRL);
+			CRLValidity crlValidity = new CRLValidity();
+			crlValidity.setKey(readString(in));
+			crlValidity.setUrl(readString(in));
+			crlValidity.setCrlEncoded(readBytes(in));
+			crlValidity.setSignatureAlgorithm(readSignatureAlgorithm(in));
+			crlValidity.setThisUpdate(readDate(in));
+			crlValidity.setNextUpdate(readDate(in));
+			crlValidity.setExpiredCertsOnCRL(readDate(in));
+			crlValidity.setIssuerX509PrincipalMatches(in.readBoolean());
+			crlValidity.setSignatureIntact(in.readBoolean());
+			crlValidity.setCrlSignKeyUsage(in.readBoolean());
+			crlValidity.setUnknownCriticalExtension(in.readBoolean());
+			crlValidity.setSignatureInvalidityReason(readString(in));
+			if (in.readBoolean()) {
+				crlValidity.setIssuerToken(readCertificate(in));
+			}
+			return crlValidity;
+		} catch (IOException e) {
+			throw new DSSException("Unable to deserialize the CRL", e);
+		}
+	}
+
+	/**
+	 * This method serializes an OCSP response with the extracted revocation status and the result of its signature
+	 * verification
+	 * 
+	 * @param ocspToken
+	 *            the OCSP token
+	 * @return the compact record
+	 */
+	public static byte[] serialize(OCSPToken ocspToken) {
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(baos);
+			writeHeader(out, TYPE_OCSP);
+			BasicOCSPResp basicOCSPResp = ocspToken.getBasicOCSPResp();
+			writeBytes(out, basicOCSPResp == null ? null : basicOCSPResp.getEncoded());
+			CertificateID certId = ocspToken.getCertId();
+			writeBytes(out, certId == null ? null : certId.toASN1Primitive().getEncoded());
+			X500Principal issuer = ocspToken.getIssuerX500Principal();
+			writeBytes(out, issuer == null ? null : issuer.getEncoded());
+			OCSPRespStatus responseStatus = ocspToken.getResponseStatus();
+			writeString(out, responseStatus == null ? null : responseStatus.name());
+			out.writeBoolean(ocspToken.isUseNonce());
+			out.writeBoolean(ocspToken.isNonceMatch());
+			writeRevocationToken(out, ocspToken);
+			out.flush();
+			return baos.toByteArray();
+		} catch (IOException e) {
+			throw new DSSException("Unable to serialize the OCSP response", e);
+		}
+	}
+
+	public static OCSPToken deserializeOCSP(byte[] binaries) {
+		try {
+			DataInputStream in = open(binaries, TYPE_OCSP);
+			OCSPToken ocspToken = new OCSPToken();
+			byte[] basicOCSPResp = readBytes(in);
+			if (basicOCSPResp != null) {
+				ocspToken.setBasicOCSPResp(new BasicOCSPResp(BasicOCSPResponse.getInstance(basicOCSPResp)));
+			}
+			byte[] certId = readBytes(in);
+			if (certId != null) {
+				ocspToken.setCertId(new CertificateID(CertID.getInstance(certId)));
+			}
+			byte[] issuer = readBytes(in);
+			if (issuer != null) {
+				ocspToken.setIssuerX500Principal(new X500Principal(issuer));
+			}
+			String responseStatus = readString(in);
+			if (responseStatus != null) {
+				ocspToken.setResponseStatus(OCSPRespStatus.valueOf(responseStatus));
+			}
+			ocspToken.setUseNonce(in.readBoolean());
+			ocspToken.setNonceMatch(in.readBoolean());
+			readRevocationToken(in, ocspToken);
+			return ocspToken;
+		} catch (IOException | IllegalArgumentException e) {
+			throw new DSSException("Unable to deserialize the OCSP response", e);
+		}
+	}
+
+	private static void writeRevocationToken(DataOutputStream out, RevocationToken token) throws IOException {
+		writeString(out, token.getRelatedCertificateID());
+		writeString(out, token.origin == null ? null : token.origin.name());
+		writeString(out, token.sourceURL);
+		out.writeBoolean(token.available);
+		out.writeByte(token.status == null ? -1 : (token.status ? 1 : 0));
+		writeDate(out, token.productionDate);
+		writeDate(out, token.thisUpdate);
+		writeDate(out, token.nextUpdate);
+		writeDate(out, token.revocationDate);
+		writeDate(out, token.expiredCertsOnCRL);
+		writeDate(out, token.archiveCutOff);
+		out.writeBoolean(token.certHash != null);
+		if (token.certHash != null) {
+			out.writeUTF(token.certHash.getAlgorithm().name());
+			writeBytes(out, token.certHash.getValue());
+		}
+		writeString(out, token.reason == null ? null : token.reason.name());
+		writeSignatureAlgorithm(out, token.signatureAlgorithm);
+		out.writeBoolean(token.signatureValid);
+		writeString(out, token.signatureInvalidityReason);
+		PublicKey signerKey = token.publicKeyOfTheSigner;
+		out.writeBoolean(signerKey != null);
+		if (signerKey != null) {
+			out.writeUTF(signerKey.getAlgorithm());
+			writeBytes(out, signerKey.getEncoded());
+		}
+	}
+
+	private static void readRevocationToken(DataInputStream in, RevocationToken token) throws IOException {
+		token.setRelatedCertificateID(readString(in));
+		String origin = readString(in);
+		token.origin = origin == null ? null : RevocationOrigin.valueOf(origin);
+		token.sourceURL = readString(in);
+		token.available = in.readBoolean();
+		byte status = in.readByte();
+		token.status = status == -1 ? null : status == 1;
+		token.productionDate = readDate(in);
+		token.thisUpdate = readDate(in);
+		token.nextUpdate = readDate(in);
+		token.revocationDate = readDate(in);
+		token.expiredCertsOnCRL = readDate(in);
+		token.archiveCutOff = readDate(in);
+		if (in.readBoolean()) {
+			DigestAlgorithm digestAlgorithm = DigestAlgorithm.valueOf(in.readUTF());
+			token.certHash = new Digest(digestAlgorithm, readBytes(in));
+		}
+		String reason = readString(in);
+		token.reason = reason == null ? null : CRLReasonEnum.valueOf(reason);
+		token.signatureAlgorithm = readSignatureAlgorithm(in);
+		token.signatureValid = in.readBoolean();
+		token.signatureInvalidityReason = readString(in);
+		if (in.readBoolean()) {
+			String algorithm = in.readUTF();
+			token.publicKeyOfTheSigner = readPublicKey(algorithm, readBytes(in));
+		}
+	}
+
+	private static PublicKey readPublicKey(String algorithm, byte[] encoded) {
+		try {
+			return KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(encoded));
+		} catch (Exception e) {
+			throw new DSSException("Unable to restore the " + algorithm + " public key", e);
+		}
+	}
+
+	private static void writeCertificate(DataOutputStream out, CertificateToken certificate) throws IOException {
+		CertificateSummary summary = certificate.getSummary();
+		writeBytes(out, certificate.getEncoded());
+		writeBytes(out, summary.getDssId().getValue());
+		writeBytes(out, summary.getEntityKey().getValue());
+		writeSignatureAlgorithm(out, summary.getSignatureAlgorithm());
+		writeBytes(out, summary.getSubject().getEncoded());
+		writeBytes(out, summary.getIssuer().getEncoded());
+		writeBytes(out, summary.getSerialNumber().toByteArray());
+		out.writeLong(summary.getNotBefore().getTime());
+		out.writeLong(summary.getNotAfter().getTime());
+		boolean[] keyUsage = summary.getKeyUsage();
+		out.writeShort(keyUsage == null ? -1 : keyUsage.length);
+		if (keyUsage != null) {
+			for (boolean bit : keyUsage) {
+				out.writeBoolean(bit);
+			}
+		}
+		out.writeInt(summary.getBasicConstraints());
+		Boolean selfSigned = summary.getSelfSigned();
+		out.writeByte(selfSigned == null ? -1 : (selfSigned ? 1 : 0));
+	}
+
+	private static CertificateToken readCertificate(DataInputStream in) throws IOException {
+		byte[] encoded = readBytes(in);
+		Digest dssId = new Digest(DigestAlgorithm.SHA256, readBytes(in));
+		Digest entityKey = new Digest(DigestAlgorithm.SHA256, readBytes(in));
+		SignatureAlgorithm signatureAlgorithm = readSignatureAlgorithm(in);
+		X500Principal subject = new X500Principal(readBytes(in));
+		X500Principal issuer = new X500Principal(readBytes(in));
+		BigInteger serialNumber = new BigInteger(readBytes(in));
+		Date notBefore = new Date(in.readLong());
+		Date notAfter = new Date(in.readLong());
+		boolean[] keyUsage = null;
+		short keyUsageLength = in.readShort();
+		if (keyUsageLength >= 0) {
+			keyUsage = new boolean[keyUsageLength];
+			for (int i = 0; i < keyUsageLength; i++) {
+				keyUsage[i] = in.readBoolean();
+			}
+		}
+		int basicConstraints = in.readInt();
+		byte selfSigned = in.readByte();
+		CertificateSummary summary = new CertificateSummary(dssId, entityKey, signatureAlgorithm, subject, issuer, serialNumber, notBefore, notAfter,
+				keyUsage, basicConstraints, selfSigned == -1 ? null : selfSigned == 1);
+		return new CertificateToken(encoded, summary);
+	}
+
+	private static void writeHeader(DataOutputStream out, byte type) throws IOException {
+		out.writeShort(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(type);
+	}
+
+	private static DataInputStream open(byte[] binaries, byte expectedType) throws IOException {
+		if (!isCompactRecord(binaries)) {
+			throw new DSSException("Not a compact token record");
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(binaries));
+		in.readShort();
+		byte version = in.readByte();
+		if (version != VERSION) {
+			throw new DSSException("Unsupported compact token record version : " + version);
+		}
+		byte type = in.readByte();
+		if (type != expectedType) {
+			throw new DSSException("Unexpected compact token record type : " + type);
+		}
+		return in;
+	}
+
+	private static void writeSignatureAlgorithm(DataOutputStream out, SignatureAlgorithm signatureAlgorithm) throws IOException {
+		writeString(out, signatureAlgorithm == null ? null : signatureAlgorithm.name());
+	}
+
+	private static SignatureAlgorithm readSignatureAlgorithm(DataInputStream in) throws IOException {
+		String name = readString(in);
+		return name == null ? null : SignatureAlgorithm.valueOf(name);
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		if (in.readBoolean()) {
+			return in.readUTF();
+		}
+		return null;
+	}
+
+	private static void writeDate(DataOutputStream out, Date date) throws IOException {
+		out.writeBoolean(date != null);
+		if (date != null) {
+			out.writeLong(date.getTime());
+		}
+	}
+
+	private static Date readDate(DataInputStream in) throws IOException {
+		if (in.readBoolean()) {
+			return new Date(in.readLong());
+		}
+		return null;
+	}
+
+}
@@ -23,16 +23,22 @@ package eu.europa.esig.dss.x509.crl;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.BERTags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.crl.CRLUtils;
@@ -50,17 +56,27 @@ public abstract class OfflineCRLSource implements CRLSource {
 	private static final Logger LOG = LoggerFactory.getLogger(OfflineCRLSource.class);
 
 	/**
-	 * This {@code HashMap} contains not validated CRL binaries. When the validation passes, the entry will be removed.
-	 * The key is the SHA256 digest of the CRL binaries.
+	 * This {@code HashMap} contains the CRL binaries. The key is the SHA256 digest of the CRL binaries. The entries
+	 * must be added with {@link #addCRLBinary(String, byte[])} in order to be indexed by issuer name.
 	 */
 	protected Map<String, byte[]> crlsMap = new HashMap<String, byte[]>();
 
 	/**
-	 * This {@code HashMap} contains the {@code CRLValidity} object for each
-	 * {@code X509CRL}. It is used for performance reasons.
+	 * This {@code HashMap} contains the {@code CRLValidity} object for each couple
+	 * {@code X509CRL} / issuer public key (valid or not). Each CRL signature is verified only once per issuer.
 	 */
 	private Map<String, CRLValidity> crlValidityMap = new HashMap<String, CRLValidity>();
 
+	/**
+	 * This {@code HashMap} indexes the keys of {@code crlsMap} by the issuer name of the CRL.
+	 */
+	private Map<X500Principal, List<String>> crlKeysByIssuer = new HashMap<X500Principal, List<String>>();
+
+	/**
+	 * The keys of the CRLs which issuer name cannot be extracted (they are checked with all the issuers)
+	 */
+	private List<String> crlKeysWithUnknownIssuer = new ArrayList<String>();
+
 	private Map<CertificateToken, CRLToken> validCRLTokenList = new HashMap<CertificateToken, CRLToken>();
 
 	@Override
@@ -106,8 +122,8 @@ public abstract class OfflineCRLSource implements CRLSource {
 		CRLValidity bestCRLValidity = null;
 		Date bestX509UpdateDate = null;
 
-		for (final Entry<String, byte[]> crlEntry : crlsMap.entrySet()) {
-			final CRLValidity crlValidity = getCrlValidity(crlEntry.getKey(), crlEntry.getValue(), issuerToken);
+		for (final String crlKey : getCrlKeys(issuerToken.getSubjectX500Principal())) {
+			final CRLValidity crlValidity = getCrlValidity(crlKey, crlsMap.get(crlKey), issuerToken);
 			if (crlValidity == null || !crlValidity.isValid()) {
 				continue;
 			}
@@ -133,9 +149,29 @@ public abstract class OfflineCRLSource implements CRLSource {
 		return bestCRLValidity;
 	}
 
+	/**
+	 * Returns the keys of the CRLs which can be issued by the given name.
+	 * 
+	 * @param issuerName
+	 *            the subject name of the issuer candidate
+	 * @return a list of keys of {@code crlsMap}
+	 */
+	private synchronized List<String> getCrlKeys(final X500Principal issuerName) {
+		final List<String> keys = crlKeysByIssuer.get(issuerName);
+		if (crlKeysWithUnknownIssuer.isEmpty()) {
+			return keys == null ? Collections.<String> emptyList() : new ArrayList<String>(keys);
+		}
+		final List<String> result = new ArrayList<String>(crlKeysWithUnknownIssuer);
+		if (keys != null) {
+			result.addAll(keys);
+		}
+		return result;
+	}
+
 	/**
 	 * This method returns {@code CRLValidity} object based on the given
-	 * {@code X509CRL}. The check of the validity of the CRL is performed.
+	 * {@code X509CRL}. The check of the validity of the CRL is performed once
+	 * per issuer public key.
 	 * 
 	 * @param key
 	 *            the key to use in maps
@@ -146,17 +182,15 @@ public abstract class OfflineCRLSource implements CRLSource {
 	 * @return returns updated {@code CRLValidity} object
 	 */
 	private synchronized CRLValidity getCrlValidity(final String key, final byte[] crlBinaries, final CertificateToken issuerToken) {
-		CRLValidity crlValidity = crlValidityMap.get(key);
-		if (crlValidity == null) {
+		final String validityKey = key + issuerToken.getEntityKey();
+		CRLValidity crlValidity = crlValidityMap.get(validityKey);
+		if (crlValidity == null && !crlValidityMap.containsKey(validityKey)) {
 			try (InputStream is = new ByteArrayInputStream(crlBinaries)) {
 				crlValidity = CRLUtils.isValidCRL(is, issuerToken);
-				if (crlValidity.isValid()) {
-					crlValidityMap.put(key, crlValidity);
-					// crlsMap.remove(key);
-				}
 			} catch (IOException e) {
 				LOG.error("Unable to parse CRL", e);
 			}
+			crlValidityMap.put(validityKey, crlValidity);
 		}
 		return crlValidity;
 	}
@@ -173,10 +207,76 @@ public abstract class OfflineCRLSource implements CRLSource {
 		addCRLBinary(base64Digest, binaries);
 	}
 
-	protected void addCRLBinary(String base64Digest, byte[] binaries) {
-		if (!crlsMap.containsKey(base64Digest) && !crlValidityMap.containsKey(base64Digest)) {
+	protected synchronized void addCRLBinary(String base64Digest, byte[] binaries) {
+		if (!crlsMap.containsKey(base64Digest)) {
 			crlsMap.put(base64Digest, binaries);
+			final X500Principal issuerName = getIssuerName(binaries);
+			if (issuerName == null) {
+				crlKeysWithUnknownIssuer.add(base64Digest);
+			} else {
+				List<String> keys = crlKeysByIssuer.get(issuerName);
+				if (keys == null) {
+					keys = new ArrayList<String>();
+					crlKeysByIssuer.put(issuerName, keys);
+				}
+				keys.add(base64Digest);
+			}
+		}
+	}
+
+	/**
+	 * Extracts the issuer name of a DER encoded CRL without parsing the revoked certificates.
+	 * 
+	 * CertificateList ::= SEQUENCE { tbsCertList TBSCertList, ... }
+	 * TBSCertList ::= SEQUENCE { version Version OPTIONAL, signature AlgorithmIdentifier, issuer Name, ... }
+	 * 
+	 * @param binaries
+	 *            the CRL binaries
+	 * @return the issuer name or null if the binaries are not a DER encoded CRL
+	 */
+	static X500Principal getIssuerName(final byte[] binaries) {
+		try {
+			int offset = getContentOffset(binaries, 0); // CertificateList
+			offset = getContentOffset(binaries, offset); // TBSCertList
+			if (binaries[offset] == BERTags.INTEGER) {
+				offset = getNextOffset(binaries, offset); // version
+			}
+			offset = getNextOffset(binaries, offset); // signature
+			final int end = getNextOffset(binaries, offset); // issuer
+			return new X500Principal(Arrays.copyOfRange(binaries, offset, end));
+		} catch (Exception e) {
+			LOG.debug("Unable to extract the CRL issuer name : {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static int getContentOffset(final byte[] binaries, final int offset) {
+		final int lengthByte = binaries[offset + 1] & 0xff;
+		if (lengthByte < 0x80) {
+			return offset + 2;
+		}
+		final int nbLengthBytes = lengthByte & 0x7f;
+		if (nbLengthBytes == 0 || nbLengthBytes > 4) {
+			throw new DSSException("Unsupported DER length");
+		}
+		return offset + 2 + nbLengthBytes;
+	}
+
+	private static int getNextOffset(final byte[] binaries, final int offset) {
+		final int contentOffset = getContentOffset(binaries, offset);
+		final int lengthByte = binaries[offset + 1] & 0xff;
+		int length = lengthByte;
+		if (lengthByte >= 0x80) {
+			length = 0;
+			for (int i = offset + 2; i < contentOffset; i++) {
+				length = (length << 8) | (binaries[i] & 0xff);
+			}
+		}
+		final int end = contentOffset + length;
+		if (length < 0 || end > binaries.length) {
+			throw new DSSException("Truncated DER structure");
 		}
+		return end;
 	}
 
 }
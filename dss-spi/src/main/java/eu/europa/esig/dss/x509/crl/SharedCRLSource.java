@@ -0,0 +1,274 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.crl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.util.LoadingCache;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.RevocationSourceAlternateUrlsSupport;
+
+/**
+ * CRLSource which shares the retrieved CRLs between the validations (eg : during a batch). A CRL is downloaded and
+ * its signature verified once per issuer and distribution points, then the token of each certificate is built from
+ * the cached {@code CRLValidity}. Concurrent requests for the same CRL wait for the running download.
+ * 
+ * The CRLs are also indexed by issuer and url : a CRL downloaded for a certificate is reused for all the
+ * certificates of the same issuer which point to the same url, and the CRLs can be loaded in advance with
+ * {@link #addCRL(String, CRLValidity)} (eg : by a prefetcher working on the trusted lists).
+ * 
+ * A cached CRL is reloaded when its nextUpdate is reached.
+ * 
+ * A missing CRL (eg : the server did not answer) is not cached : the next validation sends the request again, unless
+ * a negative result TTL is configured.
+ */
+public class SharedCRLSource implements CRLSource, RevocationSourceAlternateUrlsSupport<CRLToken> {
+
+	private static final long serialVersionUID = -4317584375614566014L;
+
+	/**
+	 * The name of the cache in the validation metrics
+	 */
+	public static final String CACHE_NAME = "shared-crl";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SharedCRLSource.class);
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final CRLSource crlSource;
+
+	private final transient LoadingCache<String, CRLToken> cache;
+
+	private final transient LoadingCache<String, CRLValidity> crlsByLocation;
+
+	private final AtomicLong locationHitCount = new AtomicLong();
+
+	/**
+	 * The default constructor for SharedCRLSource.
+	 * 
+	 * @param crlSource
+	 *            the CRLSource to be called on cache miss
+	 */
+	public SharedCRLSource(CRLSource crlSource) {
+		this(crlSource, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * The constructor for SharedCRLSource with a custom cache size.
+	 * 
+	 * @param crlSource
+	 *            the CRLSource to be called on cache miss
+	 * @param maxSize
+	 *            the maximum number of cached CRLs
+	 */
+	public SharedCRLSource(CRLSource crlSource, int maxSize) {
+		this.crlSource = crlSource;
+		this.cache = new LoadingCache<String, CRLToken>(CACHE_NAME, maxSize);
+		this.crlsByLocation = new LoadingCache<String, CRLValidity>(maxSize);
+	}
+
+	/**
+	 * This method allows to remember for the given duration that no CRL could be retrieved, so the other
+	 * validations do not wait again for an unavailable server (default : 0, the request is sent again)
+	 * 
+	 * @param negativeResultTTL
+	 *            the duration in milliseconds
+	 */
+	public void setNegativeResultTTL(long negativeResultTTL) {
+		cache.setNegativeResultTTL(negativeResultTTL);
+	}
+
+	@Override
+	public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) throws DSSException {
+		return getRevocationToken(certificateToken, issuerCertificateToken, Collections.<String> emptyList());
+	}
+
+	@Override
+	public CRLToken getRevocationToken(final CertificateToken certificateToken, final CertificateToken issuerToken,
+			final List<String> alternativeUrls) {
+		if (certificateToken == null || issuerToken == null) {
+			return null;
+		}
+
+		final List<String> crlUrls = DSSASN1Utils.getCrlUrls(certificateToken);
+		final CRLToken knownToken = getKnownToken(certificateToken, issuerToken, crlUrls, alternativeUrls);
+		if (knownToken != null) {
+			return knownToken;
+		}
+
+		final String key = getKey(issuerToken, crlUrls, alternativeUrls);
+		Callable<CRLToken> loader = new Callable<CRLToken>() {
+			@Override
+			public CRLToken call() throws Exception {
+				CRLToken token = loadToken(certificateToken, issuerToken, alternativeUrls);
+				if (token != null) {
+					addCRL(token.getSourceURL(), token.getCrlValidity());
+				}
+				return token;
+			}
+		};
+
+		CRLToken cachedToken = cache.get(key, loader);
+		if (cachedToken != null && isExpired(cachedToken)) {
+			LOG.debug("Cached CRL for key '{}' is expired", key);
+			cache.invalidate(key);
+			cachedToken = cache.get(key, loader);
+		}
+		if (cachedToken == null) {
+			return null;
+		}
+
+		final CRLToken crlToken = new CRLToken(certificateToken, cachedToken.getCrlValidity());
+		crlToken.setSourceURL(cachedToken.getSourceURL());
+		crlToken.setOrigin(cachedToken.getOrigin());
+		crlToken.setAvailable(cachedToken.isAvailable());
+		return crlToken;
+	}
+
+	private CRLToken loadToken(CertificateToken certificateToken, CertificateToken issuerToken, List<String> alternativeUrls) {
+		if (Utils.isCollectionNotEmpty(alternativeUrls) && crlSource instanceof RevocationSourceAlternateUrlsSupport) {
+			@SuppressWarnings("unchecked")
+			RevocationSourceAlternateUrlsSupport<CRLToken> alternateUrlsSupport = (RevocationSourceAlternateUrlsSupport<CRLToken>) crlSource;
+			return alternateUrlsSupport.getRevocationToken(certificateToken, issuerToken, alternativeUrls);
+		}
+		return crlSource.getRevocationToken(certificateToken, issuerToken);
+	}
+
+	private CRLToken getKnownToken(CertificateToken certificateToken, CertificateToken issuerToken, List<String> crlUrls,
+			List<String> alternativeUrls) {
+		List<String> urls = new ArrayList<String>(crlUrls);
+		if (alternativeUrls != null) {
+			urls.addAll(alternativeUrls);
+		}
+		for (String url : urls) {
+			CRLValidity crlValidity = crlsByLocation.getIfPresent(getLocationKey(issuerToken, url));
+			if (crlValidity != null && !isExpired(crlValidity.getNextUpdate())) {
+				locationHitCount.incrementAndGet();
+				ValidationMetrics.current().recordCacheAccess(CACHE_NAME, true);
+				final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
+				crlToken.setSourceURL(url);
+				crlToken.setAvailable(true);
+				return crlToken;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds a CRL which will be used for all the certificates of its issuer with this url in their CRL distribution
+	 * points (or in the alternative urls from the trusted lists). The CRL is ignored if its signature is not intact.
+	 * 
+	 * @param url
+	 *            the url of the CRL
+	 * @param crlValidity
+	 *            the downloaded and verified CRL
+	 * @return true if the CRL has been added
+	 */
+	public boolean addCRL(String url, CRLValidity crlValidity) {
+		if (Utils.isStringEmpty(url) || crlValidity == null || !crlValidity.isSignatureIntact() || crlValidity.getIssuerToken() == null) {
+			return false;
+		}
+		crlsByLocation.put(getLocationKey(crlValidity.getIssuerToken(), url), crlValidity);
+		return true;
+	}
+
+	/**
+	 * Returns the CRL of an issuer for an url, if it is known and not expired
+	 * 
+	 * @param issuerToken
+	 *            the issuer of the CRL
+	 * @param url
+	 *            the url of the CRL
+	 * @return the {@code CRLValidity} or null
+	 */
+	public CRLValidity getCRL(CertificateToken issuerToken, String url) {
+		CRLValidity crlValidity = crlsByLocation.getIfPresent(getLocationKey(issuerToken, url));
+		if (crlValidity == null || isExpired(crlValidity.getNextUpdate())) {
+			return null;
+		}
+		return crlValidity;
+	}
+
+	private String getLocationKey(CertificateToken issuerToken, String url) {
+		return issuerToken.getDSSIdAsString() + '|' + url;
+	}
+
+	private String getKey(CertificateToken issuerToken, List<String> crlUrls, List<String> alternativeUrls) {
+		StringBuilder key = new StringBuilder(issuerToken.getDSSIdAsString());
+		for (String url : crlUrls) {
+			key.append('|').append(url);
+		}
+		if (alternativeUrls != null) {
+			for (String url : alternativeUrls) {
+				key.append('|').append(url);
+			}
+		}
+		return key.toString();
+	}
+
+	private boolean isExpired(CRLToken token) {
+		return isExpired(token.getNextUpdate());
+	}
+
+	private boolean isExpired(Date nextUpdate) {
+		return nextUpdate != null && nextUpdate.before(new Date());
+	}
+
+	/**
+	 * Returns the number of CRL requests served from the cache
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return cache.getHitCount() + locationHitCount.get();
+	}
+
+	/**
+	 * Returns the number of CRL requests sent to the underlying CRLSource
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Removes all the cached CRLs
+	 */
+	public void clear() {
+		cache.clear();
+		crlsByLocation.clear();
+	}
+
+}
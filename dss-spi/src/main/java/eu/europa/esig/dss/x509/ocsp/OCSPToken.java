@@ -199,6 +199,11 @@ public class OCSPToken extends RevocationToken {
 		}
 	}
 
+	@Override
+	protected boolean isSignatureVerificationCacheable() {
+		return true;
+	}
+
 	@Override
 	protected boolean checkIsSignedBy(final CertificateToken candidate) {
 		if (basicOCSPResp == null) {
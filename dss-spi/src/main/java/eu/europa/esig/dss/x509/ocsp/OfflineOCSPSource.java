@@ -20,8 +20,11 @@
  */
 package eu.europa.esig.dss.x509.ocsp;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.CertificateID;
@@ -43,6 +46,15 @@ public abstract class OfflineOCSPSource implements OCSPSource {
 
 	private static final Logger LOG = LoggerFactory.getLogger(OfflineOCSPSource.class);
 
+	/**
+	 * The list which was indexed (responses are expected to be only appended to it)
+	 */
+	private transient List<BasicOCSPResp> indexedResponses;
+
+	private transient int nbIndexedResponses;
+
+	private transient Map<String, List<IndexedResponse>> index;
+
 	@Override
 	public final OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
 		final List<BasicOCSPResp> containedOCSPResponses = getContainedOCSPResponses();
@@ -58,14 +70,13 @@ public abstract class OfflineOCSPSource implements OCSPSource {
 		Date bestUpdate = null;
 		BasicOCSPResp bestBasicOCSPResp = null;
 		final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(certificateToken, issuerCertificateToken);
-		for (final BasicOCSPResp basicOCSPResp : containedOCSPResponses) {
-			for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
-				if (DSSRevocationUtils.matches(certId, singleResp)) {
-					final Date thisUpdate = singleResp.getThisUpdate();
-					if ((bestUpdate == null) || thisUpdate.after(bestUpdate)) {
-						bestBasicOCSPResp = basicOCSPResp;
-						bestUpdate = thisUpdate;
-					}
+		final List<IndexedResponse> candidates = getIndex(containedOCSPResponses).get(getKey(certId));
+		if (candidates != null) {
+			for (final IndexedResponse candidate : candidates) {
+				final Date thisUpdate = candidate.singleResp.getThisUpdate();
+				if ((bestUpdate == null) || thisUpdate.after(bestUpdate)) {
+					bestBasicOCSPResp = candidate.basicOCSPResp;
+					bestUpdate = thisUpdate;
 				}
 			}
 		}
@@ -80,6 +91,53 @@ public abstract class OfflineOCSPSource implements OCSPSource {
 		return null;
 	}
 
+	/**
+	 * Returns the index of the {@code SingleResp}s by CertID. The index is built once and completed when responses are
+	 * appended to the same list. A different list instance triggers a full rebuild.
+	 */
+	private synchronized Map<String, List<IndexedResponse>> getIndex(final List<BasicOCSPResp> responses) {
+		if (responses != indexedResponses || responses.size() < nbIndexedResponses) {
+			index = new HashMap<String, List<IndexedResponse>>();
+			indexedResponses = responses;
+			nbIndexedResponses = 0;
+		}
+		for (int i = nbIndexedResponses; i < responses.size(); i++) {
+			final BasicOCSPResp basicOCSPResp = responses.get(i);
+			for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
+				final String key = getKey(singleResp.getCertID());
+				List<IndexedResponse> list = index.get(key);
+				if (list == null) {
+					list = new ArrayList<IndexedResponse>();
+					index.put(key, list);
+				}
+				list.add(new IndexedResponse(basicOCSPResp, singleResp));
+			}
+		}
+		nbIndexedResponses = responses.size();
+		return index;
+	}
+
+	/**
+	 * The key follows {@link DSSRevocationUtils#matches(CertificateID, SingleResp)} : hash algorithm, issuer name hash,
+	 * issuer key hash and serial number.
+	 */
+	private static String getKey(final CertificateID certId) {
+		return certId.getHashAlgOID().getId() + '|' + Utils.toHex(certId.getIssuerNameHash()) + '|' + Utils.toHex(certId.getIssuerKeyHash()) + '|'
+				+ certId.getSerialNumber();
+	}
+
+	private static class IndexedResponse {
+
+		private final BasicOCSPResp basicOCSPResp;
+		private final SingleResp singleResp;
+
+		IndexedResponse(BasicOCSPResp basicOCSPResp, SingleResp singleResp) {
+			this.basicOCSPResp = basicOCSPResp;
+			this.singleResp = singleResp;
+		}
+
+	}
+
 	/**
 	 * Retrieves the list of {@code BasicOCSPResp} contained in the source.
 	 *
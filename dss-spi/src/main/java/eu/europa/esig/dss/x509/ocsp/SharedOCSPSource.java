@@ -0,0 +1,186 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.ocsp;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.util.LoadingCache;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.RevocationSourceAlternateUrlsSupport;
+
+/**
+ * OCSPSource which shares the retrieved OCSP responses between the validations (eg : during a batch). A response is
+ * requested once per certificate / issuer couple, concurrent requests for the same certificate wait for the running
+ * call.
+ * 
+ * A cached response is reloaded when its nextUpdate is reached or, without nextUpdate, when it is older than the
+ * configured maximum age.
+ * 
+ * A missing OCSP response (eg : the server did not answer) is not cached : the next validation sends the request
+ * again, unless a negative result TTL is configured.
+ */
+public class SharedOCSPSource implements OCSPSource, RevocationSourceAlternateUrlsSupport<OCSPToken> {
+
+	private static final long serialVersionUID = 3590469963924627522L;
+
+	/**
+	 * The name of the cache in the validation metrics
+	 */
+	public static final String CACHE_NAME = "shared-ocsp";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SharedOCSPSource.class);
+
+	private static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final long DEFAULT_MAX_AGE = 600000; // 10 minutes
+
+	private final OCSPSource ocspSource;
+
+	private final transient LoadingCache<String, OCSPToken> cache;
+
+	private long maxAge = DEFAULT_MAX_AGE;
+
+	/**
+	 * The default constructor for SharedOCSPSource.
+	 * 
+	 * @param ocspSource
+	 *            the OCSPSource to be called on cache miss
+	 */
+	public SharedOCSPSource(OCSPSource ocspSource) {
+		this(ocspSource, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * The constructor for SharedOCSPSource with a custom cache size.
+	 * 
+	 * @param ocspSource
+	 *            the OCSPSource to be called on cache miss
+	 * @param maxSize
+	 *            the maximum number of cached responses
+	 */
+	public SharedOCSPSource(OCSPSource ocspSource, int maxSize) {
+		this.ocspSource = ocspSource;
+		this.cache = new LoadingCache<String, OCSPToken>(CACHE_NAME, maxSize);
+	}
+
+	/**
+	 * This method allows to define the maximum age of a cached response without nextUpdate (default : 10 minutes)
+	 * 
+	 * @param maxAge
+	 *            the maximum age in milliseconds
+	 */
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * This method allows to remember for the given duration that no OCSP response could be retrieved, so the other
+	 * validations do not wait again for an unavailable server (default : 0, the request is sent again)
+	 * 
+	 * @param negativeResultTTL
+	 *            the duration in milliseconds
+	 */
+	public void setNegativeResultTTL(long negativeResultTTL) {
+		cache.setNegativeResultTTL(negativeResultTTL);
+	}
+
+	@Override
+	public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) throws DSSException {
+		return getRevocationToken(certificateToken, issuerCertificateToken, Collections.<String> emptyList());
+	}
+
+	@Override
+	public OCSPToken getRevocationToken(final CertificateToken certificateToken, final CertificateToken issuerToken,
+			final List<String> alternativeUrls) {
+		if (certificateToken == null || issuerToken == null) {
+			return null;
+		}
+
+		final String key = certificateToken.getDSSIdAsString() + "|" + issuerToken.getDSSIdAsString();
+		Callable<OCSPToken> loader = new Callable<OCSPToken>() {
+			@Override
+			public OCSPToken call() throws Exception {
+				return loadToken(certificateToken, issuerToken, alternativeUrls);
+			}
+		};
+
+		OCSPToken token = cache.get(key, loader);
+		if (token != null && isExpired(token)) {
+			LOG.debug("Cached OCSP response for key '{}' is expired", key);
+			cache.invalidate(key);
+			token = cache.get(key, loader);
+		}
+		return token;
+	}
+
+	private OCSPToken loadToken(CertificateToken certificateToken, CertificateToken issuerToken, List<String> alternativeUrls) {
+		if (Utils.isCollectionNotEmpty(alternativeUrls) && ocspSource instanceof RevocationSourceAlternateUrlsSupport) {
+			@SuppressWarnings("unchecked")
+			RevocationSourceAlternateUrlsSupport<OCSPToken> alternateUrlsSupport = (RevocationSourceAlternateUrlsSupport<OCSPToken>) ocspSource;
+			return alternateUrlsSupport.getRevocationToken(certificateToken, issuerToken, alternativeUrls);
+		}
+		return ocspSource.getRevocationToken(certificateToken, issuerToken);
+	}
+
+	private boolean isExpired(OCSPToken token) {
+		Date now = new Date();
+		Date nextUpdate = token.getNextUpdate();
+		if (nextUpdate != null) {
+			return nextUpdate.before(now);
+		}
+		Date productionDate = token.getProductionDate();
+		return productionDate == null || (now.getTime() - productionDate.getTime()) > maxAge;
+	}
+
+	/**
+	 * Returns the number of OCSP requests served from the cache
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of OCSP requests sent to the underlying OCSPSource
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Removes all the cached responses
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+}
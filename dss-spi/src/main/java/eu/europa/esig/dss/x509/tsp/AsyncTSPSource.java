@@ -0,0 +1,268 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This class allows to pipeline the timestamp requests to a TSPSource : the requests are executed on a bounded
+ * thread pool and a caller can submit a batch of digests before waiting for the results.
+ * 
+ * Concurrent requests for the same digest are aggregated : only one call is sent to the underlying TSPSource and
+ * all the callers receive the same timestamp token. A caller which times out stops waiting but the shared request is
+ * not cancelled (the other callers still receive the token), the next callers send a new request.
+ * 
+ * The underlying TSPSource must be thread-safe (eg : OnlineTSPSource with a pooled DataLoader).
+ */
+public class AsyncTSPSource implements TSPSource {
+
+	private static final long serialVersionUID = -6402578962226785325L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncTSPSource.class);
+
+	private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 10;
+
+	private static final long DEFAULT_TIMEOUT = 60000; // 1 minute
+
+	private final TSPSource tspSource;
+
+	private transient ExecutorService executorService;
+
+	private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+	private long timeout = DEFAULT_TIMEOUT;
+
+	private transient ConcurrentMap<String, Future<TimeStampToken>> requestsInProgress;
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicLong aggregatedRequestCount = new AtomicLong();
+
+	/**
+	 * The default constructor for AsyncTSPSource.
+	 * 
+	 * @param tspSource
+	 *            the TSPSource to be called (must be thread-safe)
+	 */
+	public AsyncTSPSource(TSPSource tspSource) {
+		this.tspSource = tspSource;
+	}
+
+	/**
+	 * This method allows to set the executor service to be used. By default, a thread pool with
+	 * {@code maxConcurrentRequests} threads is created.
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * This method allows to define the maximum number of requests sent in parallel with the default executor service
+	 * (default : 10)
+	 * 
+	 * @param maxConcurrentRequests
+	 *            the maximum number of concurrent requests
+	 */
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this.maxConcurrentRequests = maxConcurrentRequests;
+	}
+
+	/**
+	 * This method allows to define the maximum time to wait for a timestamp (default : 1 minute)
+	 * 
+	 * @param timeout
+	 *            the timeout in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * This method submits a timestamp request and returns immediately.
+	 * 
+	 * @param digestAlgorithm
+	 *            the used digest algorithm
+	 * @param digest
+	 *            the computed digest to be timestamped
+	 * @return the future timestamp token
+	 */
+	public Future<TimeStampToken> getTimeStampResponseAsync(final DigestAlgorithm digestAlgorithm, final byte[] digest) {
+		final String key = getKey(digestAlgorithm, digest);
+		final ConcurrentMap<String, Future<TimeStampToken>> inProgress = getRequestsInProgress();
+		final FutureTask<TimeStampToken> task = new FutureTask<TimeStampToken>(new Callable<TimeStampToken>() {
+
+			@Override
+			public TimeStampToken call() throws Exception {
+				return tspSource.getTimeStampResponse(digestAlgorithm, digest);
+			}
+
+		}) {
+
+			@Override
+			protected void set(TimeStampToken token) {
+				// removed before the waiting callers are released (only this request, not a newer one for the digest)
+				inProgress.remove(key, this);
+				super.set(token);
+			}
+
+			@Override
+			protected void setException(Throwable t) {
+				inProgress.remove(key, this);
+				super.setException(t);
+			}
+
+			@Override
+			protected void done() {
+				// a cancelled request is not set
+				inProgress.remove(key, this);
+			}
+
+		};
+
+		Future<TimeStampToken> existing = inProgress.putIfAbsent(key, task);
+		if (existing != null) {
+			LOG.debug("Timestamp request for digest '{}' aggregated with a request in progress", key);
+			aggregatedRequestCount.incrementAndGet();
+			return existing;
+		}
+		requestCount.incrementAndGet();
+		getExecutorService().execute(task);
+		return task;
+	}
+
+	/**
+	 * This method timestamps all the given digests. The requests are sent in parallel.
+	 * 
+	 * @param digestAlgorithm
+	 *            the used digest algorithm
+	 * @param digests
+	 *            the computed digests to be timestamped
+	 * @return the timestamp tokens in the same order as the digests
+	 * @throws DSSException
+	 *             if any timestamp cannot be retrieved in time
+	 */
+	public List<TimeStampToken> getTimeStampResponses(DigestAlgorithm digestAlgorithm, List<byte[]> digests) throws DSSException {
+		List<Future<TimeStampToken>> futures = new ArrayList<Future<TimeStampToken>>(digests.size());
+		for (byte[] digest : digests) {
+			futures.add(getTimeStampResponseAsync(digestAlgorithm, digest));
+		}
+
+		long deadline = System.currentTimeMillis() + timeout;
+		List<TimeStampToken> result = new ArrayList<TimeStampToken>(digests.size());
+		for (int i = 0; i < digests.size(); i++) {
+			result.add(waitFor(getKey(digestAlgorithm, digests.get(i)), futures.get(i), deadline - System.currentTimeMillis()));
+		}
+		return result;
+	}
+
+	@Override
+	public TimeStampToken getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) throws DSSException {
+		return waitFor(getKey(digestAlgorithm, digest), getTimeStampResponseAsync(digestAlgorithm, digest), timeout);
+	}
+
+	private String getKey(DigestAlgorithm digestAlgorithm, byte[] digest) {
+		return digestAlgorithm.name() + ":" + Utils.toHex(digest);
+	}
+
+	/**
+	 * Waits for a timestamp. On timeout, the request is not cancelled because other callers can wait for the same
+	 * request : it is only removed from the requests in progress.
+	 */
+	private TimeStampToken waitFor(String key, Future<TimeStampToken> future, long remainingTime) {
+		try {
+			return future.get(Math.max(remainingTime, 0), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for the timestamp", e);
+		} catch (TimeoutException e) {
+			getRequestsInProgress().remove(key, future);
+			throw new DSSException("Unable to retrieve the timestamp in " + timeout + " ms", e);
+		} catch (CancellationException e) {
+			throw new DSSException("The timestamp request was cancelled", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof DSSException) {
+				throw (DSSException) e.getCause();
+			}
+			throw new DSSException("Unable to retrieve the timestamp", e.getCause());
+		}
+	}
+
+	private synchronized ConcurrentMap<String, Future<TimeStampToken>> getRequestsInProgress() {
+		if (requestsInProgress == null) {
+			requestsInProgress = new ConcurrentHashMap<String, Future<TimeStampToken>>();
+		}
+		return requestsInProgress;
+	}
+
+	private synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>());
+			threadPool.allowCoreThreadTimeOut(true);
+			executorService = threadPool;
+		}
+		return executorService;
+	}
+
+	/**
+	 * Returns the number of requests sent to the underlying TSPSource
+	 * 
+	 * @return the request count
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Returns the number of requests which were served by a request in progress for the same digest
+	 * 
+	 * @return the aggregated request count
+	 */
+	public long getAggregatedRequestCount() {
+		return aggregatedRequestCount.get();
+	}
+
+}
@@ -0,0 +1,167 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSHedgingUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+
+/**
+ * This class allows to retrieve a timestamp with different sources, like {@code CompositeTSPSource}, but without
+ * waiting for a slow source : the sources are called with {@link DSSHedgingUtils#invokeFirst}, the first timestamp
+ * wins. The timeout bounds the time spent with all the sources.
+ * 
+ * Be careful, all given tspSources MUST accept the same digest algorithm.
+ */
+public class ParallelCompositeTSPSource implements TSPSource {
+
+	private static final long serialVersionUID = 3184870133452489364L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(ParallelCompositeTSPSource.class);
+
+	private static final int DEFAULT_NB_THREADS = 10;
+
+	private static final long DEFAULT_HEDGE_DELAY = 2000; // 2 seconds
+
+	private static final long DEFAULT_TIMEOUT = 30000; // 30 seconds
+
+	private Map<String, TSPSource> tspSources;
+
+	private transient ExecutorService executorService;
+
+	private long hedgeDelay = DEFAULT_HEDGE_DELAY;
+
+	private long timeout = DEFAULT_TIMEOUT;
+
+	/**
+	 * This setter allows to provide multiple tspSources (in the preferred order). Be careful, all given tspSources MUST
+	 * accept the same digest algorithm.
+	 * 
+	 * @param tspSources
+	 *            a {@code Map} of String and TSPSource with a label and its corresponding source
+	 */
+	public void setTspSources(Map<String, TSPSource> tspSources) {
+		this.tspSources = tspSources;
+	}
+
+	/**
+	 * This method allows to set the executor service to be used. By default, a thread pool with 10 threads (or one per
+	 * source if more) is created.
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * This method allows to define the delay before calling the next source when the previous one has not answered
+	 * yet (default : 2 seconds)
+	 * 
+	 * @param hedgeDelay
+	 *            the delay in milliseconds
+	 */
+	public void setHedgeDelay(long hedgeDelay) {
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	/**
+	 * This method allows to define the maximum time to retrieve a timestamp, all sources included (default : 30
+	 * seconds)
+	 * 
+	 * @param timeout
+	 *            the timeout in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	@Override
+	public TimeStampToken getTimeStampResponse(final DigestAlgorithm digestAlgorithm, final byte[] digestValue) throws DSSException {
+		if (tspSources == null || tspSources.isEmpty()) {
+			throw new DSSException("Unable to retrieve the timestamp : no TSPSource is configured");
+		}
+
+		final List<Callable<TimeStampToken>> calls = new ArrayList<Callable<TimeStampToken>>();
+		for (Entry<String, TSPSource> entry : tspSources.entrySet()) {
+			calls.add(getCall(entry.getKey(), entry.getValue(), digestAlgorithm, digestValue));
+		}
+
+		try {
+			TimeStampToken token = DSSHedgingUtils.invokeFirst(getExecutorService(), calls, hedgeDelay, timeout);
+			if (token != null) {
+				return token;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for the timestamp", e);
+		}
+		throw new DSSException("Unable to retrieve the timestamp (" + tspSources.size() + " sources, timeout " + timeout + " ms)");
+	}
+
+	private Callable<TimeStampToken> getCall(final String name, final TSPSource tspSource, final DigestAlgorithm digestAlgorithm,
+			final byte[] digestValue) {
+		return new Callable<TimeStampToken>() {
+
+			@Override
+			public TimeStampToken call() throws Exception {
+				LOG.debug("Trying to get timestamp with TSPSource '{}'", name);
+				try {
+					TimeStampToken token = tspSource.getTimeStampResponse(digestAlgorithm, digestValue);
+					if (token != null) {
+						LOG.debug("Successfully retrieved timestamp with TSPSource '{}'", name);
+					}
+					return token;
+				} catch (Exception e) {
+					LOG.warn("Unable to retrieve the timestamp with TSPSource '{}' : {}", name, e.getMessage());
+					throw e;
+				}
+			}
+
+		};
+	}
+
+	private synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			int nbThreads = Math.max(tspSources.size(), DEFAULT_NB_THREADS);
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(nbThreads, nbThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+			threadPool.allowCoreThreadTimeOut(true);
+			executorService = threadPool;
+		}
+		return executorService;
+	}
+
+}
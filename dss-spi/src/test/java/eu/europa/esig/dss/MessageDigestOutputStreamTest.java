@@ -0,0 +1,54 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class MessageDigestOutputStreamTest {
+
+	@Test
+	public void test() throws IOException {
+		byte[] data = "Hello world, this is some data to be digested".getBytes(StandardCharsets.UTF_8);
+
+		MessageDigestOutputStream os = new MessageDigestOutputStream(DigestAlgorithm.SHA256);
+		os.write(data[0]);
+		os.write(data, 1, 10);
+		os.write(data, 11, data.length - 11);
+		os.close();
+
+		assertEquals(data.length, os.getCount());
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA256, data), os.getDigestValue());
+	}
+
+	@Test
+	public void testEmpty() {
+		MessageDigestOutputStream os = new MessageDigestOutputStream(DigestAlgorithm.SHA1);
+		assertEquals(0, os.getCount());
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA1, DSSUtils.EMPTY_BYTE_ARRAY), os.getDigestValue());
+	}
+
+}
@@ -0,0 +1,127 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.client.http.DataLoader.DataAndUrl;
+
+public class HedgedDataLoaderTest {
+
+	private static final String SLOW_URL = "http://slow.host/crl.crl";
+	private static final String DEAD_URL = "http://dead.host:8080/crl.crl";
+	private static final String FAST_URL = "ldap://fast.host/cn=CA,o=DSS?certificateRevocationList";
+
+	private static final byte[] DATA = new byte[] { 1, 2, 3 };
+
+	@Test
+	public void slowUrlIsHedged() {
+		HedgedDataLoader dataLoader = new HedgedDataLoader(new MockDataLoader());
+		dataLoader.setHedgeDelay(100);
+
+		long start = System.currentTimeMillis();
+		DataAndUrl dataAndUrl = dataLoader.get(Arrays.asList(SLOW_URL, FAST_URL));
+		assertEquals(FAST_URL, dataAndUrl.urlString);
+		assertArrayEquals(DATA, dataAndUrl.data);
+		assertTrue(System.currentTimeMillis() - start < 2000);
+	}
+
+	@Test
+	public void failedHostIsTriedLast() {
+		MockDataLoader mock = new MockDataLoader();
+		HedgedDataLoader dataLoader = new HedgedDataLoader(mock);
+		dataLoader.setHedgeDelay(5000);
+
+		DataAndUrl dataAndUrl = dataLoader.get(Arrays.asList(DEAD_URL, FAST_URL));
+		assertEquals(FAST_URL, dataAndUrl.urlString);
+		assertEquals(Arrays.asList(DEAD_URL, FAST_URL), mock.calls);
+
+		Map<String, HostStatistics> statistics = new HashMap<String, HostStatistics>();
+		for (HostStatistics hostStatistics : dataLoader.getStatistics()) {
+			statistics.put(hostStatistics.getHost(), hostStatistics);
+		}
+		assertEquals(1, statistics.get("dead.host:8080").getConsecutiveFailures());
+		assertEquals(1, statistics.get("fast.host").getSuccessCount());
+
+		mock.calls.clear();
+		dataAndUrl = dataLoader.get(Arrays.asList(DEAD_URL, FAST_URL));
+		assertEquals(FAST_URL, dataAndUrl.urlString);
+		assertEquals(Arrays.asList(FAST_URL), mock.calls);
+	}
+
+	@Test(expected = DSSException.class)
+	public void allUrlsFail() {
+		HedgedDataLoader dataLoader = new HedgedDataLoader(new MockDataLoader());
+		dataLoader.setHedgeDelay(100);
+		dataLoader.get(Arrays.asList(DEAD_URL, "http://empty.host/crl.crl"));
+	}
+
+	@Test
+	public void getHost() {
+		assertEquals("slow.host", HedgedDataLoader.getHost(SLOW_URL));
+		assertEquals("dead.host:8080", HedgedDataLoader.getHost(DEAD_URL));
+		assertEquals("fast.host", HedgedDataLoader.getHost(FAST_URL));
+		assertEquals("", HedgedDataLoader.getHost("ldap:///cn=CA, o=DSS?certificateRevocationList"));
+		assertEquals("host", HedgedDataLoader.getHost("http://user@HOST?query"));
+	}
+
+	@SuppressWarnings("serial")
+	private static class MockDataLoader extends MemoryDataLoader {
+
+		private final List<String> calls = new CopyOnWriteArrayList<String>();
+
+		MockDataLoader() {
+			super(new HashMap<String, byte[]>());
+		}
+
+		@Override
+		public byte[] get(String url) {
+			calls.add(url);
+			if (SLOW_URL.equals(url)) {
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DSSException(e);
+				}
+				return DATA;
+			} else if (DEAD_URL.equals(url)) {
+				throw new DSSException("Connection refused");
+			} else if (FAST_URL.equals(url)) {
+				return DATA;
+			}
+			return new byte[0];
+		}
+
+	}
+
+}
@@ -20,12 +20,30 @@
  */
 package eu.europa.esig.dss.client.http;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.x509.CertificateToken;
 
 public class NativeHTTPDataLoaderTest {
@@ -33,6 +51,75 @@ public class NativeHTTPDataLoaderTest {
 	private static final String HTTP_URL_TO_LOAD = "http://certs.eid.belgium.be/belgiumrs2.crt";
 	private static final String FILE_URL_TO_LOAD = "file:src/test/resources/belgiumrs2.crt";
 
+	private static final byte[] DATA = new byte[1000];
+
+	private HttpServer server;
+
+	private String serverUrl;
+
+	private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+
+	@Before
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/data", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				clientPorts.add(exchange.getRemoteAddress().getPort());
+				respond(exchange, 200, DATA.length, DATA);
+			}
+		});
+		server.createContext("/chunked", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				respond(exchange, 200, 0, DATA);
+			}
+		});
+		server.createContext("/echo", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				byte[] content;
+				try (InputStream is = exchange.getRequestBody()) {
+					content = Utils.toByteArray(is);
+				}
+				exchange.getResponseHeaders().add("Content-Type", exchange.getRequestHeaders().getFirst("Content-Type"));
+				respond(exchange, 200, content.length, content);
+			}
+		});
+		server.createContext("/slow", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					Thread.sleep(3000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				respond(exchange, 200, DATA.length, DATA);
+			}
+		});
+		server.createContext("/notfound", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				clientPorts.add(exchange.getRemoteAddress().getPort());
+				respond(exchange, 404, DATA.length, DATA);
+			}
+		});
+		server.start();
+		serverUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	private static void respond(HttpExchange exchange, int code, long length, byte[] data) throws IOException {
+		exchange.sendResponseHeaders(code, length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(data);
+		}
+	}
+
+	@After
+	public void stopServer() {
+		server.stop(0);
+	}
+
 	@Test
 	public void testHttpGet() {
 		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
@@ -66,4 +153,90 @@ public class NativeHTTPDataLoaderTest {
 		
 		dataLoader.get(HTTP_URL_TO_LOAD);
 	}
+
+	@Test
+	public void testConnectionReuse() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		for (int i = 0; i < 5; i++) {
+			assertArrayEquals(DATA, dataLoader.get(serverUrl + "/data"));
+		}
+		try {
+			dataLoader.get(serverUrl + "/notfound");
+		} catch (DSSException e) {
+			// expected
+		}
+		assertArrayEquals(DATA, dataLoader.get(serverUrl + "/data"));
+		assertEquals(1, clientPorts.size());
+	}
+
+	@Test
+	public void testPostWithContentType() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		dataLoader.setContentType("application/ocsp-request");
+		dataLoader.setTimeout(5000);
+		byte[] content = new byte[] { 1, 2, 3 };
+		assertArrayEquals(content, dataLoader.post(serverUrl + "/echo", content));
+	}
+
+	@Test(expected = DSSException.class)
+	public void testContentLengthBiggerThanMaxSize() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		dataLoader.setMaxInputSize(DATA.length - 1);
+		dataLoader.get(serverUrl + "/data");
+	}
+
+	@Test(expected = DSSException.class)
+	public void testStreamBiggerThanMaxSize() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		dataLoader.setMaxInputSize(DATA.length - 1);
+		dataLoader.get(serverUrl + "/chunked");
+	}
+
+	@Test
+	public void testMaxSize() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		dataLoader.setMaxInputSize(DATA.length);
+		assertArrayEquals(DATA, dataLoader.get(serverUrl + "/chunked"));
+	}
+
+	@Test
+	public void testGlobalTimeout() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		dataLoader.setTimeout(200);
+		long start = System.currentTimeMillis();
+		try {
+			dataLoader.get(serverUrl + "/slow");
+		} catch (DSSException e) {
+			assertTrue(System.currentTimeMillis() - start < 2000);
+			return;
+		}
+		throw new AssertionError("Timeout expected");
+	}
+
+	@Test
+	public void testSocketTimeoutsFromGlobalTimeout() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		NativeDataLoaderCall call = dataLoader.createCall(serverUrl, null, true);
+		assertEquals(0, call.getConnectTimeout());
+		assertEquals(0, call.getReadTimeout());
+
+		dataLoader.setTimeout(200);
+		call = dataLoader.createCall(serverUrl, null, true);
+		assertEquals(200, call.getConnectTimeout());
+		assertEquals(200, call.getReadTimeout());
+
+		dataLoader.setConnectTimeout(50);
+		dataLoader.setReadTimeout(100);
+		call = dataLoader.createCall(serverUrl, null, true);
+		assertEquals(50, call.getConnectTimeout());
+		assertEquals(100, call.getReadTimeout());
+	}
+
+	@Test(expected = DSSException.class)
+	public void testReadTimeout() {
+		NativeHTTPDataLoader dataLoader = new NativeHTTPDataLoader();
+		dataLoader.setReadTimeout(200);
+		dataLoader.get(serverUrl + "/slow");
+	}
+
 }
@@ -0,0 +1,128 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.util.MutableTimeDependentValues;
+
+public class TrustServicesIndexTest {
+
+	private static final String GRANTED = "http://uri.etsi.org/TrstSvc/TrustedList/Svcstatus/granted";
+	private static final String WITHDRAWN = "http://uri.etsi.org/TrstSvc/TrustedList/Svcstatus/withdrawn";
+
+	@Test
+	public void statusesAtDate() {
+		ServiceInfoStatus granted = status(GRANTED, 1000, 5000L);
+		ServiceInfoStatus withdrawn = status(WITHDRAWN, 5000, null);
+		ServiceInfo service1 = service(withdrawn, granted);
+
+		ServiceInfoStatus granted2 = status(GRANTED, 3000, null);
+		ServiceInfo service2 = service(granted2);
+
+		Map<String, List<ServiceInfo>> servicesByEntity = new HashMap<String, List<ServiceInfo>>();
+		servicesByEntity.put("entity", Arrays.asList(service1, service2));
+		TrustServicesIndex index = new TrustServicesIndex(servicesByEntity);
+
+		assertEquals(1, index.size());
+		assertEquals(2, index.getTrustServices("entity").size());
+		assertTrue(index.getTrustServices("unknown").isEmpty());
+		assertTrue(index.getTrustServices("unknown", new Date()).isEmpty());
+
+		assertTrue(index.getTrustServices("entity", new Date(999)).isEmpty());
+
+		Map<ServiceInfo, ServiceInfoStatus> statuses = index.getTrustServices("entity", new Date(1000));
+		assertEquals(1, statuses.size());
+		assertSame(granted, statuses.get(service1));
+
+		statuses = index.getTrustServices("entity", new Date(3000));
+		assertEquals(2, statuses.size());
+		assertSame(granted, statuses.get(service1));
+		assertSame(granted2, statuses.get(service2));
+
+		statuses = index.getTrustServices("entity", new Date(4999));
+		assertSame(granted, statuses.get(service1));
+
+		statuses = index.getTrustServices("entity", new Date(5000));
+		assertSame(withdrawn, statuses.get(service1));
+		assertSame(granted2, statuses.get(service2));
+
+		statuses = index.getTrustServices("entity", new Date());
+		assertSame(withdrawn, statuses.get(service1));
+		assertSame(granted2, statuses.get(service2));
+	}
+
+	@Test
+	public void servicesAfterDate() {
+		ServiceInfo service1 = service(status(WITHDRAWN, 5000, null), status(GRANTED, 1000, 5000L));
+		ServiceInfo service2 = service(status(GRANTED, 3000, null));
+		ServiceInfo expired = service(status(GRANTED, 1000, 2000L));
+
+		Map<String, List<ServiceInfo>> servicesByEntity = new HashMap<String, List<ServiceInfo>>();
+		servicesByEntity.put("entity", Arrays.asList(service1, service2, expired));
+		TrustServicesIndex index = new TrustServicesIndex(servicesByEntity);
+
+		assertTrue(index.getTrustServicesAfter("unknown", new Date()).isEmpty());
+		assertEquals(3, index.getTrustServicesAfter("entity", new Date(0)).size());
+		// the end date is included, as in TimeDependentValues.getAfter
+		assertTrue(index.getTrustServicesAfter("entity", new Date(2000)).contains(expired));
+		Set<ServiceInfo> services = index.getTrustServicesAfter("entity", new Date(2001));
+		assertEquals(2, services.size());
+		assertTrue(services.contains(service1));
+		assertTrue(services.contains(service2));
+		assertEquals(2, index.getTrustServicesAfter("entity", new Date()).size());
+
+		for (long time : new long[] { 0, 1000, 1999, 2000, 2001, 4000, 5000, 6000 }) {
+			for (ServiceInfo service : Arrays.asList(service1, service2, expired)) {
+				boolean expected = !service.getStatus().getAfter(new Date(time)).isEmpty();
+				assertEquals(expected, index.getTrustServicesAfter("entity", new Date(time)).contains(service));
+			}
+		}
+	}
+
+	private ServiceInfo service(ServiceInfoStatus... statuses) {
+		MutableTimeDependentValues<ServiceInfoStatus> history = new MutableTimeDependentValues<ServiceInfoStatus>();
+		for (ServiceInfoStatus status : statuses) {
+			history.addOldest(status);
+		}
+		ServiceInfo serviceInfo = new ServiceInfo();
+		serviceInfo.setStatus(history);
+		return serviceInfo;
+	}
+
+	private ServiceInfoStatus status(String status, long start, Long end) {
+		return new ServiceInfoStatus("service", "http://uri.etsi.org/TrstSvc/Svctype/CA/QC", status, null, Collections.<String> emptyList(),
+				Collections.<String> emptyList(), null, new Date(start), end == null ? null : new Date(end));
+	}
+
+}
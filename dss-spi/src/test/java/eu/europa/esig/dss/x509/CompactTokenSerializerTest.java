@@ -0,0 +1,175 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.tsl.KeyUsageBit;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.ocsp.ExternalResourcesOCSPSource;
+import eu.europa.esig.dss.x509.ocsp.OCSPToken;
+
+public class CompactTokenSerializerTest {
+
+	@Test
+	public void certificateIsRestoredWithoutParsing() {
+		CertificateToken certificate = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+
+		byte[] binaries = CompactTokenSerializer.serialize(certificate);
+		assertTrue(CompactTokenSerializer.isCompactRecord(binaries));
+		assertFalse(CompactTokenSerializer.isCompactRecord(certificate.getEncoded()));
+
+		CertificateToken restored = CompactTokenSerializer.deserializeCertificate(binaries);
+		assertFalse(restored.isMaterialized());
+		assertEquals(certificate, restored);
+		assertEquals(certificate.getDSSIdAsString(), restored.getDSSIdAsString());
+		assertEquals(certificate.getEntityKey(), restored.getEntityKey());
+		assertEquals(certificate.getSubjectX500Principal(), restored.getSubjectX500Principal());
+		assertEquals(certificate.getIssuerX500Principal(), restored.getIssuerX500Principal());
+		assertEquals(certificate.getSerialNumber(), restored.getSerialNumber());
+		assertEquals(certificate.getNotBefore(), restored.getNotBefore());
+		assertEquals(certificate.getNotAfter(), restored.getNotAfter());
+		assertEquals(certificate.getSignatureAlgorithm(), restored.getSignatureAlgorithm());
+		assertEquals(certificate.getKeyUsageBits(), restored.getKeyUsageBits());
+		assertTrue(restored.checkKeyUsage(KeyUsageBit.crlSign));
+		assertEquals(certificate.isCA(), restored.isCA());
+		assertEquals(certificate.isSelfSigned(), restored.isSelfSigned());
+		assertEquals(certificate.isValidOn(new Date()), restored.isValidOn(new Date()));
+		assertArrayEquals(certificate.getDigest(DigestAlgorithm.SHA256), restored.getDigest(DigestAlgorithm.SHA256));
+		assertArrayEquals(certificate.getEncoded(), restored.getEncoded());
+		assertFalse(restored.isMaterialized());
+
+		assertEquals(certificate.getPublicKey(), restored.getPublicKey());
+		assertTrue(restored.isMaterialized());
+		assertArrayEquals(certificate.getSignature(), restored.getSignature());
+	}
+
+	@Test
+	public void selfSignedCertificate() {
+		CertificateToken certificate = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrca2-self-sign.crt"));
+		CertificateToken restored = CompactTokenSerializer.deserializeCertificate(CompactTokenSerializer.serialize(certificate));
+		assertTrue(restored.isSelfSigned());
+		assertTrue(restored.isSignatureValid());
+		assertFalse(restored.isMaterialized());
+	}
+
+	@Test
+	public void restoredCertificateChecksSignatures() {
+		CertificateToken user = CompactTokenSerializer
+				.deserializeCertificate(CompactTokenSerializer.serialize(DSSUtils.loadCertificate(new File("src/test/resources/sk_user.cer"))));
+		CertificateToken ca = CompactTokenSerializer
+				.deserializeCertificate(CompactTokenSerializer.serialize(DSSUtils.loadCertificate(new File("src/test/resources/sk_ca.cer"))));
+		assertTrue(user.isSignedBy(ca));
+	}
+
+	@Test
+	public void certificates() {
+		List<CertificateToken> certificates = Arrays.asList(DSSUtils.loadCertificate(new File("src/test/resources/sk_user.cer")),
+				DSSUtils.loadCertificate(new File("src/test/resources/sk_ca.cer")), DSSUtils.loadCertificate(new File("src/test/resources/ecdsa.cer")));
+
+		List<CertificateToken> restored = CompactTokenSerializer.deserializeCertificates(CompactTokenSerializer.serialize(certificates));
+		assertEquals(certificates, restored);
+	}
+
+	@Test
+	public void crlIsRestoredWithItsVerification() throws IOException {
+		CertificateToken caCert = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2.crt"));
+		CRLValidity crlValidity;
+		try (InputStream crlStream = new FileInputStream("src/test/resources/crl/belgium2.crl")) {
+			crlValidity = CRLUtils.isValidCRL(crlStream, caCert);
+		}
+		crlValidity.setUrl("http://crl.eid.belgium.be/belgium2.crl");
+
+		CRLValidity restored = CompactTokenSerializer.deserializeCRL(CompactTokenSerializer.serialize(crlValidity));
+		assertArrayEquals(crlValidity.getCrlEncoded(), restored.getCrlEncoded());
+		assertEquals(crlValidity.getUrl(), restored.getUrl());
+		assertEquals(crlValidity.getSignatureAlgorithm(), restored.getSignatureAlgorithm());
+		assertEquals(crlValidity.getThisUpdate(), restored.getThisUpdate());
+		assertEquals(crlValidity.getNextUpdate(), restored.getNextUpdate());
+		assertEquals(crlValidity.getExpiredCertsOnCRL(), restored.getExpiredCertsOnCRL());
+		assertTrue(restored.isSignatureIntact());
+		assertTrue(restored.isCrlSignKeyUsage());
+		assertTrue(restored.isIssuerX509PrincipalMatches());
+		assertEquals(crlValidity.isValid(), restored.isValid());
+		assertEquals(caCert, restored.getIssuerToken());
+
+		CRLToken crl = new CRLToken(DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer")), restored);
+		assertNotNull(crl.getPublicKeyOfTheSigner());
+		assertEquals(crlValidity.getThisUpdate(), crl.getThisUpdate());
+	}
+
+	@Test
+	public void ocspIsRestoredWithItsVerification() {
+		CertificateToken user = DSSUtils.loadCertificate(new File("src/test/resources/sk_user.cer"));
+		CertificateToken caToken = DSSUtils.loadCertificate(new File("src/test/resources/sk_ca.cer"));
+
+		OCSPToken ocspToken = new ExternalResourcesOCSPSource("/sk_ocsp.bin").getRevocationToken(user, caToken);
+		ocspToken.setSourceURL("http://ocsp.sk.ee");
+
+		OCSPToken restored = CompactTokenSerializer.deserializeOCSP(CompactTokenSerializer.serialize(ocspToken));
+		assertEquals(ocspToken.getDSSIdAsString(), restored.getDSSIdAsString());
+		assertEquals(ocspToken.getSourceURL(), restored.getSourceURL());
+		assertEquals(ocspToken.getStatus(), restored.getStatus());
+		assertEquals(ocspToken.getRevocationDate(), restored.getRevocationDate());
+		assertEquals(ocspToken.getReason(), restored.getReason());
+		assertEquals(ocspToken.getProductionDate(), restored.getProductionDate());
+		assertEquals(ocspToken.getThisUpdate(), restored.getThisUpdate());
+		assertEquals(ocspToken.getCertHash(), restored.getCertHash());
+		assertEquals(ocspToken.getCertId(), restored.getCertId());
+		assertEquals(ocspToken.getIssuerX500Principal(), restored.getIssuerX500Principal());
+		assertEquals(ocspToken.isSignatureValid(), restored.isSignatureValid());
+		assertEquals(ocspToken.getPublicKeyOfTheSigner(), restored.getPublicKeyOfTheSigner());
+		assertEquals(ocspToken.getSignatureAlgorithm(), restored.getSignatureAlgorithm());
+	}
+
+	@Test(expected = DSSException.class)
+	public void unexpectedRecordType() {
+		CertificateToken certificate = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CompactTokenSerializer.deserializeCRL(CompactTokenSerializer.serialize(certificate));
+	}
+
+	@Test(expected = DSSException.class)
+	public void unsupportedVersion() {
+		byte[] binaries = CompactTokenSerializer.serialize(DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer")));
+		binaries[2] = 99;
+		CompactTokenSerializer.deserializeCertificate(binaries);
+	}
+
+}
@@ -0,0 +1,108 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSUtils;
+
+public class SignatureVerificationCacheTest {
+
+	private static final File CERTIFICATE = new File("src/test/resources/citizen_ca.cer");
+
+	private static final File ISSUER = new File("src/test/resources/belgiumrs2.crt");
+
+	@Before
+	public void init() {
+		SignatureVerificationCache.clear();
+	}
+
+	@After
+	public void reset() {
+		SignatureVerificationCache.setEnabled(true);
+		SignatureVerificationCache.clear();
+	}
+
+	@Test
+	public void validSignatureIsVerifiedOnce() {
+		CertificateToken issuer = DSSUtils.loadCertificate(ISSUER);
+		long hits = SignatureVerificationCache.getHitCount();
+		long misses = SignatureVerificationCache.getMissCount();
+
+		CertificateToken first = DSSUtils.loadCertificate(CERTIFICATE);
+		assertTrue(first.isSignedBy(issuer));
+		assertTrue(first.isSignatureValid());
+		assertEquals(misses + 1, SignatureVerificationCache.getMissCount());
+
+		// another instance of the same certificate (eg : extracted from another signature)
+		CertificateToken second = DSSUtils.loadCertificate(CERTIFICATE);
+		assertTrue(second.isSignedBy(DSSUtils.loadCertificate(ISSUER)));
+		assertTrue(second.isSignatureValid());
+		assertEquals(issuer.getPublicKey(), second.getPublicKeyOfTheSigner());
+		assertEquals(hits + 1, SignatureVerificationCache.getHitCount());
+		assertEquals(misses + 1, SignatureVerificationCache.getMissCount());
+		assertEquals(1, SignatureVerificationCache.size());
+	}
+
+	@Test
+	public void invalidSignatureIsCached() {
+		CertificateToken wrongIssuer = DSSUtils.loadCertificate(CERTIFICATE);
+		long hits = SignatureVerificationCache.getHitCount();
+
+		CertificateToken first = DSSUtils.loadCertificate(CERTIFICATE);
+		assertFalse(first.isSignedBy(wrongIssuer));
+		assertFalse(first.isSignatureValid());
+
+		CertificateToken second = DSSUtils.loadCertificate(CERTIFICATE);
+		assertFalse(second.isSignedBy(wrongIssuer));
+		assertFalse(second.isSignatureValid());
+		assertEquals(first.signatureInvalidityReason, second.signatureInvalidityReason);
+		assertFalse(second.signatureInvalidityReason.isEmpty());
+		assertEquals(hits + 1, SignatureVerificationCache.getHitCount());
+
+		// the issuer is still found with the right key
+		assertTrue(second.isSignedBy(DSSUtils.loadCertificate(ISSUER)));
+		assertTrue(second.isSignatureValid());
+	}
+
+	@Test
+	public void disabledCache() {
+		SignatureVerificationCache.setEnabled(false);
+		long hits = SignatureVerificationCache.getHitCount();
+		long misses = SignatureVerificationCache.getMissCount();
+
+		assertTrue(DSSUtils.loadCertificate(CERTIFICATE).isSignedBy(DSSUtils.loadCertificate(ISSUER)));
+		assertTrue(DSSUtils.loadCertificate(CERTIFICATE).isSignedBy(DSSUtils.loadCertificate(ISSUER)));
+
+		assertEquals(hits, SignatureVerificationCache.getHitCount());
+		assertEquals(misses, SignatureVerificationCache.getMissCount());
+		assertEquals(0, SignatureVerificationCache.size());
+	}
+
+}
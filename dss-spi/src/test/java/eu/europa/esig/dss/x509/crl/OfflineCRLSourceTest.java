@@ -0,0 +1,88 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.crl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+public class OfflineCRLSourceTest {
+
+	@Test
+	public void getIssuerName() throws Exception {
+		CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+		String[] derCRLs = { "LTGRCA.crl", "belgium2.crl", "crl-2.crl", "crl_with_expiredCertsOnCRL_extension.crl", "pt_crl_with_critical_extension.crl" };
+		for (String crl : derCRLs) {
+			File file = new File("src/test/resources/crl/" + crl);
+			try (InputStream is = new FileInputStream(file)) {
+				X509CRL x509crl = (X509CRL) certificateFactory.generateCRL(is);
+				assertEquals(x509crl.getIssuerX500Principal(), OfflineCRLSource.getIssuerName(DSSUtils.toByteArray(file)));
+			}
+		}
+
+		// PEM encoded
+		assertNull(OfflineCRLSource.getIssuerName(DSSUtils.toByteArray(new File("src/test/resources/crl/LTRCA.crl"))));
+		assertNull(OfflineCRLSource.getIssuerName(new byte[] { 0x30, (byte) 0x82, 0x01 }));
+		assertNull(OfflineCRLSource.getIssuerName(new byte[0]));
+	}
+
+	@Test
+	public void getRevocationTokenFromIndexedCRLs() {
+		CertificateToken caCert = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2.crt"));
+		CertificateToken tsaCert = DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer"));
+
+		ExternalResourcesCRLSource crlSource = new ExternalResourcesCRLSource("/crl/LTGRCA.crl", "/crl/LTRCA.crl", "/crl/belgium2.crl", "/crl/crl-2.crl",
+				"/crl/pt_crl_with_critical_extension.crl");
+		assertEquals(5, crlSource.getContainedX509CRLs().size());
+
+		CRLToken crlToken = crlSource.getRevocationToken(tsaCert, caCert);
+		assertNotNull(crlToken);
+		assertTrue(crlToken.isValid());
+		assertEquals(caCert.getSubjectX500Principal(), crlToken.getIssuerX500Principal());
+
+		// no CRL issued by the TSA
+		assertNull(crlSource.getRevocationToken(caCert, tsaCert));
+	}
+
+	@Test
+	public void duplicateCRLs() {
+		ExternalResourcesCRLSource crlSource = new ExternalResourcesCRLSource("/crl/belgium2.crl", "/crl/belgium2.crl");
+		assertEquals(1, crlSource.getContainedX509CRLs().size());
+
+		ListCRLSource listCRLSource = new ListCRLSource(crlSource);
+		listCRLSource.addAll(new ExternalResourcesCRLSource("/crl/belgium2.crl", "/crl/LTGRCA.crl"));
+		assertEquals(2, Utils.collectionSize(listCRLSource.getContainedX509CRLs()));
+	}
+
+}
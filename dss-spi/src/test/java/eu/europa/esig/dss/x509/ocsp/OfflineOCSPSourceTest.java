@@ -21,6 +21,7 @@
 package eu.europa.esig.dss.x509.ocsp;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -110,4 +111,26 @@ public class OfflineOCSPSourceTest {
 		assertArrayEquals(ocspCertHash.getValue(), user.getDigest(ocspCertHash.getAlgorithm()));
 	}
 
+	@Test
+	public void testIndexCompletedWhenResponsesAreAdded() {
+		CertificateToken user = DSSUtils.loadCertificate(new File("src/test/resources/sk_user.cer"));
+		CertificateToken caToken = DSSUtils.loadCertificate(new File("src/test/resources/sk_ca.cer"));
+
+		ListOCSPSource ocspSource = new ListOCSPSource();
+		assertNull(ocspSource.getRevocationToken(user, caToken));
+
+		ocspSource.addAll(new ExternalResourcesOCSPSource("/sk_ocsp.bin"));
+		OCSPToken ocspToken = ocspSource.getRevocationToken(user, caToken);
+		assertNotNull(ocspToken);
+		assertNotNull(ocspToken.getBasicOCSPResp());
+
+		// already indexed
+		ocspSource.addAll(new ExternalResourcesOCSPSource("/sk_ocsp.bin"));
+		assertEquals(1, ocspSource.getContainedOCSPResponses().size());
+		assertNotNull(ocspSource.getRevocationToken(user, caToken));
+
+		// no response for the CA
+		assertNull(ocspSource.getRevocationToken(caToken, caToken));
+	}
+
 }
@@ -0,0 +1,79 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.ocsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+public class SharedOCSPSourceTest {
+
+	private static final CertificateToken USER = DSSUtils.loadCertificate(new File("src/test/resources/sk_user.cer"));
+	private static final CertificateToken CA = DSSUtils.loadCertificate(new File("src/test/resources/sk_ca.cer"));
+
+	private static class UnavailableOCSPSource implements OCSPSource {
+
+		private static final long serialVersionUID = 1L;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) throws DSSException {
+			calls.incrementAndGet();
+			return null;
+		}
+
+	}
+
+	@Test
+	public void unavailableResponderIsCalledAgain() {
+		UnavailableOCSPSource ocspSource = new UnavailableOCSPSource();
+		SharedOCSPSource sharedOCSPSource = new SharedOCSPSource(ocspSource);
+
+		assertNull(sharedOCSPSource.getRevocationToken(USER, CA));
+		assertNull(sharedOCSPSource.getRevocationToken(USER, CA));
+		assertEquals(2, ocspSource.calls.get());
+	}
+
+	@Test
+	public void negativeResultTTL() throws Exception {
+		UnavailableOCSPSource ocspSource = new UnavailableOCSPSource();
+		SharedOCSPSource sharedOCSPSource = new SharedOCSPSource(ocspSource);
+		sharedOCSPSource.setNegativeResultTTL(200);
+
+		assertNull(sharedOCSPSource.getRevocationToken(USER, CA));
+		assertNull(sharedOCSPSource.getRevocationToken(USER, CA));
+		assertEquals(1, ocspSource.calls.get());
+
+		Thread.sleep(300);
+		assertNull(sharedOCSPSource.getRevocationToken(USER, CA));
+		assertEquals(2, ocspSource.calls.get());
+	}
+
+}
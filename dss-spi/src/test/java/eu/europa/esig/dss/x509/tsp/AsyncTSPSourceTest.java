@@ -0,0 +1,153 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.tsp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.bouncycastle.tsp.TimeStampToken;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+
+public class AsyncTSPSourceTest {
+
+	@Test
+	public void batch() {
+		MockTSPSource mock = new MockTSPSource(100, false);
+		AsyncTSPSource tspSource = new AsyncTSPSource(mock);
+		tspSource.setMaxConcurrentRequests(20);
+
+		List<byte[]> digests = new ArrayList<byte[]>();
+		for (int i = 0; i < 20; i++) {
+			digests.add(DSSUtils.digest(DigestAlgorithm.SHA256, ("Hello world " + i).getBytes()));
+		}
+
+		List<TimeStampToken> tokens = tspSource.getTimeStampResponses(DigestAlgorithm.SHA256, digests);
+		assertEquals(20, tokens.size());
+		for (int i = 0; i < 20; i++) {
+			assertArrayEquals(digests.get(i), tokens.get(i).getTimeStampInfo().getMessageImprintDigest());
+		}
+		assertEquals(20, mock.getCalls());
+		assertEquals(20, tspSource.getRequestCount());
+	}
+
+	@Test
+	public void aggregateSameDigest() throws Exception {
+		MockTSPSource mock = new MockTSPSource(300, false);
+		AsyncTSPSource tspSource = new AsyncTSPSource(mock);
+
+		byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, "Hello world".getBytes());
+		Future<TimeStampToken> first = tspSource.getTimeStampResponseAsync(DigestAlgorithm.SHA256, digest);
+		Future<TimeStampToken> second = tspSource.getTimeStampResponseAsync(DigestAlgorithm.SHA256, digest);
+
+		assertNotNull(first.get());
+		assertSame(first.get(), second.get());
+		assertEquals(1, mock.getCalls());
+		assertEquals(1, tspSource.getAggregatedRequestCount());
+
+		// the request is not in progress anymore
+		assertNotNull(tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, digest));
+		assertEquals(2, mock.getCalls());
+	}
+
+	@Test(expected = DSSException.class)
+	public void failure() {
+		AsyncTSPSource tspSource = new AsyncTSPSource(new MockTSPSource(0, true));
+		tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DSSUtils.digest(DigestAlgorithm.SHA256, "Hello world".getBytes()));
+	}
+
+	@Test(expected = DSSException.class)
+	public void timeout() {
+		AsyncTSPSource tspSource = new AsyncTSPSource(new MockTSPSource(1000, false));
+		tspSource.setTimeout(100);
+		tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DSSUtils.digest(DigestAlgorithm.SHA256, "Hello world".getBytes()));
+	}
+
+	@Test
+	public void timeoutDoesNotCancelSharedRequest() throws Exception {
+		MockTSPSource mock = new MockTSPSource(500, false);
+		AsyncTSPSource tspSource = new AsyncTSPSource(mock);
+		tspSource.setTimeout(100);
+
+		byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, "Hello world".getBytes());
+		Future<TimeStampToken> first = tspSource.getTimeStampResponseAsync(DigestAlgorithm.SHA256, digest);
+		try {
+			tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, digest);
+			fail("Timeout expected");
+		} catch (DSSException e) {
+			// expected
+		}
+		assertEquals(1, tspSource.getAggregatedRequestCount());
+
+		// the other caller still receives the token
+		assertFalse(first.isCancelled());
+		assertNotNull(first.get());
+
+		// the timed out request is not reused
+		assertNotNull(tspSource.getTimeStampResponseAsync(DigestAlgorithm.SHA256, digest).get());
+		assertEquals(2, mock.getCalls());
+		assertEquals(1, tspSource.getAggregatedRequestCount());
+	}
+
+	@Test
+	public void cancelledRequest() throws Exception {
+		AsyncTSPSource tspSource = new AsyncTSPSource(new MockTSPSource(500, false));
+
+		byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, "Hello world".getBytes());
+		final Future<TimeStampToken> first = tspSource.getTimeStampResponseAsync(DigestAlgorithm.SHA256, digest);
+		Thread canceller = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				first.cancel(true);
+			}
+
+		});
+		canceller.start();
+		try {
+			tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, digest);
+			fail("Cancellation expected");
+		} catch (DSSException e) {
+			// expected
+		}
+		canceller.join();
+
+		// the cancelled request is not in progress anymore
+		assertNotNull(tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, digest));
+	}
+
+}
@@ -0,0 +1,128 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.tsp;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampResponse;
+import org.bouncycastle.tsp.TimeStampResponseGenerator;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+
+/**
+ * Local TSA stand-in based on BouncyCastle, with configurable latency and failure
+ */
+public class MockTSPSource implements TSPSource {
+
+	private static final long serialVersionUID = -1863695614187405765L;
+
+	private static KeyPair keyPair;
+	private static X509Certificate certificate;
+
+	private final long latency;
+	private final boolean failure;
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	public MockTSPSource(long latency, boolean failure) {
+		this.latency = latency;
+		this.failure = failure;
+	}
+
+	@Override
+	public TimeStampToken getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) throws DSSException {
+		calls.incrementAndGet();
+		try {
+			if (latency > 0) {
+				Thread.sleep(latency);
+			}
+			if (failure) {
+				throw new DSSException("TSA unavailable");
+			}
+
+			initTSA();
+
+			TimeStampRequestGenerator requestGenerator = new TimeStampRequestGenerator();
+			requestGenerator.setCertReq(true);
+			TimeStampRequest request = requestGenerator.generate(new ASN1ObjectIdentifier(digestAlgorithm.getOid()), digest);
+
+			TimeStampTokenGenerator tokenGenerator = new TimeStampTokenGenerator(
+					new JcaSimpleSignerInfoGeneratorBuilder().build("SHA256withRSA", keyPair.getPrivate(), certificate),
+					new JcaDigestCalculatorProviderBuilder().build().get(new AlgorithmIdentifier(OIWObjectIdentifiers.idSHA1)), new ASN1ObjectIdentifier("0.4.0.2023.1.1"));
+			tokenGenerator.addCertificates(new JcaCertStore(Collections.singletonList(certificate)));
+
+			TimeStampResponseGenerator responseGenerator = new TimeStampResponseGenerator(tokenGenerator, TSPAlgorithms.ALLOWED);
+			TimeStampResponse response = responseGenerator.generate(request, BigInteger.valueOf(System.nanoTime()), new Date());
+			response.validate(request);
+			return response.getTimeStampToken();
+		} catch (DSSException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSException("Unable to generate the timestamp", e);
+		}
+	}
+
+	public int getCalls() {
+		return calls.get();
+	}
+
+	private static synchronized void initTSA() throws Exception {
+		if (keyPair == null) {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			keyPair = generator.generateKeyPair();
+
+			X500Name name = new X500Name("CN=Mock TSA,O=DSS,C=EU");
+			long now = System.currentTimeMillis();
+			JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(now - 3600000),
+					new Date(now + 3600000), name, keyPair.getPublic());
+			builder.addExtension(Extension.extendedKeyUsage, true, new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+			certificate = new JcaX509CertificateConverter()
+					.getCertificate(builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+		}
+	}
+
+}
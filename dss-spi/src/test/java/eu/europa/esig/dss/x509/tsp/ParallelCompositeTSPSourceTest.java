@@ -0,0 +1,111 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.tsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+
+public class ParallelCompositeTSPSourceTest {
+
+	private static final byte[] DIGEST = DSSUtils.digest(DigestAlgorithm.SHA256, "Hello world".getBytes());
+
+	@Test
+	public void firstSourceFails() {
+		MockTSPSource failing = new MockTSPSource(0, true);
+		MockTSPSource working = new MockTSPSource(0, false);
+
+		Map<String, TSPSource> sources = new LinkedHashMap<String, TSPSource>();
+		sources.put("failing", failing);
+		sources.put("working", working);
+
+		ParallelCompositeTSPSource tspSource = new ParallelCompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setHedgeDelay(5000);
+
+		long start = System.currentTimeMillis();
+		assertNotNull(tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+		// the failure triggers the next source without waiting for the hedge delay
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertEquals(1, failing.getCalls());
+		assertEquals(1, working.getCalls());
+	}
+
+	@Test
+	public void slowFirstSource() {
+		MockTSPSource slow = new MockTSPSource(5000, false);
+		MockTSPSource fast = new MockTSPSource(0, false);
+
+		Map<String, TSPSource> sources = new LinkedHashMap<String, TSPSource>();
+		sources.put("slow", slow);
+		sources.put("fast", fast);
+
+		ParallelCompositeTSPSource tspSource = new ParallelCompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setHedgeDelay(100);
+
+		long start = System.currentTimeMillis();
+		assertNotNull(tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertEquals(1, fast.getCalls());
+	}
+
+	@Test(expected = DSSException.class)
+	public void deadline() {
+		Map<String, TSPSource> sources = new LinkedHashMap<String, TSPSource>();
+		sources.put("slow1", new MockTSPSource(2000, false));
+		sources.put("slow2", new MockTSPSource(2000, false));
+
+		ParallelCompositeTSPSource tspSource = new ParallelCompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setHedgeDelay(50);
+		tspSource.setTimeout(300);
+		tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+	}
+
+	@Test(expected = DSSException.class)
+	public void allSourcesFail() {
+		Map<String, TSPSource> sources = new LinkedHashMap<String, TSPSource>();
+		sources.put("failing1", new MockTSPSource(0, true));
+		sources.put("failing2", new MockTSPSource(0, true));
+
+		ParallelCompositeTSPSource tspSource = new ParallelCompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+	}
+
+	@Test(expected = DSSException.class)
+	public void noSource() {
+		ParallelCompositeTSPSource tspSource = new ParallelCompositeTSPSource();
+		tspSource.setTspSources(new LinkedHashMap<String, TSPSource>());
+		tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+	}
+
+}
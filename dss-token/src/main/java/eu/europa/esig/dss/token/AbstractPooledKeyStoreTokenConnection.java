@@ -0,0 +1,462 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.ProviderException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.MaskGenerationFunction;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+
+/**
+ * Token connection which dispatches the signature operations over a fixed pool of underlying token connections
+ * (sessions). Each session owns its own provider/login, so concurrent calls to
+ * {@link #sign(ToBeSigned, DigestAlgorithm, MaskGenerationFunction, DSSPrivateKeyEntry)} are executed in parallel
+ * up to the pool size.
+ * 
+ * Private keys are bound to the session which loaded them : the key given to the sign method is only used to get
+ * its alias, the effective key is resolved (and cached) in the borrowed session with the password protection used to
+ * retrieve it (see {@link #getKey(String, PasswordProtection)}).
+ * 
+ * A session which fails with a token error (see {@link #isSessionFailure(Exception)}) is replaced by a new one. Other
+ * errors (unknown key, invalid parameters,...) keep the session.
+ */
+public abstract class AbstractPooledKeyStoreTokenConnection extends AbstractKeyStoreTokenConnection {
+
+	private static final long DEFAULT_BORROW_TIMEOUT = 30000; // 30 seconds
+
+	private final int poolSize;
+
+	private final BlockingQueue<PooledSession> idleSessions;
+
+	private final List<PooledSession> allSessions;
+
+	/* The password protections given to getKey, used to resolve the keys in the other sessions */
+	private final ConcurrentMap<String, PasswordProtection> keyProtections = new ConcurrentHashMap<String, PasswordProtection>();
+
+	private long borrowTimeout = DEFAULT_BORROW_TIMEOUT;
+
+	private volatile boolean closed;
+
+	private final AtomicLong signatureCount = new AtomicLong();
+	private final AtomicLong failureCount = new AtomicLong();
+	private final AtomicLong waitCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
+	private final AtomicLong totalSignatureTime = new AtomicLong();
+
+	/**
+	 * The default constructor for AbstractPooledKeyStoreTokenConnection.
+	 * 
+	 * @param poolSize
+	 *            the number of sessions to be opened (must be positive)
+	 */
+	protected AbstractPooledKeyStoreTokenConnection(int poolSize) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("The pool size must be positive");
+		}
+		this.poolSize = poolSize;
+		this.idleSessions = new ArrayBlockingQueue<PooledSession>(poolSize);
+		this.allSessions = new ArrayList<PooledSession>(poolSize);
+	}
+
+	/**
+	 * Creates the underlying token connection for the session with the given index. This method is called lazily,
+	 * when a new session is required.
+	 * 
+	 * @param index
+	 *            the session index (from 0 to poolSize - 1)
+	 * @return a new token connection
+	 */
+	protected abstract AbstractKeyStoreTokenConnection createSession(int index);
+
+	/**
+	 * This method allows to define the maximum time to wait for a free session (default : 30 seconds)
+	 * 
+	 * @param borrowTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setBorrowTimeout(long borrowTimeout) {
+		this.borrowTimeout = borrowTimeout;
+	}
+
+	@Override
+	KeyStore getKeyStore() throws DSSException {
+		PooledSession session = borrow();
+		try {
+			return session.token.getKeyStore();
+		} finally {
+			release(session);
+		}
+	}
+
+	@Override
+	PasswordProtection getKeyProtectionParameter() {
+		PooledSession session = borrow();
+		try {
+			return session.token.getKeyProtectionParameter();
+		} finally {
+			release(session);
+		}
+	}
+
+	@Override
+	public List<DSSPrivateKeyEntry> getKeys() throws DSSException {
+		PooledSession session = borrow();
+		try {
+			return session.token.getKeys();
+		} finally {
+			release(session);
+		}
+	}
+
+	@Override
+	public DSSPrivateKeyEntry getKey(String alias, PasswordProtection passwordProtection) {
+		PooledSession session = borrow();
+		try {
+			DSSPrivateKeyEntry key = session.getKey(alias, passwordProtection);
+			if (key != null && passwordProtection != null) {
+				keyProtections.put(alias, passwordProtection);
+			}
+			return key;
+		} finally {
+			release(session);
+		}
+	}
+
+	@Override
+	public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, MaskGenerationFunction mgf, DSSPrivateKeyEntry keyEntry)
+			throws DSSException {
+		if (!(keyEntry instanceof KSPrivateKeyEntry)) {
+			throw new IllegalArgumentException("Only KSPrivateKeyEntry are supported");
+		}
+		final String alias = ((KSPrivateKeyEntry) keyEntry).getAlias();
+
+		PooledSession session = borrow();
+		long start = System.nanoTime();
+		try {
+			DSSPrivateKeyEntry sessionKey = session.getKey(alias, keyProtections.get(alias));
+			if (sessionKey == null) {
+				throw new DSSException("Unable to retrieve the key '" + alias + "' in the session #" + session.index);
+			}
+			SignatureValue signatureValue = session.token.sign(toBeSigned, digestAlgorithm, mgf, sessionKey);
+			signatureCount.incrementAndGet();
+			return signatureValue;
+		} catch (RuntimeException e) {
+			failureCount.incrementAndGet();
+			if (isSessionFailure(e)) {
+				// the session is broken (logout, removed device,...) : it is replaced by a new one
+				replaceSession(session, e);
+			}
+			throw e;
+		} finally {
+			totalSignatureTime.addAndGet(System.nanoTime() - start);
+			release(session);
+		}
+	}
+
+	/**
+	 * Returns true if the exception is a failure of the token or of the session (the session must be replaced) : a
+	 * {@code ProviderException} (eg : CKR_SESSION_HANDLE_INVALID, CKR_DEVICE_REMOVED) or a PKCS#11 error in the causes.
+	 * 
+	 * @param e
+	 *            the exception thrown by the session
+	 * @return true if the session must be replaced
+	 */
+	protected boolean isSessionFailure(Exception e) {
+		Throwable cause = e;
+		while (cause != null) {
+			if (cause instanceof ProviderException || cause.getClass().getName().endsWith("PKCS11Exception")) {
+				return true;
+			}
+			cause = cause.getCause();
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the token of a broken session. If the new token cannot be created, the session is dropped (a new one
+	 * is created by a next borrowing) and the creation failure is added to the original exception.
+	 */
+	private void replaceSession(PooledSession session, RuntimeException failure) {
+		session.close();
+		try {
+			session.token = createSession(session.index);
+		} catch (RuntimeException e) {
+			LOG.warn("Unable to recreate the token session #{} : {}", session.index, e.getMessage());
+			failure.addSuppressed(e);
+			session.token = null;
+		}
+	}
+
+	private PooledSession borrow() {
+		if (closed) {
+			throw new DSSException("The token connection is closed");
+		}
+		PooledSession session = idleSessions.poll();
+		if (session != null) {
+			return session;
+		}
+		session = createSessionIfPossible();
+		if (session != null) {
+			return session;
+		}
+		waitCount.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			session = idleSessions.poll(borrowTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for a token session", e);
+		} finally {
+			totalWaitTime.addAndGet(System.nanoTime() - start);
+		}
+		if (session == null) {
+			throw new DSSException("No token session available after " + borrowTimeout + " ms (pool size : " + poolSize + ")");
+		}
+		return session;
+	}
+
+	private PooledSession createSessionIfPossible() {
+		synchronized (allSessions) {
+			if (allSessions.size() < poolSize) {
+				int index = getFreeIndex();
+				LOG.debug("Opening token session #{}", index);
+				PooledSession session = new PooledSession(index, createSession(index));
+				allSessions.add(session);
+				return session;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The lowest index which is not used by an opened session (the index of a dropped session is reused)
+	 */
+	private int getFreeIndex() {
+		int index = 0;
+		boolean used = true;
+		while (used) {
+			used = false;
+			for (PooledSession session : allSessions) {
+				if (session.index == index) {
+					used = true;
+					index++;
+					break;
+				}
+			}
+		}
+		return index;
+	}
+
+	private void release(PooledSession session) {
+		if (session.token == null) {
+			// dropped session
+			synchronized (allSessions) {
+				allSessions.remove(session);
+			}
+		} else if (closed) {
+			session.close();
+		} else {
+			idleSessions.offer(session);
+		}
+	}
+
+	/**
+	 * Returns the maximum number of sessions
+	 * 
+	 * @return the pool size
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * Returns the number of sessions which were already opened
+	 * 
+	 * @return the number of opened sessions
+	 */
+	public int getOpenedSessions() {
+		synchronized (allSessions) {
+			return allSessions.size();
+		}
+	}
+
+	/**
+	 * Returns the number of opened sessions which are not currently used
+	 * 
+	 * @return the number of idle sessions
+	 */
+	public int getIdleSessions() {
+		return idleSessions.size();
+	}
+
+	/**
+	 * Returns the number of sessions which are currently used
+	 * 
+	 * @return the number of active sessions
+	 */
+	public int getActiveSessions() {
+		return getOpenedSessions() - getIdleSessions();
+	}
+
+	/**
+	 * Returns the number of successful signature operations
+	 * 
+	 * @return the signature count
+	 */
+	public long getSignatureCount() {
+		return signatureCount.get();
+	}
+
+	/**
+	 * Returns the number of failed signature operations
+	 * 
+	 * @return the failure count
+	 */
+	public long getFailureCount() {
+		return failureCount.get();
+	}
+
+	/**
+	 * Returns the number of times a caller had to wait for a free session
+	 * 
+	 * @return the wait count
+	 */
+	public long getWaitCount() {
+		return waitCount.get();
+	}
+
+	/**
+	 * Returns the cumulated time spent waiting for a free session
+	 * 
+	 * @return the total wait time in milliseconds
+	 */
+	public long getTotalWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalWaitTime.get());
+	}
+
+	/**
+	 * Returns the cumulated time spent in signature operations (successful or not)
+	 * 
+	 * @return the total signature time in milliseconds
+	 */
+	public long getTotalSignatureTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalSignatureTime.get());
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		synchronized (allSessions) {
+			for (PooledSession session : allSessions) {
+				session.close();
+			}
+			allSessions.clear();
+		}
+		idleSessions.clear();
+	}
+
+	private static final class PooledSession {
+
+		private final int index;
+
+		private AbstractKeyStoreTokenConnection token;
+
+		private final ConcurrentMap<KeyId, DSSPrivateKeyEntry> keys = new ConcurrentHashMap<KeyId, DSSPrivateKeyEntry>();
+
+		private PooledSession(int index, AbstractKeyStoreTokenConnection token) {
+			this.index = index;
+			this.token = token;
+		}
+
+		private DSSPrivateKeyEntry getKey(String alias, PasswordProtection passwordProtection) {
+			// a key retrieved with a password is not returned for another password
+			final KeyId keyId = new KeyId(alias, passwordProtection);
+			DSSPrivateKeyEntry key = keys.get(keyId);
+			if (key == null) {
+				if (passwordProtection == null) {
+					key = token.getKey(alias);
+				} else {
+					key = token.getKey(alias, passwordProtection);
+				}
+				if (key != null) {
+					keys.put(keyId, key);
+				}
+			}
+			return key;
+		}
+
+		private void close() {
+			keys.clear();
+			if (token == null) {
+				return;
+			}
+			try {
+				token.close();
+			} catch (Exception e) {
+				LOG.warn("Unable to close the token session #{} : {}", index, e.getMessage());
+			}
+		}
+
+	}
+
+	private static final class KeyId {
+
+		private final String alias;
+
+		private final char[] password;
+
+		private KeyId(String alias, PasswordProtection passwordProtection) {
+			this.alias = alias;
+			char[] value = passwordProtection == null ? null : passwordProtection.getPassword();
+			this.password = value == null ? null : value.clone();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (alias == null ? 0 : alias.hashCode()) + Arrays.hashCode(password);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof KeyId)) {
+				return false;
+			}
+			KeyId other = (KeyId) obj;
+			return (alias == null ? other.alias == null : alias.equals(other.alias)) && Arrays.equals(password, other.password);
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import java.security.KeyStore.PasswordProtection;
+
+/**
+ * PKCS#11 token connection which keeps a pool of logged-in sessions. Every session uses its own SunPKCS11 provider
+ * instance, so up to {@code poolSize} signatures can be computed concurrently on the device.
+ * 
+ * When several slots are given, the sessions are distributed over them in a round-robin way (eg : HSM partitions
+ * with the same replicated keys).
+ */
+public class PooledPkcs11SignatureToken extends AbstractPooledKeyStoreTokenConnection {
+
+	private final String pkcs11Path;
+
+	private final PasswordInputCallback callback;
+
+	private final int[] slotIds;
+
+	private final String extraPkcs11Config;
+
+	/**
+	 * Creates a pooled SignatureTokenConnection on the first slot, the keys will be accessed using the provided
+	 * password.
+	 *
+	 * @param pkcs11Path
+	 *            the path for the library (.dll, .so)
+	 * @param password
+	 *            the pin code / password to use
+	 * @param poolSize
+	 *            the maximum number of concurrent sessions
+	 */
+	public PooledPkcs11SignatureToken(String pkcs11Path, PasswordProtection password, int poolSize) {
+		this(pkcs11Path, new PrefilledPasswordCallback(password), new int[] { 0 }, poolSize, null);
+	}
+
+	/**
+	 * Creates a pooled SignatureTokenConnection on the given slot, the keys will be accessed using the provided
+	 * password.
+	 *
+	 * @param pkcs11Path
+	 *            the path for the library (.dll, .so)
+	 * @param password
+	 *            the pin code / password to use
+	 * @param slotId
+	 *            the slotId to use
+	 * @param poolSize
+	 *            the maximum number of concurrent sessions
+	 */
+	public PooledPkcs11SignatureToken(String pkcs11Path, PasswordProtection password, int slotId, int poolSize) {
+		this(pkcs11Path, new PrefilledPasswordCallback(password), new int[] { slotId }, poolSize, null);
+	}
+
+	/**
+	 * Creates a pooled SignatureTokenConnection over the given slots.
+	 *
+	 * @param pkcs11Path
+	 *            the path for the library (.dll, .so)
+	 * @param callback
+	 *            the callback to enter the pin code / password (called once per opened session)
+	 * @param slotIds
+	 *            the slotIds to use (round-robin)
+	 * @param poolSize
+	 *            the maximum number of concurrent sessions
+	 * @param extraPkcs11Config
+	 *            extra configuration for pkcs11 library (can be null)
+	 */
+	public PooledPkcs11SignatureToken(String pkcs11Path, PasswordInputCallback callback, int[] slotIds, int poolSize,
+			String extraPkcs11Config) {
+		super(poolSize);
+		if (slotIds == null || slotIds.length == 0) {
+			throw new IllegalArgumentException("At least one slotId is required");
+		}
+		this.pkcs11Path = pkcs11Path;
+		this.callback = callback;
+		this.slotIds = slotIds.clone();
+		this.extraPkcs11Config = extraPkcs11Config;
+	}
+
+	@Override
+	protected AbstractKeyStoreTokenConnection createSession(int index) {
+		return new Pkcs11SignatureToken(pkcs11Path, callback, slotIds[index % slotIds.length], extraPkcs11Config);
+	}
+
+}
@@ -0,0 +1,230 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.ProviderException;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.MaskGenerationFunction;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+
+public class PooledKeyStoreTokenConnectionTest {
+
+	private static class PooledPkcs12SignatureToken extends AbstractPooledKeyStoreTokenConnection {
+
+		/* simulates a broken session (eg : CKR_SESSION_HANDLE_INVALID) on the next signature */
+		private final AtomicBoolean sessionFailure = new AtomicBoolean();
+
+		/* simulates a removed device on the next session creation */
+		private final AtomicBoolean creationFailure = new AtomicBoolean();
+
+		private final AtomicInteger createdSessions = new AtomicInteger();
+
+		PooledPkcs12SignatureToken(int poolSize) {
+			super(poolSize);
+		}
+
+		@Override
+		protected AbstractKeyStoreTokenConnection createSession(int index) {
+			if (creationFailure.getAndSet(false)) {
+				throw new DSSException("Device removed");
+			}
+			createdSessions.incrementAndGet();
+			try {
+				return new Pkcs12SignatureToken("src/test/resources/user_a_rsa.p12", new PasswordProtection("password".toCharArray())) {
+
+					@Override
+					public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, MaskGenerationFunction mgf,
+							DSSPrivateKeyEntry keyEntry) throws DSSException {
+						if (sessionFailure.getAndSet(false)) {
+							throw new DSSException(new ProviderException("CKR_SESSION_HANDLE_INVALID"));
+						}
+						return super.sign(toBeSigned, digestAlgorithm, mgf, keyEntry);
+					}
+
+				};
+			} catch (IOException e) {
+				throw new DSSException(e);
+			}
+		}
+
+	}
+
+	@Test
+	public void concurrentSignatures() throws Exception {
+		try (final PooledPkcs12SignatureToken token = new PooledPkcs12SignatureToken(3)) {
+			List<DSSPrivateKeyEntry> keys = token.getKeys();
+			assertFalse(keys.isEmpty());
+			final DSSPrivateKeyEntry entry = keys.get(0);
+			assertEquals(1, token.getOpenedSessions());
+
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			List<Future<SignatureValue>> futures = new ArrayList<Future<SignatureValue>>();
+			final List<byte[]> data = new ArrayList<byte[]>();
+			for (int i = 0; i < 40; i++) {
+				final byte[] bytes = ("Hello world " + i).getBytes("UTF-8");
+				data.add(bytes);
+				futures.add(executor.submit(new Callable<SignatureValue>() {
+					@Override
+					public SignatureValue call() throws Exception {
+						return token.sign(new ToBeSigned(bytes), DigestAlgorithm.SHA256, entry);
+					}
+				}));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				SignatureValue signatureValue = futures.get(i).get();
+				assertNotNull(signatureValue);
+
+				Signature verifier = Signature.getInstance(signatureValue.getAlgorithm().getJCEId());
+				verifier.initVerify(entry.getCertificate().getPublicKey());
+				verifier.update(data.get(i));
+				assertTrue(verifier.verify(signatureValue.getValue()));
+			}
+			executor.shutdown();
+
+			assertEquals(40, token.getSignatureCount());
+			assertEquals(0, token.getFailureCount());
+			assertTrue(token.getOpenedSessions() <= 3);
+			assertEquals(0, token.getActiveSessions());
+			assertEquals(token.getOpenedSessions(), token.getIdleSessions());
+		}
+	}
+
+	@Test
+	public void unknownKeyKeepsSession() throws Exception {
+		try (PooledPkcs12SignatureToken token = new PooledPkcs12SignatureToken(1)) {
+			KSPrivateKeyEntry entry = (KSPrivateKeyEntry) token.getKeys().get(0);
+			KSPrivateKeyEntry wrongAlias = new KSPrivateKeyEntry("unknown", new PrivateKeyEntry(entry.getPrivateKey(),
+					new Certificate[] { entry.getCertificate().getCertificate() }));
+			try {
+				token.sign(new ToBeSigned(new byte[] { 1, 2, 3 }), DigestAlgorithm.SHA256, wrongAlias);
+				fail("Unknown key");
+			} catch (DSSException e) {
+				// expected
+			}
+			assertEquals(1, token.getFailureCount());
+
+			// not a session failure : the session is kept
+			SignatureValue signatureValue = token.sign(new ToBeSigned(new byte[] { 1, 2, 3 }), DigestAlgorithm.SHA256, entry);
+			assertNotNull(signatureValue);
+			assertEquals(1, token.getSignatureCount());
+			assertEquals(1, token.createdSessions.get());
+			assertEquals(1, token.getIdleSessions());
+		}
+	}
+
+	@Test
+	public void sessionFailureReplacesSession() throws Exception {
+		try (PooledPkcs12SignatureToken token = new PooledPkcs12SignatureToken(1)) {
+			DSSPrivateKeyEntry entry = token.getKeys().get(0);
+			token.sessionFailure.set(true);
+			try {
+				token.sign(new ToBeSigned(new byte[] { 1, 2, 3 }), DigestAlgorithm.SHA256, entry);
+				fail("Session failure");
+			} catch (DSSException e) {
+				// expected
+			}
+			assertEquals(1, token.getFailureCount());
+			assertEquals(2, token.createdSessions.get());
+
+			// the replaced session is usable
+			assertNotNull(token.sign(new ToBeSigned(new byte[] { 1, 2, 3 }), DigestAlgorithm.SHA256, entry));
+			assertEquals(1, token.getOpenedSessions());
+			assertEquals(1, token.getIdleSessions());
+		}
+	}
+
+	@Test
+	public void sessionRecreationFailureDropsSession() throws Exception {
+		try (PooledPkcs12SignatureToken token = new PooledPkcs12SignatureToken(1)) {
+			DSSPrivateKeyEntry entry = token.getKeys().get(0);
+			token.sessionFailure.set(true);
+			token.creationFailure.set(true);
+			try {
+				token.sign(new ToBeSigned(new byte[] { 1, 2, 3 }), DigestAlgorithm.SHA256, entry);
+				fail("Session failure");
+			} catch (DSSException e) {
+				// the original failure is thrown, with the recreation failure
+				assertTrue(e.getCause() instanceof ProviderException);
+				assertEquals(1, e.getSuppressed().length);
+				assertEquals("Device removed", e.getSuppressed()[0].getMessage());
+			}
+			assertEquals(0, token.getOpenedSessions());
+
+			// a new session is opened in the free slot
+			assertNotNull(token.sign(new ToBeSigned(new byte[] { 1, 2, 3 }), DigestAlgorithm.SHA256, entry));
+			assertEquals(1, token.getOpenedSessions());
+			assertEquals(2, token.createdSessions.get());
+		}
+	}
+
+	@Test
+	public void cachedKeyRequiresSamePassword() throws Exception {
+		try (PooledPkcs12SignatureToken token = new PooledPkcs12SignatureToken(1)) {
+			KSPrivateKeyEntry entry = (KSPrivateKeyEntry) token.getKeys().get(0);
+			assertNotNull(token.getKey(entry.getAlias(), new PasswordProtection("password".toCharArray())));
+			try {
+				token.getKey(entry.getAlias(), new PasswordProtection("wrong".toCharArray()));
+				fail("Wrong password");
+			} catch (DSSException e) {
+				// expected
+			}
+			assertNotNull(token.getKey(entry.getAlias(), new PasswordProtection("password".toCharArray())));
+		}
+	}
+
+	@Test(expected = DSSException.class)
+	public void closedToken() throws Exception {
+		PooledPkcs12SignatureToken token = new PooledPkcs12SignatureToken(2);
+		token.close();
+		token.getKeys();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidPoolSize() {
+		new PooledPkcs12SignatureToken(0);
+	}
+
+}
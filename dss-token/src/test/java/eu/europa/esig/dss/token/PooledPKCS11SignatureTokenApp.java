@@ -0,0 +1,77 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import java.security.KeyStore.PasswordProtection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+
+/**
+ * Manual concurrency check against SoftHSM :
+ * 
+ * softhsm2-util --init-token --slot 0 --label dss --pin 1234 --so-pin 1234
+ * + import a key pair and its certificate (pkcs11-tool / p11tool)
+ */
+public class PooledPKCS11SignatureTokenApp {
+
+	public static void main(String[] args) throws Exception {
+
+		String PIN = "1234";
+		int poolSize = 4;
+
+		try (final PooledPkcs11SignatureToken token = new PooledPkcs11SignatureToken("/usr/lib/softhsm/libsofthsm2.so",
+				new PasswordProtection(PIN.toCharArray()), poolSize)) {
+
+			List<DSSPrivateKeyEntry> keys = token.getKeys();
+			final DSSPrivateKeyEntry key = keys.get(0);
+
+			ExecutorService executor = Executors.newFixedThreadPool(poolSize * 2);
+			List<Future<SignatureValue>> futures = new ArrayList<Future<SignatureValue>>();
+			long start = System.currentTimeMillis();
+			for (int i = 0; i < 1000; i++) {
+				final ToBeSigned toBeSigned = new ToBeSigned(("Hello world " + i).getBytes());
+				futures.add(executor.submit(new Callable<SignatureValue>() {
+					@Override
+					public SignatureValue call() throws Exception {
+						return token.sign(toBeSigned, DigestAlgorithm.SHA256, key);
+					}
+				}));
+			}
+			for (Future<SignatureValue> future : futures) {
+				future.get();
+			}
+			executor.shutdown();
+
+			System.out.println("Signatures : " + token.getSignatureCount() + " in " + (System.currentTimeMillis() - start) + " ms");
+			System.out.println("Opened sessions : " + token.getOpenedSessions());
+			System.out.println("Waits : " + token.getWaitCount() + " (" + token.getTotalWaitTime() + " ms)");
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of the trusted lists refresh. The priority is only a hint (ignored by HotSpot on Linux by
+ * default), the resources of a refresh are bounded by the size of the pools.
+ */
+class TSLRefreshThreadFactory implements ThreadFactory {
+
+	private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+	private final String namePrefix;
+
+	private final int priority;
+
+	TSLRefreshThreadFactory(String stage, int priority) {
+		this.namePrefix = "dss-tsl-" + stage + "-";
+		this.priority = priority;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+		thread.setDaemon(true);
+		thread.setPriority(priority);
+		return thread;
+	}
+
+}
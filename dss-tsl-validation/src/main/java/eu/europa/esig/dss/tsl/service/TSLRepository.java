@@ -134,6 +134,8 @@ public class TSLRepository {
 		TSLValidationModel validationModel = getByCountry(tslParserResult.getTerritory());
 		if (validationModel != null) {
 			validationModel.setParseResult(tslParserResult);
+			// the country can be published before all its results are available (incremental refresh)
+			validationModel.setCertificateSourceSynchronized(false);
 		}
 	}
 
@@ -141,6 +143,7 @@ public class TSLRepository {
 		TSLValidationModel validationModel = getByCountry(tslValidationResult.getCountryCode());
 		if (validationModel != null) {
 			validationModel.setValidationResult(tslValidationResult);
+			validationModel.setCertificateSourceSynchronized(false);
 		}
 	}
 
@@ -234,11 +237,9 @@ public class TSLRepository {
 
 				Map<CertificateToken, List<ServiceInfo>> servicesByCertMap = getServicesByCert(allMapTSLValidationModels.values());
 
-				trustedListsCertificateSource.reinit();
-
-				for (Entry<CertificateToken, List<ServiceInfo>> servicesByCertEntry : servicesByCertMap.entrySet()) {
-					trustedListsCertificateSource.addCertificate(servicesByCertEntry.getKey(), servicesByCertEntry.getValue());
-				}
+				// the trust services are compiled and published at once, the running validations are not affected by
+				// the synchronization
+				trustedListsCertificateSource.replaceTrustServices(servicesByCertMap);
 
 				for (Entry<String, TSLValidationModel> entry : allMapTSLValidationModels.entrySet()) {
 					String countryCode = entry.getKey();
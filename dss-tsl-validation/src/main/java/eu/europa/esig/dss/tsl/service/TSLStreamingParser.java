@@ -0,0 +1,889 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.tsl.CertSubjectDNAttributeCondition;
+import eu.europa.esig.dss.tsl.CompositeCondition;
+import eu.europa.esig.dss.tsl.Condition;
+import eu.europa.esig.dss.tsl.ExtendedKeyUsageCondition;
+import eu.europa.esig.dss.tsl.KeyUsageCondition;
+import eu.europa.esig.dss.tsl.MatchingCriteriaIndicator;
+import eu.europa.esig.dss.tsl.PolicyIdCondition;
+import eu.europa.esig.dss.tsl.TSLConditionsForQualifiers;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLPointer;
+import eu.europa.esig.dss.tsl.TSLService;
+import eu.europa.esig.dss.tsl.TSLServiceProvider;
+import eu.europa.esig.dss.tsl.TSLServiceStatusAndInformationExtensions;
+import eu.europa.esig.dss.util.MutableTimeDependentValues;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.xades.validation.XMLStreamListener;
+
+/**
+ * This class allows to parse a TSL from a StAX stream to DTO's, without the JAXB object graph. It gives the same
+ * result as the {@code TSLParser}.
+ * 
+ * It can be executed as a Callable or receive the events of the {@code StreamingXMLDocumentValidator} to parse the
+ * trusted list in the same pass as the signature validation. An instance parses one trusted list.
+ * 
+ * The signature elements are not covered by the enveloped digest : their content (eg : a ds:Object) is skipped, as
+ * well as the elements of unknown namespaces, and the structural elements (trust service providers, services and
+ * pointers) are only read at their position in the TrustServiceStatusList, like the JAXB unmarshalling does.
+ */
+public class TSLStreamingParser implements Callable<TSLParserResult>, XMLStreamListener {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TSLStreamingParser.class);
+
+	private static final String TSL_NAMESPACE = "http://uri.etsi.org/02231/v2#";
+	private static final String TSLX_NAMESPACE = "http://uri.etsi.org/02231/v2/additionaltypes#";
+	private static final String ECC_NAMESPACE = "http://uri.etsi.org/TrstSvc/SvcInfoExt/eSigDir-1999-93-EC-TrustedList/#";
+	private static final String XADES_NAMESPACE = "http://uri.etsi.org/01903/v1.3.2#";
+
+	private static final String ENGLISH_LANGUAGE = "en";
+
+	private static final String VAT_PREFIX = "VAT";
+	private static final String NTR_PREFIX = "NTR";
+
+	private static final String ROOT_ELEMENT = "TrustServiceStatusList";
+
+	private static final String TSL_MIME_TYPE = "application/vnd.etsi.tsl+xml";
+
+	private final DSSDocument trustedList;
+
+	private final DatatypeFactory datatypeFactory;
+
+	/* The path of the open elements : local names for the known namespaces, {namespace}name for the other ones */
+	private final Deque<String> elements = new ArrayDeque<String>();
+
+	/* The depth in the skipped subtree (a ds:Signature), 0 outside */
+	private int skippedDepth;
+
+	private final StringBuilder text = new StringBuilder();
+
+	private final TSLParserResult result = new TSLParserResult();
+	private final List<TSLPointer> pointers = new ArrayList<TSLPointer>();
+	private final List<TSLServiceProvider> serviceProviders = new ArrayList<TSLServiceProvider>();
+	private final List<String> englishSchemeInformationURIs = new LinkedList<String>();
+	private List<String> distributionPoints = Collections.emptyList();
+
+	private boolean inSchemeInformation;
+	private TSLPointer pointer;
+	private ServiceProviderBuilder serviceProvider;
+	private ServiceBuilder service;
+	private StatusBuilder status;
+	private QualificationBuilder qualification;
+	private final Deque<CriteriaListBuilder> criteriaLists = new ArrayDeque<CriteriaListBuilder>();
+	private CompositeCondition keyUsage;
+	private CompositeCondition policySet;
+	private List<String> otherCriteriaOids;
+
+	private String lang;
+	private String keyUsageBitName;
+
+	private boolean ended;
+	private RuntimeException failure;
+
+	public TSLStreamingParser(DSSDocument trustedList) {
+		this.trustedList = trustedList;
+		try {
+			this.datatypeFactory = DatatypeFactory.newInstance();
+		} catch (DatatypeConfigurationException e) {
+			throw new DSSException("Unable to initialize the DatatypeFactory : " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public TSLParserResult call() throws Exception {
+		XMLStreamReader reader = null;
+		try (InputStream is = trustedList.openStream()) {
+			reader = getXMLInputFactory().createXMLStreamReader(is);
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					startElement(reader);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					endElement(reader);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					characters(reader.getText());
+					break;
+				default:
+					break;
+				}
+			}
+			endDocument();
+			return getResult();
+		} catch (Exception e) {
+			throw new DSSException("Unable to parse file '" + trustedList.getAbsolutePath() + "' : " + e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+
+	/**
+	 * Returns the result of the parsing, once all the events of the trusted list are received
+	 * 
+	 * @return the parsed trusted list
+	 */
+	public TSLParserResult getResult() {
+		if (failure != null) {
+			throw new DSSException("Unable to parse the trusted list : " + failure.getMessage(), failure);
+		}
+		if (!ended) {
+			throw new DSSException("The trusted list is not parsed");
+		}
+		return result;
+	}
+
+	@Override
+	public void startElement(XMLStreamReader reader) {
+		if (failure == null) {
+			try {
+				onStartElement(reader);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+	}
+
+	@Override
+	public void endElement(XMLStreamReader reader) {
+		if (failure == null) {
+			try {
+				onEndElement(reader);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+	}
+
+	@Override
+	public void characters(String characters) {
+		text.append(characters);
+	}
+
+	@Override
+	public void endDocument() {
+		if (failure == null) {
+			List<TSLPointer> machineProcessablePointers = new ArrayList<TSLPointer>();
+			for (TSLPointer tslPointer : pointers) {
+				if (TSL_MIME_TYPE.equals(tslPointer.getMimeType())) {
+					machineProcessablePointers.add(tslPointer);
+				}
+			}
+			result.setPointers(machineProcessablePointers);
+			result.setServiceProviders(serviceProviders);
+			result.setDistributionPoints(distributionPoints);
+			result.setEnglishSchemeInformationURIs(englishSchemeInformationURIs);
+			ended = true;
+		}
+	}
+
+	private void onStartElement(XMLStreamReader reader) {
+		if (skippedDepth > 0) {
+			skippedDepth++;
+			return;
+		}
+		String namespace = reader.getNamespaceURI();
+		if (XMLSignature.XMLNS.equals(namespace) && "Signature".equals(reader.getLocalName())) {
+			skippedDepth = 1;
+			return;
+		}
+
+		String parent = elements.peek();
+		String name = getName(namespace, reader.getLocalName());
+		if (parent == null && !(TSL_NAMESPACE.equals(namespace) && ROOT_ELEMENT.equals(name))) {
+			throw new DSSException("The root element is not a TrustServiceStatusList");
+		}
+		elements.push(name);
+		text.setLength(0);
+		lang = reader.getAttributeValue(XMLConstants.XML_NS_URI, "lang");
+
+		if (otherCriteriaOids == null && "otherCriteriaList".equals(parent)) {
+			startOtherCriteria(namespace, reader.getLocalName());
+			return;
+		}
+
+		switch (name) {
+		case "SchemeInformation":
+			if (!ROOT_ELEMENT.equals(parent)) {
+				break;
+			}
+			inSchemeInformation = true;
+			result.setSequenceNumber(-1);
+			result.setVersion(-1);
+			break;
+		case "OtherTSLPointer":
+			if (!inSchemeInformation || !"PointersToOtherTSL".equals(parent)) {
+				break;
+			}
+			pointer = new TSLPointer();
+			pointer.setPotentialSigners(new ArrayList<CertificateToken>());
+			break;
+		case "DistributionPoints":
+			if (inSchemeInformation) {
+				distributionPoints = new ArrayList<String>();
+			}
+			break;
+		case "TrustServiceProvider":
+			if (!"TrustServiceProviderList".equals(parent) || !ROOT_ELEMENT.equals(getGrandParent())) {
+				break;
+			}
+			serviceProvider = new ServiceProviderBuilder();
+			break;
+		case "PostalAddress":
+			if (serviceProvider != null) {
+				serviceProvider.currentAddress = new PostalAddress(lang);
+			}
+			break;
+		case "TSPService":
+			if (serviceProvider == null || !"TSPServices".equals(parent)) {
+				break;
+			}
+			service = new ServiceBuilder();
+			break;
+		case "ServiceInformation":
+		case "ServiceHistoryInstance":
+			if (service != null && status == null && isStatusPosition(name, parent)) {
+				status = new StatusBuilder("ServiceInformation".equals(name));
+			}
+			break;
+		case "ServiceSupplyPoints":
+			if (status != null) {
+				status.serviceSupplyPoints = new ArrayList<String>();
+			}
+			break;
+		case "ServiceInformationExtensions":
+			if (status != null) {
+				status.conditionsForQualifiers = new ArrayList<TSLConditionsForQualifiers>();
+				status.additionalServiceInfoUris = new ArrayList<String>();
+			}
+			break;
+		case "QualificationElement":
+			if (status != null) {
+				qualification = new QualificationBuilder();
+			}
+			break;
+		case "Qualifier":
+			if (qualification != null) {
+				qualification.qualifiers.add(reader.getAttributeValue(null, "uri"));
+			}
+			break;
+		case "CriteriaList":
+			if (qualification != null) {
+				criteriaLists.push(new CriteriaListBuilder(reader.getAttributeValue(null, "assert")));
+			}
+			break;
+		case "KeyUsage":
+			if (!criteriaLists.isEmpty()) {
+				keyUsage = new CompositeCondition();
+				criteriaLists.peek().keyUsages.add(keyUsage);
+			}
+			break;
+		case "KeyUsageBit":
+			keyUsageBitName = reader.getAttributeValue(null, "name");
+			break;
+		case "PolicySet":
+			if (!criteriaLists.isEmpty()) {
+				policySet = new CompositeCondition();
+				criteriaLists.peek().policySets.add(policySet);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * ETSI TS 119 612 V1.1.1 / 5.5.9.2.2.3 : the supported other criteria
+	 */
+	private void startOtherCriteria(String namespace, String name) {
+		if (TSLX_NAMESPACE.equals(namespace) && ("CertSubjectDNAttribute".equals(name) || "ExtendedKeyUsage".equals(name))) {
+			otherCriteriaOids = new ArrayList<String>();
+		} else if (isKnownNamespace(namespace)) {
+			throw new DSSException("Unsupported OtherCriteriaList");
+		}
+	}
+
+	private void onEndElement(XMLStreamReader reader) {
+		if (skippedDepth > 0) {
+			skippedDepth--;
+			return;
+		}
+		String name = elements.pop();
+		String parent = elements.peek();
+
+		if (pointer != null) {
+			endPointerElement(reader.getNamespaceURI(), name, parent);
+		} else if (inSchemeInformation) {
+			endSchemeInformationElement(name, parent);
+		} else if (serviceProvider != null) {
+			endServiceProviderElement(reader.getNamespaceURI(), name, parent);
+		}
+	}
+
+	private void endPointerElement(String namespace, String name, String parent) {
+		if ("OtherTSLPointer".equals(name) && "PointersToOtherTSL".equals(parent)) {
+			pointers.add(pointer);
+			pointer = null;
+		} else if ("TSLLocation".equals(name)) {
+			pointer.setUrl(getText());
+		} else if ("X509Certificate".equals(name) && "DigitalId".equals(parent)) {
+			addCertificate(pointer.getPotentialSigners());
+		} else if ("OtherInformation".equals(parent)) {
+			if (TSLX_NAMESPACE.equals(namespace) && "MimeType".equals(name)) {
+				pointer.setMimeType(getText());
+			} else if (TSL_NAMESPACE.equals(namespace) && "SchemeTerritory".equals(name)) {
+				pointer.setTerritory(getText());
+			}
+		}
+	}
+
+	private void endSchemeInformationElement(String name, String parent) {
+		switch (name) {
+		case "SchemeInformation":
+			if (ROOT_ELEMENT.equals(parent)) {
+				inSchemeInformation = false;
+			}
+			break;
+		case "TSLVersionIdentifier":
+			result.setVersion(DatatypeConverter.parseInteger(getText()).intValue());
+			break;
+		case "TSLSequenceNumber":
+			result.setSequenceNumber(DatatypeConverter.parseInteger(getText()).intValue());
+			break;
+		case "SchemeTerritory":
+			if ("SchemeInformation".equals(parent)) {
+				result.setTerritory(getText());
+			}
+			break;
+		case "ListIssueDateTime":
+			result.setIssueDate(getDate());
+			break;
+		case "dateTime":
+			if ("NextUpdate".equals(parent)) {
+				result.setNextUpdateDate(getDate());
+			}
+			break;
+		case "URI":
+			if ("DistributionPoints".equals(parent)) {
+				distributionPoints.add(getText());
+			} else if ("SchemeInformationURI".equals(parent) && ENGLISH_LANGUAGE.equals(lang)) {
+				englishSchemeInformationURIs.add(getText());
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void endServiceProviderElement(String namespace, String name, String parent) {
+		if (service != null) {
+			endServiceElement(namespace, name, parent);
+			return;
+		}
+
+		switch (name) {
+		case "TrustServiceProvider":
+			if ("TrustServiceProviderList".equals(parent)) {
+				serviceProviders.add(serviceProvider.build());
+				serviceProvider = null;
+			}
+			break;
+		case "TSPInformation":
+			serviceProvider.withInformation = true;
+			break;
+		case "Name":
+			if ("TSPName".equals(parent)) {
+				serviceProvider.name.add(normalize(getText()), lang);
+			} else if ("TSPTradeName".equals(parent)) {
+				String tradeName = normalize(getText());
+				serviceProvider.tradeName.add(tradeName, lang);
+				if (serviceProvider.registrationIdentifier == null && (tradeName.startsWith(VAT_PREFIX) || tradeName.startsWith(NTR_PREFIX))) {
+					serviceProvider.registrationIdentifier = tradeName;
+				}
+			}
+			break;
+		case "TSPAddress":
+			serviceProvider.withAddress = true;
+			break;
+		case "PostalAddress":
+			serviceProvider.addresses.add(serviceProvider.currentAddress);
+			serviceProvider.currentAddress = null;
+			break;
+		case "StreetAddress":
+		case "Locality":
+		case "StateOrProvince":
+		case "PostalCode":
+		case "CountryName":
+			if (serviceProvider.currentAddress != null) {
+				serviceProvider.currentAddress.fields.put(name, getText());
+			}
+			break;
+		case "URI":
+			if ("ElectronicAddress".equals(parent) && serviceProvider.electronicAddress == null) {
+				serviceProvider.electronicAddress = getText();
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void endServiceElement(String namespace, String name, String parent) {
+		if (status == null) {
+			if ("TSPService".equals(name) && "TSPServices".equals(parent)) {
+				if (!service.statuses.isEmpty() && service.statuses.get(0).current) {
+					addService();
+				}
+				service = null;
+			}
+			return;
+		}
+
+		if (qualification != null) {
+			endQualificationElement(namespace, name, parent);
+			return;
+		}
+
+		switch (name) {
+		case "ServiceInformation":
+		case "ServiceHistoryInstance":
+			if (isStatusPosition(name, parent)) {
+				service.statuses.add(status);
+				status = null;
+			}
+			break;
+		case "ServiceTypeIdentifier":
+			status.type = getText();
+			break;
+		case "Name":
+			if ("ServiceName".equals(parent)) {
+				status.name.add(normalize(getText()), lang);
+			}
+			break;
+		case "ServiceStatus":
+			status.status = getText();
+			break;
+		case "StatusStartingTime":
+			status.startingTime = getDate();
+			break;
+		case "X509Certificate":
+			if (status.current && "DigitalId".equals(parent)) {
+				addCertificate(service.certificates);
+			}
+			break;
+		case "ServiceSupplyPoint":
+			if (status.serviceSupplyPoints != null) {
+				status.serviceSupplyPoints.add(getText());
+			}
+			break;
+		case "URI":
+			if ("AdditionalServiceInformation".equals(parent) && ENGLISH_LANGUAGE.equals(lang) && status.additionalServiceInfoUris != null) {
+				status.additionalServiceInfoUris.add(getText());
+			}
+			break;
+		case "ExpiredCertsRevocationInfo":
+			if (TSL_NAMESPACE.equals(namespace) && "Extension".equals(parent) && status.expiredCertsRevocationInfo == null) {
+				status.expiredCertsRevocationInfo = getDate();
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void endQualificationElement(String namespace, String name, String parent) {
+		switch (name) {
+		case "QualificationElement":
+			if (Utils.isCollectionNotEmpty(qualification.qualifiers) && qualification.condition != null) {
+				status.conditionsForQualifiers.add(new TSLConditionsForQualifiers(qualification.qualifiers, qualification.condition));
+			}
+			qualification = null;
+			break;
+		case "CriteriaList":
+			if (!criteriaLists.isEmpty()) {
+				endCriteriaList();
+			}
+			break;
+		case "KeyUsageBit":
+			if (keyUsage != null) {
+				try {
+					keyUsage.addChild(new KeyUsageCondition(keyUsageBitName, DatatypeConverter.parseBoolean(getText())));
+				} catch (IllegalArgumentException e) {
+					service.setError(e);
+				}
+			}
+			break;
+		case "KeyUsage":
+			keyUsage = null;
+			break;
+		case "Identifier":
+			if (otherCriteriaOids != null) {
+				otherCriteriaOids.add(getText());
+			} else if (policySet != null && "PolicyIdentifier".equals(parent)) {
+				policySet.addChild(new PolicyIdCondition(getPolicyId(getText())));
+			}
+			break;
+		case "PolicySet":
+			policySet = null;
+			break;
+		case "CertSubjectDNAttribute":
+		case "ExtendedKeyUsage":
+			if (otherCriteriaOids != null && "otherCriteriaList".equals(parent) && TSLX_NAMESPACE.equals(namespace)) {
+				Condition condition = "ExtendedKeyUsage".equals(name) ? new ExtendedKeyUsageCondition(otherCriteriaOids)
+						: new CertSubjectDNAttributeCondition(otherCriteriaOids);
+				criteriaLists.peek().otherCriteria.add(condition);
+				otherCriteriaOids = null;
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void endCriteriaList() {
+		CriteriaListBuilder criteriaList = criteriaLists.pop();
+		CompositeCondition condition;
+		try {
+			condition = criteriaList.build();
+		} catch (IllegalArgumentException e) {
+			service.setError(e);
+			condition = new CompositeCondition();
+		}
+		if (criteriaLists.isEmpty()) {
+			qualification.condition = condition;
+		} else {
+			criteriaLists.peek().criteriaLists.add(condition);
+		}
+	}
+
+	private void addService() {
+		StatusBuilder current = service.statuses.get(0);
+		try {
+			if (service.error != null) {
+				throw service.error;
+			}
+			MutableTimeDependentValues<TSLServiceStatusAndInformationExtensions> statusHistory = new MutableTimeDependentValues<TSLServiceStatusAndInformationExtensions>();
+			Date nextEndDate = current.startingTime;
+			TSLServiceStatusAndInformationExtensions currentStatus = current.build();
+			currentStatus.setServiceSupplyPoints(current.serviceSupplyPoints == null ? Collections.<String> emptyList() : current.serviceSupplyPoints);
+			currentStatus.setStartDate(nextEndDate);
+			statusHistory.addOldest(currentStatus);
+			for (StatusBuilder history : service.statuses.subList(1, service.statuses.size())) {
+				TSLServiceStatusAndInformationExtensions historyStatus = history.build();
+				historyStatus.setEndDate(nextEndDate);
+				nextEndDate = history.startingTime;
+				historyStatus.setStartDate(nextEndDate);
+				statusHistory.addOldest(historyStatus);
+			}
+
+			TSLService tslService = new TSLService();
+			tslService.setCertificates(service.certificates);
+			tslService.setStatusAndInformationExtensions(statusHistory);
+			serviceProvider.services.add(tslService);
+		} catch (IllegalArgumentException e) {
+			LOG.error("Unable to load service '{}' : {}", current.name.get(), e.getMessage());
+		}
+	}
+
+	private void addCertificate(List<CertificateToken> certificates) {
+		byte[] binaries = DatatypeConverter.parseBase64Binary(text.toString());
+		try {
+			certificates.add(DSSUtils.loadCertificate(binaries));
+		} catch (Exception e) {
+			LOG.warn("Unable to load certificate '" + Utils.toBase64(binaries) + "' : ", e);
+		}
+	}
+
+	private String getPolicyId(String id) {
+		// ES TSL : <ns4:Identifier Qualifier="OIDAsURN">urn:oid:1.3.6.1.4.1.36035.1.3.1</ns4:Identifier>
+		if (id.indexOf(':') >= 0) {
+			return id.substring(id.lastIndexOf(':') + 1);
+		}
+		return id;
+	}
+
+	private static boolean isStatusPosition(String name, String parent) {
+		return "ServiceInformation".equals(name) ? "TSPService".equals(parent) : "ServiceHistory".equals(parent);
+	}
+
+	/**
+	 * Returns the grand parent of the current (already pushed) element
+	 */
+	private String getGrandParent() {
+		Iterator<String> path = elements.iterator();
+		for (int i = 0; i < 2 && path.hasNext(); i++) {
+			path.next();
+		}
+		return path.hasNext() ? path.next() : null;
+	}
+
+	/**
+	 * The elements of unknown namespaces never match the names of the trusted list elements
+	 */
+	private static String getName(String namespace, String localName) {
+		if (isKnownNamespace(namespace)) {
+			return localName;
+		}
+		return "{" + namespace + "}" + localName;
+	}
+
+	private String getText() {
+		return text.toString();
+	}
+
+	private Date getDate() {
+		return datatypeFactory.newXMLGregorianCalendar(text.toString().trim()).toGregorianCalendar().getTime();
+	}
+
+	/**
+	 * Same normalization as the JAXB one of the xs:normalizedString values
+	 */
+	private static String normalize(String value) {
+		return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	private static boolean isKnownNamespace(String namespace) {
+		return TSL_NAMESPACE.equals(namespace) || TSLX_NAMESPACE.equals(namespace) || ECC_NAMESPACE.equals(namespace)
+				|| XADES_NAMESPACE.equals(namespace);
+	}
+
+	private XMLInputFactory getXMLInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				LOG.warn("Unable to close the XML reader : {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * The English value or the first one
+	 */
+	private static final class InternationalName {
+
+		private String first;
+		private String english;
+
+		private void add(String value, String lang) {
+			if (first == null) {
+				first = value;
+			}
+			if (english == null && ENGLISH_LANGUAGE.equalsIgnoreCase(lang)) {
+				english = value;
+			}
+		}
+
+		private String get() {
+			return english != null ? english : first;
+		}
+
+	}
+
+	private static final class PostalAddress {
+
+		private final String lang;
+		private final Map<String, String> fields = new HashMap<String, String>();
+
+		private PostalAddress(String lang) {
+			this.lang = lang;
+		}
+
+		private String format() {
+			StringBuilder sb = new StringBuilder();
+			for (String field : new String[] { "StreetAddress", "PostalCode", "Locality", "StateOrProvince" }) {
+				if (Utils.isStringNotEmpty(fields.get(field))) {
+					sb.append(fields.get(field));
+					sb.append(", ");
+				}
+			}
+			if (Utils.isStringNotEmpty(fields.get("CountryName"))) {
+				sb.append(fields.get("CountryName"));
+			}
+			return sb.toString();
+		}
+
+	}
+
+	private static final class ServiceProviderBuilder {
+
+		private boolean withInformation;
+		private boolean withAddress;
+		private final InternationalName name = new InternationalName();
+		private final InternationalName tradeName = new InternationalName();
+		private String registrationIdentifier;
+		private final List<PostalAddress> addresses = new ArrayList<PostalAddress>();
+		private PostalAddress currentAddress;
+		private String electronicAddress;
+		private final List<TSLService> services = new ArrayList<TSLService>();
+
+		private TSLServiceProvider build() {
+			TSLServiceProvider serviceProvider = new TSLServiceProvider();
+			if (withInformation) {
+				serviceProvider.setName(name.get());
+				serviceProvider.setRegistrationIdentifier(registrationIdentifier);
+				serviceProvider.setTradeName(tradeName.get());
+				serviceProvider.setPostalAddress(getPostalAddress());
+				serviceProvider.setElectronicAddress(electronicAddress);
+				serviceProvider.setServices(services);
+			}
+			return serviceProvider;
+		}
+
+		private String getPostalAddress() {
+			if (!withAddress || addresses.isEmpty()) {
+				return null;
+			}
+			for (PostalAddress address : addresses) {
+				if (ENGLISH_LANGUAGE.equalsIgnoreCase(address.lang)) {
+					return address.format();
+				}
+			}
+			return addresses.get(0).format();
+		}
+
+	}
+
+	private static final class ServiceBuilder {
+
+		private final List<CertificateToken> certificates = new ArrayList<CertificateToken>();
+		private final List<StatusBuilder> statuses = new ArrayList<StatusBuilder>();
+		private IllegalArgumentException error;
+
+		private void setError(IllegalArgumentException e) {
+			if (error == null) {
+				error = e;
+			}
+		}
+
+	}
+
+	private static final class StatusBuilder {
+
+		private final boolean current;
+		private final InternationalName name = new InternationalName();
+		private String type;
+		private String status;
+		private Date startingTime;
+		private List<String> serviceSupplyPoints;
+		private List<TSLConditionsForQualifiers> conditionsForQualifiers;
+		private List<String> additionalServiceInfoUris;
+		private Date expiredCertsRevocationInfo;
+
+		private StatusBuilder(boolean current) {
+			this.current = current;
+		}
+
+		private TSLServiceStatusAndInformationExtensions build() {
+			TSLServiceStatusAndInformationExtensions statusAndExtensions = new TSLServiceStatusAndInformationExtensions();
+			statusAndExtensions.setName(name.get());
+			statusAndExtensions.setType(type);
+			statusAndExtensions.setStatus(status);
+			if (conditionsForQualifiers != null) {
+				statusAndExtensions.setConditionsForQualifiers(conditionsForQualifiers);
+				statusAndExtensions.setAdditionalServiceInfoUris(additionalServiceInfoUris);
+				statusAndExtensions.setExpiredCertsRevocationInfo(expiredCertsRevocationInfo);
+			}
+			return statusAndExtensions;
+		}
+
+	}
+
+	private static final class QualificationBuilder {
+
+		private final List<String> qualifiers = new ArrayList<String>();
+		private Condition condition;
+
+	}
+
+	/**
+	 * The children conditions are added in the same order as the {@code TSLParser} : key usages, policy sets, other
+	 * criteria and criteria lists
+	 */
+	private static final class CriteriaListBuilder {
+
+		private final String assertValue;
+		private final List<Condition> keyUsages = new ArrayList<Condition>();
+		private final List<Condition> policySets = new ArrayList<Condition>();
+		private final List<Condition> otherCriteria = new ArrayList<Condition>();
+		private final List<Condition> criteriaLists = new ArrayList<Condition>();
+
+		private CriteriaListBuilder(String assertValue) {
+			this.assertValue = assertValue;
+		}
+
+		private CompositeCondition build() {
+			CompositeCondition condition = new CompositeCondition(MatchingCriteriaIndicator.valueOf(assertValue));
+			for (List<Condition> children : Arrays.asList(keyUsages, policySets, otherCriteria, criteriaLists)) {
+				for (Condition child : children) {
+					condition.addChild(child);
+				}
+			}
+			return condition;
+		}
+
+	}
+
+}
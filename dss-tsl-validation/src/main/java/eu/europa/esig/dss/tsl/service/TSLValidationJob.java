@@ -23,14 +23,24 @@ package eu.europa.esig.dss.tsl.service;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,18 +56,45 @@ import eu.europa.esig.dss.tsl.TSLPointer;
 import eu.europa.esig.dss.tsl.TSLValidationModel;
 import eu.europa.esig.dss.tsl.TSLValidationResult;
 import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.policy.rules.Indication;
+import eu.europa.esig.dss.validation.policy.rules.SubIndication;
 import eu.europa.esig.dss.x509.CertificateToken;
 import eu.europa.esig.dss.x509.KeyStoreCertificateSource;
 
 /**
  * This class is job class which allows to launch TSL loading/parsing/validation. An instance of this class can be
  * injected in a Spring quartz job.
+ * 
+ * The downloads, the parsings and the validations are executed in bounded pools of threads : the size of the pools
+ * limits the resources used by a refresh (the thread priority is only a hint, ignored by most JVMs on Linux). The
+ * trusted lists are published as soon as they are parsed and validated, without waiting for the slowest country :
+ * the publications are coalesced (see {@code setPublicationInterval}) because each one rebuilds the trust services of
+ * all the countries.
  */
 public class TSLValidationJob {
 
 	private static final Logger LOG = LoggerFactory.getLogger(TSLValidationJob.class);
 
-	private ExecutorService executorService = Executors.newCachedThreadPool();
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+	private static final long DEFAULT_PUBLICATION_INTERVAL = 1000; // 1 second
+
+	/* If set, used by all the stages (download, parsing and validation) */
+	private ExecutorService executorService;
+
+	private int nbDownloadThreads = 4;
+	private int nbParsingThreads = 1;
+	private int nbValidationThreads = 1;
+	private int threadPriority = Thread.MIN_PRIORITY;
+	private long publicationInterval = DEFAULT_PUBLICATION_INTERVAL;
+
+	private ExecutorService downloadExecutor;
+	private ExecutorService parsingExecutor;
+	private ExecutorService validationExecutor;
+	private ScheduledExecutorService refreshScheduler;
+
+	/* The refreshes (and the initialization) never run concurrently, the repository is not thread-safe */
+	private final Object refreshLock = new Object();
 
 	private DataLoader dataLoader;
 	private TSLRepository repository;
@@ -74,10 +111,20 @@ public class TSLValidationJob {
 
 	private boolean checkLOTLSignature = true;
 	private boolean checkTSLSignatures = true;
+
+	private boolean streamingParsing = false;
 	private List<String> filterTerritories;
 
 	private List<OtherTrustedList> otherTrustedLists;
 
+	private TrustedListsCRLPrefetcher crlPrefetcher;
+
+	/**
+	 * This method allows to use the same executor for all the stages instead of the bounded pools of the job.
+	 * 
+	 * @param executorService
+	 *            the executor of the downloads, the parsings and the validations
+	 */
 	public void setExecutorService(ExecutorService executorService) {
 		if (this.executorService != null && !this.executorService.isShutdown()) {
 			this.executorService.shutdownNow();
@@ -85,6 +132,60 @@ public class TSLValidationJob {
 		this.executorService = executorService;
 	}
 
+	/**
+	 * This method allows to set the maximum number of parallel downloads (default : 4)
+	 * 
+	 * @param nbDownloadThreads
+	 *            the number of download threads
+	 */
+	public void setNbDownloadThreads(int nbDownloadThreads) {
+		this.nbDownloadThreads = nbDownloadThreads;
+	}
+
+	/**
+	 * This method allows to set the maximum number of parallel parsings (default : 1)
+	 * 
+	 * @param nbParsingThreads
+	 *            the number of parsing threads
+	 */
+	public void setNbParsingThreads(int nbParsingThreads) {
+		this.nbParsingThreads = nbParsingThreads;
+	}
+
+	/**
+	 * This method allows to set the maximum number of parallel signature validations (default : 1)
+	 * 
+	 * @param nbValidationThreads
+	 *            the number of validation threads
+	 */
+	public void setNbValidationThreads(int nbValidationThreads) {
+		this.nbValidationThreads = nbValidationThreads;
+	}
+
+	/**
+	 * This method allows to set the priority of the refresh threads (default : {@link Thread#MIN_PRIORITY}). The
+	 * priority is only a hint for the scheduler of the OS (ignored by HotSpot on Linux by default) : the refresh is
+	 * bounded by the number of threads of each stage.
+	 * 
+	 * @param threadPriority
+	 *            the thread priority
+	 */
+	public void setThreadPriority(int threadPriority) {
+		this.threadPriority = threadPriority;
+	}
+
+	/**
+	 * This method allows to set the minimum delay between two publications of trusted lists during a refresh
+	 * (default : 1 second). The trusted lists parsed and validated in the meantime are published together, a trusted
+	 * list is published at the latest after this delay.
+	 * 
+	 * @param publicationInterval
+	 *            the delay in milliseconds (0 to publish as soon as no other result is waiting)
+	 */
+	public void setPublicationInterval(long publicationInterval) {
+		this.publicationInterval = publicationInterval;
+	}
+
 	public void setDataLoader(DataLoader dataLoader) {
 		this.dataLoader = dataLoader;
 	}
@@ -144,6 +245,17 @@ public class TSLValidationJob {
 		this.checkTSLSignatures = checkTSLSignatures;
 	}
 
+	/**
+	 * This method allows to parse the trusted lists with the {@code TSLStreamingParser} (StAX) instead of JAXB. A
+	 * trusted list to parse and to validate is then read once for both (default : false)
+	 * 
+	 * @param streamingParsing
+	 *            true to use the streaming parser
+	 */
+	public void setStreamingParsing(boolean streamingParsing) {
+		this.streamingParsing = streamingParsing;
+	}
+
 	public void setFilterTerritories(List<String> filterTerritories) {
 		this.filterTerritories = filterTerritories;
 	}
@@ -158,7 +270,24 @@ public class TSLValidationJob {
 		this.otherTrustedLists = otherTrustedLists;
 	}
 
+	/**
+	 * This parameter allows to download the CRLs of the trusted certificates in background, after each loading of
+	 * the trusted lists.
+	 * 
+	 * @param crlPrefetcher
+	 *            the prefetcher to be called (null to not prefetch)
+	 */
+	public void setCrlPrefetcher(TrustedListsCRLPrefetcher crlPrefetcher) {
+		this.crlPrefetcher = crlPrefetcher;
+	}
+
 	public void initRepository() {
+		synchronized (refreshLock) {
+			doInitRepository();
+		}
+	}
+
+	private void doInitRepository() {
 		LOG.info("Initialization of the TSL repository ...");
 		int loadedTSL = 0;
 		List<File> cachedFiles = repository.getStoredFiles();
@@ -166,7 +295,7 @@ public class TSLValidationJob {
 			List<Future<TSLParserResult>> futureParseResults = new ArrayList<Future<TSLParserResult>>();
 			for (File file : cachedFiles) {
 				try {
-					futureParseResults.add(executorService.submit(new TSLParser(new FileDocument(file))));
+					futureParseResults.add(getParsingExecutor().submit(getParser(new FileDocument(file))));
 				} catch (Exception e) {
 					LOG.error("Unable to parse file '" + file.getAbsolutePath() + "' : " + e.getMessage(), e);
 				}
@@ -210,7 +339,7 @@ public class TSLValidationJob {
 							potentialSigners = getPotentialSigners(lotlPointers, countryCode);
 						}
 						TSLValidator tslValidator = new TSLValidator(new FileDocument(countryModel.getFilepath()), countryCode, potentialSigners);
-						futureValidationResults.add(executorService.submit(tslValidator));
+						futureValidationResults.add(getValidationExecutor().submit(tslValidator));
 					}
 				}
 
@@ -218,10 +347,21 @@ public class TSLValidationJob {
 			}
 
 			repository.synchronize();
+			prefetchCRLs();
 		}
 		LOG.info("{} loaded TSL from cached files in the repository", loadedTSL);
 	}
 
+	private void prefetchCRLs() {
+		if (crlPrefetcher != null) {
+			try {
+				crlPrefetcher.prefetch();
+			} catch (Exception e) {
+				LOG.error("Unable to prefetch the CRLs : " + e.getMessage(), e);
+			}
+		}
+	}
+
 	private OtherTrustedList getNonEUTrustedList(String countryCode) {
 		if (Utils.isCollectionNotEmpty(otherTrustedLists)) {
 			for (OtherTrustedList otherTrustedList : otherTrustedLists) {
@@ -233,10 +373,105 @@ public class TSLValidationJob {
 		return null;
 	}
 
+	/**
+	 * Schedules the refreshes in a background thread : a refresh starts with the given delay after the end of the
+	 * previous one. The failures are logged and do not stop the schedule.
+	 * 
+	 * @param initialDelay
+	 *            the delay before the first refresh
+	 * @param delay
+	 *            the delay between two refreshes
+	 * @param unit
+	 *            the time unit of the delays
+	 */
+	public synchronized void scheduleRefresh(long initialDelay, long delay, TimeUnit unit) {
+		if (refreshScheduler == null) {
+			refreshScheduler = Executors.newSingleThreadScheduledExecutor(new TSLRefreshThreadFactory("refresh", threadPriority));
+		}
+		refreshScheduler.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					refresh();
+				} catch (Exception e) {
+					LOG.error("Unable to refresh the trusted lists : " + e.getMessage(), e);
+				}
+			}
+
+		}, initialDelay, delay, unit);
+	}
+
+	/**
+	 * Stops the scheduled refreshes and the threads of the job
+	 */
+	public synchronized void shutdown() {
+		if (refreshScheduler != null) {
+			refreshScheduler.shutdownNow();
+			refreshScheduler = null;
+		}
+		downloadExecutor = shutdownNow(downloadExecutor);
+		parsingExecutor = shutdownNow(parsingExecutor);
+		validationExecutor = shutdownNow(validationExecutor);
+	}
+
+	private ExecutorService shutdownNow(ExecutorService executor) {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		return null;
+	}
+
+	private synchronized ExecutorService getDownloadExecutor() {
+		if (executorService != null) {
+			return executorService;
+		}
+		if (downloadExecutor == null) {
+			downloadExecutor = newStageExecutor("download", nbDownloadThreads);
+		}
+		return downloadExecutor;
+	}
+
+	private synchronized ExecutorService getParsingExecutor() {
+		if (executorService != null) {
+			return executorService;
+		}
+		if (parsingExecutor == null) {
+			parsingExecutor = newStageExecutor("parsing", nbParsingThreads);
+		}
+		return parsingExecutor;
+	}
+
+	private synchronized ExecutorService getValidationExecutor() {
+		if (executorService != null) {
+			return executorService;
+		}
+		if (validationExecutor == null) {
+			validationExecutor = newStageExecutor("validation", nbValidationThreads);
+		}
+		return validationExecutor;
+	}
+
+	/**
+	 * The threads are released between two refreshes
+	 */
+	private ExecutorService newStageExecutor(String stage, int nbThreads) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(nbThreads, nbThreads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new TSLRefreshThreadFactory(stage, threadPriority));
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	public void refresh() {
+		synchronized (refreshLock) {
+			doRefresh();
+		}
+	}
+
+	private void doRefresh() {
 		LOG.debug("TSL Validation Job is starting ...");
 		TSLLoaderResult resultLoaderLOTL = null;
-		Future<TSLLoaderResult> result = executorService.submit(new TSLLoader(dataLoader, lotlCode, lotlUrl));
+		Future<TSLLoaderResult> result = getDownloadExecutor().submit(new TSLLoader(dataLoader, lotlCode, lotlUrl));
 		try {
 			resultLoaderLOTL = result.get();
 		} catch (Exception e) {
@@ -296,6 +531,8 @@ public class TSLValidationJob {
 
 		repository.synchronize();
 
+		prefetchCRLs();
+
 		LOG.debug("TSL Validation Job is finishing ...");
 	}
 
@@ -315,7 +552,7 @@ public class TSLValidationJob {
 		List<Future<TSLLoaderResult>> pivotLoaderResults = new LinkedList<Future<TSLLoaderResult>>();
 		List<String> pivotUris = getPivotUris(parseResult);
 		for (String pivotUrl : pivotUris) {
-			pivotLoaderResults.add(executorService.submit(new TSLLoader(dataLoader, lotlCode, pivotUrl)));
+			pivotLoaderResults.add(getDownloadExecutor().submit(new TSLLoader(dataLoader, lotlCode, pivotUrl)));
 		}
 
 		for (Future<TSLLoaderResult> pivotLoaderResult : pivotLoaderResults) {
@@ -337,14 +574,14 @@ public class TSLValidationJob {
 
 					TSLParserResult pivotParseResult = pivotModel.getParseResult();
 					if (pivotParseResult == null) {
-						Future<TSLParserResult> parseResultFuture = executorService.submit(new TSLParser(trustedList));
+						Future<TSLParserResult> parseResultFuture = getParsingExecutor().submit(getParser(trustedList));
 						pivotParseResult = parseResultFuture.get();
 					}
 
 					TSLValidationResult pivotValidationResult = pivotModel.getValidationResult();
 					if (checkLOTLSignature && (pivotValidationResult == null)) {
 						TSLValidator tslValidator = new TSLValidator(trustedList, loaderResult.getCountryCode(), allowedLotlSigners);
-						Future<TSLValidationResult> pivotValidationFuture = executorService.submit(tslValidator);
+						Future<TSLValidationResult> pivotValidationFuture = getValidationExecutor().submit(tslValidator);
 						pivotValidationResult = pivotValidationFuture.get();
 					}
 
@@ -405,57 +642,174 @@ public class TSLValidationJob {
 		return pivotUris;
 	}
 
+	/**
+	 * The trusted lists are downloaded, parsed and validated in a pipeline (the results are handled in their
+	 * completion order) : the countries are published as soon as their results are stored, without waiting for the
+	 * other countries. A publication rebuilds all the countries : the completed countries are published together
+	 * when no other result is waiting and the publication interval is elapsed.
+	 */
 	private void analyzeCountryPointers(List<TSLPointer> pointers, boolean newLotl) {
-		List<Future<TSLLoaderResult>> futureLoaderResults = new ArrayList<Future<TSLLoaderResult>>();
+		BlockingQueue<Future<StageResult>> completedStages = new LinkedBlockingQueue<Future<StageResult>>();
+		CompletionService<StageResult> downloads = new ExecutorCompletionService<StageResult>(getDownloadExecutor(), completedStages);
+		CompletionService<StageResult> parsings = new ExecutorCompletionService<StageResult>(getParsingExecutor(), completedStages);
+		CompletionService<StageResult> validations = new ExecutorCompletionService<StageResult>(getValidationExecutor(), completedStages);
+
+		int runningStages = 0;
 		for (TSLPointer tslPointer : pointers) {
 			if (Utils.isCollectionEmpty(filterTerritories) || filterTerritories.contains(tslPointer.getTerritory())) {
 				TSLLoader tslLoader = new TSLLoader(dataLoader, tslPointer.getTerritory(), tslPointer.getUrl());
-				futureLoaderResults.add(executorService.submit(tslLoader));
+				downloads.submit(new StageTask(tslPointer.getTerritory(), tslLoader));
+				runningStages++;
 			}
 		}
 
-		List<Future<TSLParserResult>> futureParseResults = new ArrayList<Future<TSLParserResult>>();
-		List<Future<TSLValidationResult>> futureValidationResults = new ArrayList<Future<TSLValidationResult>>();
-		for (Future<TSLLoaderResult> futureLoaderResult : futureLoaderResults) {
-			try {
-				TSLLoaderResult loaderResult = futureLoaderResult.get();
-				if(loaderResult.getContent() == null || loaderResult.getContent().length == 0) {
-					LOG.error("Failed to load TSl for country '" + loaderResult.getCountryCode() + "' from '" + loaderResult.getUrl() + "'");
+		Map<String, Integer> remainingStagesByCountry = new HashMap<String, Integer>();
+		boolean publicationPending = false;
+		long lastPublication = 0;
+		while (runningStages > 0) {
+			StageResult stageResult;
+			if (publicationPending) {
+				long publicationDelay = Math.max(lastPublication + publicationInterval - System.currentTimeMillis(), 0);
+				stageResult = pollCompletedStage(completedStages, publicationDelay);
+				if (stageResult == null) {
+					// the interval is elapsed and no other result is waiting
+					repository.synchronize();
+					lastPublication = System.currentTimeMillis();
+					publicationPending = false;
 					continue;
 				}
-				if (loaderResult != null) {
-					TSLValidationModel countryModel = null;
-					if (!repository.isLastCountryVersion(loaderResult)) {
-						countryModel = repository.storeInCache(loaderResult);
-					} else {
-						countryModel = repository.getByCountry(loaderResult.getCountryCode());
-					}
+			} else {
+				stageResult = takeCompletedStage(completedStages);
+			}
+			runningStages--;
+
+			String countryCode = stageResult.countryCode;
+			if (stageResult.exception != null) {
+				LOG.error("Unable to load/parse/validate TSL '" + countryCode + "' : " + stageResult.exception.getMessage(), stageResult.exception);
+			} else if (stageResult.result instanceof TSLLoaderResult) {
+				int nbStages = startParsingAndValidation((TSLLoaderResult) stageResult.result, pointers, newLotl, parsings, validations);
+				if (nbStages > 0) {
+					remainingStagesByCountry.put(countryCode, nbStages);
+					runningStages += nbStages;
+				}
+				continue;
+			} else if (stageResult.result instanceof TSLParserResult) {
+				repository.updateParseResult((TSLParserResult) stageResult.result);
+			} else if (stageResult.result instanceof TSLValidationResult) {
+				repository.updateValidationResult((TSLValidationResult) stageResult.result);
+			} else if (stageResult.result instanceof StreamingParsingAndValidation) {
+				StreamingParsingAndValidation results = (StreamingParsingAndValidation) stageResult.result;
+				if (results.parseResult != null) {
+					repository.updateParseResult(results.parseResult);
+				}
+				if (results.validationResult != null) {
+					repository.updateValidationResult(results.validationResult);
+				}
+			}
 
+			if (isLastStage(remainingStagesByCountry, countryCode)) {
+				LOG.debug("TSL '{}' ready to be published", countryCode);
+				publicationPending = true;
+			}
+		}
 
-					if (countryModel.getFilepath() == null) {
-						LOG.warn("No file found for url '{}'", loaderResult.getUrl());
-						continue;
-					}
-					DSSDocument trustedList = new FileDocument(countryModel.getFilepath());
+		if (publicationPending) {
+			repository.synchronize();
+		}
+	}
 
-					TSLParserResult countryParseResult = countryModel.getParseResult();
-					if (countryParseResult == null) {
-						futureParseResults.add(executorService.submit(new TSLParser(trustedList)));
-					}
+	/**
+	 * Stores the downloaded trusted list and submits its parsing and its validation if required
+	 * 
+	 * @return the number of submitted stages
+	 */
+	private int startParsingAndValidation(TSLLoaderResult loaderResult, List<TSLPointer> pointers, boolean newLotl,
+			CompletionService<StageResult> parsings, CompletionService<StageResult> validations) {
+		String countryCode = loaderResult.getCountryCode();
+		if (loaderResult.getContent() == null || loaderResult.getContent().length == 0) {
+			LOG.error("Failed to load TSl for country '" + countryCode + "' from '" + loaderResult.getUrl() + "'");
+			return 0;
+		}
 
-					if (checkTSLSignatures && (countryModel.getValidationResult() == null || newLotl)) {
-						TSLValidator tslValidator = new TSLValidator(trustedList, loaderResult.getCountryCode(),
-								getPotentialSigners(pointers, loaderResult.getCountryCode()));
-						futureValidationResults.add(executorService.submit(tslValidator));
-					}
-				}
-			} catch (Exception e) {
-				LOG.error("Unable to load/parse TSL : " + e.getMessage(), e);
-			}
+		TSLValidationModel countryModel = null;
+		if (!repository.isLastCountryVersion(loaderResult)) {
+			countryModel = repository.storeInCache(loaderResult);
+		} else {
+			countryModel = repository.getByCountry(countryCode);
+		}
+
+		if (countryModel.getFilepath() == null) {
+			LOG.warn("No file found for url '{}'", loaderResult.getUrl());
+			return 0;
+		}
+		DSSDocument trustedList = new FileDocument(countryModel.getFilepath());
+
+		boolean parsing = countryModel.getParseResult() == null;
+		boolean validation = checkTSLSignatures && (countryModel.getValidationResult() == null || newLotl);
+
+		if (parsing && validation && streamingParsing) {
+			TSLValidator tslValidator = new TSLValidator(trustedList, countryCode, getPotentialSigners(pointers, countryCode));
+			validations.submit(new StageTask(countryCode, new StreamingParsingAndValidation(countryCode, trustedList, tslValidator)));
+			return 1;
+		}
+
+		int nbStages = 0;
+		if (parsing) {
+			parsings.submit(new StageTask(countryCode, getParser(trustedList)));
+			nbStages++;
+		}
+
+		if (validation) {
+			TSLValidator tslValidator = new TSLValidator(trustedList, countryCode, getPotentialSigners(pointers, countryCode));
+			validations.submit(new StageTask(countryCode, tslValidator));
+			nbStages++;
+		}
+		return nbStages;
+	}
+
+	private Callable<TSLParserResult> getParser(DSSDocument trustedList) {
+		if (streamingParsing) {
+			return new TSLStreamingParser(trustedList);
+		}
+		return new TSLParser(trustedList);
+	}
+
+	private StageResult takeCompletedStage(BlockingQueue<Future<StageResult>> completedStages) {
+		try {
+			return completedStages.take().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("The refresh of the trusted lists has been interrupted", e);
+		} catch (ExecutionException e) {
+			// the stage tasks catch their exceptions
+			throw new DSSException("Unexpected error during the refresh of the trusted lists : " + e.getMessage(), e);
+		}
+	}
+
+	private StageResult pollCompletedStage(BlockingQueue<Future<StageResult>> completedStages, long timeout) {
+		try {
+			Future<StageResult> completedStage = completedStages.poll(timeout, TimeUnit.MILLISECONDS);
+			return completedStage != null ? completedStage.get() : null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("The refresh of the trusted lists has been interrupted", e);
+		} catch (ExecutionException e) {
+			// the stage tasks catch their exceptions
+			throw new DSSException("Unexpected error during the refresh of the trusted lists : " + e.getMessage(), e);
 		}
+	}
 
-		storeParseResults(futureParseResults);
-		storeValidationResults(futureValidationResults);
+	private boolean isLastStage(Map<String, Integer> remainingStagesByCountry, String countryCode) {
+		Integer remainingStages = remainingStagesByCountry.get(countryCode);
+		if (remainingStages == null) {
+			return false;
+		}
+		if (remainingStages == 1) {
+			remainingStagesByCountry.remove(countryCode);
+			return true;
+		}
+		remainingStagesByCountry.put(countryCode, remainingStages - 1);
+		return false;
 	}
 
 	private void analyzeNonEUCountryPointers() {
@@ -508,13 +862,93 @@ public class TSLValidationJob {
 	private TSLValidationResult validateLOTL(TSLValidationModel validationModel, List<CertificateToken> allowedSigners) throws Exception {
 		validationModel.setLotl(true);
 		TSLValidator tslValidator = new TSLValidator(new FileDocument(validationModel.getFilepath()), lotlCode, allowedSigners);
-		Future<TSLValidationResult> future = executorService.submit(tslValidator);
+		Future<TSLValidationResult> future = getValidationExecutor().submit(tslValidator);
 		return future.get();
 	}
 
 	private TSLParserResult parseLOTL(TSLValidationModel validationModel) throws Exception {
-		Future<TSLParserResult> future = executorService.submit(new TSLParser(new FileDocument(validationModel.getFilepath())));
+		Future<TSLParserResult> future = getParsingExecutor().submit(getParser(new FileDocument(validationModel.getFilepath())));
 		return future.get();
 	}
 
+	/**
+	 * The parsing and the validation of a trusted list in the same pass : the failure of one of them does not prevent
+	 * the storage of the other result (a validation failure is stored as an indeterminate result)
+	 */
+	private static final class StreamingParsingAndValidation implements Callable<StreamingParsingAndValidation> {
+
+		private final String countryCode;
+		private final DSSDocument trustedList;
+		private final TSLValidator validator;
+
+		private TSLParserResult parseResult;
+		private TSLValidationResult validationResult;
+
+		private StreamingParsingAndValidation(String countryCode, DSSDocument trustedList, TSLValidator validator) {
+			this.countryCode = countryCode;
+			this.trustedList = trustedList;
+			this.validator = validator;
+		}
+
+		@Override
+		public StreamingParsingAndValidation call() {
+			TSLStreamingParser parser = new TSLStreamingParser(trustedList);
+			validator.setDocumentListener(parser);
+			try {
+				validationResult = validator.call();
+			} catch (Exception e) {
+				LOG.error("Unable to validate TSL '" + trustedList.getAbsolutePath() + "' : " + e.getMessage(), e);
+				validationResult = new TSLValidationResult();
+				validationResult.setCountryCode(countryCode);
+				validationResult.setIndication(Indication.INDETERMINATE);
+				validationResult.setSubIndication(SubIndication.UNEXPECTED_ERROR);
+			}
+			try {
+				parseResult = parser.getResult();
+			} catch (Exception e) {
+				LOG.error("Unable to parse TSL '" + trustedList.getAbsolutePath() + "' : " + e.getMessage(), e);
+			}
+			return this;
+		}
+
+	}
+
+	/**
+	 * A download, a parsing or a validation of a trusted list
+	 */
+	private static final class StageTask implements Callable<StageResult> {
+
+		private final String countryCode;
+		private final Callable<?> stage;
+
+		private StageTask(String countryCode, Callable<?> stage) {
+			this.countryCode = countryCode;
+			this.stage = stage;
+		}
+
+		@Override
+		public StageResult call() {
+			try {
+				return new StageResult(countryCode, stage.call(), null);
+			} catch (Exception e) {
+				return new StageResult(countryCode, null, e);
+			}
+		}
+
+	}
+
+	private static final class StageResult {
+
+		private final String countryCode;
+		private final Object result;
+		private final Exception exception;
+
+		private StageResult(String countryCode, Object result, Exception exception) {
+			this.countryCode = countryCode;
+			this.result = result;
+			this.exception = exception;
+		}
+
+	}
+
 }
@@ -27,10 +27,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.tsl.TSLValidationResult;
 import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.AdvancedSignature;
 import eu.europa.esig.dss.validation.CertificateVerifier;
 import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
 import eu.europa.esig.dss.validation.executor.ValidationLevel;
 import eu.europa.esig.dss.validation.policy.rules.Indication;
 import eu.europa.esig.dss.validation.reports.Reports;
@@ -38,7 +41,9 @@ import eu.europa.esig.dss.validation.reports.SimpleReport;
 import eu.europa.esig.dss.x509.CertificateToken;
 import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
 import eu.europa.esig.dss.xades.XPathQueryHolder;
+import eu.europa.esig.dss.xades.validation.StreamingXMLDocumentValidator;
 import eu.europa.esig.dss.xades.validation.XMLDocumentValidator;
+import eu.europa.esig.dss.xades.validation.XMLStreamListener;
 
 /**
  * This class allows to validate TSL or LOTL. It can be executed as a Callable.
@@ -51,6 +56,8 @@ public class TSLValidator implements Callable<TSLValidationResult> {
 	private final String countryCode;
 	private final List<CertificateToken> potentialSigners;
 
+	private XMLStreamListener documentListener;
+
 	/**
 	 * Constructor used to instantiate a validator for a TSL
 	 *
@@ -67,21 +74,38 @@ public class TSLValidator implements Callable<TSLValidationResult> {
 		this.potentialSigners = potentialSigners;
 	}
 
+	/**
+	 * Sets a listener of the trusted list events (eg : the {@code TSLStreamingParser}). The trusted list is then
+	 * validated in streaming mode : the document is read once for the listener, the signature extraction and the
+	 * digest of the enveloped reference. The DOM validation is used if the signed content cannot be computed in
+	 * streaming mode.
+	 * 
+	 * @param documentListener
+	 *            the listener of the trusted list events
+	 */
+	public void setDocumentListener(XMLStreamListener documentListener) {
+		this.documentListener = documentListener;
+	}
+
 	@Override
 	public TSLValidationResult call() throws Exception {
 		CertificateVerifier certificateVerifier = new CommonCertificateVerifier(true);
 		certificateVerifier.setTrustedCertSource(buildTrustedCertificateSource(potentialSigners));
 
-		XMLDocumentValidator xmlDocumentValidator = new XMLDocumentValidator(trustedList);
-		xmlDocumentValidator.setCertificateVerifier(certificateVerifier);
-		xmlDocumentValidator.setValidationLevel(ValidationLevel.BASIC_SIGNATURES); // Timestamps,... are ignored
-		// To increase the security: the default {@code XPathQueryHolder} is
-		// used.
-		List<XPathQueryHolder> xPathQueryHolders = xmlDocumentValidator.getXPathQueryHolder();
-		xPathQueryHolders.clear();
-		xPathQueryHolders.add(new XPathQueryHolder());
+		SignedDocumentValidator documentValidator = null;
+		if (documentListener != null) {
+			documentValidator = getStreamingValidator();
+			if (!isSignedContentFound(documentValidator, certificateVerifier)) {
+				LOG.debug("The signed content of the TSL '{}' cannot be computed in streaming mode", countryCode);
+				documentValidator = getDOMValidator();
+			}
+		} else {
+			documentValidator = getDOMValidator();
+		}
+		documentValidator.setCertificateVerifier(certificateVerifier);
+		documentValidator.setValidationLevel(ValidationLevel.BASIC_SIGNATURES); // Timestamps,... are ignored
 
-		Reports reports = xmlDocumentValidator.validateDocument(TSLValidator.class.getResourceAsStream("/tsl-constraint.xml"));
+		Reports reports = documentValidator.validateDocument(TSLValidator.class.getResourceAsStream("/tsl-constraint.xml"));
 
 		SimpleReport simpleReport = reports.getSimpleReport();
 		Indication indication = simpleReport.getIndication(simpleReport.getFirstSignatureId());
@@ -99,6 +123,46 @@ public class TSLValidator implements Callable<TSLValidationResult> {
 		return result;
 	}
 
+	private XMLDocumentValidator getDOMValidator() {
+		XMLDocumentValidator xmlDocumentValidator = new XMLDocumentValidator(trustedList);
+		// To increase the security: the default {@code XPathQueryHolder} is
+		// used.
+		List<XPathQueryHolder> xPathQueryHolders = xmlDocumentValidator.getXPathQueryHolder();
+		xPathQueryHolders.clear();
+		xPathQueryHolders.add(new XPathQueryHolder());
+		return xmlDocumentValidator;
+	}
+
+	private StreamingXMLDocumentValidator getStreamingValidator() {
+		StreamingXMLDocumentValidator streamingValidator = new StreamingXMLDocumentValidator(trustedList);
+		streamingValidator.setDocumentListener(documentListener);
+		// the DigestMethod is only known at the end of the trusted list : the digests of the SHA-2 algorithms used by the
+		// trusted lists are computed in the same pass, another algorithm requires a second reading of the document
+		streamingValidator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA256, DigestAlgorithm.SHA384, DigestAlgorithm.SHA512);
+		List<XPathQueryHolder> xPathQueryHolders = streamingValidator.getXPathQueryHolder();
+		xPathQueryHolders.clear();
+		xPathQueryHolders.add(new XPathQueryHolder());
+		return streamingValidator;
+	}
+
+	/**
+	 * Extracts the signatures (and sends the events to the listener) and checks if their signed content is found
+	 */
+	private boolean isSignedContentFound(SignedDocumentValidator documentValidator, CertificateVerifier certificateVerifier) {
+		documentValidator.setCertificateVerifier(certificateVerifier);
+		List<AdvancedSignature> signatures = documentValidator.getSignatures();
+		if (Utils.isCollectionEmpty(signatures)) {
+			return false;
+		}
+		for (AdvancedSignature signature : signatures) {
+			signature.checkSignatureIntegrity();
+			if (!signature.getSignatureCryptographicVerification().isReferenceDataFound()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private CommonTrustedCertificateSource buildTrustedCertificateSource(List<CertificateToken> potentialSigners) {
 		CommonTrustedCertificateSource commonTrustedCertificateSource = new CommonTrustedCertificateSource();
 		if (Utils.isCollectionNotEmpty(potentialSigners)) {
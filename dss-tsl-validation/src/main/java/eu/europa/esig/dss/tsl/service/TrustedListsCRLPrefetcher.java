@@ -0,0 +1,366 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.client.http.DataLoader.DataAndUrl;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.crl.SharedCRLSource;
+
+/**
+ * This class downloads in background the CRLs which can be predicted from the trusted lists, so the first validations
+ * after a restart or after the expiry of a CRL do not wait for them :
+ * <ul>
+ * <li>the CRL urls of the trusted services (ServiceSupplyPoints), signed by the service certificate</li>
+ * <li>the CRL distribution points of the trusted certificates, when their issuer is also trusted</li>
+ * </ul>
+ * The CRLs are verified and added to the {@code SharedCRLSource} used by the validations. Each CRL is downloaded again
+ * before its nextUpdate.
+ * 
+ * The number of parallel downloads and the average bandwidth can be limited. {@link #prefetch()} is called by the
+ * {@code TSLValidationJob} after the loading of the trusted lists.
+ */
+public class TrustedListsCRLPrefetcher {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TrustedListsCRLPrefetcher.class);
+
+	private static final long DEFAULT_REFRESH_PERIOD = TimeUnit.DAYS.toMillis(1);
+
+	private final TrustedListsCertificateSource trustedListsCertificateSource;
+
+	private final DataLoader dataLoader;
+
+	private final SharedCRLSource crlSource;
+
+	private final Map<String, PrefetchedCRL> prefetchedCRLs = new HashMap<String, PrefetchedCRL>();
+
+	private int maxConcurrentDownloads = 4;
+
+	private long maxBytesPerSecond = 0;
+
+	private long refreshMargin = TimeUnit.MINUTES.toMillis(10);
+
+	private long retryDelay = TimeUnit.MINUTES.toMillis(15);
+
+	private ScheduledExecutorService executorService;
+
+	private long nextDownloadNanos;
+
+	/**
+	 * The default constructor for TrustedListsCRLPrefetcher.
+	 * 
+	 * @param trustedListsCertificateSource
+	 *            the certificate source filled by the {@code TSLValidationJob}
+	 * @param dataLoader
+	 *            the data loader used to download the CRLs
+	 * @param crlSource
+	 *            the CRL source of the validations, which receives the downloaded CRLs
+	 */
+	public TrustedListsCRLPrefetcher(TrustedListsCertificateSource trustedListsCertificateSource, DataLoader dataLoader, SharedCRLSource crlSource) {
+		this.trustedListsCertificateSource = trustedListsCertificateSource;
+		this.dataLoader = dataLoader;
+		this.crlSource = crlSource;
+	}
+
+	/**
+	 * This method allows to set the maximum number of parallel downloads (default : 4). It must be called before the
+	 * first {@link #prefetch()}.
+	 * 
+	 * @param maxConcurrentDownloads
+	 *            the maximum number of parallel downloads
+	 */
+	public void setMaxConcurrentDownloads(int maxConcurrentDownloads) {
+		if (maxConcurrentDownloads < 1) {
+			throw new IllegalArgumentException("The number of downloads must be positive");
+		}
+		this.maxConcurrentDownloads = maxConcurrentDownloads;
+	}
+
+	/**
+	 * This method allows to limit the average bandwidth of the downloads : a download is delayed until the previous
+	 * ones fit in the limit (default : 0, no limit).
+	 * 
+	 * @param maxBytesPerSecond
+	 *            the maximum number of downloaded bytes per second
+	 */
+	public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+		this.maxBytesPerSecond = maxBytesPerSecond;
+	}
+
+	/**
+	 * This method allows to set how long before its nextUpdate a CRL is downloaded again (default : 10 minutes).
+	 * 
+	 * @param refreshMargin
+	 *            the margin in milliseconds
+	 */
+	public void setRefreshMargin(long refreshMargin) {
+		this.refreshMargin = refreshMargin;
+	}
+
+	/**
+	 * This method allows to set the delay before a new attempt when a CRL cannot be downloaded or is not newer than
+	 * the refresh margin (default : 15 minutes).
+	 * 
+	 * @param retryDelay
+	 *            the delay in milliseconds
+	 */
+	public void setRetryDelay(long retryDelay) {
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Collects the CRLs of the trusted certificates and schedules their download. The CRLs which are already
+	 * prefetched are kept (they are refreshed according to their nextUpdate), the ones which are not related to the
+	 * trusted lists anymore are not refreshed anymore.
+	 * 
+	 * @return the number of prefetched CRLs
+	 */
+	public int prefetch() {
+		Map<String, PrefetchedCRL> crls = collectCRLs();
+		int added = 0;
+		synchronized (prefetchedCRLs) {
+			Iterator<Entry<String, PrefetchedCRL>> iterator = prefetchedCRLs.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Entry<String, PrefetchedCRL> entry = iterator.next();
+				if (!crls.containsKey(entry.getKey())) {
+					entry.getValue().cancel();
+					iterator.remove();
+				}
+			}
+			for (Entry<String, PrefetchedCRL> entry : crls.entrySet()) {
+				if (!prefetchedCRLs.containsKey(entry.getKey())) {
+					prefetchedCRLs.put(entry.getKey(), entry.getValue());
+					schedule(entry.getValue(), 0);
+					added++;
+				}
+			}
+			LOG.info("{} CRLs prefetched from the trusted lists ({} new)", prefetchedCRLs.size(), added);
+			return prefetchedCRLs.size();
+		}
+	}
+
+	/**
+	 * Stops the downloads
+	 */
+	public void shutdown() {
+		synchronized (prefetchedCRLs) {
+			for (PrefetchedCRL prefetchedCRL : prefetchedCRLs.values()) {
+				prefetchedCRL.cancel();
+			}
+			prefetchedCRLs.clear();
+			if (executorService != null) {
+				executorService.shutdownNow();
+				executorService = null;
+			}
+		}
+	}
+
+	private Map<String, PrefetchedCRL> collectCRLs() {
+		Map<String, PrefetchedCRL> crls = new LinkedHashMap<String, PrefetchedCRL>();
+		for (CertificateToken certificate : trustedListsCertificateSource.getCertificates()) {
+			addCRL(crls, certificate, trustedListsCertificateSource.getAlternativeCRLUrls(certificate));
+			if (!certificate.isSelfSigned()) {
+				List<String> crlUrls = DSSASN1Utils.getCrlUrls(certificate);
+				if (Utils.isCollectionNotEmpty(crlUrls)) {
+					CertificateToken issuer = getTrustedIssuer(certificate);
+					if (issuer != null) {
+						addCRL(crls, issuer, crlUrls);
+					}
+				}
+			}
+		}
+		return crls;
+	}
+
+	private void addCRL(Map<String, PrefetchedCRL> crls, CertificateToken issuer, List<String> urls) {
+		if (Utils.isCollectionNotEmpty(urls)) {
+			PrefetchedCRL prefetchedCRL = new PrefetchedCRL(issuer, urls);
+			crls.put(prefetchedCRL.getKey(), prefetchedCRL);
+		}
+	}
+
+	private CertificateToken getTrustedIssuer(CertificateToken certificate) {
+		for (CertificateToken candidate : trustedListsCertificateSource.get(certificate.getIssuerX500Principal())) {
+			if (certificate.isSignedBy(candidate)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private void schedule(final PrefetchedCRL prefetchedCRL, long delay) {
+		synchronized (prefetchedCRLs) {
+			if (prefetchedCRLs.get(prefetchedCRL.getKey()) != prefetchedCRL) {
+				// not related to the trusted lists anymore
+				return;
+			}
+			prefetchedCRL.future = getExecutorService().schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					schedule(prefetchedCRL, download(prefetchedCRL));
+				}
+
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Downloads, verifies and shares a CRL
+	 * 
+	 * @return the delay before the next download
+	 */
+	private long download(PrefetchedCRL prefetchedCRL) {
+		try {
+			awaitBandwidth();
+			DataAndUrl dataAndUrl = dataLoader.get(prefetchedCRL.urls);
+			if (dataAndUrl == null || Utils.isArrayEmpty(dataAndUrl.data)) {
+				LOG.warn("Unable to prefetch the CRL from {}", prefetchedCRL.urls);
+				return retryDelay;
+			}
+			consumeBandwidth(dataAndUrl.data.length);
+
+			CRLValidity crlValidity = CRLUtils.isValidCRL(new ByteArrayInputStream(dataAndUrl.data), prefetchedCRL.issuer);
+			if (!crlValidity.isSignatureIntact()) {
+				LOG.warn("Invalid signature of the CRL from {} : {}", dataAndUrl.urlString, crlValidity.getSignatureInvalidityReason());
+				return retryDelay;
+			}
+			for (String url : prefetchedCRL.urls) {
+				crlSource.addCRL(url, crlValidity);
+			}
+			LOG.debug("CRL prefetched from {} (nextUpdate : {})", dataAndUrl.urlString, crlValidity.getNextUpdate());
+			return getRefreshDelay(crlValidity.getNextUpdate());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return retryDelay;
+		} catch (Exception e) {
+			LOG.warn("Unable to prefetch the CRL from {} : {}", prefetchedCRL.urls, e.getMessage());
+			return retryDelay;
+		}
+	}
+
+	private long getRefreshDelay(Date nextUpdate) {
+		if (nextUpdate == null) {
+			return DEFAULT_REFRESH_PERIOD;
+		}
+		long delay = nextUpdate.getTime() - refreshMargin - System.currentTimeMillis();
+		if (delay <= 0) {
+			// the CA publishes the CRL late
+			return retryDelay;
+		}
+		return delay;
+	}
+
+	private void awaitBandwidth() throws InterruptedException {
+		if (maxBytesPerSecond <= 0) {
+			return;
+		}
+		long waitNanos;
+		synchronized (this) {
+			waitNanos = nextDownloadNanos - System.nanoTime();
+		}
+		if (waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+	private void consumeBandwidth(long bytes) {
+		if (maxBytesPerSecond <= 0) {
+			return;
+		}
+		synchronized (this) {
+			long start = Math.max(System.nanoTime(), nextDownloadNanos);
+			nextDownloadNanos = start + bytes * TimeUnit.SECONDS.toNanos(1) / maxBytesPerSecond;
+		}
+	}
+
+	private ScheduledExecutorService getExecutorService() {
+		if (executorService == null) {
+			executorService = new ScheduledThreadPoolExecutor(maxConcurrentDownloads, new ThreadFactory() {
+
+				private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "crl-prefetcher-" + threadNumber.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				}
+
+			});
+		}
+		return executorService;
+	}
+
+	private static class PrefetchedCRL {
+
+		private final CertificateToken issuer;
+
+		private final List<String> urls;
+
+		private ScheduledFuture<?> future;
+
+		private PrefetchedCRL(CertificateToken issuer, List<String> urls) {
+			this.issuer = issuer;
+			this.urls = new ArrayList<String>(urls);
+		}
+
+		private String getKey() {
+			StringBuilder key = new StringBuilder(issuer.getDSSIdAsString());
+			for (String url : urls) {
+				key.append('|').append(url);
+			}
+			return key.toString();
+		}
+
+		private void cancel() {
+			if (future != null) {
+				future.cancel(true);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,216 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.tsl.TSLConditionsForQualifiers;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLPointer;
+import eu.europa.esig.dss.tsl.TSLService;
+import eu.europa.esig.dss.tsl.TSLServiceProvider;
+import eu.europa.esig.dss.tsl.TSLServiceStatusAndInformationExtensions;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+public class TSLStreamingParserTest {
+
+	@Test
+	public void sameResultsAsJaxbParser() throws Exception {
+		List<File> files = new ArrayList<File>();
+		files.add(new File("src/test/resources/LOTL.xml"));
+		files.add(new File("src/test/resources/pivot-tl-mp.xml"));
+		files.add(new File("src/test/resources/brexit.xml"));
+		files.add(new File("src/test/resources/wrong-service-dates.xml"));
+		for (File file : new File("src/test/resources/tsls").listFiles()) {
+			files.add(file);
+		}
+
+		for (File file : files) {
+			FileDocument document = new FileDocument(file);
+			String expected = describe(new TSLParser(document).call());
+			String streamed = describe(new TSLStreamingParser(document).call());
+			assertEquals(file.getName(), expected, streamed);
+		}
+	}
+
+	@Test
+	public void parsingInTheValidationPass() throws Exception {
+		TSLParserResult lotl = new TSLParser(new FileDocument("src/test/resources/LOTL.xml")).call();
+		String[][] trustedLists = { { "EE", "0A191C3E18CAB7B783E690D3E4431C354A068FF0.xml" }, { "ES", "25342020956D7AEA7A8B994623E7ABA9D415C55E.xml" },
+				{ "FR", "8F7ECB98E4C8AA799F658A90084252864F813093.xml" } };
+		for (String[] trustedList : trustedLists) {
+			FileDocument document = new FileDocument("src/test/resources/tsls/" + trustedList[1]);
+			List<CertificateToken> potentialSigners = getPotentialSigners(lotl, trustedList[0]);
+
+			TSLValidationResult domValidation = new TSLValidator(document, trustedList[0], potentialSigners).call();
+
+			TSLStreamingParser parser = new TSLStreamingParser(document);
+			TSLValidator validator = new TSLValidator(document, trustedList[0], potentialSigners);
+			validator.setDocumentListener(parser);
+			TSLValidationResult streamingValidation = validator.call();
+
+			assertEquals(trustedList[0], domValidation.getIndication(), streamingValidation.getIndication());
+			assertEquals(trustedList[0], domValidation.getSubIndication(), streamingValidation.getSubIndication());
+			assertEquals(trustedList[0], describe(new TSLParser(document).call()), describe(parser.getResult()));
+		}
+	}
+
+	@Test
+	public void signatureWrapping() throws Exception {
+		TSLParserResult lotl = new TSLParser(new FileDocument("src/test/resources/LOTL.xml")).call();
+		FileDocument original = new FileDocument("src/test/resources/tsls/0A191C3E18CAB7B783E690D3E4431C354A068FF0.xml");
+		String xml = new String(DSSUtils.toByteArray(original), "UTF-8");
+		String provider = getElement(xml, "TrustServiceProvider");
+		// the same provider in another namespace and in the trusted list namespace, in the unsigned ds:Object
+		String wrapped = inject(xml, provider.replaceFirst("<TrustServiceProvider", "<TrustServiceProvider xmlns=\"urn:attacker\"") + provider);
+		InMemoryDocument document = new InMemoryDocument(wrapped.getBytes("UTF-8"), "wrapped.xml");
+
+		List<CertificateToken> potentialSigners = getPotentialSigners(lotl, "EE");
+		TSLValidationResult expectedValidation = new TSLValidator(original, "EE", potentialSigners).call();
+
+		TSLStreamingParser parser = new TSLStreamingParser(document);
+		TSLValidator validator = new TSLValidator(document, "EE", potentialSigners);
+		validator.setDocumentListener(parser);
+		TSLValidationResult streamingValidation = validator.call();
+		assertEquals(expectedValidation.getIndication(), streamingValidation.getIndication());
+
+		TSLParserResult jaxbResult = new TSLParser(document).call();
+		assertEquals(new TSLParser(original).call().getServiceProviders().size(), jaxbResult.getServiceProviders().size());
+		assertEquals(describe(jaxbResult), describe(parser.getResult()));
+		assertEquals(describe(jaxbResult), describe(new TSLStreamingParser(document).call()));
+	}
+
+	@Test
+	public void pointerWrapping() throws Exception {
+		FileDocument original = new FileDocument("src/test/resources/LOTL.xml");
+		String xml = new String(DSSUtils.toByteArray(original), "UTF-8");
+		String pointer = getElement(xml, "OtherTSLPointer");
+		String wrapped = inject(xml, pointer.replaceFirst("<OtherTSLPointer", "<OtherTSLPointer xmlns=\"urn:attacker\"") + pointer);
+		InMemoryDocument document = new InMemoryDocument(wrapped.getBytes("UTF-8"), "wrapped-lotl.xml");
+
+		TSLParserResult jaxbResult = new TSLParser(document).call();
+		assertEquals(new TSLParser(original).call().getPointers().size(), jaxbResult.getPointers().size());
+		assertEquals(describe(jaxbResult), describe(new TSLStreamingParser(document).call()));
+	}
+
+	@Test(expected = DSSException.class)
+	public void notATrustedList() throws Exception {
+		new TSLStreamingParser(new InMemoryDocument("<TrustServiceStatusList xmlns=\"urn:attacker\"/>".getBytes("UTF-8"), "file.xml")).call();
+	}
+
+	@Test
+	public void serviceProvidersAreParsed() throws Exception {
+		TSLParserResult result = new TSLStreamingParser(new FileDocument("src/test/resources/tsls/59F95095730A1809A027655246D6524959B191A8.xml")).call();
+		assertEquals("DE", result.getTerritory());
+		assertTrue(result.getServiceProviders().size() > 10);
+	}
+
+	@Test(expected = DSSException.class)
+	public void notXml() throws Exception {
+		new TSLStreamingParser(new InMemoryDocument("not a trusted list".getBytes("UTF-8"), "file.xml")).call();
+	}
+
+	@Test(expected = DSSException.class)
+	public void resultBeforeParsing() {
+		new TSLStreamingParser(new InMemoryDocument("<a/>".getBytes(), "file.xml")).getResult();
+	}
+
+	private String describe(TSLParserResult result) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(result.getTerritory()).append('|').append(result.getSequenceNumber()).append('|').append(result.getVersion()).append('|');
+		sb.append(time(result.getIssueDate())).append('|').append(time(result.getNextUpdateDate())).append('\n');
+		sb.append(result.getDistributionPoints()).append('\n');
+		sb.append(result.getEnglishSchemeInformationURIs()).append('\n');
+		for (TSLPointer pointer : result.getPointers()) {
+			sb.append("pointer ").append(pointer.getUrl()).append('|').append(pointer.getTerritory()).append('|').append(pointer.getMimeType());
+			sb.append('|').append(ids(pointer.getPotentialSigners())).append('\n');
+		}
+		for (TSLServiceProvider serviceProvider : result.getServiceProviders()) {
+			sb.append("provider ").append(serviceProvider.getName()).append('|').append(serviceProvider.getTradeName()).append('|');
+			sb.append(serviceProvider.getRegistrationIdentifier()).append('|').append(serviceProvider.getPostalAddress()).append('|');
+			sb.append(serviceProvider.getElectronicAddress()).append('\n');
+			if (serviceProvider.getServices() == null) {
+				continue;
+			}
+			for (TSLService service : serviceProvider.getServices()) {
+				sb.append(" service ").append(ids(service.getCertificates())).append('\n');
+				for (TSLServiceStatusAndInformationExtensions status : service.getStatusAndInformationExtensions()) {
+					sb.append("  status ").append(status.getName()).append('|').append(status.getType()).append('|').append(status.getStatus());
+					sb.append('|').append(time(status.getStartDate())).append('|').append(time(status.getEndDate()));
+					sb.append('|').append(status.getServiceSupplyPoints()).append('|').append(status.getAdditionalServiceInfoUris());
+					sb.append('|').append(time(status.getExpiredCertsRevocationInfo())).append('\n');
+					if (status.getConditionsForQualifiers() != null) {
+						for (TSLConditionsForQualifiers conditions : status.getConditionsForQualifiers()) {
+							sb.append("   ").append(conditions.getQualifiers()).append(conditions.getCondition()).append('\n');
+						}
+					}
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private String getElement(String xml, String name) {
+		int start = xml.indexOf("<" + name + ">");
+		String end = "</" + name + ">";
+		return xml.substring(start, xml.indexOf(end, start) + end.length());
+	}
+
+	private String inject(String xml, String content) {
+		int object = xml.indexOf("<ds:Object>") + "<ds:Object>".length();
+		return xml.substring(0, object) + content + xml.substring(object);
+	}
+
+	private List<CertificateToken> getPotentialSigners(TSLParserResult lotl, String countryCode) {
+		for (TSLPointer pointer : lotl.getPointers()) {
+			if (countryCode.equals(pointer.getTerritory())) {
+				return pointer.getPotentialSigners();
+			}
+		}
+		throw new IllegalArgumentException(countryCode);
+	}
+
+	private String ids(List<CertificateToken> certificates) {
+		List<String> ids = new ArrayList<String>();
+		for (CertificateToken certificate : certificates) {
+			ids.add(certificate.getDSSIdAsString());
+		}
+		return ids.toString();
+	}
+
+	private Long time(Date date) {
+		return date == null ? null : date.getTime();
+	}
+
+}
@@ -20,19 +20,35 @@
  */
 package eu.europa.esig.dss.tsl.service;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.client.http.MemoryDataLoader;
 import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
 import eu.europa.esig.dss.tsl.TSLValidationModel;
 import eu.europa.esig.dss.tsl.TrustedListsCertificateSource;
@@ -47,6 +63,9 @@ public class TSLValidationJobTest {
 	private static final String LOTL_ROOT_SCHEME_INFO_URI = "https://ec.europa.eu/information_society/policy/esignature/trusted-list/tl.html";
 	private KeyStoreCertificateSource dssKeyStore;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Before
 	public void init() throws IOException {
 		dssKeyStore = new KeyStoreCertificateSource(new File("src/test/resources/keystore.p12"), "PKCS12", "dss-password");
@@ -133,4 +152,159 @@ public class TSLValidationJobTest {
 		logger.info("***************** Second load *****************");
 		job.refresh();
 	}
+
+	@Test
+	public void testOfflineWithBoundedStages() throws IOException {
+		refreshOffline(false);
+	}
+
+	@Test
+	public void testOfflineWithStreamingParsing() throws IOException {
+		TSLRepository repository = refreshOffline(true);
+		for (String countryCode : Arrays.asList("EE", "ES", "FR")) {
+			assertNotNull(repository.getByCountry(countryCode).getValidationResult());
+		}
+	}
+
+	private TSLRepository refreshOffline(boolean streamingParsing) throws IOException {
+		Map<String, byte[]> contents = new HashMap<String, byte[]>();
+		contents.put(LOTL_URL, readFile("LOTL.xml"));
+		contents.put("http://sr.riik.ee/tsl/estonian-tsl.xml", readFile("tsls/0A191C3E18CAB7B783E690D3E4431C354A068FF0.xml"));
+		contents.put("https://sede.minetur.gob.es/Prestadores/TSL/TSL.xml", readFile("tsls/25342020956D7AEA7A8B994623E7ABA9D415C55E.xml"));
+		contents.put("http://references.modernisation.gouv.fr/sites/default/files/TSL-FR.xml", readFile("tsls/8F7ECB98E4C8AA799F658A90084252864F813093.xml"));
+
+		TrustedListsCertificateSource certificateSource = new TrustedListsCertificateSource();
+		TSLRepository repository = new TSLRepository();
+		repository.setCacheDirectoryPath(folder.newFolder("cache").getAbsolutePath() + File.separator);
+		repository.setTrustedListsCertificateSource(certificateSource);
+
+		TSLValidationJob job = new TSLValidationJob();
+		job.setCheckLOTLSignature(false);
+		job.setCheckTSLSignatures(streamingParsing);
+		job.setStreamingParsing(streamingParsing);
+		job.setDataLoader(new MemoryDataLoader(contents));
+		job.setOjUrl(OJ_URL);
+		job.setLotlUrl(LOTL_URL);
+		job.setLotlCode("EU");
+		job.setOjContentKeyStore(dssKeyStore);
+		job.setRepository(repository);
+		job.setFilterTerritories(Arrays.asList("EE", "ES", "FR", "BE"));
+		job.setNbDownloadThreads(2);
+
+		try {
+			job.refresh();
+
+			for (String countryCode : Arrays.asList("EE", "ES", "FR")) {
+				TSLValidationModel model = repository.getByCountry(countryCode);
+				assertNotNull(model.getParseResult());
+				assertTrue(model.isCertificateSourceSynchronized());
+			}
+			// no content for BE
+			assertNull(repository.getByCountry("BE"));
+			assertTrue(certificateSource.getNumberOfTrustedPublicKeys() > 0);
+			assertFalse(certificateSource.getTrustServicesIndex().size() == 0);
+		} finally {
+			job.shutdown();
+		}
+		return repository;
+	}
+
+	@Test
+	public void testPublicationBeforeSlowestCountry() throws Exception {
+		final String frUrl = "http://references.modernisation.gouv.fr/sites/default/files/TSL-FR.xml";
+		Map<String, byte[]> contents = new HashMap<String, byte[]>();
+		contents.put(LOTL_URL, readFile("LOTL.xml"));
+		contents.put("http://sr.riik.ee/tsl/estonian-tsl.xml", readFile("tsls/0A191C3E18CAB7B783E690D3E4431C354A068FF0.xml"));
+		contents.put("https://sede.minetur.gob.es/Prestadores/TSL/TSL.xml", readFile("tsls/25342020956D7AEA7A8B994623E7ABA9D415C55E.xml"));
+		contents.put(frUrl, readFile("tsls/8F7ECB98E4C8AA799F658A90084252864F813093.xml"));
+
+		final CountDownLatch frenchDownload = new CountDownLatch(1);
+		final AtomicInteger runningDownloads = new AtomicInteger();
+		final AtomicInteger maxRunningDownloads = new AtomicInteger();
+		final Set<String> downloadThreads = Collections.synchronizedSet(new HashSet<String>());
+		MemoryDataLoader dataLoader = new MemoryDataLoader(contents) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public byte[] get(String url) {
+				int running = runningDownloads.incrementAndGet();
+				try {
+					synchronized (maxRunningDownloads) {
+						maxRunningDownloads.set(Math.max(maxRunningDownloads.get(), running));
+					}
+					downloadThreads.add(Thread.currentThread().getName());
+					if (frUrl.equals(url)) {
+						// the slowest country
+						frenchDownload.await(30, TimeUnit.SECONDS);
+					}
+					return super.get(url);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return null;
+				} finally {
+					runningDownloads.decrementAndGet();
+				}
+			}
+
+		};
+
+		TrustedListsCertificateSource certificateSource = new TrustedListsCertificateSource();
+		TSLRepository repository = new TSLRepository();
+		repository.setCacheDirectoryPath(folder.newFolder("cache").getAbsolutePath() + File.separator);
+		repository.setTrustedListsCertificateSource(certificateSource);
+
+		TSLValidationJob job = new TSLValidationJob();
+		job.setCheckLOTLSignature(false);
+		job.setCheckTSLSignatures(false);
+		job.setDataLoader(dataLoader);
+		job.setOjUrl(OJ_URL);
+		job.setLotlUrl(LOTL_URL);
+		job.setLotlCode("EU");
+		job.setOjContentKeyStore(dssKeyStore);
+		job.setRepository(repository);
+		job.setFilterTerritories(Arrays.asList("EE", "ES", "FR"));
+		job.setNbDownloadThreads(2);
+		job.setPublicationInterval(0);
+
+		try {
+			job.scheduleRefresh(0, 1, TimeUnit.HOURS);
+
+			// EE and ES are published while FR is still downloading
+			assertTrue(waitForPublication(certificateSource, "EE", "ES"));
+			assertNull(certificateSource.getTlInfo("FR"));
+
+			frenchDownload.countDown();
+			assertTrue(waitForPublication(certificateSource, "FR"));
+		} finally {
+			frenchDownload.countDown();
+			job.shutdown();
+		}
+
+		assertTrue(maxRunningDownloads.get() <= 2);
+		for (String threadName : downloadThreads) {
+			assertTrue(threadName.startsWith("dss-tsl-download-"));
+		}
+		assertEquals(2, downloadThreads.size());
+	}
+
+	private boolean waitForPublication(TrustedListsCertificateSource certificateSource, String... countryCodes) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30000;
+		while (System.currentTimeMillis() < deadline) {
+			boolean published = true;
+			for (String countryCode : countryCodes) {
+				published &= certificateSource.getTlInfo(countryCode) != null;
+			}
+			if (published) {
+				return true;
+			}
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+	private byte[] readFile(String path) {
+		return DSSUtils.toByteArray(new File("src/test/resources/" + path));
+	}
+
 }
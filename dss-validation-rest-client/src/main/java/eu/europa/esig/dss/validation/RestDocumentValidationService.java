@@ -30,6 +30,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
 import eu.europa.esig.dss.DataToValidateDTO;
+import eu.europa.esig.dss.DiagnosticDataToValidateDTO;
 import eu.europa.esig.dss.RemoteDocument;
 import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
 
@@ -48,7 +49,9 @@ public interface RestDocumentValidationService extends Serializable {
 	 * @param dataToValidate
 	 *                       a {@code DataToValidateDTO} which contains the
 	 *                       signature, the optional original document(s) and the
-	 *                       optional validation policy
+	 *                       optional validation policy. The original documents of
+	 *                       a detached signature can be sent as digests only (see
+	 *                       {@code RemoteDocumentDigester})
 	 * @return a {@code ReportsDTO} with the 3 reports : the diagnostic data, the
 	 *         detailed report and the simple report
 	 */
@@ -56,6 +59,21 @@ public interface RestDocumentValidationService extends Serializable {
 	@Path("validateSignature")
 	ReportsDTO validateSignature(DataToValidateDTO dataToValidate);
 
+	/**
+	 * This method re-validates stored diagnostic data with a validation policy. Only the validation processes are
+	 * executed (no parsing, no cryptographic check, no fetch of certificates or revocation data).
+	 * 
+	 * @param diagnosticDataToValidate
+	 *                                 a {@code DiagnosticDataToValidateDTO} which contains the diagnostic data (XML
+	 *                                 or compact form), the optional validation policy and the optional validation
+	 *                                 time
+	 * @return a {@code ReportsDTO} with the 3 reports : the diagnostic data, the
+	 *         detailed report and the simple report
+	 */
+	@POST
+	@Path("validateDiagnosticData")
+	ReportsDTO validateDiagnosticData(DiagnosticDataToValidateDTO diagnosticDataToValidate);
+
 	/**
 	 * This method returns the original document(s) for the given signed file and
 	 * optionally the signatureId.
@@ -0,0 +1,107 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.InputStream;
+import java.io.Serializable;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
+
+/**
+ * The streaming variant of the REST validation service : the documents are sent in a multipart/form-data body (no
+ * base64 encoding) and are spooled to temporary files on the server.
+ * 
+ * The expected parts are :
+ * <ul>
+ * <li>signedDocument : the document which contains the signature(s)</li>
+ * <li>originalDocuments : the original file(s) in case of detached signature (optional, repeatable)</li>
+ * <li>policy : the custom validation policy (optional)</li>
+ * </ul>
+ * The file name of a document is the filename parameter of its Content-Disposition header.
+ * 
+ * The bulk validation (validateSignatures) expects the parts :
+ * <ul>
+ * <li>signedDocuments : a document which contains the signature(s) (repeatable)</li>
+ * <li>archive : a ZIP archive of documents which contain the signature(s) (optional, repeatable)</li>
+ * <li>policy : the custom validation policy (optional)</li>
+ * </ul>
+ * The result is streamed in the NDJSON format (one {@code DocumentReportsDTO} per line, in the completion order).
+ * 
+ * A client builds the multipart body with {@code MultipartFormDataWriter}.
+ */
+@Path("/")
+@Produces(MediaType.APPLICATION_JSON)
+public interface RestStreamDocumentValidationService extends Serializable {
+
+	String SIGNED_DOCUMENT_PART = "signedDocument";
+
+	String ORIGINAL_DOCUMENTS_PART = "originalDocuments";
+
+	String POLICY_PART = "policy";
+
+	String SIGNED_DOCUMENTS_PART = "signedDocuments";
+
+	String ARCHIVE_PART = "archive";
+
+	String APPLICATION_NDJSON = "application/x-ndjson";
+
+	/**
+	 * This method returns the result of the validation of the signed file. The
+	 * results contains a Diagnostic Data, a simple report and a detailed report
+	 * 
+	 * @param contentType
+	 *                      the Content-Type of the request (with the multipart boundary)
+	 * @param multipartBody
+	 *                      the multipart/form-data body
+	 * @return a {@code ReportsDTO} with the 3 reports : the diagnostic data, the
+	 *         detailed report and the simple report
+	 */
+	@POST
+	@Path("validateSignature")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	ReportsDTO validateSignature(@HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, InputStream multipartBody);
+
+	/**
+	 * This method validates a batch of signed files. Each line of the response is a {@code DocumentReportsDTO} (JSON)
+	 * with the reports or the error of one document. The lines are written as soon as the documents are validated.
+	 * 
+	 * @param contentType
+	 *                      the Content-Type of the request (with the multipart boundary)
+	 * @param multipartBody
+	 *                      the multipart/form-data body
+	 * @return the NDJSON stream of {@code DocumentReportsDTO}
+	 */
+	@POST
+	@Path("validateSignatures")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(APPLICATION_NDJSON)
+	Response validateSignatures(@HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, InputStream multipartBody);
+
+}
@@ -23,6 +23,7 @@ package eu.europa.esig.dss.validation;
 import java.util.List;
 
 import eu.europa.esig.dss.DataToValidateDTO;
+import eu.europa.esig.dss.DiagnosticDataToValidateDTO;
 import eu.europa.esig.dss.RemoteDocument;
 import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
 
@@ -40,6 +41,12 @@ public class RestDocumentValidationServiceImpl implements RestDocumentValidation
 		return validationService.validateDocument(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(), dataToValidate.getPolicy());
 	}
 
+	@Override
+	public ReportsDTO validateDiagnosticData(DiagnosticDataToValidateDTO diagnosticDataToValidate) {
+		return validationService.validateDiagnosticData(diagnosticDataToValidate.getDiagnosticData(), diagnosticDataToValidate.getPolicy(),
+				diagnosticDataToValidate.getValidationTime());
+	}
+
 	@Override
 	public List<RemoteDocument> getOriginalDocuments(DataToValidateDTO dataToValidate) {
 		return validationService.getOriginalDocuments(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(),
@@ -0,0 +1,396 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.MultipartFormDataReader;
+import eu.europa.esig.dss.RemoteDocument;
+import eu.europa.esig.dss.RemoteDocumentSpool;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.validation.reports.dto.DocumentReportsDTO;
+import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
+
+/**
+ * REST implementation of the streaming validation service. The multipart/form-data parts are read one by one and the
+ * documents are spooled (in memory or in temporary files, within the configured limits) before being validated with
+ * the {@code RemoteDocumentValidationService}.
+ * 
+ * The bulk validation streams the result : one JSON line ({@code DocumentReportsDTO}) is written per document as soon
+ * as the document is validated (written with the JSON provider of the JAX-RS runtime).
+ */
+@SuppressWarnings("serial")
+public class RestStreamDocumentValidationServiceImpl implements RestStreamDocumentValidationService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RestStreamDocumentValidationServiceImpl.class);
+
+	private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+
+	private static final int DEFAULT_MAX_DOCUMENTS = 100000;
+
+	private RemoteDocumentValidationService validationService;
+
+	private File temporaryDirectory;
+
+	private int inMemoryThreshold = 1024 * 1024;
+
+	private long maxInMemorySize = RemoteDocumentSpool.DEFAULT_MAX_IN_MEMORY_SIZE;
+
+	private long maxDocumentSize = RemoteDocumentSpool.DEFAULT_MAX_DOCUMENT_SIZE;
+
+	private long maxTotalSize = RemoteDocumentSpool.DEFAULT_MAX_TOTAL_SIZE;
+
+	private int maxDocuments = DEFAULT_MAX_DOCUMENTS;
+
+	@Context
+	private transient Providers providers;
+
+	public void setValidationService(RemoteDocumentValidationService validationService) {
+		this.validationService = validationService;
+	}
+
+	/**
+	 * Sets the folder of the temporary files (default : java.io.tmpdir)
+	 * 
+	 * @param temporaryDirectory
+	 *            the folder of the temporary files
+	 */
+	public void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Sets the maximum size of a document kept in memory (default : 1 MB)
+	 * 
+	 * @param inMemoryThreshold
+	 *            the size in bytes
+	 */
+	public void setInMemoryThreshold(int inMemoryThreshold) {
+		this.inMemoryThreshold = inMemoryThreshold;
+	}
+
+	/**
+	 * Sets the maximum size of the documents of a request kept in memory (default : 16 MB), the next documents are
+	 * written in temporary files
+	 * 
+	 * @param maxInMemorySize
+	 *            the size in bytes
+	 */
+	public void setMaxInMemorySize(long maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Sets the maximum size of a document (default : 1 GB, -1 for no limit)
+	 * 
+	 * @param maxDocumentSize
+	 *            the size in bytes
+	 */
+	public void setMaxDocumentSize(long maxDocumentSize) {
+		this.maxDocumentSize = maxDocumentSize;
+	}
+
+	/**
+	 * Sets the maximum size of all the documents of a request (default : 4 GB, -1 for no limit)
+	 * 
+	 * @param maxTotalSize
+	 *            the size in bytes
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	/**
+	 * Sets the maximum number of documents of a request, the entries of the archives included (default : 100000, -1
+	 * for no limit)
+	 * 
+	 * @param maxDocuments
+	 *            the number of documents
+	 */
+	public void setMaxDocuments(int maxDocuments) {
+		this.maxDocuments = maxDocuments;
+	}
+
+	@Override
+	public ReportsDTO validateSignature(String contentType, InputStream multipartBody) {
+		try (RemoteDocumentSpool spool = createSpool()) {
+			DSSDocument signedDocument = null;
+			List<DSSDocument> originalDocuments = new ArrayList<DSSDocument>();
+			RemoteDocument policy = null;
+
+			MultipartFormDataReader reader = new MultipartFormDataReader(contentType, multipartBody);
+			MultipartFormDataReader.Part part;
+			while ((part = reader.nextPart()) != null) {
+				if (SIGNED_DOCUMENT_PART.equals(part.getName())) {
+					signedDocument = spool(spool, part);
+				} else if (ORIGINAL_DOCUMENTS_PART.equals(part.getName())) {
+					originalDocuments.add(spool(spool, part));
+				} else if (POLICY_PART.equals(part.getName())) {
+					policy = new RemoteDocument(DSSUtils.toByteArray(getInputStream(part)), MimeType.XML, part.getFileName());
+				}
+			}
+			if (signedDocument == null) {
+				throw new DSSException("The part '" + SIGNED_DOCUMENT_PART + "' is missing");
+			}
+
+			return validationService.validateDocument(signedDocument, originalDocuments, policy);
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the multipart body", e);
+		}
+	}
+
+	@Override
+	public Response validateSignatures(String contentType, InputStream multipartBody) {
+		// the spool is closed when the response is written
+		final RemoteDocumentSpool spool = createSpool();
+		final List<DSSDocument> signedDocuments = new ArrayList<DSSDocument>();
+		final List<DSSDocument> archives = new ArrayList<DSSDocument>();
+		RemoteDocument policy = null;
+		try {
+			MultipartFormDataReader reader = new MultipartFormDataReader(contentType, multipartBody);
+			MultipartFormDataReader.Part part;
+			while ((part = reader.nextPart()) != null) {
+				if (SIGNED_DOCUMENTS_PART.equals(part.getName())) {
+					signedDocuments.add(spool(spool, part));
+				} else if (ARCHIVE_PART.equals(part.getName())) {
+					archives.add(spool(spool, part));
+				} else if (POLICY_PART.equals(part.getName())) {
+					policy = new RemoteDocument(DSSUtils.toByteArray(getInputStream(part)), MimeType.XML, part.getFileName());
+				}
+			}
+		} catch (IOException e) {
+			spool.close();
+			throw new DSSException("Unable to read the multipart body", e);
+		} catch (RuntimeException e) {
+			spool.close();
+			throw e;
+		}
+		if (signedDocuments.isEmpty() && archives.isEmpty()) {
+			spool.close();
+			throw new DSSException("The parts '" + SIGNED_DOCUMENTS_PART + "' and '" + ARCHIVE_PART + "' are missing");
+		}
+
+		final RemoteDocument validationPolicy = policy;
+		StreamingOutput output = new StreamingOutput() {
+
+			@Override
+			public void write(OutputStream os) throws IOException {
+				final OutputStream lines = new FilterOutputStream(os) {
+
+					@Override
+					public void close() throws IOException {
+						// the provider must not close the response
+						flush();
+					}
+
+				};
+				// the remaining documents are not validated once the client is disconnected
+				final AtomicBoolean disconnected = new AtomicBoolean();
+				try (DocumentIterator documents = new DocumentIterator(spool, signedDocuments, archives, disconnected)) {
+					BulkValidationResult result = validationService.validateDocuments(documents, validationPolicy, new BulkValidationListener() {
+
+						@Override
+						public void onValidated(DSSDocument document, Reports reports) {
+							ReportsDTO reportsDTO = new ReportsDTO(reports.getDiagnosticDataJaxb(), reports.getSimpleReportJaxb(),
+									reports.getDetailedReportJaxb());
+							writeLine(lines, new DocumentReportsDTO(document.getName(), reportsDTO, null), disconnected);
+						}
+
+						@Override
+						public void onError(DSSDocument document, Exception e) {
+							writeLine(lines, new DocumentReportsDTO(document.getName(), null, e.getMessage()), disconnected);
+						}
+
+					});
+					LOG.info("Bulk validation : {}", result);
+				} catch (DSSException e) {
+					// an archive cannot be read or a limit is exceeded : the last line reports the error
+					LOG.warn("Bulk validation aborted : {}", e.getMessage());
+					writeLine(lines, new DocumentReportsDTO(null, null, e.getMessage()), disconnected);
+				} finally {
+					spool.close();
+				}
+			}
+
+		};
+		return Response.ok(output, APPLICATION_NDJSON).build();
+	}
+
+	/**
+	 * Writes one line of the NDJSON response. The workers of the bulk validation call this method concurrently, the
+	 * lines of a response are written one after the other. A write error means that the client is disconnected : the
+	 * following lines are ignored.
+	 */
+	private void writeLine(OutputStream os, DocumentReportsDTO documentReports, AtomicBoolean disconnected) {
+		if (disconnected.get()) {
+			return;
+		}
+		MessageBodyWriter<DocumentReportsDTO> writer = providers.getMessageBodyWriter(DocumentReportsDTO.class, DocumentReportsDTO.class,
+				new Annotation[0], MediaType.APPLICATION_JSON_TYPE);
+		if (writer == null) {
+			throw new DSSException("No JSON provider for " + DocumentReportsDTO.class.getSimpleName());
+		}
+		synchronized (os) {
+			if (disconnected.get()) {
+				return;
+			}
+			try {
+				writer.writeTo(documentReports, DocumentReportsDTO.class, DocumentReportsDTO.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE,
+						new MultivaluedHashMap<String, Object>(), os);
+				os.write(LINE_SEPARATOR);
+				os.flush();
+			} catch (IOException e) {
+				LOG.warn("Unable to write the result of '{}', the bulk validation is stopped : {}", documentReports.getDocumentName(), e.getMessage());
+				disconnected.set(true);
+			}
+		}
+	}
+
+	private RemoteDocumentSpool createSpool() {
+		RemoteDocumentSpool spool = new RemoteDocumentSpool(temporaryDirectory, inMemoryThreshold);
+		spool.setMaxInMemorySize(maxInMemorySize);
+		spool.setMaxDocumentSize(maxDocumentSize);
+		spool.setMaxTotalSize(maxTotalSize);
+		spool.setMaxDocuments(maxDocuments);
+		return spool;
+	}
+
+	/**
+	 * The parts which are loaded in memory are limited to the maximum size of a document
+	 */
+	private InputStream getInputStream(MultipartFormDataReader.Part part) {
+		return maxDocumentSize < 0 ? part.getInputStream() : part.getInputStream(maxDocumentSize);
+	}
+
+	private DSSDocument spool(RemoteDocumentSpool spool, MultipartFormDataReader.Part part) {
+		return spool.spool(part.getInputStream(), part.getFileName(), part.getMimeType());
+	}
+
+	/**
+	 * The signed documents, then the entries of the archives (read one by one). The entries are spooled : they are
+	 * subject to the limits of the request. The iteration ends when the client is disconnected.
+	 */
+	private static class DocumentIterator implements Iterator<DSSDocument>, AutoCloseable {
+
+		private final RemoteDocumentSpool spool;
+
+		private final Iterator<DSSDocument> signedDocuments;
+
+		private final Iterator<DSSDocument> archives;
+
+		private final AtomicBoolean disconnected;
+
+		private ArchiveDocumentIterator currentArchive;
+
+		private DocumentIterator(RemoteDocumentSpool spool, List<DSSDocument> signedDocuments, List<DSSDocument> archives,
+				AtomicBoolean disconnected) {
+			this.spool = spool;
+			this.signedDocuments = signedDocuments.iterator();
+			this.archives = archives.iterator();
+			this.disconnected = disconnected;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (disconnected.get()) {
+				return false;
+			}
+			if (signedDocuments.hasNext()) {
+				return true;
+			}
+			while (currentArchive == null || !currentArchive.hasNext()) {
+				closeCurrentArchive();
+				if (!archives.hasNext()) {
+					return false;
+				}
+				currentArchive = new ArchiveDocumentIterator(archives.next()) {
+
+					@Override
+					protected DSSDocument createDocument(InputStream entryStream, String name) {
+						return spool.spool(entryStream, name, MimeType.fromFileName(name));
+					}
+
+				};
+			}
+			return true;
+		}
+
+		@Override
+		public DSSDocument next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (signedDocuments.hasNext()) {
+				return signedDocuments.next();
+			}
+			return currentArchive.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private void closeCurrentArchive() {
+			if (currentArchive != null) {
+				try {
+					currentArchive.close();
+				} catch (IOException e) {
+					LOG.warn("Unable to close the archive : {}", e.getMessage());
+				}
+				currentArchive = null;
+			}
+		}
+
+		@Override
+		public void close() {
+			closeCurrentArchive();
+		}
+
+	}
+
+}
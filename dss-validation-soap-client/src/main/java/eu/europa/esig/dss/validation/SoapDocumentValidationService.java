@@ -28,6 +28,7 @@ import javax.jws.WebResult;
 import javax.jws.WebService;
 
 import eu.europa.esig.dss.DataToValidateDTO;
+import eu.europa.esig.dss.DiagnosticDataToValidateDTO;
 import eu.europa.esig.dss.RemoteDocument;
 
 /**
@@ -45,13 +46,29 @@ public interface SoapDocumentValidationService extends Serializable {
 	 * @param dataToValidate
 	 *                       a {@code DataToValidateDTO} which contains the
 	 *                       signature, the optional original document(s) and the
-	 *                       optional validation policy
+	 *                       optional validation policy. The original documents of
+	 *                       a detached signature can be sent as digests only (see
+	 *                       {@code RemoteDocumentDigester})
 	 * @return a {@code WSReportsDTO} with the 3 reports : the diagnostic data, the
 	 *         detailed report and the simple report
 	 */
 	@WebResult(name = "WSReportsDTO")
 	WSReportsDTO validateSignature(@WebParam(name = "dataToValidateDTO") DataToValidateDTO dataToValidate);
 
+	/**
+	 * This method re-validates stored diagnostic data with a validation policy. Only the validation processes are
+	 * executed (no parsing, no cryptographic check, no fetch of certificates or revocation data).
+	 * 
+	 * @param diagnosticDataToValidate
+	 *                                 a {@code DiagnosticDataToValidateDTO} which contains the diagnostic data (XML
+	 *                                 or compact form), the optional validation policy and the optional validation
+	 *                                 time
+	 * @return a {@code WSReportsDTO} with the 3 reports : the diagnostic data, the
+	 *         detailed report and the simple report
+	 */
+	@WebResult(name = "WSReportsDTO")
+	WSReportsDTO validateDiagnosticData(@WebParam(name = "diagnosticDataToValidateDTO") DiagnosticDataToValidateDTO diagnosticDataToValidate);
+
 	/**
 	 * This method returns the original document(s) for the given signed file and
 	 * optionally the signatureId.
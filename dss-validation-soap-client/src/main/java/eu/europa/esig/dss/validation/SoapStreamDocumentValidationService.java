@@ -0,0 +1,68 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.jws.WebParam;
+import javax.jws.WebResult;
+import javax.jws.WebService;
+
+import eu.europa.esig.dss.StreamDataToValidateBulkDTO;
+import eu.europa.esig.dss.StreamDataToValidateDTO;
+
+/**
+ * The streaming variant of the validation web service : the documents are transferred as MTOM attachments and are
+ * spooled to temporary files on the server. The client has to enable MTOM (eg: with
+ * {@code javax.xml.ws.soap.MTOMFeature}) to avoid the base64 encoding of the documents. A {@code DSSDocument} is
+ * sent without being loaded in memory with {@code new RemoteStreamDocument(document)}.
+ */
+@WebService(targetNamespace = "http://validation.dss.esig.europa.eu/")
+public interface SoapStreamDocumentValidationService extends Serializable {
+
+	/**
+	 * This method returns the result of the validation of the signed file. The
+	 * results contains a Diagnostic Data, a simple report and a detailed report
+	 * 
+	 * @param dataToValidate
+	 *                       a {@code StreamDataToValidateDTO} which contains the
+	 *                       signature, the optional original document(s) and the
+	 *                       optional validation policy
+	 * @return a {@code WSReportsDTO} with the 3 reports : the diagnostic data, the
+	 *         detailed report and the simple report
+	 */
+	@WebResult(name = "WSReportsDTO")
+	WSReportsDTO validateSignature(@WebParam(name = "streamDataToValidateDTO") StreamDataToValidateDTO dataToValidate);
+
+	/**
+	 * This method validates a batch of signed files with shared revocation data. A SOAP response cannot be streamed :
+	 * the results are returned when all the documents are validated (the REST variant streams the results).
+	 * 
+	 * @param dataToValidate
+	 *                       a {@code StreamDataToValidateBulkDTO} which contains the
+	 *                       signed documents and the optional validation policy
+	 * @return a {@code WSDocumentReportsDTO} per document, in the completion order
+	 */
+	@WebResult(name = "WSDocumentReportsDTO")
+	List<WSDocumentReportsDTO> validateSignatures(@WebParam(name = "streamDataToValidateBulkDTO") StreamDataToValidateBulkDTO dataToValidate);
+
+}
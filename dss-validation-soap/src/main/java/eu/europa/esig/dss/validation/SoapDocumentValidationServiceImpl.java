@@ -23,6 +23,7 @@ package eu.europa.esig.dss.validation;
 import java.util.List;
 
 import eu.europa.esig.dss.DataToValidateDTO;
+import eu.europa.esig.dss.DiagnosticDataToValidateDTO;
 import eu.europa.esig.dss.RemoteDocument;
 import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
 
@@ -42,6 +43,13 @@ public class SoapDocumentValidationServiceImpl implements SoapDocumentValidation
 		return new WSReportsDTO(reportsDTO.getDiagnosticData(), reportsDTO.getSimpleReport(), reportsDTO.getDetailedReport());
 	}
 
+	@Override
+	public WSReportsDTO validateDiagnosticData(DiagnosticDataToValidateDTO diagnosticDataToValidate) {
+		ReportsDTO reportsDTO = validationService.validateDiagnosticData(diagnosticDataToValidate.getDiagnosticData(),
+				diagnosticDataToValidate.getPolicy(), diagnosticDataToValidate.getValidationTime());
+		return new WSReportsDTO(reportsDTO.getDiagnosticData(), reportsDTO.getSimpleReport(), reportsDTO.getDetailedReport());
+	}
+
 	@Override
 	public List<RemoteDocument> getOriginalDocuments(DataToValidateDTO dataToValidate) {
 		return validationService.getOriginalDocuments(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(),
@@ -0,0 +1,139 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.ws.soap.MTOM;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.RemoteDocumentSpool;
+import eu.europa.esig.dss.StreamDataToValidateBulkDTO;
+import eu.europa.esig.dss.StreamDataToValidateDTO;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.validation.reports.dto.ReportsDTO;
+
+@MTOM
+@SuppressWarnings("serial")
+public class SoapStreamDocumentValidationServiceImpl implements SoapStreamDocumentValidationService {
+
+	private RemoteDocumentValidationService validationService;
+
+	private File temporaryDirectory;
+
+	private int inMemoryThreshold = 1024 * 1024;
+
+	private long maxDocumentSize = RemoteDocumentSpool.DEFAULT_MAX_DOCUMENT_SIZE;
+
+	private long maxTotalSize = RemoteDocumentSpool.DEFAULT_MAX_TOTAL_SIZE;
+
+	public void setValidationService(RemoteDocumentValidationService validationService) {
+		this.validationService = validationService;
+	}
+
+	/**
+	 * Sets the folder of the temporary files (default : java.io.tmpdir)
+	 * 
+	 * @param temporaryDirectory
+	 *            the folder of the temporary files
+	 */
+	public void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Sets the maximum size of a document kept in memory (default : 1 MB)
+	 * 
+	 * @param inMemoryThreshold
+	 *            the size in bytes
+	 */
+	public void setInMemoryThreshold(int inMemoryThreshold) {
+		this.inMemoryThreshold = inMemoryThreshold;
+	}
+
+	/**
+	 * Sets the maximum size of a document (default : 1 GB, -1 for no limit)
+	 * 
+	 * @param maxDocumentSize
+	 *            the size in bytes
+	 */
+	public void setMaxDocumentSize(long maxDocumentSize) {
+		this.maxDocumentSize = maxDocumentSize;
+	}
+
+	/**
+	 * Sets the maximum size of all the documents of a request (default : 4 GB, -1 for no limit)
+	 * 
+	 * @param maxTotalSize
+	 *            the size in bytes
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	@Override
+	public WSReportsDTO validateSignature(StreamDataToValidateDTO dataToValidate) {
+		try (RemoteDocumentSpool spool = createSpool()) {
+			ReportsDTO reportsDTO = validationService.validateDocument(spool.spool(dataToValidate.getSignedDocument()),
+					spool.spool(dataToValidate.getOriginalDocuments()), dataToValidate.getPolicy());
+			return new WSReportsDTO(reportsDTO.getDiagnosticData(), reportsDTO.getSimpleReport(), reportsDTO.getDetailedReport());
+		}
+	}
+
+	@Override
+	public List<WSDocumentReportsDTO> validateSignatures(StreamDataToValidateBulkDTO dataToValidate) {
+		try (RemoteDocumentSpool spool = createSpool()) {
+			List<DSSDocument> signedDocuments = spool.spool(dataToValidate.getSignedDocuments());
+			if (signedDocuments == null) {
+				throw new DSSException("The signed documents are missing");
+			}
+			final List<WSDocumentReportsDTO> results = Collections.synchronizedList(new ArrayList<WSDocumentReportsDTO>());
+			validationService.validateDocuments(signedDocuments.iterator(), dataToValidate.getPolicy(), new BulkValidationListener() {
+
+				@Override
+				public void onValidated(DSSDocument document, Reports reports) {
+					WSReportsDTO reportsDTO = new WSReportsDTO(reports.getDiagnosticDataJaxb(), reports.getSimpleReportJaxb(),
+							reports.getDetailedReportJaxb());
+					results.add(new WSDocumentReportsDTO(document.getName(), reportsDTO, null));
+				}
+
+				@Override
+				public void onError(DSSDocument document, Exception e) {
+					results.add(new WSDocumentReportsDTO(document.getName(), null, e.getMessage()));
+				}
+
+			});
+			return new ArrayList<WSDocumentReportsDTO>(results);
+		}
+	}
+
+	private RemoteDocumentSpool createSpool() {
+		RemoteDocumentSpool spool = new RemoteDocumentSpool(temporaryDirectory, inMemoryThreshold);
+		spool.setMaxDocumentSize(maxDocumentSize);
+		spool.setMaxTotalSize(maxTotalSize);
+		return spool;
+	}
+
+}
@@ -20,6 +20,9 @@
  */
 package eu.europa.esig.dss.xades.validation;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.apache.xml.security.signature.XMLSignatureInput;
@@ -27,11 +30,13 @@ import org.apache.xml.security.utils.resolver.ResourceResolverContext;
 import org.apache.xml.security.utils.resolver.ResourceResolverException;
 import org.apache.xml.security.utils.resolver.ResourceResolverSpi;
 import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
 
 import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.DigestDocument;
+import eu.europa.esig.dss.DomUtils;
 import eu.europa.esig.dss.MimeType;
 import eu.europa.esig.dss.utils.Utils;
 
@@ -55,14 +60,31 @@ public class DetachedSignatureResolver extends ResourceResolverSpi {
 		DSSDocument document = getCurrentDocument(context);
 		if (document instanceof DigestDocument) {
 			DigestDocument digestDoc = (DigestDocument) document;
-			return new XMLSignatureInput(digestDoc.getDigest(digestAlgorithm));
+			return new XMLSignatureInput(digestDoc.getDigest(getReferenceDigestAlgorithm(context)));
 		} else {
 			return createFromCommonDocument(document);
 		}
 	}
 
+	/**
+	 * The digest algorithm of the reference can differ from the digest algorithm of the signature algorithm
+	 */
+	private DigestAlgorithm getReferenceDigestAlgorithm(ResourceResolverContext context) {
+		if (context.attr != null) {
+			Element reference = context.attr.getOwnerElement();
+			if (reference != null) {
+				Element digestMethod = DomUtils.getElement(reference, "ds:DigestMethod");
+				if (digestMethod != null) {
+					return DigestAlgorithm.forXML(digestMethod.getAttribute("Algorithm"), digestAlgorithm);
+				}
+			}
+		}
+		return digestAlgorithm;
+	}
+
 	private XMLSignatureInput createFromCommonDocument(DSSDocument document) {
-		final XMLSignatureInput result = new XMLSignatureInput(DSSUtils.toByteArray(document));
+		// the content is digested from the stream, large detached documents are never fully loaded in memory
+		final XMLSignatureInput result = new XMLSignatureInput(new ClosingInputStream(document.openStream()));
 		final MimeType mimeType = document.getMimeType();
 		if (mimeType != null) {
 			result.setMIMEType(mimeType.getMimeTypeString());
@@ -117,4 +139,33 @@ public class DetachedSignatureResolver extends ResourceResolverSpi {
 		return false;
 	}
 
+	/**
+	 * Santuario does not close the octet stream of the resolved input : the stream is closed once fully read
+	 */
+	private static final class ClosingInputStream extends FilterInputStream {
+
+		private ClosingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int result = super.read();
+			if (result == -1) {
+				close();
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int result = super.read(b, off, len);
+			if (result == -1) {
+				close();
+			}
+			return result;
+		}
+
+	}
+
 }
@@ -0,0 +1,61 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.util.Map;
+
+import org.apache.xml.security.signature.XMLSignatureInput;
+import org.apache.xml.security.utils.resolver.ResourceResolverContext;
+import org.apache.xml.security.utils.resolver.ResourceResolverException;
+import org.apache.xml.security.utils.resolver.ResourceResolverSpi;
+import org.w3c.dom.Element;
+
+/**
+ * Resolver of the whole document references (URI="") in streaming mode.
+ * 
+ * The enveloping document is not available in memory : the digests are computed while streaming the document and
+ * returned as pre-calculated digests.
+ */
+class EnvelopedReferenceResolver extends ResourceResolverSpi {
+
+	/* The base64 encoded digest values by reference element (identity) */
+	private final Map<Element, String> digests;
+
+	EnvelopedReferenceResolver(Map<Element, String> digests) {
+		this.digests = digests;
+	}
+
+	@Override
+	public XMLSignatureInput engineResolveURI(ResourceResolverContext context) throws ResourceResolverException {
+		String digest = digests.get(context.attr.getOwnerElement());
+		if (digest == null) {
+			Object[] exArgs = { "The transformations of the reference are not supported in streaming mode" };
+			throw new ResourceResolverException("generic.EmptyMessage", exArgs, context.uriToResolve, context.baseUri);
+		}
+		return new XMLSignatureInput(digest);
+	}
+
+	@Override
+	public boolean engineCanResolveURI(ResourceResolverContext context) {
+		return context.attr != null && "".equals(context.uriToResolve);
+	}
+
+}
@@ -0,0 +1,339 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Canonicalizes (C14N 1.0, C14N 1.1 or exclusive C14N, without comments) the StAX events of a whole document minus
+ * the excluded subtrees (the enveloped signature or all the signatures).
+ * 
+ * The whole document is an "apex" node-set : every output element has its parent in the output, so C14N 1.0 and 1.1
+ * produce the same octets and there is no xml:* attribute inheritance to handle.
+ */
+class StreamingCanonicalizer {
+
+	private static final String DEFAULT_PREFIX = XMLConstants.DEFAULT_NS_PREFIX;
+
+	private static final String EXCLUSIVE_DEFAULT_PREFIX = "#default";
+
+	private static final Comparator<Attribute> ATTRIBUTE_ORDER = new Comparator<Attribute>() {
+
+		@Override
+		public int compare(Attribute o1, Attribute o2) {
+			int result = o1.namespaceURI.compareTo(o2.namespaceURI);
+			if (result == 0) {
+				result = o1.localName.compareTo(o2.localName);
+			}
+			return result;
+		}
+
+	};
+
+	private final Writer writer;
+
+	private final boolean exclusive;
+
+	private final Set<String> inclusivePrefixes;
+
+	private final ExcludedElements excludedElements;
+
+	/* Namespaces rendered by the output ancestors (prefix -> URI) */
+	private final Deque<Map<String, String>> renderedNamespaces = new ArrayDeque<Map<String, String>>();
+
+	private int depth;
+
+	private int skippedDepth;
+
+	private boolean rootElementClosed;
+
+	/**
+	 * @param outputStream
+	 *            the output of the canonical octets (eg : a digest stream)
+	 * @param exclusive
+	 *            true for the exclusive canonicalization
+	 * @param inclusivePrefixes
+	 *            the InclusiveNamespaces PrefixList of the exclusive canonicalization ("#default" for the default
+	 *            namespace)
+	 * @param excludedElements
+	 *            the subtrees to be removed
+	 */
+	StreamingCanonicalizer(OutputStream outputStream, boolean exclusive, Set<String> inclusivePrefixes, ExcludedElements excludedElements) {
+		this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		this.exclusive = exclusive;
+		this.inclusivePrefixes = inclusivePrefixes;
+		this.excludedElements = excludedElements;
+		this.renderedNamespaces.push(Collections.<String, String> emptyMap());
+	}
+
+	/**
+	 * @param reader
+	 *            the reader positioned on a START_ELEMENT
+	 * @param elementIndex
+	 *            the index of the element in the document order
+	 */
+	void startElement(XMLStreamReader reader, int elementIndex) throws IOException {
+		if (skippedDepth > 0 || excludedElements.isExcluded(reader, elementIndex)) {
+			skippedDepth++;
+			return;
+		}
+		depth++;
+
+		Map<String, String> parentNamespaces = renderedNamespaces.peek();
+		Map<String, String> namespacesToRender = exclusive ? getExclusiveNamespaces(reader, parentNamespaces)
+				: getInclusiveNamespaces(reader, parentNamespaces);
+
+		writer.write('<');
+		writer.write(getQName(reader.getPrefix(), reader.getLocalName()));
+		for (Map.Entry<String, String> namespace : namespacesToRender.entrySet()) {
+			writer.write(' ');
+			writer.write(DEFAULT_PREFIX.equals(namespace.getKey()) ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + namespace.getKey());
+			writer.write("=\"");
+			writeEscapedAttributeValue(namespace.getValue());
+			writer.write('"');
+		}
+		for (Attribute attribute : getSortedAttributes(reader)) {
+			writer.write(' ');
+			writer.write(attribute.qName);
+			writer.write("=\"");
+			writeEscapedAttributeValue(attribute.value);
+			writer.write('"');
+		}
+		writer.write('>');
+
+		if (namespacesToRender.isEmpty()) {
+			renderedNamespaces.push(parentNamespaces);
+		} else {
+			Map<String, String> namespaces = new HashMap<String, String>(parentNamespaces);
+			namespaces.putAll(namespacesToRender);
+			renderedNamespaces.push(namespaces);
+		}
+	}
+
+	void endElement(XMLStreamReader reader) throws IOException {
+		if (skippedDepth > 0) {
+			skippedDepth--;
+			return;
+		}
+		writer.write("</");
+		writer.write(getQName(reader.getPrefix(), reader.getLocalName()));
+		writer.write('>');
+		renderedNamespaces.pop();
+		depth--;
+		if (depth == 0) {
+			rootElementClosed = true;
+		}
+	}
+
+	void characters(String text) throws IOException {
+		// the white spaces outside of the document element are not part of the canonical form
+		if (skippedDepth > 0 || depth == 0) {
+			return;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '&':
+				writer.write("&amp;");
+				break;
+			case '<':
+				writer.write("&lt;");
+				break;
+			case '>':
+				writer.write("&gt;");
+				break;
+			case '\r':
+				writer.write("&#xD;");
+				break;
+			default:
+				writer.write(c);
+			}
+		}
+	}
+
+	void processingInstruction(String target, String data) throws IOException {
+		if (skippedDepth > 0) {
+			return;
+		}
+		if (depth == 0 && rootElementClosed) {
+			writer.write('\n');
+		}
+		writer.write("<?");
+		writer.write(target);
+		if (data != null && !data.isEmpty()) {
+			writer.write(' ');
+			writer.write(data);
+		}
+		writer.write("?>");
+		if (depth == 0 && !rootElementClosed) {
+			writer.write('\n');
+		}
+	}
+
+	void endDocument() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Inclusive canonicalization : the namespace declarations which change the rendered value
+	 */
+	private Map<String, String> getInclusiveNamespaces(XMLStreamReader reader, Map<String, String> parentNamespaces) {
+		Map<String, String> result = new TreeMap<String, String>();
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String prefix = nullToEmpty(reader.getNamespacePrefix(i));
+			addIfNotRendered(result, parentNamespaces, prefix, nullToEmpty(reader.getNamespaceURI(i)));
+		}
+		return result;
+	}
+
+	/**
+	 * Exclusive canonicalization : the visibly utilized namespaces and the ones of the InclusiveNamespaces PrefixList
+	 */
+	private Map<String, String> getExclusiveNamespaces(XMLStreamReader reader, Map<String, String> parentNamespaces) {
+		NamespaceContext namespaceContext = reader.getNamespaceContext();
+		Map<String, String> result = new TreeMap<String, String>();
+		String elementPrefix = nullToEmpty(reader.getPrefix());
+		addIfNotRendered(result, parentNamespaces, elementPrefix, nullToEmpty(namespaceContext.getNamespaceURI(elementPrefix)));
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String attributePrefix = nullToEmpty(reader.getAttributePrefix(i));
+			if (!attributePrefix.isEmpty()) {
+				addIfNotRendered(result, parentNamespaces, attributePrefix, nullToEmpty(namespaceContext.getNamespaceURI(attributePrefix)));
+			}
+		}
+		for (String inclusivePrefix : inclusivePrefixes) {
+			String prefix = EXCLUSIVE_DEFAULT_PREFIX.equals(inclusivePrefix) ? DEFAULT_PREFIX : inclusivePrefix;
+			String namespaceURI = namespaceContext.getNamespaceURI(prefix);
+			if (namespaceURI != null && (DEFAULT_PREFIX.equals(prefix) || !namespaceURI.isEmpty())) {
+				addIfNotRendered(result, parentNamespaces, prefix, namespaceURI);
+			}
+		}
+		return result;
+	}
+
+	private void addIfNotRendered(Map<String, String> result, Map<String, String> parentNamespaces, String prefix, String namespaceURI) {
+		if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+			return;
+		}
+		String renderedURI = parentNamespaces.get(prefix);
+		if (DEFAULT_PREFIX.equals(prefix)) {
+			// xmlns="" is only rendered to undeclare a rendered default namespace
+			if (!namespaceURI.equals(nullToEmpty(renderedURI))) {
+				result.put(prefix, namespaceURI);
+			}
+		} else if (!namespaceURI.equals(renderedURI)) {
+			result.put(prefix, namespaceURI);
+		}
+	}
+
+	private List<Attribute> getSortedAttributes(XMLStreamReader reader) {
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			attributes.add(new Attribute(nullToEmpty(reader.getAttributeNamespace(i)), reader.getAttributeLocalName(i),
+					getQName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i)));
+		}
+		Collections.sort(attributes, ATTRIBUTE_ORDER);
+		return attributes;
+	}
+
+	private void writeEscapedAttributeValue(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '&':
+				writer.write("&amp;");
+				break;
+			case '<':
+				writer.write("&lt;");
+				break;
+			case '"':
+				writer.write("&quot;");
+				break;
+			case '\t':
+				writer.write("&#x9;");
+				break;
+			case '\n':
+				writer.write("&#xA;");
+				break;
+			case '\r':
+				writer.write("&#xD;");
+				break;
+			default:
+				writer.write(c);
+			}
+		}
+	}
+
+	private static String getQName(String prefix, String localName) {
+		if (prefix == null || prefix.isEmpty()) {
+			return localName;
+		}
+		return prefix + ":" + localName;
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+	/**
+	 * The subtrees removed from the canonical form
+	 */
+	interface ExcludedElements {
+
+		boolean isExcluded(XMLStreamReader reader, int elementIndex);
+
+	}
+
+	private static final class Attribute {
+
+		private final String namespaceURI;
+		private final String localName;
+		private final String qName;
+		private final String value;
+
+		private Attribute(String namespaceURI, String localName, String qName, String value) {
+			this.namespaceURI = namespaceURI;
+			this.localName = localName;
+			this.qName = qName;
+			this.value = value;
+		}
+
+	}
+
+}
@@ -0,0 +1,839 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.transforms.Transforms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.MessageDigestOutputStream;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.AdvancedSignature;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.xades.XPathQueryHolder;
+
+/**
+ * Validator of large XML signed documents.
+ * 
+ * Unlike the {@code XMLDocumentValidator}, the document is never loaded in memory : only the signature elements are
+ * built as DOM, the rest of the document is streamed (StAX) and the digests of the whole document references (URI="")
+ * are computed on the fly.
+ * 
+ * The document is read twice : the first pass extracts the signatures, the second one computes the digests with the
+ * transformations (enveloped signature, XPath filter of the signatures and canonicalization) defined in the extracted references.
+ * Other transformations on the whole document and references to elements outside of the signatures are reported as
+ * not found.
+ * 
+ * When enveloped digest algorithms are set, the digests of the enveloped references (enveloped signature
+ * transformation followed by the exclusive canonicalization, as in the trusted lists) are computed speculatively in the
+ * first pass and the document is read only once if the extracted references match. The signature (and so its
+ * DigestMethod) is only known at the end of the document : a reference with another digest algorithm is computed in
+ * the second pass.
+ * 
+ * This validator is not registered in the {@code SignedDocumentValidator#fromDocument} factory and needs to be
+ * instantiated explicitly.
+ */
+public class StreamingXMLDocumentValidator extends SignedDocumentValidator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StreamingXMLDocumentValidator.class);
+
+	private static final String EXCLUSIVE_C14N_NAMESPACE = "http://www.w3.org/2001/10/xml-exc-c14n#";
+
+	private static final String INCLUSIVE_NAMESPACES = "InclusiveNamespaces";
+
+	private static final String PREFIX_LIST = "PrefixList";
+
+	private static final Pattern NOT_ANCESTOR_OR_SELF_SIGNATURE = Pattern.compile("\\s*not\\(\\s*ancestor-or-self::([\\w.-]+):Signature\\s*\\)\\s*");
+
+	/**
+	 * This variable contains the list of {@code XPathQueryHolder} adapted to the specific signature schema.
+	 */
+	protected List<XPathQueryHolder> xPathQueryHolders;
+
+	private List<AdvancedSignature> signatures;
+
+	private XMLStreamListener documentListener;
+
+	private DigestAlgorithm[] envelopedDigestAlgorithms;
+
+	/**
+	 * The default constructor for StreamingXMLDocumentValidator.
+	 *
+	 * @param dssDocument
+	 *            The instance of {@code DSSDocument} to validate
+	 */
+	public StreamingXMLDocumentValidator(final DSSDocument dssDocument) {
+		super(new XAdESSignatureScopeFinder());
+		this.document = dssDocument;
+
+		xPathQueryHolders = new ArrayList<XPathQueryHolder>();
+		xPathQueryHolders.add(new XAdES111XPathQueryHolder());
+		xPathQueryHolders.add(new XAdES122XPathQueryHolder());
+		xPathQueryHolders.add(new XPathQueryHolder());
+	}
+
+	/**
+	 * Sets a listener which receives the events of the document during the extraction of the signatures
+	 * 
+	 * @param documentListener
+	 *            the listener of the document events
+	 */
+	public void setDocumentListener(XMLStreamListener documentListener) {
+		this.documentListener = documentListener;
+	}
+
+	/**
+	 * Sets the digest algorithms of the enveloped reference to compute during the extraction of the signatures (none
+	 * by default : the digests are computed in a second pass). The canonicalized document is digested once per
+	 * algorithm and the one of the reference DigestMethod is used; a reference with another algorithm still requires
+	 * the second pass.
+	 * 
+	 * @param envelopedDigestAlgorithms
+	 *            the expected digest algorithms of the enveloped reference
+	 */
+	public void setEnvelopedDigestAlgorithms(DigestAlgorithm... envelopedDigestAlgorithms) {
+		this.envelopedDigestAlgorithms = envelopedDigestAlgorithms;
+	}
+
+	/**
+	 * This method returns the list of {@code XPathQueryHolder} adapted to the specific signature schema.
+	 *
+	 * @return the list of {@code XPathQueryHolder}
+	 */
+	public List<XPathQueryHolder> getXPathQueryHolder() {
+		return xPathQueryHolders;
+	}
+
+	@Override
+	public boolean isSupported(DSSDocument dssDocument) {
+		return XMLDocumentValidator.isXmlDocument(dssDocument);
+	}
+
+	@Override
+	public List<AdvancedSignature> getSignatures() {
+		if (signatures != null) {
+			return signatures;
+		}
+
+		final SignatureExtractor extractor = new SignatureExtractor();
+		final List<EventHandler> firstPassHandlers = new ArrayList<EventHandler>();
+		firstPassHandlers.add(extractor);
+		final EnvelopedDigestCalculator envelopedDigest = Utils.isArrayEmpty(envelopedDigestAlgorithms) ? null
+				: new EnvelopedDigestCalculator(envelopedDigestAlgorithms);
+		if (envelopedDigest != null) {
+			firstPassHandlers.add(envelopedDigest);
+		}
+		if (documentListener != null) {
+			firstPassHandlers.add(new ListenerEventHandler(documentListener));
+		}
+		parse(firstPassHandlers.size() == 1 ? extractor : new CompositeEventHandler(firstPassHandlers));
+
+		final Map<Element, String> digests = new IdentityHashMap<Element, String>();
+		final List<ReferenceDigester> digesters = getReferenceDigesters(extractor.signatureIndexes, envelopedDigest, digests);
+		if (!digesters.isEmpty()) {
+			parse(new DigestsCalculator(digesters));
+		}
+		for (ReferenceDigester digester : digesters) {
+			digests.put(digester.reference, Utils.toBase64(digester.digestStream.getDigestValue()));
+		}
+		final EnvelopedReferenceResolver resolver = new EnvelopedReferenceResolver(digests);
+
+		signatures = new ArrayList<AdvancedSignature>();
+		for (Document signatureDocument : extractor.signatureDocuments) {
+			final NodeList signatureNodeList = DomUtils.getNodeList(signatureDocument, "//ds:Signature[not(parent::xades:CounterSignature)]");
+			for (int ii = 0; ii < signatureNodeList.getLength(); ii++) {
+				final Element signatureEl = (Element) signatureNodeList.item(ii);
+				final XAdESSignature xadesSignature = new XAdESSignature(signatureEl, xPathQueryHolders, validationCertPool);
+				xadesSignature.setSignatureFilename(document.getName());
+				xadesSignature.setDetachedContents(detachedContents);
+				xadesSignature.setProvidedSigningCertificateToken(providedSigningCertificateToken);
+				xadesSignature.setContentResolver(resolver);
+				signatures.add(xadesSignature);
+			}
+		}
+		return signatures;
+	}
+
+	@Override
+	public List<DSSDocument> getOriginalDocuments(final String signatureId) throws DSSException {
+		throw new DSSException("The original documents cannot be extracted in streaming mode, use the XMLDocumentValidator");
+	}
+
+	/**
+	 * Returns the digesters of the second pass, the references which match the enveloped digest computed in the first
+	 * pass are directly added to the digests
+	 */
+	private List<ReferenceDigester> getReferenceDigesters(Map<Element, Integer> signatureIndexes, EnvelopedDigestCalculator envelopedDigest,
+			Map<Element, String> digests) {
+		final List<ReferenceDigester> digesters = new ArrayList<ReferenceDigester>();
+		for (Map.Entry<Element, Integer> signatureIndex : signatureIndexes.entrySet()) {
+			final NodeList references = DomUtils.getNodeList(signatureIndex.getKey(), "./ds:SignedInfo/ds:Reference[@URI='']");
+			for (int ii = 0; ii < references.getLength(); ii++) {
+				final Element reference = (Element) references.item(ii);
+				final String envelopedDigestValue = envelopedDigest == null ? null : envelopedDigest.getDigest(reference, signatureIndex.getValue());
+				if (envelopedDigestValue != null) {
+					digests.put(reference, envelopedDigestValue);
+					continue;
+				}
+				final ReferenceDigester digester = getReferenceDigester(reference, signatureIndex.getValue());
+				if (digester != null) {
+					digesters.add(digester);
+				} else {
+					LOG.warn("The reference of the signature #{} cannot be computed in streaming mode", signatureIndex.getValue());
+				}
+			}
+		}
+		return digesters;
+	}
+
+	/**
+	 * Returns the digester of the reference or null if the transformations are not supported in streaming mode
+	 */
+	private ReferenceDigester getReferenceDigester(Element reference, final int signatureIndex) {
+		final Element digestMethod = DomUtils.getElement(reference, "./ds:DigestMethod");
+		final DigestAlgorithm digestAlgorithm = digestMethod == null ? null : DigestAlgorithm.forXML(digestMethod.getAttribute("Algorithm"), null);
+		if (digestAlgorithm == null) {
+			return null;
+		}
+
+		boolean enveloped = false;
+		boolean allSignatures = false;
+		String canonicalizationMethod = null;
+		Set<String> inclusivePrefixes = Collections.emptySet();
+		final NodeList transforms = DomUtils.getNodeList(reference, "./ds:Transforms/ds:Transform");
+		for (int ii = 0; ii < transforms.getLength(); ii++) {
+			if (canonicalizationMethod != null) {
+				// the canonicalization must be the last transformation
+				return null;
+			}
+			final Element transform = (Element) transforms.item(ii);
+			final String algorithm = transform.getAttribute("Algorithm");
+			if (Transforms.TRANSFORM_ENVELOPED_SIGNATURE.equals(algorithm)) {
+				enveloped = true;
+			} else if (Transforms.TRANSFORM_XPATH.equals(algorithm) && isNotAncestorOrSelfSignature(transform)) {
+				allSignatures = true;
+			} else if (Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS.equals(algorithm) || Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS.equals(algorithm)) {
+				canonicalizationMethod = algorithm;
+			} else if (Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS.equals(algorithm)) {
+				canonicalizationMethod = algorithm;
+				inclusivePrefixes = getInclusivePrefixes(transform);
+			} else {
+				return null;
+			}
+		}
+
+		final boolean excludeEnveloped = enveloped;
+		final boolean excludeAllSignatures = allSignatures;
+		final MessageDigestOutputStream digestStream = new MessageDigestOutputStream(digestAlgorithm);
+		final StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(digestStream,
+				Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS.equals(canonicalizationMethod), inclusivePrefixes,
+				new StreamingCanonicalizer.ExcludedElements() {
+
+					@Override
+					public boolean isExcluded(XMLStreamReader reader, int elementIndex) {
+						return (excludeEnveloped && (elementIndex == signatureIndex)) || (excludeAllSignatures && isSignature(reader));
+					}
+
+				});
+		return new ReferenceDigester(reference, digestStream, canonicalizer);
+	}
+
+	/**
+	 * Checks if the transformations are the enveloped signature followed by the exclusive canonicalization (without
+	 * inclusive namespaces)
+	 */
+	private static boolean isEnvelopedExclusiveCanonicalization(Element reference) {
+		final NodeList transforms = DomUtils.getNodeList(reference, "./ds:Transforms/ds:Transform");
+		if (transforms.getLength() != 2) {
+			return false;
+		}
+		final Element enveloped = (Element) transforms.item(0);
+		final Element canonicalization = (Element) transforms.item(1);
+		return Transforms.TRANSFORM_ENVELOPED_SIGNATURE.equals(enveloped.getAttribute("Algorithm"))
+				&& Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS.equals(canonicalization.getAttribute("Algorithm"))
+				&& canonicalization.getElementsByTagNameNS(EXCLUSIVE_C14N_NAMESPACE, INCLUSIVE_NAMESPACES).getLength() == 0;
+	}
+
+	/**
+	 * Checks if the XPath filter is the DSS one (not(ancestor-or-self::ds:Signature)) whatever the prefix
+	 */
+	private boolean isNotAncestorOrSelfSignature(Element transform) {
+		final Element xpath = DomUtils.getElement(transform, "./ds:XPath");
+		if (xpath == null) {
+			return false;
+		}
+		final Matcher matcher = NOT_ANCESTOR_OR_SELF_SIGNATURE.matcher(xpath.getTextContent());
+		return matcher.matches() && XMLSignature.XMLNS.equals(xpath.lookupNamespaceURI(matcher.group(1)));
+	}
+
+	private Set<String> getInclusivePrefixes(Element transform) {
+		final Set<String> prefixes = new HashSet<String>();
+		final NodeList inclusiveNamespaces = transform.getElementsByTagNameNS(EXCLUSIVE_C14N_NAMESPACE, INCLUSIVE_NAMESPACES);
+		for (int ii = 0; ii < inclusiveNamespaces.getLength(); ii++) {
+			final String prefixList = ((Element) inclusiveNamespaces.item(ii)).getAttribute(PREFIX_LIST);
+			for (String prefix : prefixList.trim().split("\\s+")) {
+				if (Utils.isStringNotEmpty(prefix)) {
+					prefixes.add(prefix);
+				}
+			}
+		}
+		return prefixes;
+	}
+
+	private void parse(EventHandler handler) {
+		XMLStreamReader reader = null;
+		try (InputStream is = document.openStream()) {
+			reader = getXMLInputFactory().createXMLStreamReader(is);
+			int elementIndex = 0;
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					handler.startElement(reader, elementIndex++);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					handler.endElement(reader);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					handler.characters(reader.getText());
+					break;
+				case XMLStreamConstants.COMMENT:
+					handler.comment(reader.getText());
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					handler.processingInstruction(reader.getPITarget(), reader.getPIData());
+					break;
+				case XMLStreamConstants.DTD:
+					throw new DSSException("DTD is not allowed in the streaming validation");
+				default:
+					break;
+				}
+			}
+			handler.endDocument();
+		} catch (XMLStreamException | IOException e) {
+			throw new DSSException("Unable to parse the XML document : " + e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+
+	private XMLInputFactory getXMLInputFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+		return factory;
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				LOG.warn("Unable to close the XML reader : {}", e.getMessage());
+			}
+		}
+	}
+
+	private static boolean isSignature(XMLStreamReader reader) {
+		return XMLSignature.XMLNS.equals(reader.getNamespaceURI()) && XPathQueryHolder.XMLE_SIGNATURE.equals(reader.getLocalName());
+	}
+
+	private static String getQName(String prefix, String localName) {
+		if (Utils.isStringEmpty(prefix)) {
+			return localName;
+		}
+		return prefix + ":" + localName;
+	}
+
+	private static String getNamespaceDeclarationName(String prefix) {
+		if (Utils.isStringEmpty(prefix)) {
+			return XMLConstants.XMLNS_ATTRIBUTE;
+		}
+		return XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+	}
+
+	private interface EventHandler {
+
+		void startElement(XMLStreamReader reader, int elementIndex) throws IOException;
+
+		void endElement(XMLStreamReader reader) throws IOException;
+
+		void characters(String text) throws IOException;
+
+		void comment(String text) throws IOException;
+
+		void processingInstruction(String target, String data) throws IOException;
+
+		void endDocument() throws IOException;
+
+	}
+
+	/**
+	 * First pass : builds the DOM of the outermost signature elements and records the index of the signature elements
+	 */
+	private static final class SignatureExtractor implements EventHandler {
+
+		private final List<Document> signatureDocuments = new ArrayList<Document>();
+
+		/* The index (document order) of the signature elements */
+		private final Map<Element, Integer> signatureIndexes = new IdentityHashMap<Element, Integer>();
+
+		/* The in-scope namespaces and xml:* attributes of the elements outside of the signatures */
+		private final Deque<Map<String, String>> namespaces = new ArrayDeque<Map<String, String>>();
+		private final Deque<Map<String, String>> xmlAttributes = new ArrayDeque<Map<String, String>>();
+
+		private Document currentDocument;
+
+		private Node currentNode;
+
+		private SignatureExtractor() {
+			namespaces.push(Collections.<String, String> emptyMap());
+			xmlAttributes.push(Collections.<String, String> emptyMap());
+		}
+
+		@Override
+		public void startElement(XMLStreamReader reader, int elementIndex) {
+			if (currentNode != null) {
+				final Element element = createElement(currentDocument, reader);
+				currentNode.appendChild(element);
+				currentNode = element;
+				if (isSignature(reader)) {
+					signatureIndexes.put(element, elementIndex);
+				}
+			} else if (isSignature(reader)) {
+				currentDocument = DomUtils.buildDOM();
+				final Element element = createElement(currentDocument, reader);
+				addInheritedNodes(element);
+				currentDocument.appendChild(element);
+				currentNode = element;
+				signatureIndexes.put(element, elementIndex);
+			} else {
+				pushInScopeNodes(reader);
+			}
+		}
+
+		@Override
+		public void endElement(XMLStreamReader reader) {
+			if (currentNode == null) {
+				namespaces.pop();
+				xmlAttributes.pop();
+				return;
+			}
+			final Node parent = currentNode.getParentNode();
+			if (parent == currentDocument) {
+				signatureDocuments.add(currentDocument);
+				currentDocument = null;
+				currentNode = null;
+			} else {
+				currentNode = parent;
+			}
+		}
+
+		@Override
+		public void characters(String text) {
+			if (currentNode != null) {
+				currentNode.appendChild(currentDocument.createTextNode(text));
+			}
+		}
+
+		@Override
+		public void comment(String text) {
+			if (currentNode != null) {
+				currentNode.appendChild(currentDocument.createComment(text));
+			}
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) {
+			if (currentNode != null) {
+				currentNode.appendChild(currentDocument.createProcessingInstruction(target, data));
+			}
+		}
+
+		@Override
+		public void endDocument() {
+			// nothing to do
+		}
+
+		private Element createElement(Document dom, XMLStreamReader reader) {
+			final Element element = dom.createElementNS(reader.getNamespaceURI(), getQName(reader.getPrefix(), reader.getLocalName()));
+			for (int ii = 0; ii < reader.getNamespaceCount(); ii++) {
+				final String prefix = reader.getNamespacePrefix(ii);
+				final String namespaceURI = reader.getNamespaceURI(ii);
+				element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, getNamespaceDeclarationName(prefix), namespaceURI == null ? "" : namespaceURI);
+			}
+			for (int ii = 0; ii < reader.getAttributeCount(); ii++) {
+				final String namespaceURI = reader.getAttributeNamespace(ii);
+				element.setAttributeNS(Utils.isStringEmpty(namespaceURI) ? null : namespaceURI,
+						getQName(reader.getAttributePrefix(ii), reader.getAttributeLocalName(ii)), reader.getAttributeValue(ii));
+			}
+			return element;
+		}
+
+		/**
+		 * The namespaces and xml:* attributes inherited from the enveloping elements are copied on the signature
+		 * element, the canonicalization of the signature elements (eg : SignedInfo) gives the same result as in the
+		 * original document
+		 */
+		private void addInheritedNodes(Element signatureElement) {
+			for (Map.Entry<String, String> namespace : namespaces.peek().entrySet()) {
+				final String prefix = namespace.getKey();
+				if (!signatureElement.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, Utils.isStringEmpty(prefix) ? XMLConstants.XMLNS_ATTRIBUTE : prefix)) {
+					signatureElement.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, getNamespaceDeclarationName(prefix), namespace.getValue());
+				}
+			}
+			for (Map.Entry<String, String> xmlAttribute : xmlAttributes.peek().entrySet()) {
+				if (!signatureElement.hasAttributeNS(XMLConstants.XML_NS_URI, xmlAttribute.getKey())) {
+					signatureElement.setAttributeNS(XMLConstants.XML_NS_URI, getQName(XMLConstants.XML_NS_PREFIX, xmlAttribute.getKey()), xmlAttribute.getValue());
+				}
+			}
+		}
+
+		private void pushInScopeNodes(XMLStreamReader reader) {
+			Map<String, String> currentNamespaces = namespaces.peek();
+			if (reader.getNamespaceCount() > 0) {
+				currentNamespaces = new HashMap<String, String>(currentNamespaces);
+				for (int ii = 0; ii < reader.getNamespaceCount(); ii++) {
+					final String prefix = reader.getNamespacePrefix(ii);
+					final String namespaceURI = reader.getNamespaceURI(ii);
+					currentNamespaces.put(prefix == null ? "" : prefix, namespaceURI == null ? "" : namespaceURI);
+				}
+			}
+			namespaces.push(currentNamespaces);
+
+			Map<String, String> currentXmlAttributes = xmlAttributes.peek();
+			for (int ii = 0; ii < reader.getAttributeCount(); ii++) {
+				if (XMLConstants.XML_NS_URI.equals(reader.getAttributeNamespace(ii))) {
+					if (currentXmlAttributes == xmlAttributes.peek()) {
+						currentXmlAttributes = new HashMap<String, String>(currentXmlAttributes);
+					}
+					currentXmlAttributes.put(reader.getAttributeLocalName(ii), reader.getAttributeValue(ii));
+				}
+			}
+			xmlAttributes.push(currentXmlAttributes);
+		}
+
+	}
+
+	/**
+	 * First pass : speculative digest of the document without its (single) signature child of the root element, with
+	 * the exclusive canonicalization
+	 */
+	private static final class EnvelopedDigestCalculator implements EventHandler {
+
+		private final Map<DigestAlgorithm, MessageDigestOutputStream> digestStreams = new EnumMap<DigestAlgorithm, MessageDigestOutputStream>(
+				DigestAlgorithm.class);
+		private final Map<DigestAlgorithm, String> digestValues = new EnumMap<DigestAlgorithm, String>(DigestAlgorithm.class);
+		private final StreamingCanonicalizer canonicalizer;
+
+		private int depth;
+		private int excludedIndex = -1;
+		private int nbExcluded;
+
+		private EnvelopedDigestCalculator(DigestAlgorithm... digestAlgorithms) {
+			for (DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+				digestStreams.put(digestAlgorithm, new MessageDigestOutputStream(digestAlgorithm));
+			}
+			final OutputStream digestStream = new OutputStream() {
+
+				@Override
+				public void write(int b) {
+					for (MessageDigestOutputStream stream : digestStreams.values()) {
+						stream.write(b);
+					}
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					for (MessageDigestOutputStream stream : digestStreams.values()) {
+						stream.write(b, off, len);
+					}
+				}
+
+			};
+			this.canonicalizer = new StreamingCanonicalizer(digestStream, true, Collections.<String> emptySet(),
+					new StreamingCanonicalizer.ExcludedElements() {
+
+						@Override
+						public boolean isExcluded(XMLStreamReader reader, int elementIndex) {
+							if ((depth == 1) && isSignature(reader)) {
+								excludedIndex = elementIndex;
+								nbExcluded++;
+								return true;
+							}
+							return false;
+						}
+
+					});
+		}
+
+		/**
+		 * Returns the computed digest (base64) with the algorithm of the reference or null if the reference does not
+		 * match the computed digests
+		 */
+		private String getDigest(Element reference, int signatureIndex) {
+			if ((nbExcluded != 1) || (excludedIndex != signatureIndex) || !isEnvelopedExclusiveCanonicalization(reference)) {
+				return null;
+			}
+			final Element digestMethod = DomUtils.getElement(reference, "./ds:DigestMethod");
+			final DigestAlgorithm digestAlgorithm = digestMethod == null ? null : DigestAlgorithm.forXML(digestMethod.getAttribute("Algorithm"), null);
+			if ((digestAlgorithm == null) || !digestStreams.containsKey(digestAlgorithm)) {
+				return null;
+			}
+			String digestValue = digestValues.get(digestAlgorithm);
+			if (digestValue == null) {
+				// the digest can be completed only once
+				digestValue = Utils.toBase64(digestStreams.get(digestAlgorithm).getDigestValue());
+				digestValues.put(digestAlgorithm, digestValue);
+			}
+			return digestValue;
+		}
+
+		@Override
+		public void startElement(XMLStreamReader reader, int elementIndex) throws IOException {
+			canonicalizer.startElement(reader, elementIndex);
+			depth++;
+		}
+
+		@Override
+		public void endElement(XMLStreamReader reader) throws IOException {
+			depth--;
+			canonicalizer.endElement(reader);
+		}
+
+		@Override
+		public void characters(String text) throws IOException {
+			canonicalizer.characters(text);
+		}
+
+		@Override
+		public void comment(String text) {
+			// the comments are removed by the same-document reference (URI="")
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) throws IOException {
+			canonicalizer.processingInstruction(target, data);
+		}
+
+		@Override
+		public void endDocument() throws IOException {
+			canonicalizer.endDocument();
+		}
+
+	}
+
+	private static final class ListenerEventHandler implements EventHandler {
+
+		private final XMLStreamListener listener;
+
+		private ListenerEventHandler(XMLStreamListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void startElement(XMLStreamReader reader, int elementIndex) {
+			listener.startElement(reader);
+		}
+
+		@Override
+		public void endElement(XMLStreamReader reader) {
+			listener.endElement(reader);
+		}
+
+		@Override
+		public void characters(String text) {
+			listener.characters(text);
+		}
+
+		@Override
+		public void comment(String text) {
+			// not forwarded
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) {
+			// not forwarded
+		}
+
+		@Override
+		public void endDocument() {
+			listener.endDocument();
+		}
+
+	}
+
+	private static final class CompositeEventHandler implements EventHandler {
+
+		private final List<EventHandler> handlers;
+
+		private CompositeEventHandler(List<EventHandler> handlers) {
+			this.handlers = handlers;
+		}
+
+		@Override
+		public void startElement(XMLStreamReader reader, int elementIndex) throws IOException {
+			for (EventHandler handler : handlers) {
+				handler.startElement(reader, elementIndex);
+			}
+		}
+
+		@Override
+		public void endElement(XMLStreamReader reader) throws IOException {
+			for (EventHandler handler : handlers) {
+				handler.endElement(reader);
+			}
+		}
+
+		@Override
+		public void characters(String text) throws IOException {
+			for (EventHandler handler : handlers) {
+				handler.characters(text);
+			}
+		}
+
+		@Override
+		public void comment(String text) throws IOException {
+			for (EventHandler handler : handlers) {
+				handler.comment(text);
+			}
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) throws IOException {
+			for (EventHandler handler : handlers) {
+				handler.processingInstruction(target, data);
+			}
+		}
+
+		@Override
+		public void endDocument() throws IOException {
+			for (EventHandler handler : handlers) {
+				handler.endDocument();
+			}
+		}
+
+	}
+
+	/**
+	 * Second pass : feeds the canonicalizers of all the whole document references
+	 */
+	private static final class DigestsCalculator implements EventHandler {
+
+		private final List<ReferenceDigester> digesters;
+
+		private DigestsCalculator(List<ReferenceDigester> digesters) {
+			this.digesters = digesters;
+		}
+
+		@Override
+		public void startElement(XMLStreamReader reader, int elementIndex) throws IOException {
+			for (ReferenceDigester digester : digesters) {
+				digester.canonicalizer.startElement(reader, elementIndex);
+			}
+		}
+
+		@Override
+		public void endElement(XMLStreamReader reader) throws IOException {
+			for (ReferenceDigester digester : digesters) {
+				digester.canonicalizer.endElement(reader);
+			}
+		}
+
+		@Override
+		public void characters(String text) throws IOException {
+			for (ReferenceDigester digester : digesters) {
+				digester.canonicalizer.characters(text);
+			}
+		}
+
+		@Override
+		public void comment(String text) {
+			// the comments are removed by the same-document reference (URI="")
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) throws IOException {
+			for (ReferenceDigester digester : digesters) {
+				digester.canonicalizer.processingInstruction(target, data);
+			}
+		}
+
+		@Override
+		public void endDocument() throws IOException {
+			for (ReferenceDigester digester : digesters) {
+				digester.canonicalizer.endDocument();
+			}
+		}
+
+	}
+
+	private static final class ReferenceDigester {
+
+		private final Element reference;
+		private final MessageDigestOutputStream digestStream;
+		private final StreamingCanonicalizer canonicalizer;
+
+		private ReferenceDigester(Element reference, MessageDigestOutputStream digestStream, StreamingCanonicalizer canonicalizer) {
+			this.reference = reference;
+			this.digestStream = digestStream;
+			this.canonicalizer = canonicalizer;
+		}
+
+	}
+
+}
@@ -22,6 +22,9 @@ package eu.europa.esig.dss.xades.validation;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.io.StringReader;
 import java.math.BigInteger;
 import java.security.PublicKey;
@@ -46,7 +49,9 @@ import org.apache.xml.security.signature.Reference;
 import org.apache.xml.security.signature.SignedInfo;
 import org.apache.xml.security.signature.XMLSignature;
 import org.apache.xml.security.signature.XMLSignatureException;
+import org.apache.xml.security.signature.XMLSignatureInput;
 import org.apache.xml.security.utils.XMLUtils;
+import org.apache.xml.security.utils.resolver.ResourceResolverSpi;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -65,6 +70,7 @@ import org.w3c.dom.NodeList;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.MessageDigestOutputStream;
 import eu.europa.esig.dss.Digest;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.DomUtils;
@@ -156,6 +162,11 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 
 	private List<ReferenceValidation> referenceValidations;
 
+	/**
+	 * Resolver of the content which is not available in the DOM (streaming validation)
+	 */
+	private ResourceResolverSpi contentResolver;
+
 	static {
 
 		SantuarioInitializer.init();
@@ -222,6 +233,17 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		initialiseSettings();
 	}
 
+	/**
+	 * Sets the resolver of the signed content which is not part of the signature DOM (used by the streaming
+	 * validation where the enveloping document is not loaded in memory)
+	 * 
+	 * @param contentResolver
+	 *            the resolver with the highest priority
+	 */
+	void setContentResolver(final ResourceResolverSpi contentResolver) {
+		this.contentResolver = contentResolver;
+	}
+
 	/**
 	 * This method is called when creating a new instance of the {@code XAdESSignature} with unknown schema.
 	 */
@@ -842,11 +864,58 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 
 	@Override
 	public byte[] getContentTimestampData(final TimestampToken timestampToken) {
-		final TimestampType timeStampType = timestampToken.getTimeStampType();
-		if (timeStampType != TimestampType.INDIVIDUAL_DATA_OBJECTS_TIMESTAMP && timeStampType != TimestampType.ALL_DATA_OBJECTS_TIMESTAMP) {
+		if (!isContentTimestamp(timestampToken)) {
 			return null;
 		}
 
+		try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+			if (!writeContentTimestampData(timestampToken, outputStream)) {
+				return null;
+			}
+
+			byte[] byteArray = outputStream.toByteArray();
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("IndividualDataObjectsTimestampData/AllDataObjectsTimestampData bytes: {}", new String(byteArray));
+			}
+			return byteArray;
+		} catch (IOException | XMLSecurityException e) {
+			throw new DSSException("Unable to extract IndividualDataObjectsTimestampData/AllDataObjectsTimestampData", e);
+		}
+
+	}
+
+	@Override
+	protected void matchContentTimestampData(final TimestampToken timestampToken) {
+		if (!isContentTimestamp(timestampToken)) {
+			timestampToken.matchData(null);
+			return;
+		}
+
+		final MessageDigestOutputStream digestStream = new MessageDigestOutputStream(timestampToken.getSignedDataDigestAlgo());
+		try {
+			if (!writeContentTimestampData(timestampToken, digestStream)) {
+				// the detached content is only known by its digest
+				timestampToken.matchData(null);
+				return;
+			}
+		} catch (IOException | XMLSecurityException e) {
+			throw new DSSException("Unable to extract IndividualDataObjectsTimestampData/AllDataObjectsTimestampData", e);
+		}
+		timestampToken.matchDigest(digestStream.getDigestValue());
+	}
+
+	private boolean isContentTimestamp(final TimestampToken timestampToken) {
+		final TimestampType timeStampType = timestampToken.getTimeStampType();
+		return timeStampType == TimestampType.INDIVIDUAL_DATA_OBJECTS_TIMESTAMP || timeStampType == TimestampType.ALL_DATA_OBJECTS_TIMESTAMP;
+	}
+
+	/**
+	 * Writes the (canonicalized) content of the references covered by the given content timestamp.
+	 * 
+	 * @return false if the content of a reference is not available (detached content given as digest)
+	 */
+	private boolean writeContentTimestampData(final TimestampToken timestampToken, final OutputStream outputStream)
+			throws IOException, XMLSecurityException {
 		if (!checkTimestampTokenIncludes(timestampToken)) {
 			throw new DSSException("The Included referencedData attribute is either not present or set to false!");
 		}
@@ -854,33 +923,97 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 			throw new DSSException("The method 'checkSignatureIntegrity' must be invoked first!");
 		}
 
+		final TimestampType timeStampType = timestampToken.getTimeStampType();
 		final String canonicalizationMethod = timestampToken.getCanonicalizationMethod();
 		final List<TimestampInclude> includes = timestampToken.getTimestampIncludes();
 
-		try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
-			for (final Reference reference : references) {
-				if (isContentTimestampedReference(reference, timeStampType, includes)) {
-					byte[] referencedBytes = reference.getReferencedBytes();
-					if (Utils.isStringNotBlank(canonicalizationMethod) && DomUtils.isDOM(referencedBytes)) {
-						referencedBytes = DSSXMLUtils.canonicalize(canonicalizationMethod, referencedBytes);
-					}
-					if (LOG.isTraceEnabled()) {
-						LOG.trace("ReferencedBytes : {}", new String(referencedBytes));
+		for (final Reference reference : references) {
+			if (isContentTimestampedReference(reference, timeStampType, includes)) {
+				if (Utils.isStringBlank(canonicalizationMethod)) {
+					if (!writeReferencedContent(reference, outputStream)) {
+						return false;
 					}
-					outputStream.write(referencedBytes);
+					continue;
+				}
+				final XMLSignatureInput content = reference.getContentsAfterTransformation();
+				if (content.isPreCalculatedDigest()) {
+					return false;
+				}
+				if (content.isOctetStream()) {
+					writeCanonicalizedContent(content.getOctetStream(), canonicalizationMethod, outputStream);
+				} else {
+					writeCanonicalizedContent(content.getBytes(), canonicalizationMethod, outputStream);
 				}
 			}
+		}
+		return true;
+	}
 
-			byte[] byteArray = outputStream.toByteArray();
-			if (LOG.isTraceEnabled()) {
-				LOG.trace("IndividualDataObjectsTimestampData/AllDataObjectsTimestampData bytes: {}", new String(byteArray));
+	/**
+	 * Only an XML content can be canonicalized : a binary content (which does not start as an XML document) is
+	 * written as it is read, the other contents are parsed.
+	 */
+	private void writeCanonicalizedContent(final InputStream content, final String canonicalizationMethod, final OutputStream outputStream)
+			throws IOException {
+		try (PushbackInputStream is = new PushbackInputStream(content, 1)) {
+			final int first = is.read();
+			if (first == -1) {
+				return;
 			}
-			return byteArray;
-		} catch (IOException | XMLSecurityException e) {
-			throw new DSSException("Unable to extract IndividualDataObjectsTimestampData/AllDataObjectsTimestampData", e);
+			is.unread(first);
+			if (isPossibleXmlStart(first)) {
+				writeCanonicalizedContent(Utils.toByteArray(is), canonicalizationMethod, outputStream);
+			} else {
+				Utils.copy(is, outputStream);
+			}
+		}
+	}
+
+	private void writeCanonicalizedContent(byte[] referencedBytes, final String canonicalizationMethod, final OutputStream outputStream)
+			throws IOException {
+		if (DomUtils.isDOM(referencedBytes)) {
+			referencedBytes = DSSXMLUtils.canonicalize(canonicalizationMethod, referencedBytes);
+		}
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("ReferencedBytes : {}", new String(referencedBytes));
 		}
+		outputStream.write(referencedBytes);
+	}
 
+	/**
+	 * An XML document starts with '<', a white space, a byte order mark or a NUL byte (UTF-16/32)
+	 */
+	private boolean isPossibleXmlStart(int first) {
+		switch (first) {
+		case '<':
+		case ' ':
+		case '\t':
+		case '\r':
+		case '\n':
+		case 0x00:
+		case 0xEF:
+		case 0xFE:
+		case 0xFF:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the content of the reference after the transforms, without the intermediate byte array of
+	 * {@code Reference.getReferencedBytes()} : an octet stream is copied by chunks, a node set is canonicalized to the
+	 * output stream.
+	 * 
+	 * @return false if only the digest of the content is known (detached content given as digest)
+	 */
+	private boolean writeReferencedContent(final Reference reference, final OutputStream outputStream) throws IOException, XMLSecurityException {
+		final XMLSignatureInput content = reference.getContentsAfterTransformation();
+		if (content.isPreCalculatedDigest()) {
+			return false;
+		}
+		content.updateOutputStream(outputStream);
+		return true;
 	}
 
 	private boolean isContentTimestampedReference(Reference reference, TimestampType timeStampType, List<TimestampInclude> includes) {
@@ -1320,6 +1453,9 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 			DSSXMLUtils.recursiveIdBrowse(rootElement);
 
 			final XMLSignature santuarioSignature = new XMLSignature(signatureElement, "");
+			if (contentResolver != null) {
+				santuarioSignature.addResourceResolver(contentResolver);
+			}
 			if (Utils.isCollectionNotEmpty(detachedContents)) {
 				santuarioSignature.addResourceResolver(new DetachedSignatureResolver(detachedContents, getSignatureAlgorithm().getDigestAlgorithm()));
 			}
@@ -1620,6 +1756,32 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 	 */
 	@Override
 	public byte[] getArchiveTimestampData(final TimestampToken timestampToken, String canonicalizationMethod) {
+		try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
+			writeArchiveTimestampData(timestampToken, canonicalizationMethod, buffer);
+			return buffer.toByteArray();
+		} catch (IOException e) {
+			throw new DSSException("Error when computing the archive data", e);
+		}
+	}
+
+	@Override
+	protected void matchArchiveTimestampData(final TimestampToken timestampToken) {
+		final MessageDigestOutputStream digestStream = new MessageDigestOutputStream(timestampToken.getSignedDataDigestAlgo());
+		writeArchiveTimestampData(timestampToken, timestampToken.getCanonicalizationMethod(), digestStream);
+		timestampToken.matchDigest(digestStream.getDigestValue());
+	}
+
+	/**
+	 * Writes the data to be used to calculate the hash value sent to the TSA (messageImprint).
+	 *
+	 * @param timestampToken
+	 *            {@code TimestampToken} to validate, or {@code null} when adding a new archive timestamp
+	 * @param canonicalizationMethod
+	 *            the canonicalization method to use
+	 * @param buffer
+	 *            the {@code OutputStream} which receives the canonicalized and concatenated timestamped data
+	 */
+	private void writeArchiveTimestampData(final TimestampToken timestampToken, String canonicalizationMethod, final OutputStream buffer) {
 
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("--->Get archive timestamp data:" + (timestampToken == null ? "--> CREATION" : "--> VALIDATION"));
@@ -1635,7 +1797,7 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		 *
 		 * 1) Initialize the final octet stream as an empty octet stream.
 		 */
-		try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
+		try {
 
 			/**
 			 * 2) Take all the ds:Reference elements in their order of appearance within ds:SignedInfo referencing
@@ -1655,10 +1817,7 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 			for (final Reference reference : references) {
 				referenceURIs.add(cleanURI(reference.getURI()));
 				try {
-					final byte[] referencedBytes = reference.getReferencedBytes();
-					if (referencedBytes != null) {
-						buffer.write(referencedBytes);
-					} else {
+					if (!writeReferencedContent(reference, buffer)) {
 						LOG.warn("No binaries found for URI '{}'", reference.getURI());
 					}
 				} catch (XMLSecurityException e) {
@@ -1814,7 +1973,6 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 				byte[] canonicalizedValue = DSSXMLUtils.canonicalizeOrSerializeSubtree(canonicalizationMethod, node);
 				buffer.write(canonicalizedValue);
 			}
-			return buffer.toByteArray();
 		} catch (IOException e) {
 			throw new DSSException("Error when computing the archive data", e);
 		}
@@ -1833,7 +1991,7 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		return uri;
 	}
 
-	private void writeCanonicalizedValue(final String xPathString, final String canonicalizationMethod, final ByteArrayOutputStream buffer) throws IOException {
+	private void writeCanonicalizedValue(final String xPathString, final String canonicalizationMethod, final OutputStream buffer) throws IOException {
 		final Element element = DomUtils.getElement(signatureElement, xPathString);
 		if (element != null) {
 			buffer.write(DSSXMLUtils.canonicalizeOrSerializeSubtree(canonicalizationMethod, element));
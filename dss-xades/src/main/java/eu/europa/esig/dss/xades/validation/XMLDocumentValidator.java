@@ -103,6 +103,17 @@ public class XMLDocumentValidator extends SignedDocumentValidator {
 
 	@Override
 	public boolean isSupported(DSSDocument dssDocument) {
+		return isXmlDocument(dssDocument);
+	}
+
+	/**
+	 * Checks if the document is an XML document (from its mime-type, its name or its preamble)
+	 * 
+	 * @param dssDocument
+	 *            the document to be checked
+	 * @return true if the document is an XML document
+	 */
+	static boolean isXmlDocument(DSSDocument dssDocument) {
 		final MimeType documentMimeType = dssDocument.getMimeType();
 		if ((documentMimeType != null) && MimeType.XML.equals(documentMimeType)) {
 			return true;
@@ -0,0 +1,62 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Receives the events of the signed document read by the {@code StreamingXMLDocumentValidator}. It allows to extract
+ * data from the document in the same pass as the signatures.
+ * 
+ * The reader is shared with the validator : the listener can read the current event but must not move the reader.
+ */
+public interface XMLStreamListener {
+
+	/**
+	 * Called on each start element (the name, the namespaces and the attributes are available from the reader)
+	 * 
+	 * @param reader
+	 *            the reader positioned on the start element
+	 */
+	void startElement(XMLStreamReader reader);
+
+	/**
+	 * Called on each end element
+	 * 
+	 * @param reader
+	 *            the reader positioned on the end element
+	 */
+	void endElement(XMLStreamReader reader);
+
+	/**
+	 * Called on each text node (an element text can be split in several calls)
+	 * 
+	 * @param text
+	 *            the text
+	 */
+	void characters(String text);
+
+	/**
+	 * Called at the end of the document
+	 */
+	void endDocument();
+
+}
@@ -0,0 +1,128 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.validation.ArchiveDocumentIterator;
+import eu.europa.esig.dss.validation.BulkValidationListener;
+import eu.europa.esig.dss.validation.BulkValidationResult;
+import eu.europa.esig.dss.validation.BulkValidationService;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class BulkValidationServiceTest {
+
+	private static final int NB_DOCUMENTS = 10;
+
+	@Test
+	public void validateDocuments() {
+		List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		for (int i = 0; i < NB_DOCUMENTS; i++) {
+			documents.add(new InMemoryDocument(DSSUtils.toByteArray(new FileDocument("src/test/resources/validation/dss-signed.xml")), "doc" + i + ".xml"));
+		}
+		documents.add(new InMemoryDocument("not a signature".getBytes(), "invalid.txt"));
+
+		CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		BulkValidationService service = new BulkValidationService(certificateVerifier);
+		service.setNbThreads(3);
+
+		RecordingListener listener = new RecordingListener();
+		BulkValidationResult result = service.validate(documents.iterator(), null, listener);
+
+		assertEquals(NB_DOCUMENTS + 1, result.getSubmitted());
+		assertEquals(NB_DOCUMENTS, result.getValidated());
+		assertEquals(1, result.getFailed());
+		assertEquals(NB_DOCUMENTS, listener.reports.size());
+		assertEquals(1, listener.errors.size());
+		assertTrue(listener.errors.containsKey("invalid.txt"));
+
+		// same result as a single validation
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(documents.get(0));
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		Reports expected = validator.validateDocument();
+		for (Reports reports : listener.reports.values()) {
+			assertEquals(expected.getSimpleReport().getIndication(expected.getSimpleReport().getFirstSignatureId()),
+					reports.getSimpleReport().getIndication(reports.getSimpleReport().getFirstSignatureId()));
+		}
+		// the configuration of the caller is not modified
+		assertNull(certificateVerifier.getSignatureCRLSource());
+	}
+
+	@Test
+	public void validateArchive() throws IOException {
+		byte[] signature = DSSUtils.toByteArray(new FileDocument("src/test/resources/validation/dss-signed.xml"));
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+			zos.putNextEntry(new ZipEntry("folder/"));
+			for (int i = 0; i < NB_DOCUMENTS; i++) {
+				zos.putNextEntry(new ZipEntry("folder/doc" + i + ".xml"));
+				zos.write(signature);
+			}
+		}
+
+		BulkValidationService service = new BulkValidationService(new CommonCertificateVerifier());
+		RecordingListener listener = new RecordingListener();
+		try (ArchiveDocumentIterator documents = new ArchiveDocumentIterator(new InMemoryDocument(baos.toByteArray(), "archive.zip"))) {
+			BulkValidationResult result = service.validate(documents, null, listener);
+			assertEquals(NB_DOCUMENTS, result.getValidated());
+		}
+		assertEquals(NB_DOCUMENTS, listener.reports.size());
+		assertTrue(listener.reports.containsKey("folder/doc0.xml"));
+	}
+
+	private static class RecordingListener implements BulkValidationListener {
+
+		private final Map<String, Reports> reports = new ConcurrentHashMap<String, Reports>();
+
+		private final Map<String, Exception> errors = new ConcurrentHashMap<String, Exception>();
+
+		@Override
+		public void onValidated(DSSDocument document, Reports reports) {
+			this.reports.put(document.getName(), reports);
+		}
+
+		@Override
+		public void onError(DSSDocument document, Exception e) {
+			errors.put(document.getName(), e);
+		}
+
+	}
+
+}
@@ -0,0 +1,86 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.DiagnosticDataValidator;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.ValidationResourceManager;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class DiagnosticDataValidatorTest {
+
+	private static Reports reports;
+
+	@BeforeClass
+	public static void init() {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(new FileDocument("src/test/resources/validation/dss-signed.xml"));
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		reports = validator.validateDocument();
+	}
+
+	@Test
+	public void sameReportsFromXml() throws Exception {
+		DiagnosticDataValidator diagnosticDataValidator = new DiagnosticDataValidator();
+		Reports revalidated = diagnosticDataValidator.validate(new ByteArrayInputStream(reports.getXmlDiagnosticData().getBytes("UTF-8")), null, null);
+
+		assertEquals(reports.getXmlDetailedReport(), revalidated.getXmlDetailedReport());
+		assertEquals(reports.getXmlSimpleReport(), revalidated.getXmlSimpleReport());
+	}
+
+	@Test
+	public void sameReportsFromCompactForm() throws Exception {
+		byte[] compactForm = DiagnosticDataValidator.toCompactForm(reports.getDiagnosticDataJaxb());
+		assertTrue(compactForm.length < reports.getXmlDiagnosticData().getBytes("UTF-8").length);
+
+		DiagnosticDataValidator diagnosticDataValidator = new DiagnosticDataValidator();
+		Reports revalidated = diagnosticDataValidator.validate(new ByteArrayInputStream(compactForm), null, null);
+
+		assertEquals(reports.getXmlDetailedReport(), revalidated.getXmlDetailedReport());
+	}
+
+	@Test
+	public void otherPolicyAndValidationTime() throws Exception {
+		Date validationTime = new Date(reports.getDiagnosticDataJaxb().getValidationDate().getTime() + 1000);
+
+		DiagnosticDataValidator diagnosticDataValidator = new DiagnosticDataValidator();
+		diagnosticDataValidator.setValidationLevel(ValidationLevel.BASIC_SIGNATURES);
+		Reports revalidated = diagnosticDataValidator.validate(
+				DiagnosticDataValidator.loadDiagnosticData(new ByteArrayInputStream(DiagnosticDataValidator.toCompactForm(reports.getDiagnosticDataJaxb()))),
+				new EtsiValidationPolicy(ValidationResourceManager.loadPolicyData(null)), validationTime);
+
+		assertEquals(validationTime, revalidated.getSimpleReport().getValidationTime());
+		assertEquals(reports.getSimpleReport().getSignatureIdList(), revalidated.getSimpleReport().getSignatureIdList());
+	}
+
+}
@@ -0,0 +1,347 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.validation.AdvancedSignature;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.ReferenceValidation;
+import eu.europa.esig.dss.validation.SignatureCryptographicVerification;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+
+public class StreamingXMLDocumentValidatorTest {
+
+	private static final String XML = "<?xml version=\"1.0\"?>\n<?first pi?>\n<!-- comment -->\n"
+			+ "<root xmlns=\"urn:default\" xmlns:b=\"urn:b\" xmlns:a=\"urn:a\" xml:lang=\"en\" z=\"1\" b:y=\"2\" a:x=\"3&#xA;&amp;\">"
+			+ "<a:child xmlns:a=\"urn:a\" xmlns:unused=\"urn:unused\">text &amp; &lt; &gt; &#xD;</a:child>"
+			+ "<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"><ds:SignedInfo/></ds:Signature>"
+			+ "<empty xmlns=\"\"><inner/></empty><![CDATA[<cdata>]]><!-- inner comment --></root>\n<?last pi?>\n";
+
+	@Test
+	public void inclusiveCanonicalization() throws Exception {
+		assertArrayEquals(santuarioCanonicalization(Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS, null),
+				streamingCanonicalization(false, Collections.<String> emptySet()));
+	}
+
+	@Test
+	public void exclusiveCanonicalization() throws Exception {
+		assertArrayEquals(santuarioCanonicalization(Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS, null),
+				streamingCanonicalization(true, Collections.<String> emptySet()));
+		assertArrayEquals(santuarioCanonicalization(Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS, "#default b"),
+				streamingCanonicalization(true, new HashSet<String>(Arrays.asList("#default", "b"))));
+	}
+
+	@Test
+	public void sameResultsAsDomValidation() {
+		for (String filename : Arrays.asList("dss-signed.xml", "dss-signed-altered-refRemoved.xml", "TEST_S1a_C1a_InTL_VALID.xml", "valid-xades.xml", "10963_signed.xml", "11068_signed.xml")) {
+			DSSDocument document = new FileDocument(new File("src/test/resources/validation/" + filename));
+
+			List<AdvancedSignature> domSignatures = getSignatures(new XMLDocumentValidator(document));
+			List<AdvancedSignature> streamingSignatures = getSignatures(new StreamingXMLDocumentValidator(document));
+			assertEquals(filename, domSignatures.size(), streamingSignatures.size());
+
+			for (int i = 0; i < domSignatures.size(); i++) {
+				AdvancedSignature domSignature = domSignatures.get(i);
+				AdvancedSignature streamingSignature = streamingSignatures.get(i);
+				assertEquals(filename, domSignature.getId(), streamingSignature.getId());
+
+				domSignature.checkSignatureIntegrity();
+				streamingSignature.checkSignatureIntegrity();
+				SignatureCryptographicVerification domVerification = domSignature.getSignatureCryptographicVerification();
+				SignatureCryptographicVerification streamingVerification = streamingSignature.getSignatureCryptographicVerification();
+				assertEquals(filename, domVerification.isReferenceDataFound(), streamingVerification.isReferenceDataFound());
+				assertEquals(filename, domVerification.isReferenceDataIntact(), streamingVerification.isReferenceDataIntact());
+				assertEquals(filename, domVerification.isSignatureIntact(), streamingVerification.isSignatureIntact());
+
+				List<ReferenceValidation> domReferences = domSignature.getReferenceValidations();
+				List<ReferenceValidation> streamingReferences = streamingSignature.getReferenceValidations();
+				assertEquals(filename, domReferences.size(), streamingReferences.size());
+				for (int j = 0; j < domReferences.size(); j++) {
+					assertEquals(filename, domReferences.get(j).isFound(), streamingReferences.get(j).isFound());
+					assertEquals(filename, domReferences.get(j).isIntact(), streamingReferences.get(j).isIntact());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void envelopedDigestInFirstPass() {
+		for (String filename : Arrays.asList("TSL-CY-sign.xml", "TSL-noID.xml", "XSW-enveloped-fake-signedProperties.xml")) {
+			DSSDocument document = new FileDocument(new File("src/test/resources/validation/xsw/" + filename));
+
+			List<AdvancedSignature> domSignatures = getSignatures(new XMLDocumentValidator(document));
+
+			CountingDocument countingDocument = new CountingDocument(document);
+			ElementsCounter counter = new ElementsCounter();
+			StreamingXMLDocumentValidator streamingValidator = new StreamingXMLDocumentValidator(countingDocument);
+			streamingValidator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA256);
+			streamingValidator.setDocumentListener(counter);
+			List<AdvancedSignature> streamingSignatures = getSignatures(streamingValidator);
+			assertEquals(filename, domSignatures.size(), streamingSignatures.size());
+			assertTrue(filename, counter.nbElements > 0);
+			assertTrue(filename, counter.ended);
+
+			for (int i = 0; i < domSignatures.size(); i++) {
+				domSignatures.get(i).checkSignatureIntegrity();
+				streamingSignatures.get(i).checkSignatureIntegrity();
+				SignatureCryptographicVerification domVerification = domSignatures.get(i).getSignatureCryptographicVerification();
+				SignatureCryptographicVerification streamingVerification = streamingSignatures.get(i).getSignatureCryptographicVerification();
+				assertEquals(filename, domVerification.isReferenceDataFound(), streamingVerification.isReferenceDataFound());
+				assertEquals(filename, domVerification.isReferenceDataIntact(), streamingVerification.isReferenceDataIntact());
+				assertEquals(filename, domVerification.isSignatureIntact(), streamingVerification.isSignatureIntact());
+			}
+		}
+	}
+
+	@Test
+	public void trustedListIsReadOnce() {
+		CountingDocument document = new CountingDocument(new FileDocument(new File("src/test/resources/validation/xsw/TSL-CY-sign.xml")));
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(document);
+		validator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA256);
+		List<AdvancedSignature> signatures = getSignatures(validator);
+		assertEquals(1, signatures.size());
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+		assertEquals(1, document.nbOpenings);
+
+		document = new CountingDocument(new FileDocument(new File("src/test/resources/validation/xsw/TSL-CY-sign.xml")));
+		signatures = getSignatures(new StreamingXMLDocumentValidator(document));
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+		assertEquals(2, document.nbOpenings);
+	}
+
+	@Test
+	public void envelopedDigestAlgorithmIsTheOneOfTheReference() {
+		CountingDocument document = new CountingDocument(new FileDocument(new File("src/test/resources/validation/xsw/TSL-CY-sign.xml")));
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(document);
+		validator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA512, DigestAlgorithm.SHA256, DigestAlgorithm.SHA384);
+		List<AdvancedSignature> signatures = getSignatures(validator);
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+		assertEquals(1, document.nbOpenings);
+
+		// another algorithm than the one of the reference : the digest is computed in a second pass
+		document = new CountingDocument(new FileDocument(new File("src/test/resources/validation/xsw/TSL-CY-sign.xml")));
+		validator = new StreamingXMLDocumentValidator(document);
+		validator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA512);
+		signatures = getSignatures(validator);
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+		assertEquals(2, document.nbOpenings);
+	}
+
+	@Test
+	public void alteredTrustedListIsDetectedInFirstPass() {
+		String xml = new String(DSSUtils.toByteArray(new FileDocument(new File("src/test/resources/validation/xsw/TSL-CY-sign.xml"))), StandardCharsets.UTF_8);
+		String altered = xml.replace("Department of Electronic Communications", "Department of Electronic Communication");
+		assertFalse(xml.equals(altered));
+
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(new InMemoryDocument(altered.getBytes(StandardCharsets.UTF_8)));
+		validator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA256);
+		List<AdvancedSignature> signatures = getSignatures(validator);
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataFound());
+		assertFalse(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+	}
+
+	@Test
+	public void secondSignatureDisablesTheFirstPassDigest() {
+		String xml = new String(DSSUtils.toByteArray(new FileDocument(new File("src/test/resources/validation/xsw/TSL-CY-sign.xml"))), StandardCharsets.UTF_8);
+		int rootEnd = xml.lastIndexOf("</");
+		String injected = xml.substring(0, rootEnd) + "<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"/>" + xml.substring(rootEnd);
+
+		CountingDocument document = new CountingDocument(new InMemoryDocument(injected.getBytes(StandardCharsets.UTF_8)));
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(document);
+		validator.setEnvelopedDigestAlgorithms(DigestAlgorithm.SHA256);
+		List<AdvancedSignature> signatures = getSignatures(validator);
+		assertEquals(2, signatures.size());
+		signatures.get(0).checkSignatureIntegrity();
+		// the digest computed without the two signatures is not used : the signed content is not intact
+		assertFalse(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+		assertEquals(2, document.nbOpenings);
+	}
+
+	@Test
+	public void envelopedSignatureIsValid() {
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(
+				new FileDocument(new File("src/test/resources/validation/dss-signed.xml")));
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		List<AdvancedSignature> signatures = validator.getSignatures();
+		assertEquals(1, signatures.size());
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isSignatureIntact());
+	}
+
+	@Test
+	public void alteredContentIsDetected() {
+		String xml = new String(DSSUtils.toByteArray(new FileDocument(new File("src/test/resources/validation/dss-signed.xml"))), StandardCharsets.UTF_8);
+		assertTrue(xml.contains("<h:td>World</h:td>"));
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(
+				new InMemoryDocument(xml.replace("<h:td>World</h:td>", "<h:td>Word</h:td>").getBytes(StandardCharsets.UTF_8)));
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		List<AdvancedSignature> signatures = validator.getSignatures();
+		signatures.get(0).checkSignatureIntegrity();
+		assertTrue(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataFound());
+		assertFalse(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataIntact());
+	}
+
+	@Test
+	public void unsupportedTransformsAreNotFound() {
+		// XPath Filter 2.0
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(
+				new FileDocument(new File("src/test/resources/validation/xades-ecc-brainpool.xml")));
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		List<AdvancedSignature> signatures = validator.getSignatures();
+		assertEquals(1, signatures.size());
+		signatures.get(0).checkSignatureIntegrity();
+		assertFalse(signatures.get(0).getSignatureCryptographicVerification().isReferenceDataFound());
+	}
+
+	private List<AdvancedSignature> getSignatures(SignedDocumentValidator validator) {
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		return validator.getSignatures();
+	}
+
+	private byte[] santuarioCanonicalization(String algorithm, String inclusiveNamespaces) throws Exception {
+		Document dom = DomUtils.buildDOM(XML);
+		Element signature = DomUtils.getElement(dom, "//ds:Signature");
+		signature.getParentNode().removeChild(signature);
+		Canonicalizer canonicalizer = Canonicalizer.getInstance(algorithm);
+		if (inclusiveNamespaces == null) {
+			return canonicalizer.canonicalizeSubtree(dom);
+		}
+		return canonicalizer.canonicalizeSubtree(dom, inclusiveNamespaces);
+	}
+
+	private byte[] streamingCanonicalization(boolean exclusive, Set<String> inclusivePrefixes) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(baos, exclusive, inclusivePrefixes,
+				new StreamingCanonicalizer.ExcludedElements() {
+
+					@Override
+					public boolean isExcluded(XMLStreamReader reader, int elementIndex) {
+						return "Signature".equals(reader.getLocalName());
+					}
+
+				});
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)));
+		int elementIndex = 0;
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				canonicalizer.startElement(reader, elementIndex++);
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				canonicalizer.endElement(reader);
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+				canonicalizer.characters(reader.getText());
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				canonicalizer.processingInstruction(reader.getPITarget(), reader.getPIData());
+				break;
+			default:
+				break;
+			}
+		}
+		canonicalizer.endDocument();
+		reader.close();
+		return baos.toByteArray();
+	}
+
+	private static final class CountingDocument extends InMemoryDocument {
+
+		private int nbOpenings;
+
+		private CountingDocument(DSSDocument document) {
+			super(DSSUtils.toByteArray(document));
+		}
+
+		@Override
+		public InputStream openStream() {
+			nbOpenings++;
+			return super.openStream();
+		}
+
+	}
+
+	private static final class ElementsCounter implements XMLStreamListener {
+
+		private int nbElements;
+		private int depth;
+		private boolean ended;
+
+		@Override
+		public void startElement(XMLStreamReader reader) {
+			nbElements++;
+			depth++;
+		}
+
+		@Override
+		public void endElement(XMLStreamReader reader) {
+			depth--;
+		}
+
+		@Override
+		public void characters(String text) {
+		}
+
+		@Override
+		public void endDocument() {
+			ended = depth == 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.metrics.NoOpMetricsRecorder;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.metrics.ValidationPhase;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class ValidationMetricsTest {
+
+	private static final DSSDocument DOCUMENT = new FileDocument("src/test/resources/validation/dss-signed.xml");
+
+	@Test
+	public void notRequested() {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(DOCUMENT);
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+
+		Reports reports = validator.validateDocument();
+		assertNull(reports.getValidationMetrics());
+	}
+
+	@Test
+	public void includedInReports() {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(DOCUMENT);
+		CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setIncludeValidationMetrics(true);
+		validator.setCertificateVerifier(certificateVerifier);
+
+		Reports reports = validator.validateDocument();
+		ValidationMetrics metrics = reports.getValidationMetrics();
+		assertNotNull(metrics);
+		assertSame(NoOpMetricsRecorder.INSTANCE, ValidationMetrics.current());
+
+		assertEquals(1, metrics.getPhases().get(ValidationPhase.DOCUMENT_VALIDATION).getCount());
+		assertEquals(1, metrics.getPhases().get(ValidationPhase.VALIDATION_CONTEXT).getCount());
+		assertEquals(1, metrics.getPhases().get(ValidationPhase.SIGNATURE_INTEGRITY).getCount());
+		assertEquals(1, metrics.getPhases().get(ValidationPhase.DIAGNOSTIC_DATA).getCount());
+		assertEquals(1, metrics.getPhases().get(ValidationPhase.POLICY_EXECUTION).getCount());
+		assertTrue(metrics.getCertificatePoolSize() > 0);
+	}
+
+	@Test
+	public void recorder() {
+		final Map<ValidationPhase, Integer> phases = new EnumMap<ValidationPhase, Integer>(ValidationPhase.class);
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(DOCUMENT);
+		CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setMetricsRecorder(new NoOpMetricsRecorder() {
+
+			@Override
+			public void recordPhase(ValidationPhase phase, long durationNanos) {
+				Integer count = phases.get(phase);
+				phases.put(phase, count == null ? 1 : count + 1);
+			}
+
+		});
+		validator.setCertificateVerifier(certificateVerifier);
+
+		Reports reports = validator.validateDocument();
+		assertNull(reports.getValidationMetrics());
+		assertEquals(Integer.valueOf(1), phases.get(ValidationPhase.DOCUMENT_VALIDATION));
+		assertEquals(Integer.valueOf(1), phases.get(ValidationPhase.POLICY_EXECUTION));
+	}
+
+}
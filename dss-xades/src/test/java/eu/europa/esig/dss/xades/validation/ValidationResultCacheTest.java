@@ -0,0 +1,165 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.FileValidationResultStore;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.ValidationResourceManager;
+import eu.europa.esig.dss.validation.ValidationResultCache;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
+
+public class ValidationResultCacheTest {
+
+	@Rule
+	public TemporaryFolder testFolder = new TemporaryFolder();
+
+	private CommonCertificateVerifier certificateVerifier;
+
+	private CommonTrustedCertificateSource trustedSource;
+
+	@Before
+	public void init() {
+		trustedSource = new CommonTrustedCertificateSource();
+		certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setTrustedCertSource(trustedSource);
+	}
+
+	@Test
+	public void secondValidationIsCached() {
+		ValidationResultCache cache = new ValidationResultCache();
+
+		Reports reports = validate(cache);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		Reports cachedReports = validate(cache);
+		assertEquals(1, cache.getHitCount());
+		assertNotSame(reports, cachedReports);
+		assertEquals(reports.getXmlDetailedReport(), cachedReports.getXmlDetailedReport());
+		assertEquals(reports.getXmlSimpleReport(), cachedReports.getXmlSimpleReport());
+	}
+
+	@Test
+	public void trustedSourceChangeInvalidatesTheCache() {
+		ValidationResultCache cache = new ValidationResultCache();
+
+		validate(cache);
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(getSignedDocument());
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		CertificateToken certificate = validator.getSignatures().get(0).getCertificates().get(0);
+		trustedSource.addCertificate(certificate);
+
+		validate(cache);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+
+		validate(cache);
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void expiredEntryIsNotReturned() {
+		ValidationResultCache cache = new ValidationResultCache();
+		cache.setRevocationFreshness(0);
+
+		validate(cache);
+		validate(cache);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void persistentTierIsShared() throws Exception {
+		FileValidationResultStore store = new FileValidationResultStore(testFolder.newFolder("results"));
+
+		ValidationResultCache cache = new ValidationResultCache();
+		cache.setPersistentStore(store);
+		Reports reports = validate(cache);
+
+		ValidationResultCache otherCache = new ValidationResultCache();
+		otherCache.setPersistentStore(store);
+		Reports cachedReports = validate(otherCache);
+		assertEquals(1, otherCache.getHitCount());
+		assertEquals(reports.getXmlSimpleReport(), cachedReports.getXmlSimpleReport());
+	}
+
+	@Test
+	public void validationTimeBucketDefaultsToFreshness() {
+		ValidationResultCache cache = new ValidationResultCache();
+		long freshness = TimeUnit.MINUTES.toMillis(10);
+		cache.setRevocationFreshness(freshness);
+
+		ValidationPolicy policy = new EtsiValidationPolicy(ValidationResourceManager.loadPolicyData(null));
+		Date start = new Date(100 * freshness);
+		Date fiveMinutesLater = new Date(start.getTime() + TimeUnit.MINUTES.toMillis(5));
+		assertEquals(getKey(cache, policy, start), getKey(cache, policy, fiveMinutesLater));
+		assertNotEquals(getKey(cache, policy, start), getKey(cache, policy, new Date(start.getTime() + freshness)));
+
+		cache.setValidationTimeBucket(TimeUnit.MINUTES.toMillis(1));
+		assertNotEquals(getKey(cache, policy, start), getKey(cache, policy, fiveMinutesLater));
+	}
+
+	@Test
+	public void unknownKeyIsNotCached() {
+		assertNull(new ValidationResultCache().get("unknown"));
+	}
+
+	private Reports validate(ValidationResultCache cache) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(getSignedDocument());
+		validator.setCertificateVerifier(certificateVerifier);
+		validator.setValidationResultCache(cache);
+		Reports reports = validator.validateDocument();
+		assertNotNull(reports);
+		return reports;
+	}
+
+	private String getKey(ValidationResultCache cache, ValidationPolicy policy, Date validationTime) {
+		String key = cache.getKey(getSignedDocument(), null, policy, certificateVerifier, validationTime, ValidationLevel.ARCHIVAL_DATA);
+		assertNotNull(key);
+		return key;
+	}
+
+	private FileDocument getSignedDocument() {
+		return new FileDocument("src/test/resources/validation/dss-signed.xml");
+	}
+
+}
@@ -25,7 +25,14 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.jaxb.detailedreport.DetailedReport;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlBasicBuildingBlocks;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlTLAnalysis;
@@ -44,6 +51,8 @@ public abstract class AbstractDetailedReportBuilder {
 	protected final ValidationPolicy policy;
 	protected final Date currentTime;
 
+	private ExecutorService executorService;
+
 	protected AbstractDetailedReportBuilder(DiagnosticData diagnosticData, ValidationPolicy policy, Date currentTime) {
 		this.diagnosticData = diagnosticData;
 		this.policy = policy;
@@ -51,6 +60,21 @@ public abstract class AbstractDetailedReportBuilder {
 
 	}
 
+	/**
+	 * Allows to execute the independent processes (basic building blocks,...) in parallel. The processes only read the
+	 * diagnostic data and the policy, and the results are assembled in the same order as in a sequential execution.
+	 * 
+	 * @param executorService
+	 *            the executor service to be used (not shut down by the builder), or null for a sequential execution
+	 */
+	void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	protected boolean isParallel() {
+		return executorService != null;
+	}
+
 	protected DetailedReport init() {
 		DetailedReport detailedReport = new DetailedReport();
 
@@ -80,11 +104,97 @@ public abstract class AbstractDetailedReportBuilder {
 		return result;
 	}
 
-	protected void process(Set<? extends AbstractTokenProxy> tokensToProcess, Context context, Map<String, XmlBasicBuildingBlocks> bbbs) {
-		for (AbstractTokenProxy token : tokensToProcess) {
-			BasicBuildingBlocks bbb = new BasicBuildingBlocks(diagnosticData, token, currentTime, policy, context);
-			XmlBasicBuildingBlocks result = bbb.execute();
-			bbbs.put(token.getId(), result);
+	protected void process(Set<? extends AbstractTokenProxy> tokensToProcess, final Context context, Map<String, XmlBasicBuildingBlocks> bbbs) {
+		List<AbstractTokenProxy> tokens = new ArrayList<AbstractTokenProxy>(tokensToProcess);
+		List<Callable<XmlBasicBuildingBlocks>> tasks = new ArrayList<Callable<XmlBasicBuildingBlocks>>();
+		for (final AbstractTokenProxy token : tokens) {
+			tasks.add(new Callable<XmlBasicBuildingBlocks>() {
+				@Override
+				public XmlBasicBuildingBlocks call() {
+					BasicBuildingBlocks bbb = new BasicBuildingBlocks(diagnosticData, token, currentTime, policy, context);
+					return bbb.execute();
+				}
+			});
+		}
+		List<XmlBasicBuildingBlocks> results = executeAll(tasks);
+		for (int i = 0; i < tokens.size(); i++) {
+			bbbs.put(tokens.get(i).getId(), results.get(i));
+		}
+	}
+
+	/**
+	 * Executes the given tasks and returns their results in the same order. Without executor service, the tasks are
+	 * executed one after the other in the current thread. Otherwise, the current thread executes tasks with the
+	 * workers, so the execution progresses even if the executor service is busy (eg: validations running in the same
+	 * pool). If several tasks fail, the exception of the first one is thrown.
+	 * 
+	 * @param tasks
+	 *            the independent tasks
+	 * @return the results of the tasks
+	 */
+	protected <T> List<T> executeAll(final List<Callable<T>> tasks) {
+		final int size = tasks.size();
+		List<T> results = new ArrayList<T>(size);
+		if (executorService == null || size < 2) {
+			for (Callable<T> task : tasks) {
+				results.add(call(task));
+			}
+			return results;
+		}
+
+		final AtomicInteger next = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(size);
+		final AtomicReferenceArray<T> values = new AtomicReferenceArray<T>(size);
+		final AtomicReferenceArray<RuntimeException> failures = new AtomicReferenceArray<RuntimeException>(size);
+		Runnable worker = new Runnable() {
+			@Override
+			public void run() {
+				int index;
+				while ((index = next.getAndIncrement()) < size) {
+					try {
+						values.set(index, call(tasks.get(index)));
+					} catch (RuntimeException e) {
+						failures.set(index, e);
+					} finally {
+						done.countDown();
+					}
+				}
+			}
+		};
+
+		int nbWorkers = Math.min(size - 1, Runtime.getRuntime().availableProcessors());
+		for (int i = 0; i < nbWorkers; i++) {
+			try {
+				executorService.execute(worker);
+			} catch (RejectedExecutionException e) {
+				break;
+			}
+		}
+		worker.run();
+
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for the validation processes", e);
+		}
+
+		for (int i = 0; i < size; i++) {
+			if (failures.get(i) != null) {
+				throw failures.get(i);
+			}
+			results.add(values.get(i));
+		}
+		return results;
+	}
+
+	private <T> T call(Callable<T> task) {
+		try {
+			return task.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSException(e);
 		}
 	}
 
@@ -22,8 +22,11 @@ package eu.europa.esig.dss.validation.executor;
 
 import java.util.Date;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 
 import eu.europa.esig.dss.jaxb.simplereport.SimpleReport;
+import eu.europa.esig.dss.metrics.ValidationMetrics;
+import eu.europa.esig.dss.metrics.ValidationPhase;
 import eu.europa.esig.dss.validation.policy.ValidationPolicy;
 import eu.europa.esig.dss.validation.reports.DetailedReport;
 import eu.europa.esig.dss.validation.reports.Reports;
@@ -38,6 +41,8 @@ public class CustomProcessExecutor implements ProcessExecutor<Reports> {
 
 	private ValidationPolicy policy;
 
+	private ExecutorService executorService;
+
 	@Override
 	public void setCurrentTime(Date currentTime) {
 		this.currentTime = currentTime;
@@ -58,6 +63,19 @@ public class CustomProcessExecutor implements ProcessExecutor<Reports> {
 		this.validationLevel = validationLevel;
 	}
 
+	/**
+	 * This method allows to execute the basic building blocks and the validation processes of the different
+	 * signatures in parallel. The detailed report is identical to the one of a sequential execution. The current
+	 * thread takes part in the execution, so the executor service can also be the one which runs the validations.
+	 * 
+	 * @param executorService
+	 *            the executor service to be used (not shut down by the executor), or null for a sequential execution
+	 *            (default)
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
 	@Override
 	public Reports execute() {
 
@@ -66,9 +84,11 @@ public class CustomProcessExecutor implements ProcessExecutor<Reports> {
 		Objects.requireNonNull(currentTime, "The current time is missing");
 		Objects.requireNonNull(validationLevel, "The validation level is missing");
 
+		final long start = System.nanoTime();
 		DiagnosticData diagnosticData = new DiagnosticData(jaxbDiagnosticData);
 
 		DetailedReportBuilder detailedReportBuilder = new DetailedReportBuilder(currentTime, policy, validationLevel, diagnosticData);
+		detailedReportBuilder.setExecutorService(executorService);
 		eu.europa.esig.dss.jaxb.detailedreport.DetailedReport jaxbDetailedReport = detailedReportBuilder.build();
 
 		DetailedReport detailedReportWrapper = new DetailedReport(jaxbDetailedReport);
@@ -76,6 +96,7 @@ public class CustomProcessExecutor implements ProcessExecutor<Reports> {
 		SimpleReportBuilder simpleReportBuilder = new SimpleReportBuilder(currentTime, policy, diagnosticData, detailedReportWrapper);
 		SimpleReport simpleReport = simpleReportBuilder.build();
 
+		ValidationMetrics.phaseCompleted(ValidationPhase.POLICY_EXECUTION, start);
 		return new Reports(jaxbDiagnosticData, jaxbDetailedReport, simpleReport);
 	}
 
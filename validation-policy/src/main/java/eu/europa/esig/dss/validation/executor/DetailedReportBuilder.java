@@ -20,10 +20,14 @@
  */
 package eu.europa.esig.dss.validation.executor;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +37,7 @@ import eu.europa.esig.dss.jaxb.detailedreport.DetailedReport;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlBasicBuildingBlocks;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlConclusion;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlSignature;
+import eu.europa.esig.dss.jaxb.detailedreport.XmlTLAnalysis;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlValidationProcessArchivalData;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlValidationProcessBasicSignatures;
 import eu.europa.esig.dss.jaxb.detailedreport.XmlValidationProcessLongTermData;
@@ -62,56 +67,93 @@ public class DetailedReportBuilder extends AbstractDetailedReportBuilder {
 	DetailedReport build() {
 		DetailedReport detailedReport = init();
 
-		Map<String, XmlBasicBuildingBlocks> bbbs = executeAllBasicBuildingBlocks();
+		final Map<String, XmlBasicBuildingBlocks> bbbs = executeAllBasicBuildingBlocks();
 		detailedReport.getBasicBuildingBlocks().addAll(bbbs.values());
 
-		for (SignatureWrapper signature : diagnosticData.getSignatures()) {
+		final List<XmlTLAnalysis> tlAnalysis = detailedReport.getTLAnalysis();
+		List<SignatureWrapper> signatures = diagnosticData.getSignatures();
+		if (isParallel() && !areSignatureProcessesIndependent(signatures)) {
+			for (SignatureWrapper signature : signatures) {
+				detailedReport.getSignatures().add(validateSignature(signature, bbbs, tlAnalysis));
+			}
+		} else {
+			List<Callable<XmlSignature>> tasks = new ArrayList<Callable<XmlSignature>>();
+			for (final SignatureWrapper signature : signatures) {
+				tasks.add(new Callable<XmlSignature>() {
+					@Override
+					public XmlSignature call() {
+						return validateSignature(signature, bbbs, tlAnalysis);
+					}
+				});
+			}
+			detailedReport.getSignatures().addAll(executeAll(tasks));
+		}
 
-			XmlSignature signatureAnalysis = new XmlSignature();
+		return detailedReport;
+	}
 
-			signatureAnalysis.setId(signature.getId());
-			if (signature.isCounterSignature()) {
-				signatureAnalysis.setCounterSignature(true);
+	/**
+	 * The archival data validation stores the past signature validation of the timestamps in their basic building
+	 * blocks. The signatures can only be processed in parallel if they don't share a timestamp.
+	 */
+	private boolean areSignatureProcessesIndependent(List<SignatureWrapper> signatures) {
+		if (!ValidationLevel.ARCHIVAL_DATA.equals(validationLevel)) {
+			return true;
+		}
+		Set<String> timestampIds = new HashSet<String>();
+		for (SignatureWrapper signature : signatures) {
+			for (TimestampWrapper timestamp : signature.getTimestampList()) {
+				if (!timestampIds.add(timestamp.getId())) {
+					return false;
+				}
 			}
+		}
+		return true;
+	}
 
-			Date bestSignatureTime = currentTime;
-			XmlConclusion conlusion = executeBasicValidation(signatureAnalysis, signature, bbbs);
-
-			if (ValidationLevel.TIMESTAMPS.equals(validationLevel)) {
-				executeTimestampsValidation(signatureAnalysis, signature, bbbs);
-			} else if (ValidationLevel.LONG_TERM_DATA.equals(validationLevel)) {
-				executeTimestampsValidation(signatureAnalysis, signature, bbbs);
-				XmlValidationProcessLongTermData ltvResult = executeLongTermValidation(signatureAnalysis, signature, bbbs);
-				conlusion = ltvResult.getConclusion();
-				bestSignatureTime = ltvResult.getBestSignatureTime();
-			} else if (ValidationLevel.ARCHIVAL_DATA.equals(validationLevel)) {
-				executeTimestampsValidation(signatureAnalysis, signature, bbbs);
-				executeLongTermValidation(signatureAnalysis, signature, bbbs);
-				XmlValidationProcessArchivalData archivalResult = executeArchiveValidation(signatureAnalysis, signature,
-						bbbs);
-				conlusion = archivalResult.getConclusion();
-				bestSignatureTime = archivalResult.getBestSignatureTime();
-			}
+	private XmlSignature validateSignature(SignatureWrapper signature, Map<String, XmlBasicBuildingBlocks> bbbs, List<XmlTLAnalysis> tlAnalysis) {
+		XmlSignature signatureAnalysis = new XmlSignature();
 
-			if (policy.isEIDASConstraintPresent()) {
-				try {
-					CertificateWrapper signingCertificate = diagnosticData.getUsedCertificateById(signature.getSigningCertificateId());
-					if (signingCertificate != null) {
-						CertificateWrapper rootCertificate = diagnosticData.getUsedCertificateById(signingCertificate.getLastChainCertificateId());
+		signatureAnalysis.setId(signature.getId());
+		if (signature.isCounterSignature()) {
+			signatureAnalysis.setCounterSignature(true);
+		}
 
-						SignatureQualificationBlock qualificationBlock = new SignatureQualificationBlock(conlusion, bestSignatureTime, signingCertificate,
-								rootCertificate, detailedReport.getTLAnalysis(), diagnosticData.getLOTLCountryCode());
-						signatureAnalysis.setValidationSignatureQualification(qualificationBlock.execute());
-					}
-				} catch (Exception e) {
-					LOG.error("Unable to determine the signature qualification", e);
+		Date bestSignatureTime = currentTime;
+		XmlConclusion conlusion = executeBasicValidation(signatureAnalysis, signature, bbbs);
+
+		if (ValidationLevel.TIMESTAMPS.equals(validationLevel)) {
+			executeTimestampsValidation(signatureAnalysis, signature, bbbs);
+		} else if (ValidationLevel.LONG_TERM_DATA.equals(validationLevel)) {
+			executeTimestampsValidation(signatureAnalysis, signature, bbbs);
+			XmlValidationProcessLongTermData ltvResult = executeLongTermValidation(signatureAnalysis, signature, bbbs);
+			conlusion = ltvResult.getConclusion();
+			bestSignatureTime = ltvResult.getBestSignatureTime();
+		} else if (ValidationLevel.ARCHIVAL_DATA.equals(validationLevel)) {
+			executeTimestampsValidation(signatureAnalysis, signature, bbbs);
+			executeLongTermValidation(signatureAnalysis, signature, bbbs);
+			XmlValidationProcessArchivalData archivalResult = executeArchiveValidation(signatureAnalysis, signature,
+					bbbs);
+			conlusion = archivalResult.getConclusion();
+			bestSignatureTime = archivalResult.getBestSignatureTime();
+		}
+
+		if (policy.isEIDASConstraintPresent()) {
+			try {
+				CertificateWrapper signingCertificate = diagnosticData.getUsedCertificateById(signature.getSigningCertificateId());
+				if (signingCertificate != null) {
+					CertificateWrapper rootCertificate = diagnosticData.getUsedCertificateById(signingCertificate.getLastChainCertificateId());
+
+					SignatureQualificationBlock qualificationBlock = new SignatureQualificationBlock(conlusion, bestSignatureTime, signingCertificate,
+							rootCertificate, tlAnalysis, diagnosticData.getLOTLCountryCode());
+					signatureAnalysis.setValidationSignatureQualification(qualificationBlock.execute());
 				}
+			} catch (Exception e) {
+				LOG.error("Unable to determine the signature qualification", e);
 			}
-
-			detailedReport.getSignatures().add(signatureAnalysis);
 		}
 
-		return detailedReport;
+		return signatureAnalysis;
 	}
 
 	private XmlConclusion executeBasicValidation(XmlSignature signatureAnalysis, SignatureWrapper signature, Map<String, XmlBasicBuildingBlocks> bbbs) {
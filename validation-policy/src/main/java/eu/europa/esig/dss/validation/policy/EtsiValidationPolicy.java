@@ -60,6 +60,15 @@ public class EtsiValidationPolicy implements ValidationPolicy {
 		this.policy = policy;
 	}
 
+	/**
+	 * Returns the JAXB model of the constraint file
+	 * 
+	 * @return the constraints parameters
+	 */
+	public ConstraintsParameters getConstraintsParameters() {
+		return policy;
+	}
+
 	@Override
 	public Date getAlgorithmExpirationDate(final String algorithm, Context context, SubContext subContext) {
 		CryptographicConstraint signatureCryptographicConstraint = getCertificateCryptographicConstraint(context, subContext);
@@ -31,6 +31,8 @@ import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXB;
@@ -1040,6 +1042,38 @@ public class CustomProcessExecutorTest {
 		executor.execute();
 	}
 
+	@Test
+	public void parallelExecutionGivesSameDetailedReport() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			for (String file : new String[] { "multi-sign.xml", "passed_out_of_bounds_with_timestamps.xml", "counter-signature-diag-data.xml",
+					"diag_data_double_ASIE.xml" }) {
+				for (ValidationLevel level : ValidationLevel.values()) {
+					Reports sequential = execute(file, level, null);
+					Reports parallel = execute(file, level, executorService);
+					assertEquals(file + " " + level, sequential.getXmlDetailedReport(), parallel.getXmlDetailedReport());
+					assertEquals(file + " " + level, sequential.getXmlSimpleReport(), parallel.getXmlSimpleReport());
+				}
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	private Reports execute(String file, ValidationLevel level, ExecutorService executorService) throws Exception {
+		FileInputStream fis = new FileInputStream("src/test/resources/" + file);
+		DiagnosticData diagnosticData = getJAXBObjectFromString(fis, DiagnosticData.class, "/xsd/DiagnosticData.xsd");
+		assertNotNull(diagnosticData);
+
+		CustomProcessExecutor executor = new CustomProcessExecutor();
+		executor.setDiagnosticData(diagnosticData);
+		executor.setValidationPolicy(loadPolicy());
+		executor.setCurrentTime(diagnosticData.getValidationDate());
+		executor.setValidationLevel(level);
+		executor.setExecutorService(executorService);
+		return executor.execute();
+	}
+
 	private void checkReports(Reports reports) {
 		// reports.print();
 		assertNotNull(reports);